@@ -0,0 +1,177 @@
+package com.yowyob.delivery.route.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Count-based circuit breaker.
+ * While CLOSED, the outcome of the last {@code windowSize} calls is recorded;
+ * once at least {@code minimumCalls} are known and the failure rate reaches the
+ * threshold, the breaker OPENs and rejects calls for {@code openDurationNanos}.
+ * It then lets {@code halfOpenCalls} trial calls through (HALF_OPEN): a single
+ * failure re-opens it, all successes close it again.
+ * <p>
+ * Each granted call holds a {@link Permit} remembering the state it was
+ * admitted in. A call admitted before the last state change only counts if the
+ * breaker is CLOSED when it completes; in particular it is never taken for a
+ * HALF_OPEN trial.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, IGNORED
+    }
+
+    /**
+     * A granted call. Exactly one of {@link #onSuccess()}, {@link #onFailure()}
+     * or {@link #onIgnored()} must be called once the call completes; later
+     * calls are ignored.
+     */
+    public final class Permit {
+
+        private final long phase;
+        private boolean released;
+
+        private Permit(long phase) {
+            this.phase = phase;
+        }
+
+        public void onSuccess() {
+            release(this, Outcome.SUCCESS);
+        }
+
+        public void onFailure() {
+            release(this, Outcome.FAILURE);
+        }
+
+        /**
+         * Releases the call without an outcome, when it says nothing about the
+         * remote service (e.g. cancelled by the caller).
+         */
+        public void onIgnored() {
+            release(this, Outcome.IGNORED);
+        }
+    }
+
+    private final String name;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    private State state = State.CLOSED;
+    private int windowPosition;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+    /** Incremented on every state change. */
+    private long phase;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+            long openDurationNanos, int halfOpenCalls) {
+        this.name = name;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDurationNanos;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    /**
+     * Asks permission for a call.
+     *
+     * @return the permit of the call, whose outcome must be reported, or
+     *         {@code null} if the call may not proceed
+     */
+    public synchronized Permit tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return null;
+            }
+            transition(State.HALF_OPEN);
+            halfOpenInFlight = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight + halfOpenSuccesses >= halfOpenCalls) {
+                return null;
+            }
+            halfOpenInFlight++;
+        }
+        return new Permit(phase);
+    }
+
+    private synchronized void release(Permit permit, Outcome outcome) {
+        if (permit.released) {
+            return;
+        }
+        permit.released = true;
+        if (state == State.HALF_OPEN) {
+            if (permit.phase != phase) {
+                // Admitted before this trial period: not one of its trial calls
+                return;
+            }
+            halfOpenInFlight--;
+            if (outcome == Outcome.SUCCESS && ++halfOpenSuccesses >= halfOpenCalls) {
+                resetWindow();
+                transition(State.CLOSED);
+            } else if (outcome == Outcome.FAILURE) {
+                open();
+            }
+            return;
+        }
+        if (state == State.OPEN || outcome == Outcome.IGNORED) {
+            return;
+        }
+        record(outcome == Outcome.FAILURE);
+        if (outcome == Outcome.FAILURE && windowCount >= minimumCalls
+                && (double) windowFailures / windowCount >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        windowPosition = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    private void transition(State next) {
+        if (state != next) {
+            log.warn("Circuit breaker '{}' {} -> {}", name, state, next);
+            state = next;
+            phase++;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.yowyob.delivery.route.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Client for the OSRM route service.
+ * Waypoints are rounded to {@code osrm.cache.precision} decimals, which both
+ * normalises the request and forms the cache key. Responses are served from
+ * the {@link OsrmResponseCache} when possible, and concurrent requests for the
+ * same key share a single remote call.
+ * <p>
+ * Response bodies are never materialised as a String: network buffers are fed
+ * to an {@link OsrmRouteParser} as they arrive, and only the raw bytes are kept
+ * for the disk cache.
+ * <p>
+ * Remote calls are protected by a bulkhead (at most
+ * {@code osrm.resilience.max-concurrent-calls} in flight, excess calls fail
+ * immediately), a per-call deadline and a {@link CircuitBreaker}. Rejected
+ * calls fail with {@link OsrmUnavailableException} so callers can fall back.
+ */
+@Slf4j
+@Component
+public class OsrmClient {
+
+    private final WebClient webClient;
+    private final OsrmResponseCache responseCache;
+    private final String apiUrl;
+    private final int precision;
+    private final Duration timeout;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<String, Mono<OsrmRoute>> inFlight = new ConcurrentHashMap<>();
+
+    public OsrmClient(WebClient.Builder webClientBuilder, OsrmResponseCache responseCache,
+            @Value("${osrm.api-url:http://router.project-osrm.org/route/v1/driving}") String apiUrl,
+            @Value("${osrm.cache.precision:5}") int precision,
+            @Value("${osrm.timeout:3s}") Duration timeout,
+            @Value("${osrm.resilience.max-concurrent-calls:16}") int maxConcurrentCalls,
+            @Value("${osrm.resilience.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${osrm.resilience.minimum-calls:10}") int minimumCalls,
+            @Value("${osrm.resilience.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${osrm.resilience.open-duration:30s}") Duration openDuration,
+            @Value("${osrm.resilience.half-open-calls:3}") int halfOpenCalls) {
+        this.webClient = webClientBuilder.build();
+        this.responseCache = responseCache;
+        this.apiUrl = apiUrl;
+        this.precision = precision;
+        this.timeout = timeout;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker("osrm", slidingWindowSize, minimumCalls, failureRateThreshold,
+                openDuration.toNanos(), halfOpenCalls);
+    }
+
+    /**
+     * @return the current state of the OSRM circuit breaker
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Fetches a driving route through the given waypoints.
+     *
+     * @param waypoints route waypoints as (longitude, latitude) coordinates
+     * @return a Mono emitting the primary route of the OSRM response
+     */
+    public Mono<OsrmRoute> route(List<Coordinate> waypoints) {
+        String coordinates = waypoints.stream()
+                .map(c -> round(c.x) + "," + round(c.y))
+                .collect(Collectors.joining(";"));
+        String url = String.format("%s/%s?overview=full&geometries=geojson", apiUrl, coordinates);
+        return inFlight.computeIfAbsent(url, key -> load(key)
+                .doFinally(signal -> inFlight.remove(key))
+                .cache());
+    }
+
+    private Mono<OsrmRoute> load(String url) {
+        return Mono.fromCallable(() -> responseCache.get(url))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(cached -> cached
+                        .map(body -> {
+                            log.debug("OSRM cache hit: {}", url);
+                            OsrmRouteParser parser = new OsrmRouteParser();
+                            parser.feed(ByteBuffer.wrap(body));
+                            return Mono.just(parser.finish());
+                        })
+                        .orElseGet(() -> fetch(url)));
+    }
+
+    private Mono<OsrmRoute> fetch(String url) {
+        return Mono.defer(() -> {
+            CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+            if (permit == null) {
+                return Mono.error(new OsrmUnavailableException("OSRM circuit breaker is open"));
+            }
+            if (!bulkhead.tryAcquire()) {
+                permit.onIgnored();
+                return Mono.error(new OsrmUnavailableException("Too many concurrent OSRM calls"));
+            }
+            log.info("Requesting OSRM route: {}", url);
+            return webClient.get()
+                    .uri(url)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    .collect(ResponseReader::new, ResponseReader::read)
+                    .timeout(timeout)
+                    .doOnSuccess(body -> permit.onSuccess())
+                    .doOnError(error -> recordFailure(permit, error))
+                    .doOnCancel(permit::onIgnored)
+                    .doFinally(signal -> bulkhead.release());
+        })
+                .flatMap(reader -> {
+                    OsrmRoute route = reader.parser.finish();
+                    return Mono.fromRunnable(() -> responseCache.put(url, reader.raw.toByteArray()))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .thenReturn(route);
+                });
+    }
+
+    /**
+     * Parses network buffers as they arrive while keeping a raw copy for the
+     * disk cache. Each buffer is released once consumed.
+     */
+    private static final class ResponseReader {
+        final OsrmRouteParser parser = new OsrmRouteParser();
+        final ByteArrayOutputStream raw = new ByteArrayOutputStream(8192);
+
+        void read(DataBuffer buffer) {
+            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    ByteBuffer chunk = chunks.next();
+                    if (chunk.hasArray()) {
+                        raw.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+                    } else {
+                        byte[] copy = new byte[chunk.remaining()];
+                        chunk.duplicate().get(copy);
+                        raw.write(copy, 0, copy.length);
+                    }
+                    parser.feed(chunk);
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+    private static void recordFailure(CircuitBreaker.Permit permit, Throwable error) {
+        // A 4xx (e.g. no route between the points) means the service itself is healthy
+        if (error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            permit.onSuccess();
+        } else {
+            permit.onFailure();
+        }
+    }
+
+    private String round(double value) {
+        return BigDecimal.valueOf(value).setScale(precision, RoundingMode.HALF_UP).toPlainString();
+    }
+}
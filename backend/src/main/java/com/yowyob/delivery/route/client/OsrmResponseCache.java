@@ -0,0 +1,172 @@
+package com.yowyob.delivery.route.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed cache of raw OSRM route responses.
+ * Each response is stored as one file named after the SHA-256 of its request
+ * key, so the cache survives restarts. An in-memory LRU index keeps the
+ * number of files bounded; entries older than the TTL (based on the file
+ * modification time) are treated as misses and deleted. All methods perform
+ * blocking file I/O and must be called off the event loop.
+ */
+@Slf4j
+@Component
+public class OsrmResponseCache {
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    public OsrmResponseCache(@Value("${osrm.cache.dir:./data/osrm-cache}") String directory,
+            @Value("${osrm.cache.ttl:7d}") Duration ttl,
+            @Value("${osrm.cache.max-entries:10000}") int maxEntries) {
+        this.directory = Paths.get(directory);
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        loadIndex();
+    }
+
+    /**
+     * Reads a cached response.
+     *
+     * @param key the request key
+     * @return the cached body, or empty if absent or expired
+     */
+    public Optional<byte[]> get(String key) {
+        String name = fileName(key);
+        Long writtenAt;
+        synchronized (index) {
+            writtenAt = index.get(name);
+        }
+        if (writtenAt == null) {
+            return Optional.empty();
+        }
+        if (System.currentTimeMillis() - writtenAt > ttlMillis) {
+            remove(name);
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readAllBytes(directory.resolve(name)));
+        } catch (IOException e) {
+            log.warn("Failed to read cached OSRM response {}: {}", name, e.getMessage());
+            remove(name);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a response, evicting the least recently used entries beyond the
+     * configured size.
+     *
+     * @param key  the request key
+     * @param body the raw response body
+     */
+    public void put(String key, byte[] body) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        String name = fileName(key);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "osrm", ".tmp");
+            Files.write(temp, body);
+            Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to cache OSRM response: {}", e.getMessage());
+            return;
+        }
+        List<String> evicted = new ArrayList<>();
+        synchronized (index) {
+            index.put(name, System.currentTimeMillis());
+            Iterator<String> it = index.keySet().iterator();
+            while (index.size() > maxEntries && it.hasNext()) {
+                evicted.add(it.next());
+                it.remove();
+            }
+        }
+        evicted.forEach(this::deleteFile);
+    }
+
+    /**
+     * @return number of responses currently cached
+     */
+    public int size() {
+        synchronized (index) {
+            return index.size();
+        }
+    }
+
+    private void remove(String name) {
+        synchronized (index) {
+            index.remove(name);
+        }
+        deleteFile(name);
+    }
+
+    private void deleteFile(String name) {
+        try {
+            Files.deleteIfExists(directory.resolve(name));
+        } catch (IOException e) {
+            log.debug("Failed to delete cached OSRM response {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void loadIndex() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> cached = files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(OsrmResponseCache::lastModified))
+                    .toList();
+            for (Path file : cached) {
+                index.put(file.getFileName().toString(), lastModified(file).toMillis());
+            }
+            Iterator<String> it = index.keySet().iterator();
+            while (index.size() > maxEntries && it.hasNext()) {
+                deleteFile(it.next());
+                it.remove();
+            }
+            log.info("Loaded {} cached OSRM responses from {}", index.size(), directory);
+        } catch (IOException e) {
+            log.warn("Failed to scan OSRM cache directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.yowyob.delivery.route.client;
+
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import lombok.Value;
+
+/**
+ * Primary route of an OSRM response.
+ */
+@Value
+public class OsrmRoute {
+
+    /**
+     * Route length in meters.
+     */
+    double distanceMeters;
+
+    /**
+     * Expected travel time in seconds.
+     */
+    double durationSeconds;
+
+    /**
+     * Full-overview geometry as (longitude, latitude) pairs.
+     */
+    CoordinateBuffer geometry;
+}
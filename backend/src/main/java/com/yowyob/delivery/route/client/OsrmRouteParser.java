@@ -0,0 +1,171 @@
+package com.yowyob.delivery.route.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental parser for OSRM {@code /route} responses requested with
+ * {@code geometries=geojson}.
+ * Bytes are pushed as they arrive and consumed with Jackson's non-blocking
+ * parser; only {@code code} and the distance, duration and geometry of the
+ * first route are kept, with coordinates written straight into a
+ * {@link CoordinateBuffer}. No intermediate String or JSON tree is built.
+ * Instances are single-use and not thread-safe.
+ */
+public final class OsrmRouteParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Container depth at which each part of the document lives
+    private static final int ROOT = 1;
+    private static final int ROUTE = 3;
+    private static final int GEOMETRY = 4;
+    private static final int COORDINATES = 5;
+    private static final int POINT = 6;
+
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final CoordinateBuffer coordinates = new CoordinateBuffer(256);
+
+    private int depth;
+    private String rootField;
+    private String routeField;
+    private String geometryField;
+    private int routeIndex = -1;
+    private int pointOrdinate;
+    private double pointX;
+    private double pointY;
+
+    private String code;
+    private double distance = Double.NaN;
+    private double duration = Double.NaN;
+
+    public OsrmRouteParser() {
+        try {
+            parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Consumes the next chunk of the response. The buffer is fully read before
+     * this method returns, so it can be released afterwards.
+     *
+     * @param chunk bytes of the response body
+     */
+    public void feed(ByteBuffer chunk) {
+        try {
+            feeder.feedInput(chunk);
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed OSRM response", e);
+        }
+    }
+
+    /**
+     * Signals the end of the body and returns the parsed route.
+     *
+     * @return the primary route
+     * @throws IllegalStateException if OSRM reported an error or returned no
+     *                               route
+     */
+    public OsrmRoute finish() {
+        try {
+            feeder.endOfInput();
+            drain();
+            parser.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed OSRM response", e);
+        }
+        if (code != null && !"Ok".equals(code)) {
+            throw new IllegalStateException("OSRM returned " + code);
+        }
+        if (routeIndex < 0) {
+            throw new IllegalStateException("No route found by OSRM");
+        }
+        return new OsrmRoute(Double.isNaN(distance) ? 0.0 : distance, Double.isNaN(duration) ? 0.0 : duration,
+                coordinates);
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT -> {
+                    depth++;
+                    if (depth == ROUTE && "routes".equals(rootField)) {
+                        routeIndex++;
+                    }
+                }
+                case START_ARRAY -> {
+                    depth++;
+                    if (depth == POINT) {
+                        pointOrdinate = 0;
+                    }
+                }
+                case END_OBJECT -> depth--;
+                case END_ARRAY -> {
+                    if (depth == POINT && inFirstRouteCoordinates() && pointOrdinate >= 2) {
+                        coordinates.add(pointX, pointY);
+                    }
+                    depth--;
+                }
+                case FIELD_NAME -> onField(parser.currentName());
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> onNumber();
+                case VALUE_STRING -> {
+                    if (depth == ROOT && "code".equals(rootField)) {
+                        code = parser.getText();
+                    }
+                }
+                default -> {
+                    // Booleans, nulls and embedded objects are not needed
+                }
+            }
+        }
+    }
+
+    private void onField(String name) {
+        switch (depth) {
+            case ROOT -> rootField = name;
+            case ROUTE -> routeField = name;
+            case GEOMETRY -> geometryField = name;
+            default -> {
+                // Deeper fields (legs, steps, ...) are ignored
+            }
+        }
+    }
+
+    private void onNumber() throws IOException {
+        if (depth == POINT) {
+            if (inFirstRouteCoordinates()) {
+                double value = parser.getDoubleValue();
+                if (pointOrdinate == 0) {
+                    pointX = value;
+                } else if (pointOrdinate == 1) {
+                    pointY = value;
+                }
+                pointOrdinate++;
+            }
+        } else if (depth == ROUTE && routeIndex == 0 && "routes".equals(rootField)) {
+            if ("distance".equals(routeField)) {
+                distance = parser.getDoubleValue();
+            } else if ("duration".equals(routeField)) {
+                duration = parser.getDoubleValue();
+            }
+        }
+    }
+
+    private boolean inFirstRouteCoordinates() {
+        return routeIndex == 0 && "routes".equals(rootField) && "geometry".equals(routeField)
+                && "coordinates".equals(geometryField);
+    }
+}
@@ -0,0 +1,140 @@
+package com.yowyob.delivery.route.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal OSRM-compatible HTTP server for tests and offline benchmarks.
+ * Answers {@code GET /route/v1/driving/{lon,lat;lon,lat;...}} with a
+ * straight-line route through the waypoints, using great-circle distances and
+ * a constant average speed. Enabled with {@code osrm.stub.enabled=true}; point
+ * {@code osrm.api-url} at {@code http://localhost:<port>/route/v1/driving} to
+ * use it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "osrm.stub.enabled", havingValue = "true")
+public class OsrmStubServer {
+
+    private static final String ROUTE_PREFIX = "/route/v1/driving/";
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int port;
+    private final double speedMetersPerSecond;
+    private DisposableServer server;
+
+    public OsrmStubServer(@Value("${osrm.stub.port:5055}") int port,
+            @Value("${osrm.stub.speed-kmh:50}") double speedKmh) {
+        this.port = port;
+        this.speedMetersPerSecond = speedKmh / 3.6;
+    }
+
+    @PostConstruct
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes.get(ROUTE_PREFIX + "{coordinates}", this::handleRoute))
+                .bindNow();
+        log.info("OSRM stub server listening on port {}", server.port());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    /**
+     * @return the port the stub is bound to
+     */
+    public int getPort() {
+        return server.port();
+    }
+
+    private Mono<Void> handleRoute(HttpServerRequest request, HttpServerResponse response) {
+        String body;
+        try {
+            body = buildResponse(parseCoordinates(request.param("coordinates")));
+        } catch (IllegalArgumentException e) {
+            return response.status(400)
+                    .header("Content-Type", "application/json")
+                    .sendString(Mono.just("{\"code\":\"InvalidQuery\",\"message\":\"" + e.getMessage() + "\"}"),
+                            StandardCharsets.UTF_8)
+                    .then();
+        }
+        return response.header("Content-Type", "application/json")
+                .sendString(Mono.just(body), StandardCharsets.UTF_8)
+                .then();
+    }
+
+    private static List<double[]> parseCoordinates(String raw) {
+        if (raw == null || raw.isEmpty()) {
+            throw new IllegalArgumentException("Missing coordinates");
+        }
+        List<double[]> points = new ArrayList<>();
+        for (String pair : raw.split(";")) {
+            String[] parts = pair.split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid coordinate " + pair);
+            }
+            try {
+                points.add(new double[] { Double.parseDouble(parts[0]), Double.parseDouble(parts[1]) });
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid coordinate " + pair);
+            }
+        }
+        if (points.size() < 2) {
+            throw new IllegalArgumentException("At least two coordinates are required");
+        }
+        return points;
+    }
+
+    private String buildResponse(List<double[]> points) {
+        double distance = 0;
+        ArrayNode coordinates = objectMapper.createArrayNode();
+        for (int i = 0; i < points.size(); i++) {
+            double[] p = points.get(i);
+            coordinates.addArray().add(p[0]).add(p[1]);
+            if (i > 0) {
+                double[] q = points.get(i - 1);
+                distance += haversineMeters(q[1], q[0], p[1], p[0]);
+            }
+        }
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("code", "Ok");
+        ObjectNode route = root.putArray("routes").addObject();
+        route.put("distance", distance);
+        route.put("duration", distance / speedMetersPerSecond);
+        ObjectNode geometry = route.putObject("geometry");
+        geometry.put("type", "LineString");
+        geometry.set("coordinates", coordinates);
+        return root.toString();
+    }
+
+    private static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,12 @@
+package com.yowyob.delivery.route.client;
+
+/**
+ * Thrown when an OSRM call is rejected locally, because the circuit breaker is
+ * open or too many calls are already in flight.
+ */
+public class OsrmUnavailableException extends RuntimeException {
+
+    public OsrmUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.yowyob.delivery.route.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs such as the batch driver
+ * assignment. The jobs block on their own work, so the scheduler pool is
+ * sized with one thread per job ({@code spring.task.scheduling.pool.size}).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,7 +1,10 @@
 package com.yowyob.delivery.route.controller;
 
+import com.yowyob.delivery.route.controller.dto.DriverLocationDTO;
 import com.yowyob.delivery.route.controller.dto.RouteCalculationRequestDTO;
+import com.yowyob.delivery.route.controller.dto.RouteProgressDTO;
 import com.yowyob.delivery.route.controller.dto.RouteResponseDTO;
+import com.yowyob.delivery.route.domain.enums.GeometryFormat;
 import com.yowyob.delivery.route.service.RouteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,8 +12,10 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -42,28 +47,64 @@ public class DeliveryController {
         return routeService.calculateRoute(request);
     }
 
+    /**
+     * Creation of the delivery plans of many parcels in one request. Routes
+     * are calculated concurrently and saved in batches.
+     *
+     * @param requests the route calculation parameters of each delivery
+     * @return the calculated routes, in the order of the requests
+     */
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Initiate deliveries in bulk", description = "Calculates the routes of many parcels concurrently and saves them with batched inserts, all or none.")
+    public Flux<RouteResponseDTO> createDeliveries(@Valid @RequestBody List<RouteCalculationRequestDTO> requests) {
+        return routeService.calculateRoutes(requests);
+    }
+
     /**
      * Retrieval of specific delivery details by its unique identifier.
      *
-     * @param id the UUID of the delivery (route)
+     * @param id        the UUID of the delivery (route)
+     * @param geometry  representation of the path (points or encoded polyline)
+     * @param tolerance optional simplification tolerance in meters
      * @return the delivery details
      */
     @GetMapping("/{id}")
     @Operation(summary = "Get delivery details", description = "Retrieves the execution details and status of a specific delivery.")
-    public Mono<RouteResponseDTO> getDelivery(@PathVariable UUID id) {
-        return routeService.getRoute(id);
+    public Mono<RouteResponseDTO> getDelivery(@PathVariable UUID id,
+            @RequestParam(defaultValue = "POINTS") GeometryFormat geometry,
+            @RequestParam(required = false) Double tolerance) {
+        return routeService.getRoute(id, geometry, tolerance);
     }
 
     /**
      * Retrieval of real-time tracking information for a delivery.
      *
-     * @param id the UUID of the delivery
-     * @return tracking details, including the current path and estimated arrival
+     * @param id        the UUID of the delivery
+     * @param geometry  representation of the path (points or encoded polyline)
+     * @param tolerance optional simplification tolerance in meters
+     * @return tracking details, including the current path and the progress
+     *         of the driver
      */
     @GetMapping("/{id}/tracking")
-    @Operation(summary = "Get delivery tracking", description = "Returns real-time or last-known tracking coordinates for a delivery.")
-    public Mono<RouteResponseDTO> getTracking(@PathVariable UUID id) {
-        // Tracking currently returns the route details with the path
-        return routeService.getRoute(id);
+    @Operation(summary = "Get delivery tracking", description = "Returns the route of a delivery with the driver's progress matched from the last known position.")
+    public Mono<RouteResponseDTO> getTracking(@PathVariable UUID id,
+            @RequestParam(defaultValue = "POINTS") GeometryFormat geometry,
+            @RequestParam(required = false) Double tolerance) {
+        return routeService.getTracking(id, geometry, tolerance);
+    }
+
+    /**
+     * Report of a GPS position of the driver following a delivery.
+     *
+     * @param id       the UUID of the delivery (route)
+     * @param position the reported position
+     * @return the progress along the route, with the remaining distance and
+     *         whether the driver is off the route
+     */
+    @PostMapping("/{id}/positions")
+    @Operation(summary = "Report a delivery position", description = "Matches a GPS position onto the route path and returns the progress, remaining distance and off-route status.")
+    public Mono<RouteProgressDTO> reportPosition(@PathVariable UUID id, @RequestBody DriverLocationDTO position) {
+        return routeService.recordPosition(id, position);
     }
 }
@@ -1,12 +1,22 @@
 package com.yowyob.delivery.route.controller;
 
+import com.yowyob.delivery.route.controller.dto.AssignmentSummaryDTO;
+import com.yowyob.delivery.route.controller.dto.DriverLocationDTO;
 import com.yowyob.delivery.route.controller.dto.DriverResponseDTO;
+import com.yowyob.delivery.route.controller.dto.LocationIngestResponseDTO;
+import com.yowyob.delivery.route.controller.dto.NearbyDriverDTO;
+import com.yowyob.delivery.route.domain.enums.ListView;
+import com.yowyob.delivery.route.service.AssignmentService;
+import com.yowyob.delivery.route.service.DriverLocationService;
 import com.yowyob.delivery.route.service.DriverService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Controller for managing delivery drivers.
@@ -19,15 +29,63 @@ import reactor.core.publisher.Flux;
 public class DriverController {
 
     private final DriverService driverService;
+    private final AssignmentService assignmentService;
+    private final DriverLocationService driverLocationService;
 
     /**
      * List all available drivers in the system.
      *
+     * @param view level of detail; locations are only returned with FULL
      * @return a stream of all drivers
      */
     @GetMapping
-    @Operation(summary = "List all drivers", description = "Returns a list of all available drivers for assignment.")
-    public Flux<DriverResponseDTO> getAllDrivers() {
-        return driverService.getAllDrivers();
+    @Operation(summary = "List all drivers", description = "Returns a list of all available drivers for assignment. Current locations are only included with view=FULL.")
+    public Flux<DriverResponseDTO> getAllDrivers(@RequestParam(defaultValue = "SUMMARY") ListView view) {
+        return driverService.getAllDrivers(view);
+    }
+
+    /**
+     * Find the available drivers closest to a point, typically a pickup
+     * location. Answered from the in-memory location index.
+     *
+     * @param latitude      latitude of the point
+     * @param longitude     longitude of the point
+     * @param k             maximum number of drivers returned
+     * @param maxDistanceKm search radius in kilometers
+     * @return the nearest available drivers, closest first
+     */
+    @GetMapping("/nearest")
+    @Operation(summary = "Find nearest available drivers", description = "Returns the k AVAILABLE drivers closest to a point, from their last streamed or stored position.")
+    public Flux<NearbyDriverDTO> findNearestDrivers(@RequestParam double latitude, @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") int k, @RequestParam(defaultValue = "10") double maxDistanceKm) {
+        return driverService.findNearestAvailable(latitude, longitude, k, maxDistanceKm);
+    }
+
+    /**
+     * Run a batch assignment of the planned parcels to the available drivers
+     * now, without waiting for the scheduled run.
+     *
+     * @return a summary of the assignments made
+     */
+    @PostMapping("/assignments")
+    @Operation(summary = "Assign planned parcels to drivers", description = "Matches unassigned PLANNED parcels to AVAILABLE drivers whose vehicle can carry them, minimising the total driver-to-pickup distance. Returns 409 if a batch is already running.")
+    public Mono<AssignmentSummaryDTO> assignPlannedParcels() {
+        return assignmentService.assignPlannedParcels();
+    }
+
+    /**
+     * Ingest a stream of driver GPS positions. Positions are buffered and
+     * written to the database in periodic batches, only the latest one per
+     * driver being kept.
+     *
+     * @param locations the positions, as newline-delimited JSON or a JSON array
+     * @return the number of accepted and rejected positions
+     */
+    @PostMapping(path = "/locations", consumes = { MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_JSON_VALUE })
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Ingest driver locations", description = "Accepts a stream of GPS positions (application/x-ndjson or a JSON array). Positions are coalesced per driver and flushed to the database in periodic batches.")
+    public Mono<LocationIngestResponseDTO> ingestLocations(@RequestBody Flux<DriverLocationDTO> locations) {
+        return driverLocationService.ingest(locations);
     }
 }
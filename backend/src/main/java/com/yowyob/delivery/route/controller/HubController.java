@@ -2,6 +2,8 @@ package com.yowyob.delivery.route.controller;
 
 import com.yowyob.delivery.route.controller.dto.GeoPointRequestDTO;
 import com.yowyob.delivery.route.controller.dto.GeoPointResponseDTO;
+import com.yowyob.delivery.route.controller.dto.NearbyHubDTO;
+import com.yowyob.delivery.route.domain.enums.ListView;
 import com.yowyob.delivery.route.service.HubService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -39,6 +42,35 @@ public class HubController {
         return hubService.createHub(request);
     }
 
+    /**
+     * Creation of many hubs in one request, inserted in batches.
+     *
+     * @param requests the hub details (address, coordinates, type)
+     * @return the created hubs, in the order of the requests
+     */
+    @PostMapping("/bulk")
+    @Operation(summary = "Create hubs in bulk", description = "Registers many hubs at once with batched inserts, all or none.")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<GeoPointResponseDTO> createHubs(@Valid @RequestBody List<GeoPointRequestDTO> requests) {
+        return hubService.createHubs(requests);
+    }
+
+    /**
+     * Lookup of the hubs closest to a geographical point.
+     *
+     * @param latitude     latitude of the point
+     * @param longitude    longitude of the point
+     * @param k            maximum number of hubs returned
+     * @param radiusMeters optional search radius in meters
+     * @return the nearest hubs, closest first
+     */
+    @GetMapping("/nearest")
+    @Operation(summary = "Find nearest hubs", description = "Returns the k hubs closest to a point, optionally limited to a radius in meters.")
+    public Flux<NearbyHubDTO> findNearestHubs(@RequestParam double latitude, @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") int k, @RequestParam(required = false) Double radiusMeters) {
+        return hubService.findNearestHubs(latitude, longitude, k, radiusMeters);
+    }
+
     /**
      * Retrieval of a specific hub by its unique identifier.
      *
@@ -54,11 +86,12 @@ public class HubController {
     /**
      * Listing of all hubs registered in the system.
      *
+     * @param view level of detail; coordinates are only returned with FULL
      * @return a stream of all hubs
      */
     @GetMapping
-    @Operation(summary = "List all hubs", description = "Returns a list of all hubs available in the network.")
-    public Flux<GeoPointResponseDTO> getAllHubs() {
-        return hubService.getAllHubs();
+    @Operation(summary = "List all hubs", description = "Returns a list of all hubs available in the network. Coordinates are only included with view=FULL.")
+    public Flux<GeoPointResponseDTO> getAllHubs(@RequestParam(defaultValue = "SUMMARY") ListView view) {
+        return hubService.getAllHubs(view);
     }
 }
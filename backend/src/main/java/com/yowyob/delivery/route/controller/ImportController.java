@@ -0,0 +1,81 @@
+package com.yowyob.delivery.route.controller;
+
+import com.yowyob.delivery.route.controller.dto.ImportJobDTO;
+import com.yowyob.delivery.route.domain.enums.ImportFormat;
+import com.yowyob.delivery.route.domain.enums.ImportType;
+import com.yowyob.delivery.route.service.ImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Controller for bulk imports of hubs, connections and parcels from CSV or
+ * GeoJSON files. Imports run in the background; their progress and rejected
+ * records can be followed while they run.
+ */
+@RestController
+@RequestMapping("/api/v1/imports")
+@RequiredArgsConstructor
+@Tag(name = "Imports", description = "Endpoints for bulk imports from CSV or GeoJSON files")
+public class ImportController {
+
+    private final ImportService importService;
+
+    /**
+     * Upload of a file to import.
+     *
+     * @param type   kind of records in the file
+     * @param format format of the file, inferred from its extension if absent
+     * @param file   the file, as the {@code file} part of a multipart request
+     * @return the started import
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Start an import", description = "Uploads a CSV or GeoJSON file of hubs, connections or parcels and imports it in the background, in batches. Returns the import to poll for progress.")
+    public Mono<ImportJobDTO> startImport(@RequestParam ImportType type,
+            @RequestParam(required = false) ImportFormat format,
+            @RequestPart("file") Mono<FilePart> file) {
+        return file.flatMap(part -> importService.startImport(type, format, part.filename(), part.content()));
+    }
+
+    /**
+     * Progress of an import.
+     *
+     * @param id the import ID
+     * @return the records read, imported and rejected so far
+     */
+    @GetMapping("/{id}")
+    @Operation(summary = "Get import progress", description = "Returns the status of an import and the number of records read, imported and rejected so far.")
+    public Mono<ImportJobDTO> getImport(@PathVariable UUID id) {
+        return importService.getImport(id);
+    }
+
+    /**
+     * Records rejected by an import, with the reason of each rejection.
+     *
+     * @param id the import ID
+     * @return a CSV file of {@code row,error} lines
+     */
+    @GetMapping(value = "/{id}/errors", produces = "text/csv")
+    @Operation(summary = "Download import errors", description = "Returns a CSV file listing the line (CSV) or feature number (GeoJSON) and the reason of every record rejected so far.")
+    public Mono<ResponseEntity<Resource>> getImportErrors(@PathVariable UUID id) {
+        return importService.getErrorFile(id)
+                .map(path -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("text/csv"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename("import-" + id + "-errors.csv").build().toString())
+                        .body(new FileSystemResource(path)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.yowyob.delivery.route.controller;
+
+import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.controller.dto.IncidentResponseDTO;
+import com.yowyob.delivery.route.controller.dto.RerouteSummaryDTO;
+import com.yowyob.delivery.route.service.IncidentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Controller for the registry of road incidents.
+ * Active incidents are honoured by every subsequent route calculation.
+ */
+@RestController
+@RequestMapping("/api/v1/incidents")
+@RequiredArgsConstructor
+@Tag(name = "Incidents", description = "Endpoints for reporting and resolving road incidents")
+public class IncidentController {
+
+    private final IncidentService incidentService;
+
+    /**
+     * Registration of a new incident.
+     *
+     * @param incident the blocked segment, buffer and description
+     * @return the registered incident
+     */
+    @PostMapping
+    @Operation(summary = "Report an incident", description = "Registers an active incident; hub connections crossing its area are excluded from routing until it is resolved, and active routes crossing it are recalculated.")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<IncidentResponseDTO> reportIncident(@RequestBody IncidentDTO incident) {
+        return incidentService.reportIncident(incident);
+    }
+
+    /**
+     * Listing of the incidents currently affecting routing.
+     *
+     * @return a stream of active incidents
+     */
+    @GetMapping
+    @Operation(summary = "List active incidents", description = "Returns the incidents currently honoured by route calculations.")
+    public Flux<IncidentResponseDTO> getActiveIncidents() {
+        return incidentService.getActiveIncidents();
+    }
+
+    /**
+     * Resolution of an incident.
+     *
+     * @param id the unique UUID of the incident
+     * @return the resolved incident
+     */
+    @PostMapping("/{id}/resolve")
+    @Operation(summary = "Resolve an incident", description = "Marks an incident as resolved so its area is routable again.")
+    public Mono<IncidentResponseDTO> resolveIncident(@PathVariable UUID id) {
+        return incidentService.resolveIncident(id);
+    }
+
+    /**
+     * Re-routing of the active routes crossing an incident.
+     *
+     * @param id the unique UUID of the incident
+     * @return the number of affected, re-routed and failed routes
+     */
+    @PostMapping("/{id}/reroute")
+    @Operation(summary = "Re-route affected routes", description = "Recalculates every active route whose path crosses the incident area and saves the new paths.")
+    public Mono<RerouteSummaryDTO> rerouteAffectedRoutes(@PathVariable UUID id) {
+        return incidentService.rerouteAffectedRoutes(id);
+    }
+}
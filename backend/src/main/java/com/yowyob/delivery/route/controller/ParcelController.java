@@ -1,17 +1,23 @@
 package com.yowyob.delivery.route.controller;
 
+import com.yowyob.delivery.route.controller.dto.ParcelPageDTO;
 import com.yowyob.delivery.route.controller.dto.ParcelRequestDTO;
 import com.yowyob.delivery.route.controller.dto.ParcelResponseDTO;
+import com.yowyob.delivery.route.domain.enums.ListView;
+import com.yowyob.delivery.route.domain.enums.ParcelPriority;
+import com.yowyob.delivery.route.domain.enums.ParcelState;
 import com.yowyob.delivery.route.service.ParcelService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -40,6 +46,19 @@ public class ParcelController {
         return parcelService.createParcel(request);
     }
 
+    /**
+     * Creation of many parcel records in one request, inserted in batches.
+     *
+     * @param requests the parcel registration details
+     * @return the created parcels, in the order of the requests
+     */
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Create parcels in bulk", description = "Registers many parcels at once with batched inserts. The parcels are created together or not at all; Petri Net initialization is best effort.")
+    public Flux<ParcelResponseDTO> createParcels(@Valid @RequestBody List<ParcelRequestDTO> requests) {
+        return parcelService.createParcels(requests);
+    }
+
     /**
      * Retrieval of specific parcel information by its unique identifier.
      *
@@ -53,13 +72,44 @@ public class ParcelController {
     }
 
     /**
-     * Listing of all parcels currently registered in the logistics network.
+     * Listing of the parcels registered in the logistics network, newest
+     * first. With {@code Accept: application/x-ndjson} parcels are streamed
+     * one per line as they are read, at the pace of the client.
+     *
+     * @param state    optional state filter
+     * @param driverId optional driver filter
+     * @param priority optional priority filter
+     * @param view     level of detail; locations are only returned with FULL
+     * @return a stream containing the matching parcel records
+     */
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @Operation(summary = "List parcels", description = "Returns the parcels, newest first, optionally filtered by state, driver and priority. Streams NDJSON when requested. Locations are only included with view=FULL.")
+    public Flux<ParcelResponseDTO> getAllParcels(@RequestParam(required = false) ParcelState state,
+            @RequestParam(required = false) UUID driverId,
+            @RequestParam(required = false) ParcelPriority priority,
+            @RequestParam(defaultValue = "SUMMARY") ListView view) {
+        return parcelService.getAllParcels(state, driverId, priority, view);
+    }
+
+    /**
+     * Listing of one page of parcels, newest first.
      *
-     * @return a stream containing all parcel records
+     * @param state    optional state filter
+     * @param driverId optional driver filter
+     * @param priority optional priority filter
+     * @param cursor   cursor of the page, as returned with the previous one
+     * @param limit    maximum number of parcels in the page
+     * @param view     level of detail; locations are only returned with FULL
+     * @return the page and the cursor of the next one
      */
-    @GetMapping
-    @Operation(summary = "List all parcels", description = "Returns a list of all parcels across all states (PLANNED, TRANSIT, DELIVERED).")
-    public Flux<ParcelResponseDTO> getAllParcels() {
-        return parcelService.getAllParcels();
+    @GetMapping("/page")
+    @Operation(summary = "List a page of parcels", description = "Returns one page of parcels, newest first, using keyset pagination. Pass the returned nextCursor to get the following page. Locations are only included with view=FULL.")
+    public Mono<ParcelPageDTO> getParcelPage(@RequestParam(required = false) ParcelState state,
+            @RequestParam(required = false) UUID driverId,
+            @RequestParam(required = false) ParcelPriority priority,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "SUMMARY") ListView view) {
+        return parcelService.getParcelPage(state, driverId, priority, cursor, limit, view);
     }
 }
@@ -1,9 +1,19 @@
 package com.yowyob.delivery.route.controller;
 
+import com.yowyob.delivery.route.controller.dto.DistanceMatrixRequestDTO;
+import com.yowyob.delivery.route.controller.dto.DistanceMatrixResponseDTO;
 import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.controller.dto.IsochroneRequestDTO;
+import com.yowyob.delivery.route.controller.dto.IsochroneResponseDTO;
+import com.yowyob.delivery.route.controller.dto.RouteCacheStatsDTO;
 import com.yowyob.delivery.route.controller.dto.RouteCalculationRequestDTO;
 import com.yowyob.delivery.route.controller.dto.RouteResponseDTO;
+import com.yowyob.delivery.route.controller.dto.TourOptimizationRequestDTO;
+import com.yowyob.delivery.route.controller.dto.TourResponseDTO;
+import com.yowyob.delivery.route.domain.enums.GeometryFormat;
+import com.yowyob.delivery.route.service.NetworkAnalysisService;
 import com.yowyob.delivery.route.service.RouteService;
+import com.yowyob.delivery.route.service.TourService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -26,6 +36,8 @@ import java.util.UUID;
 public class RouteController {
 
     private final RouteService routeService;
+    private final NetworkAnalysisService networkAnalysisService;
+    private final TourService tourService;
 
     /**
      * Calculation of an optimal route between two logistical hubs.
@@ -61,16 +73,69 @@ public class RouteController {
                 });
     }
 
+    /**
+     * Computation of shortest distances and durations between sets of hubs.
+     *
+     * @param request the source and destination hubs
+     * @return the row-major cost matrix, without geometry
+     */
+    @PostMapping("/matrix")
+    @Operation(summary = "Compute distance matrix", description = "Computes shortest-path distances and durations from every source hub to every destination hub in a single call.")
+    public Mono<DistanceMatrixResponseDTO> computeDistanceMatrix(@Valid @RequestBody DistanceMatrixRequestDTO request) {
+        return networkAnalysisService.computeDistanceMatrix(request);
+    }
+
+    /**
+     * Computation of the hubs reachable from a hub within a cost budget.
+     *
+     * @param request the origin hub, budget and polygon options
+     * @return the reachable hubs with their costs
+     */
+    @PostMapping("/isochrone")
+    @Operation(summary = "Compute isochrone", description = "Returns every hub reachable from the origin hub within a distance or travel-time budget, optionally with the enclosing area.")
+    public Mono<IsochroneResponseDTO> computeIsochrone(@Valid @RequestBody IsochroneRequestDTO request) {
+        return networkAnalysisService.computeIsochrone(request);
+    }
+
+    /**
+     * Optimization of a multi-stop tour over the pickups and deliveries of
+     * several parcels.
+     *
+     * @param request the parcels (or driver), tour start and time budget
+     * @return the ordered stops and the persisted multi-stop route
+     */
+    @PostMapping("/tours")
+    @Operation(summary = "Optimize driver tour", description = "Orders the pickup and delivery stops of several parcels into a short tour that picks up every parcel before delivering it, and saves it as a multi-stop route.")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TourResponseDTO> optimizeTour(@Valid @RequestBody TourOptimizationRequestDTO request) {
+        return tourService.optimizeTour(request);
+    }
+
+    /**
+     * Statistics of the route result cache.
+     *
+     * @return hit rate, size and eviction counters
+     */
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Get route cache statistics", description = "Returns hit/miss counters and hit rate of the cache placed in front of the routing algorithms.")
+    public Mono<RouteCacheStatsDTO> getCacheStats() {
+        return routeService.getCacheStats();
+    }
+
     /**
      * Retrieval of specific route details by its unique identifier.
      *
-     * @param id the UUID of the route
+     * @param id        the UUID of the route
+     * @param geometry  representation of the path (points or encoded polyline)
+     * @param tolerance optional simplification tolerance in meters
      * @return the route details
      */
     @GetMapping("/{id}")
     @Operation(summary = "Get route details", description = "Retrieves stored details of a specific calculated route.")
-    public Mono<RouteResponseDTO> getRoute(@PathVariable UUID id) {
-        return routeService.getRoute(id);
+    public Mono<RouteResponseDTO> getRoute(@PathVariable UUID id,
+            @RequestParam(defaultValue = "POINTS") GeometryFormat geometry,
+            @RequestParam(required = false) Double tolerance) {
+        return routeService.getRoute(id, geometry, tolerance);
     }
 
     /**
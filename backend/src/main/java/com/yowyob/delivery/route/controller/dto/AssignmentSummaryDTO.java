@@ -0,0 +1,57 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object summarising one run of the batch driver-to-parcel
+ * assignment.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a batch driver-to-parcel assignment")
+public class AssignmentSummaryDTO {
+
+    /**
+     * Available drivers with a location and a vehicle considered by the run.
+     */
+    @Schema(description = "Number of available drivers considered", example = "120")
+    private int availableDrivers;
+
+    /**
+     * Unassigned PLANNED parcels considered by the run.
+     */
+    @Schema(description = "Number of planned parcels considered", example = "800")
+    private int plannedParcels;
+
+    /**
+     * Parcels assigned and persisted.
+     */
+    @Schema(description = "Number of parcels assigned", example = "118")
+    private int assignedParcels;
+
+    /**
+     * Sum of the driver-to-pickup distances of the assignments.
+     */
+    @Schema(description = "Total driver-to-pickup distance in kilometers", example = "356.2")
+    private double totalDistanceKm;
+
+    /**
+     * Wall-clock time spent on the whole run.
+     */
+    @Schema(description = "Processing time in milliseconds", example = "420")
+    private long durationMs;
+
+    /**
+     * The assignments made.
+     */
+    @Schema(description = "Parcels assigned during the run")
+    private List<DriverAssignmentDTO> assignments;
+}
@@ -0,0 +1,43 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for requesting a many-to-many cost matrix between hubs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for computing a distance/duration matrix between hubs")
+public class DistanceMatrixRequestDTO {
+
+    /**
+     * Origin hubs, one matrix row each.
+     */
+    @NotEmpty(message = "At least one source hub is required")
+    @Schema(description = "IDs of the origin hubs (matrix rows)")
+    private List<UUID> sourceHubIds;
+
+    /**
+     * Destination hubs, one matrix column each.
+     */
+    @NotEmpty(message = "At least one destination hub is required")
+    @Schema(description = "IDs of the destination hubs (matrix columns)")
+    private List<UUID> destinationHubIds;
+
+    /**
+     * Vehicle restrictions (type, weight, avoided highways or tolls) the
+     * matrix paths must respect.
+     */
+    @Schema(description = "Optional vehicle constraints restricting the usable connections")
+    private RoutingConstraintsDTO constraints;
+}
@@ -0,0 +1,59 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object holding a many-to-many cost matrix.
+ * Cells are stored row-major in flat arrays: the cost from source {@code i} to
+ * destination {@code j} is at index {@code i * columns + j}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Distance and duration matrix between hubs, flattened row-major")
+public class DistanceMatrixResponseDTO {
+
+    /**
+     * Origin hubs, in row order.
+     */
+    @Schema(description = "IDs of the origin hubs (matrix rows)")
+    private List<UUID> sourceHubIds;
+
+    /**
+     * Destination hubs, in column order.
+     */
+    @Schema(description = "IDs of the destination hubs (matrix columns)")
+    private List<UUID> destinationHubIds;
+
+    /**
+     * Number of rows of the matrix.
+     */
+    @Schema(description = "Number of rows", example = "3")
+    private int rows;
+
+    /**
+     * Number of columns of the matrix.
+     */
+    @Schema(description = "Number of columns", example = "4")
+    private int columns;
+
+    /**
+     * Shortest distances in kilometers; -1 when the destination is unreachable.
+     */
+    @Schema(description = "Row-major shortest distances in km, -1 if unreachable")
+    private double[] distancesKm;
+
+    /**
+     * Estimated durations in minutes; -1 when the destination is unreachable.
+     */
+    @Schema(description = "Row-major estimated durations in minutes, -1 if unreachable")
+    private int[] durationsMinutes;
+}
@@ -0,0 +1,51 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object describing a parcel assigned to a driver by the batch
+ * assignment.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A parcel assigned to a driver")
+public class DriverAssignmentDTO {
+
+    /**
+     * The assigned parcel.
+     */
+    @Schema(description = "ID of the assigned parcel")
+    private UUID parcelId;
+
+    /**
+     * Tracking code of the parcel.
+     */
+    @Schema(description = "Tracking code of the parcel", example = "TRK-A1B2C3D4")
+    private String trackingCode;
+
+    /**
+     * The driver the parcel is assigned to.
+     */
+    @Schema(description = "ID of the driver")
+    private UUID driverId;
+
+    /**
+     * The vehicle of the driver.
+     */
+    @Schema(description = "ID of the driver's vehicle")
+    private UUID vehicleId;
+
+    /**
+     * Estimated distance from the driver to the pickup point.
+     */
+    @Schema(description = "Distance from the driver to the pickup point in kilometers", example = "3.4")
+    private double distanceKm;
+}
@@ -0,0 +1,45 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for a GPS position reported by a driver.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "GPS position reported by a driver")
+public class DriverLocationDTO {
+
+    /**
+     * The reporting driver.
+     */
+    @Schema(description = "ID of the driver")
+    private UUID driverId;
+
+    /**
+     * Latitude of the position.
+     */
+    @Schema(description = "Latitude coordinate", example = "3.8480")
+    private Double latitude;
+
+    /**
+     * Longitude of the position.
+     */
+    @Schema(description = "Longitude coordinate", example = "11.5021")
+    private Double longitude;
+
+    /**
+     * When the position was measured; the reception time if absent.
+     */
+    @Schema(description = "Measurement time (defaults to the reception time)", example = "2025-01-15T08:30:05")
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,90 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import com.yowyob.delivery.route.domain.enums.ImportFormat;
+import com.yowyob.delivery.route.domain.enums.ImportStatus;
+import com.yowyob.delivery.route.domain.enums.ImportType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object reporting the progress of a bulk import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of a bulk import of hubs, connections or parcels")
+public class ImportJobDTO {
+
+    /**
+     * Unique identifier of the import.
+     */
+    @Schema(description = "ID of the import", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID id;
+
+    /**
+     * Kind of records imported.
+     */
+    @Schema(description = "Kind of records imported", example = "PARCELS")
+    private ImportType type;
+
+    /**
+     * Format of the imported file.
+     */
+    @Schema(description = "Format of the file", example = "CSV")
+    private ImportFormat format;
+
+    /**
+     * Name of the uploaded file.
+     */
+    @Schema(description = "Name of the uploaded file", example = "parcels.csv")
+    private String fileName;
+
+    /**
+     * Current status of the import.
+     */
+    @Schema(description = "Status of the import", example = "RUNNING")
+    private ImportStatus status;
+
+    /**
+     * Number of records read from the file so far.
+     */
+    @Schema(description = "Records read so far", example = "42000")
+    private Long rowsRead;
+
+    /**
+     * Number of records written so far.
+     */
+    @Schema(description = "Records imported so far", example = "41950")
+    private Long rowsImported;
+
+    /**
+     * Number of records rejected so far, listed in the error file.
+     */
+    @Schema(description = "Records rejected so far", example = "50")
+    private Long rowsRejected;
+
+    /**
+     * Time the import started.
+     */
+    @Schema(description = "Start time", example = "2025-01-15T08:30:00")
+    private LocalDateTime startedAt;
+
+    /**
+     * Time the import finished, null while it runs.
+     */
+    @Schema(description = "End time (null while running)", example = "2025-01-15T08:30:42")
+    private LocalDateTime finishedAt;
+
+    /**
+     * Why the file could not be read to the end, when the import failed.
+     */
+    @Schema(description = "Failure message when the import failed", example = "Not a complete GeoJSON FeatureCollection")
+    private String failure;
+}
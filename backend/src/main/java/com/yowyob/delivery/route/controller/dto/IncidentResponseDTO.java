@@ -0,0 +1,82 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object describing a registered incident.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Registered road incident")
+public class IncidentResponseDTO {
+
+    /**
+     * Unique identifier of the incident.
+     */
+    @Schema(description = "ID of the incident")
+    private UUID id;
+
+    /**
+     * Kind of disruption.
+     */
+    @Schema(description = "Incident type", example = "ACCIDENT")
+    private String type;
+
+    /**
+     * Free-text description.
+     */
+    @Schema(description = "Description of the incident", example = "Lane closed after a collision")
+    private String description;
+
+    /**
+     * Start of the blocked segment.
+     */
+    @Schema(description = "Start of the blocked segment")
+    private IncidentDTO.GeoLocation lineStart;
+
+    /**
+     * End of the blocked segment.
+     */
+    @Schema(description = "End of the blocked segment")
+    private IncidentDTO.GeoLocation lineEnd;
+
+    /**
+     * Buffer width in meters on each side of the segment.
+     */
+    @Schema(description = "Buffer width in meters", example = "50")
+    private Double bufferDistance;
+
+    /**
+     * Indicates if the incident still affects routing.
+     */
+    @Schema(description = "Whether the incident is active", example = "true")
+    private Boolean active;
+
+    /**
+     * Timestamp when the incident was reported.
+     */
+    @Schema(description = "Report timestamp")
+    private LocalDateTime createdAt;
+
+    /**
+     * Timestamp when the incident was resolved.
+     */
+    @Schema(description = "Resolution timestamp, null while active")
+    private LocalDateTime resolvedAt;
+
+    /**
+     * Outcome of re-routing the active routes crossing the incident, when it
+     * was run as part of the request.
+     */
+    @Schema(description = "Re-routing of the affected active routes, if performed")
+    private RerouteSummaryDTO reroute;
+}
@@ -0,0 +1,62 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for requesting the set of hubs reachable from a hub
+ * within a cost budget.
+ * Exactly one of {@code maxDistanceKm} and {@code maxDurationMinutes} is
+ * expected; if both are given the stricter one applies.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for computing an isochrone around a hub")
+public class IsochroneRequestDTO {
+
+    /**
+     * The hub the isochrone is centred on.
+     */
+    @NotNull(message = "Hub ID is required")
+    @Schema(description = "ID of the origin hub", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID hubId;
+
+    /**
+     * Maximum shortest-path distance in kilometers.
+     */
+    @Schema(description = "Maximum network distance in km", example = "3.0")
+    private Double maxDistanceKm;
+
+    /**
+     * Maximum estimated travel time in minutes.
+     */
+    @Schema(description = "Maximum estimated travel time in minutes", example = "30")
+    private Integer maxDurationMinutes;
+
+    /**
+     * Whether to compute a concave hull polygon around the reachable hubs.
+     */
+    @Schema(description = "Set to true to include a polygon enclosing the reachable hubs", defaultValue = "false")
+    private boolean includePolygon;
+
+    /**
+     * Concave hull edge length ratio, from 0 (tightest) to 1 (convex hull).
+     */
+    @Schema(description = "Hull tightness between 0 (most concave) and 1 (convex)", defaultValue = "0.3")
+    private Double concavity;
+
+    /**
+     * Vehicle restrictions (type, weight, avoided highways or tolls) the
+     * reachable paths must respect.
+     */
+    @Schema(description = "Optional vehicle constraints restricting the usable connections")
+    private RoutingConstraintsDTO constraints;
+}
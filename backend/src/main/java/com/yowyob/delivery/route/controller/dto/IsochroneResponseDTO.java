@@ -0,0 +1,47 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object holding the hubs reachable from an origin within a
+ * budget, and optionally the area they cover.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Isochrone around a hub")
+public class IsochroneResponseDTO {
+
+    /**
+     * The origin hub.
+     */
+    @Schema(description = "ID of the origin hub")
+    private UUID hubId;
+
+    /**
+     * Effective distance budget in kilometers.
+     */
+    @Schema(description = "Distance budget applied, in km", example = "3.0")
+    private Double maxDistanceKm;
+
+    /**
+     * Reachable hubs, ordered by increasing cost (the origin comes first).
+     */
+    @Schema(description = "Reachable hubs ordered by increasing distance")
+    private List<ReachableHubDTO> reachableHubs;
+
+    /**
+     * Concave hull of the reachable hubs in WKT, if requested. Degenerates to a
+     * point or line when fewer than three non-collinear hubs are reachable.
+     */
+    @Schema(description = "Area covered by the reachable hubs as WKT", example = "POLYGON((11.50 3.84, 11.52 3.85, 11.51 3.87, 11.50 3.84))")
+    private String polygon;
+}
@@ -0,0 +1,30 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object acknowledging a stream of driver positions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Acknowledgement of a stream of driver positions")
+public class LocationIngestResponseDTO {
+
+    /**
+     * Positions buffered for the next flush, superseded ones included.
+     */
+    @Schema(description = "Number of positions accepted", example = "2000")
+    private long accepted;
+
+    /**
+     * Positions without a driver or with out-of-range coordinates.
+     */
+    @Schema(description = "Number of invalid positions skipped", example = "0")
+    private long rejected;
+}
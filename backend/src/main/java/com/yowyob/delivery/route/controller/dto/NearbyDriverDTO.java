@@ -0,0 +1,52 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object describing an available driver close to a queried
+ * point, with its straight-line distance.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Available driver close to the queried point")
+public class NearbyDriverDTO {
+
+    /**
+     * Unique identifier of the driver.
+     */
+    @Schema(description = "ID of the driver")
+    private UUID driverId;
+
+    /**
+     * Last known latitude of the driver.
+     */
+    @Schema(description = "Latitude coordinate", example = "3.8480")
+    private Double latitude;
+
+    /**
+     * Last known longitude of the driver.
+     */
+    @Schema(description = "Longitude coordinate", example = "11.5021")
+    private Double longitude;
+
+    /**
+     * Great-circle distance from the queried point in meters.
+     */
+    @Schema(description = "Straight-line distance from the queried point in meters", example = "350.5")
+    private Double distanceMeters;
+
+    /**
+     * Time of the last known position.
+     */
+    @Schema(description = "Time of the last known position", example = "2025-01-15T08:30:05")
+    private LocalDateTime lastLocationUpdate;
+}
@@ -0,0 +1,51 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object describing a hub close to a queried point, with its
+ * straight-line distance.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Hub close to the queried point")
+public class NearbyHubDTO {
+
+    /**
+     * Unique identifier of the hub.
+     */
+    @Schema(description = "ID of the hub")
+    private UUID hubId;
+
+    /**
+     * Human-readable address of the hub.
+     */
+    @Schema(description = "Address of the hub", example = "Carrefour Warda, Yaoundé")
+    private String address;
+
+    /**
+     * Latitude of the hub.
+     */
+    @Schema(description = "Latitude coordinate", example = "3.8480")
+    private Double latitude;
+
+    /**
+     * Longitude of the hub.
+     */
+    @Schema(description = "Longitude coordinate", example = "11.5021")
+    private Double longitude;
+
+    /**
+     * Great-circle distance from the queried point in meters.
+     */
+    @Schema(description = "Straight-line distance from the queried point in meters", example = "350.5")
+    private Double distanceMeters;
+}
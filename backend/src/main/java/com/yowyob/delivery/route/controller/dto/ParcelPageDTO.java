@@ -0,0 +1,32 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of parcels, newest first.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of parcels, newest first, with the cursor of the next page")
+public class ParcelPageDTO {
+
+    /**
+     * Parcels of the page.
+     */
+    @Schema(description = "Parcels of the page")
+    private List<ParcelResponseDTO> items;
+
+    /**
+     * Opaque cursor to pass to get the next page, null on the last page.
+     */
+    @Schema(description = "Cursor of the next page (null on the last page)", example = "MjAyNS0wMS0xNVQwODozMDowNXw1NTBlODQwMC1lMjliLTQxZDQtYTcxNi00NDY2NTU0NDAwMDA")
+    private String nextCursor;
+}
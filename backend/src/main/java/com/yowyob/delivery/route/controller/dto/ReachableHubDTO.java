@@ -0,0 +1,51 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object describing a hub reachable within an isochrone, with
+ * its cost from the origin.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Hub reachable from the isochrone origin")
+public class ReachableHubDTO {
+
+    /**
+     * Unique identifier of the reachable hub.
+     */
+    @Schema(description = "ID of the reachable hub")
+    private UUID hubId;
+
+    /**
+     * Latitude of the hub.
+     */
+    @Schema(description = "Latitude coordinate", example = "3.8480")
+    private Double latitude;
+
+    /**
+     * Longitude of the hub.
+     */
+    @Schema(description = "Longitude coordinate", example = "11.5021")
+    private Double longitude;
+
+    /**
+     * Shortest network distance from the origin in kilometers.
+     */
+    @Schema(description = "Network distance from the origin in km", example = "2.4")
+    private Double distanceKm;
+
+    /**
+     * Estimated travel time from the origin in minutes.
+     */
+    @Schema(description = "Estimated travel time from the origin in minutes", example = "24")
+    private Integer durationMinutes;
+}
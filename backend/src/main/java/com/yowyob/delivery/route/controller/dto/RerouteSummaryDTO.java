@@ -0,0 +1,43 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object summarising the re-routing of the active routes
+ * affected by an incident.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of re-routing the active routes crossing an incident")
+public class RerouteSummaryDTO {
+
+    /**
+     * Active routes whose path crosses the incident area.
+     */
+    @Schema(description = "Number of active routes crossing the incident", example = "42")
+    private int affectedRoutes;
+
+    /**
+     * Routes recalculated and persisted.
+     */
+    @Schema(description = "Number of routes recalculated and saved", example = "40")
+    private int reroutedRoutes;
+
+    /**
+     * Routes left unchanged because no alternative could be computed.
+     */
+    @Schema(description = "Number of routes that could not be recalculated", example = "2")
+    private int failedRoutes;
+
+    /**
+     * Wall-clock time spent on the whole fan-out.
+     */
+    @Schema(description = "Processing time in milliseconds", example = "850")
+    private long durationMs;
+}
@@ -0,0 +1,60 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object exposing the effectiveness of the route result cache.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Route result cache statistics since startup")
+public class RouteCacheStatsDTO {
+
+    /**
+     * Number of entries currently cached.
+     */
+    @Schema(description = "Current number of cached routes", example = "412")
+    private int size;
+
+    /**
+     * Maximum number of entries kept.
+     */
+    @Schema(description = "Configured capacity", example = "1000")
+    private int maxSize;
+
+    /**
+     * Lookups answered from the cache.
+     */
+    @Schema(description = "Number of cache hits", example = "6540")
+    private long hits;
+
+    /**
+     * Lookups that required a calculation.
+     */
+    @Schema(description = "Number of cache misses", example = "3120")
+    private long misses;
+
+    /**
+     * Ratio of hits over all lookups, between 0 and 1.
+     */
+    @Schema(description = "Hit rate between 0 and 1", example = "0.68")
+    private double hitRate;
+
+    /**
+     * Entries dropped because the cache was full or expired.
+     */
+    @Schema(description = "Entries evicted by capacity or TTL", example = "87")
+    private long evictions;
+
+    /**
+     * Entries dropped because of a graph change or an incident.
+     */
+    @Schema(description = "Entries invalidated by graph changes or incidents", example = "25")
+    private long invalidations;
+}
@@ -1,5 +1,6 @@
 package com.yowyob.delivery.route.controller.dto;
 
+import com.yowyob.delivery.route.domain.enums.GeometryFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -54,4 +55,10 @@ public class RouteCalculationRequestDTO {
      */
     @Schema(description = "ID of the driver assigned to this delivery", example = "d1e2f3g4-h5i6-j7k8-l9m0-n1o2p3q4r5s6")
     private UUID driverId;
+
+    /**
+     * Representation of the path in the response (defaults to POINTS).
+     */
+    @Schema(description = "Representation of the path in the response", example = "POLYLINE", defaultValue = "POINTS")
+    private GeometryFormat geometryFormat;
 }
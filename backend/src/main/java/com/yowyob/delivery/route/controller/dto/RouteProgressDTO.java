@@ -0,0 +1,89 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object describing the progress of a driver along a route,
+ * from its last GPS position matched onto the route path.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of a driver along a route, from its last matched GPS position")
+public class RouteProgressDTO {
+
+    /**
+     * Unique identifier of the route.
+     */
+    @Schema(description = "ID of the route", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID routeId;
+
+    /**
+     * Reported position of the driver.
+     */
+    @Schema(description = "Reported GPS position")
+    private GeoPointResponseDTO position;
+
+    /**
+     * Closest point of the route path to the reported position.
+     */
+    @Schema(description = "Reported position snapped onto the route path")
+    private GeoPointResponseDTO snappedPosition;
+
+    /**
+     * Distance between the reported position and the route path in meters.
+     */
+    @Schema(description = "Distance from the route path in meters", example = "12.4")
+    private Double distanceFromRouteMeters;
+
+    /**
+     * Whether the driver left the route.
+     */
+    @Schema(description = "Whether the position is farther from the path than the off-route threshold", example = "false")
+    private Boolean offRoute;
+
+    /**
+     * Distance already travelled along the route in kilometers.
+     */
+    @Schema(description = "Distance travelled along the route in kilometers", example = "12.3")
+    private Double travelledKm;
+
+    /**
+     * Distance left to the end of the route in kilometers.
+     */
+    @Schema(description = "Remaining distance in kilometers", example = "33.5")
+    private Double remainingKm;
+
+    /**
+     * Share of the route already travelled, in percent.
+     */
+    @Schema(description = "Completed share of the route in percent", example = "26.9")
+    private Double progressPercent;
+
+    /**
+     * Estimated time left to the end of the route in minutes.
+     */
+    @Schema(description = "Estimated remaining duration in minutes", example = "88")
+    private Integer remainingMinutes;
+
+    /**
+     * Part of the path still to travel, as a Google encoded polyline
+     * (precision 5).
+     */
+    @Schema(description = "Remaining path as a Google encoded polyline (precision 5)", example = "_p~iF~ps|U_ulLnnqC")
+    private String remainingPolyline;
+
+    /**
+     * Time of the matched position.
+     */
+    @Schema(description = "Time of the matched position", example = "2025-01-15T08:30:05")
+    private LocalDateTime recordedAt;
+}
@@ -74,4 +74,25 @@ public class RouteResponseDTO {
      */
     @Schema(description = "Ordered list of points forming the route path")
     private List<GeoPointResponseDTO> path;
+
+    /**
+     * Route path as a Google encoded polyline (precision 5), set instead of
+     * {@link #path} when the polyline format is requested.
+     */
+    @Schema(description = "Route path as a Google encoded polyline (precision 5), returned instead of path when requested", example = "_p~iF~ps|U_ulLnnqC_mqNvxq`@")
+    private String encodedPolyline;
+
+    /**
+     * Tolerance in meters of the simplified path returned, or null when the
+     * full-resolution path is returned.
+     */
+    @Schema(description = "Simplification tolerance in meters of the returned path (null for full resolution)", example = "25")
+    private Double simplificationToleranceMeters;
+
+    /**
+     * Progress of the driver along the route, when a position was matched on
+     * it; only returned by the tracking endpoint.
+     */
+    @Schema(description = "Progress of the driver along the route (tracking only, null if no position is known)")
+    private RouteProgressDTO progress;
 }
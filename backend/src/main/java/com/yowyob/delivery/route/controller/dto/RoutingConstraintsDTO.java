@@ -6,6 +6,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.UUID;
+
 /**
  * Data Transfer Object representing constraints and preferences for the routing
  * algorithm.
@@ -36,13 +39,36 @@ public class RoutingConstraintsDTO {
     @Schema(description = "The type of vehicle to optimize the route for", example = "TRUCK")
     private String vehicleType;
 
+    /**
+     * Vehicle doing the trip. When set, its type and gross weight (or maximum
+     * load when the gross weight is unknown) fill in {@link #vehicleType} and
+     * {@link #weightKg} if they are not given.
+     */
+    @Schema(description = "ID of the vehicle to route; its type and weight restrict the usable connections")
+    private UUID vehicleId;
+
+    /**
+     * Weight of the loaded vehicle, checked against connection weight limits.
+     */
+    @Schema(description = "Weight of the loaded vehicle in kilograms", example = "7500")
+    private Double weightKg;
+
     /**
      * The specific routing algorithm to use.
      * BASIC: Direct path.
      * DIJKSTRA: Shortest path based on weight.
      * ASTAR: Shortest path based on weight and heuristics.
+     * CH: Shortest path based on weight, using precomputed contraction hierarchies.
      */
     @Schema(description = "Routing algorithm to use", allowableValues = { "BASIC", "DIJKSTRA",
-            "ASTAR" }, defaultValue = "BASIC")
+            "ASTAR", "CH" }, defaultValue = "BASIC")
     private String algorithm;
+
+    /**
+     * Planned departure time. When set, graph-based algorithms pick the
+     * fastest path for the traffic expected at that time; otherwise travel
+     * times are estimated for a departure now.
+     */
+    @Schema(description = "Planned departure time used for traffic-aware routing", example = "2025-03-14T08:30:00")
+    private LocalDateTime departureTime;
 }
@@ -0,0 +1,67 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import com.yowyob.delivery.route.domain.enums.GeometryFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for requesting an optimized multi-stop tour covering
+ * the pickups and deliveries of several parcels.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for optimizing a driver tour over several parcels")
+public class TourOptimizationRequestDTO {
+
+    /**
+     * Driver doing the tour. Their open parcels are used when no parcel is
+     * listed, and their current location when no start is given.
+     */
+    @Schema(description = "ID of the driver doing the tour", example = "d1e2f3g4-h5i6-j7k8-l9m0-n1o2p3q4r5s6")
+    private UUID driverId;
+
+    /**
+     * Parcels to serve. Parcels not yet picked up get a pickup and a delivery
+     * stop, parcels already on board only a delivery stop.
+     */
+    @Schema(description = "IDs of the parcels to serve (defaults to the driver's open parcels)")
+    private List<UUID> parcelIds;
+
+    /**
+     * Latitude of the start of the tour.
+     */
+    @Schema(description = "Latitude of the tour start (defaults to the driver's current location)", example = "3.8480")
+    private Double startLatitude;
+
+    /**
+     * Longitude of the start of the tour.
+     */
+    @Schema(description = "Longitude of the tour start (defaults to the driver's current location)", example = "11.5021")
+    private Double startLongitude;
+
+    /**
+     * Whether the tour ends back at its start.
+     */
+    @Schema(description = "Set to true to end the tour at its start", defaultValue = "false")
+    private boolean returnToStart;
+
+    /**
+     * Time allowed for the optimization, capped by the server configuration.
+     */
+    @Schema(description = "Optimization time budget in milliseconds", example = "1000")
+    private Integer timeBudgetMs;
+
+    /**
+     * Representation of the path in the response (defaults to POINTS).
+     */
+    @Schema(description = "Representation of the path in the response", example = "POLYLINE", defaultValue = "POINTS")
+    private GeometryFormat geometryFormat;
+}
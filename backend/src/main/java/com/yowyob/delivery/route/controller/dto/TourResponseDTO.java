@@ -0,0 +1,50 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object returned for an optimized multi-stop tour.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Optimized multi-stop tour and the route persisted for it")
+public class TourResponseDTO {
+
+    /**
+     * The persisted route following the tour.
+     */
+    @Schema(description = "The multi-stop route")
+    private RouteResponseDTO route;
+
+    /**
+     * Stops in visiting order.
+     */
+    @Schema(description = "Stops in visiting order")
+    private List<TourStopDTO> stops;
+
+    /**
+     * Distance of the initial constructed tour, before local search.
+     */
+    @Schema(description = "Distance of the initial tour before optimization, in kilometers", example = "58.1")
+    private double initialDistanceKm;
+
+    /**
+     * Number of large neighbourhood search iterations run by all workers.
+     */
+    @Schema(description = "Number of search iterations run", example = "1520")
+    private long iterations;
+
+    /**
+     * Time spent building the cost matrix and optimizing.
+     */
+    @Schema(description = "Optimization time in milliseconds", example = "1003")
+    private long computeTimeMs;
+}
@@ -0,0 +1,75 @@
+package com.yowyob.delivery.route.controller.dto;
+
+import com.yowyob.delivery.route.domain.enums.StopType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object describing one stop of an optimized tour.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A stop of an optimized tour")
+public class TourStopDTO {
+
+    /**
+     * Position of the stop in the tour, starting at 1.
+     */
+    @Schema(description = "Position of the stop in the tour", example = "1")
+    private int sequence;
+
+    /**
+     * Parcel handled at the stop.
+     */
+    @Schema(description = "ID of the parcel handled at this stop")
+    private UUID parcelId;
+
+    /**
+     * Tracking code of the parcel.
+     */
+    @Schema(description = "Tracking code of the parcel", example = "TRK-A1B2C3D4")
+    private String trackingCode;
+
+    /**
+     * Whether the parcel is picked up or delivered.
+     */
+    @Schema(description = "Kind of stop", example = "PICKUP")
+    private StopType type;
+
+    /**
+     * Latitude of the stop.
+     */
+    @Schema(description = "Latitude of the stop", example = "3.8480")
+    private double latitude;
+
+    /**
+     * Longitude of the stop.
+     */
+    @Schema(description = "Longitude of the stop", example = "11.5021")
+    private double longitude;
+
+    /**
+     * Hub the stop is attached to in the network.
+     */
+    @Schema(description = "ID of the nearest hub, used to route to the stop")
+    private UUID hubId;
+
+    /**
+     * Distance travelled from the start of the tour when reaching the stop.
+     */
+    @Schema(description = "Distance from the tour start in kilometers", example = "12.4")
+    private double distanceFromStartKm;
+
+    /**
+     * Estimated time from the start of the tour when reaching the stop.
+     */
+    @Schema(description = "Estimated minutes from the tour start", example = "35")
+    private int etaMinutes;
+}
@@ -44,4 +44,30 @@ public class HubConnection {
      */
     @Column("weight")
     private Double weight;
+
+    /**
+     * Vehicle types allowed on the connection, as a bitmask of the fixed bits of
+     * {@link com.yowyob.delivery.route.service.graph.EdgeRestrictions#vehicleBit}.
+     * {@code null} allows every type.
+     */
+    @Column("allowed_vehicles")
+    private Integer allowedVehicles;
+
+    /**
+     * Maximum vehicle weight in kilograms, {@code null} if unlimited.
+     */
+    @Column("max_weight_kg")
+    private Double maxWeightKg;
+
+    /**
+     * Whether the connection is part of a highway.
+     */
+    @Column("is_highway")
+    private Boolean isHighway;
+
+    /**
+     * Whether the connection is a toll road.
+     */
+    @Column("is_toll")
+    private Boolean isToll;
 }
@@ -0,0 +1,90 @@
+package com.yowyob.delivery.route.domain.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing a reported road incident.
+ * The affected area is a line segment widened by a buffer on each side; while
+ * the incident is active, hub connections crossing that area are excluded
+ * from route computations.
+ */
+@Table("incidents")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Incident {
+
+    /**
+     * Unique identifier for the incident.
+     */
+    @Id
+    private UUID id;
+
+    /**
+     * Kind of disruption (e.g. ACCIDENT, ROADWORK, FLOOD).
+     */
+    @Column("type")
+    private String type;
+
+    /**
+     * Free-text description of the incident.
+     */
+    @Column("description")
+    private String description;
+
+    /**
+     * Latitude of the start of the blocked segment.
+     */
+    @Column("start_latitude")
+    private Double startLatitude;
+
+    /**
+     * Longitude of the start of the blocked segment.
+     */
+    @Column("start_longitude")
+    private Double startLongitude;
+
+    /**
+     * Latitude of the end of the blocked segment.
+     */
+    @Column("end_latitude")
+    private Double endLatitude;
+
+    /**
+     * Longitude of the end of the blocked segment.
+     */
+    @Column("end_longitude")
+    private Double endLongitude;
+
+    /**
+     * Buffer width in meters on each side of the segment.
+     */
+    @Column("buffer_distance")
+    private Double bufferDistance;
+
+    /**
+     * Indicates if the incident still affects routing.
+     */
+    @Column("is_active")
+    private Boolean isActive;
+
+    /**
+     * Timestamp when the incident was reported.
+     */
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * Timestamp when the incident was resolved, if it was.
+     */
+    @Column("resolved_at")
+    private LocalDateTime resolvedAt;
+}
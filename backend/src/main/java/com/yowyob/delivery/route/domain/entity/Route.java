@@ -1,8 +1,10 @@
 package com.yowyob.delivery.route.domain.entity;
 
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -52,11 +54,28 @@ public class Route {
     private UUID endHubId;
 
     /**
-     * Path geometry of the route, stored as a Well-Known Text (WKT) LineString.
+     * Path geometry of the route as a Well-Known Text (WKT) LineString.
+     * Derived on first access from {@link #geometry} when the route was built
+     * or loaded in binary form.
      */
     @Column("route_geometry")
     private String routeGeometry;
 
+    /**
+     * Decoded path vertices, when available. Persisted as WKB instead of
+     * {@link #routeGeometry}, and never modified once set since it may be
+     * shared with cached results.
+     */
+    @Transient
+    private CoordinateBuffer geometry;
+
+    /**
+     * Precomputed simplified versions of the path, as a JSON object mapping a
+     * tolerance in meters to an encoded polyline.
+     */
+    @Column("geometry_levels")
+    private String geometryLevels;
+
     /**
      * Optional JSON representation of specific waypoints or stops.
      */
@@ -99,4 +118,31 @@ public class Route {
     @CreatedDate
     @Column("created_at")
     private LocalDateTime createdAt;
+
+    public String getRouteGeometry() {
+        if (routeGeometry == null && geometry != null) {
+            routeGeometry = geometry.toLineStringWkt();
+        }
+        return routeGeometry;
+    }
+
+    /**
+     * Replaces the path with a WKT geometry, discarding the decoded vertices
+     * and the now outdated simplification levels.
+     */
+    public void setRouteGeometry(String routeGeometry) {
+        this.routeGeometry = routeGeometry;
+        this.geometry = null;
+        this.geometryLevels = null;
+    }
+
+    /**
+     * Replaces the path with decoded vertices, discarding the WKT text and
+     * the now outdated simplification levels.
+     */
+    public void setGeometry(CoordinateBuffer geometry) {
+        this.geometry = geometry;
+        this.routeGeometry = null;
+        this.geometryLevels = null;
+    }
 }
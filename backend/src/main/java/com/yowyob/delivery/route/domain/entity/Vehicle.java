@@ -65,6 +65,13 @@ public class Vehicle {
     @Column("max_capacity_kg")
     private Double maxCapacityKg;
 
+    /**
+     * Gross vehicle weight in kilograms (vehicle and maximum load), checked
+     * against road weight limits.
+     */
+    @Column("gross_weight_kg")
+    private Double grossWeightKg;
+
     /**
      * Available cargo volume in cubic meters.
      */
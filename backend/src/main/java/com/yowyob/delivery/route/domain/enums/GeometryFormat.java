@@ -0,0 +1,11 @@
+package com.yowyob.delivery.route.domain.enums;
+
+/**
+ * Representation of a route path in API responses.
+ */
+public enum GeometryFormat {
+    /** Path returned as a list of latitude/longitude points. */
+    POINTS,
+    /** Path returned as a Google encoded polyline (precision 5). */
+    POLYLINE
+}
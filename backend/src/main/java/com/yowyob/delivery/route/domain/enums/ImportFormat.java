@@ -0,0 +1,11 @@
+package com.yowyob.delivery.route.domain.enums;
+
+/**
+ * Format of an import file.
+ */
+public enum ImportFormat {
+    /** Comma (or semicolon) separated values with a header row. */
+    CSV,
+    /** GeoJSON FeatureCollection, one record per feature. */
+    GEOJSON
+}
@@ -0,0 +1,13 @@
+package com.yowyob.delivery.route.domain.enums;
+
+/**
+ * Status of an import job.
+ */
+public enum ImportStatus {
+    /** Records are being read and written. */
+    RUNNING,
+    /** Every record was processed; some may have been rejected. */
+    COMPLETED,
+    /** The file could not be read to the end. */
+    FAILED
+}
@@ -0,0 +1,13 @@
+package com.yowyob.delivery.route.domain.enums;
+
+/**
+ * Kind of records contained in an import file.
+ */
+public enum ImportType {
+    /** Hubs of the logistics network. */
+    HUBS,
+    /** Directed connections between existing hubs. */
+    CONNECTIONS,
+    /** Parcels to register. */
+    PARCELS
+}
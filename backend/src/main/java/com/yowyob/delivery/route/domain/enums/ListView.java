@@ -0,0 +1,11 @@
+package com.yowyob.delivery.route.domain.enums;
+
+/**
+ * Level of detail of the items returned by list endpoints.
+ */
+public enum ListView {
+    /** Identifiers, states and addresses only; geometries are not read. */
+    SUMMARY,
+    /** Every field, including locations. */
+    FULL
+}
@@ -0,0 +1,11 @@
+package com.yowyob.delivery.route.domain.enums;
+
+/**
+ * Kind of stop in a multi-stop driver tour.
+ */
+public enum StopType {
+    /** The driver collects a parcel at its pickup location. */
+    PICKUP,
+    /** The driver hands a parcel over at its delivery location. */
+    DELIVERY
+}
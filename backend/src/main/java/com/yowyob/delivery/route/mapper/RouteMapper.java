@@ -1,16 +1,119 @@
 package com.yowyob.delivery.route.mapper;
 
+import com.yowyob.delivery.route.controller.dto.GeoPointResponseDTO;
+import com.yowyob.delivery.route.controller.dto.RouteProgressDTO;
 import com.yowyob.delivery.route.controller.dto.RouteResponseDTO;
 import com.yowyob.delivery.route.domain.entity.Route;
+import com.yowyob.delivery.route.domain.enums.GeometryFormat;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import com.yowyob.delivery.route.service.geometry.SimplifiedGeometry;
+import com.yowyob.delivery.route.service.tracking.RouteProgressTracker.RouteProgress;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Mapper for Route conversion.
+ * The path is taken from the decoded geometry when present, so routes read as
+ * WKB are never converted to WKT on their way to the API.
  */
-@Mapper(componentModel = "spring", uses = { HubMapper.class })
+@Mapper(componentModel = "spring")
 public interface RouteMapper {
 
-    @Mapping(target = "path", source = "routeGeometry", qualifiedByName = "wktToGeoPointList")
-    RouteResponseDTO toResponseDTO(Route route);
+    @Mapping(target = "path", ignore = true)
+    @Mapping(target = "encodedPolyline", ignore = true)
+    @Mapping(target = "simplificationToleranceMeters", ignore = true)
+    @Mapping(target = "progress", ignore = true)
+    RouteResponseDTO toResponseDTOWithoutPath(Route route);
+
+    default RouteResponseDTO toResponseDTO(Route route) {
+        return toResponseDTO(route, GeometryFormat.POINTS);
+    }
+
+    default RouteResponseDTO toResponseDTO(Route route, GeometryFormat format) {
+        if (route == null) {
+            return null;
+        }
+        CoordinateBuffer path;
+        try {
+            path = GeometryCodec.pathOf(route);
+        } catch (IllegalArgumentException e) {
+            path = null;
+        }
+        return toResponseDTO(route, path, format);
+    }
+
+    /**
+     * Maps a route with one of its precomputed simplified paths. The stored
+     * polyline is returned as is when the polyline format is requested.
+     */
+    default RouteResponseDTO toResponseDTO(Route route, SimplifiedGeometry level, GeometryFormat format) {
+        RouteResponseDTO dto;
+        if (format == GeometryFormat.POLYLINE) {
+            dto = toResponseDTOWithoutPath(route);
+            dto.setEncodedPolyline(level.getEncodedPolyline());
+        } else {
+            dto = toResponseDTO(route, level.decode(), format);
+        }
+        dto.setSimplificationToleranceMeters(level.getToleranceMeters());
+        return dto;
+    }
+
+    default RouteResponseDTO toResponseDTO(Route route, CoordinateBuffer path, GeometryFormat format) {
+        RouteResponseDTO dto = toResponseDTOWithoutPath(route);
+        if (path == null) {
+            dto.setPath(List.of());
+        } else if (format == GeometryFormat.POLYLINE) {
+            dto.setEncodedPolyline(GeometryCodec.encodePolyline(path, GeometryCodec.POLYLINE_PRECISION));
+        } else {
+            dto.setPath(toGeoPoints(path));
+        }
+        return dto;
+    }
+
+    default List<GeoPointResponseDTO> toGeoPoints(CoordinateBuffer path) {
+        List<GeoPointResponseDTO> points = new ArrayList<>(path.size());
+        for (int i = 0; i < path.size(); i++) {
+            GeoPointResponseDTO dto = new GeoPointResponseDTO();
+            dto.setLongitude(path.x(i));
+            dto.setLatitude(path.y(i));
+            points.add(dto);
+        }
+        return points;
+    }
+
+    /**
+     * Maps the progress along a route. Distances and duration are the stored
+     * route totals scaled by the share of the path travelled.
+     */
+    default RouteProgressDTO toProgressDTO(RouteProgress progress) {
+        Route route = progress.route();
+        double completed = progress.completedFraction();
+        double totalKm = route.getTotalDistanceKm() != null ? route.getTotalDistanceKm()
+                : progress.matcher().lengthMeters() / 1000;
+        return RouteProgressDTO.builder()
+                .routeId(route.getId())
+                .position(GeoPointResponseDTO.builder()
+                        .latitude(progress.latitude())
+                        .longitude(progress.longitude())
+                        .build())
+                .snappedPosition(GeoPointResponseDTO.builder()
+                        .latitude(progress.match().snappedLatitude())
+                        .longitude(progress.match().snappedLongitude())
+                        .build())
+                .distanceFromRouteMeters(progress.match().distanceMeters())
+                .offRoute(progress.offRoute())
+                .travelledKm(totalKm * completed)
+                .remainingKm(totalKm * (1 - completed))
+                .progressPercent(completed * 100)
+                .remainingMinutes(route.getEstimatedDurationMinutes() == null ? null
+                        : (int) Math.round(route.getEstimatedDurationMinutes() * (1 - completed)))
+                .remainingPolyline(GeometryCodec.encodePolyline(progress.remainingPath(),
+                        GeometryCodec.POLYLINE_PRECISION))
+                .recordedAt(progress.recordedAt())
+                .build();
+    }
 }
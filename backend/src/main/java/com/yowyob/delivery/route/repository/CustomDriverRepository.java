@@ -1,7 +1,12 @@
 package com.yowyob.delivery.route.repository;
 
 import com.yowyob.delivery.route.domain.entity.DeliveryDriver;
+import com.yowyob.delivery.route.domain.enums.DriverState;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Custom repository for delivery driver specific queries.
@@ -11,4 +16,30 @@ public interface CustomDriverRepository {
      * Find all drivers with their location converted to WKT.
      */
     Flux<DeliveryDriver> findAllWithLocation();
+
+    /**
+     * Find all drivers without their location, for listings that do not show
+     * it: the geometry column is not read.
+     */
+    Flux<DeliveryDriver> findAllSummaries();
+
+    /**
+     * Find a driver by ID with their location converted to WKT.
+     */
+    Mono<DeliveryDriver> findByIdWithLocation(UUID id);
+
+    /**
+     * Find the active drivers in a state that have a known location, with the
+     * location converted to WKT.
+     */
+    Flux<DeliveryDriver> findActiveByStateWithLocation(DriverState state);
+
+    /**
+     * Update the location of several drivers in a single statement. Each
+     * driver carries its new WKT location and the time it was measured; a
+     * location older than the stored one is ignored.
+     *
+     * @return the number of drivers updated
+     */
+    Mono<Long> updateLocations(List<DeliveryDriver> drivers);
 }
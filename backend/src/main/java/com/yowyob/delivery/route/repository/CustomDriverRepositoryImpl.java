@@ -2,13 +2,17 @@ package com.yowyob.delivery.route.repository;
 
 import com.yowyob.delivery.route.domain.entity.DeliveryDriver;
 import com.yowyob.delivery.route.domain.enums.DriverState;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -18,56 +22,131 @@ public class CustomDriverRepositoryImpl implements CustomDriverRepository {
 
     private final DatabaseClient databaseClient;
 
+    private static final String SELECT_COLUMNS = """
+            SELECT
+                id,
+                first_name,
+                last_name,
+                phone_number,
+                email,
+                license_number,
+                current_state,
+                ST_AsText(current_location) as current_location,
+                rating,
+                total_deliveries,
+                vehicle_id,
+                last_location_update,
+                is_active,
+                created_at,
+                updated_at
+            FROM drivers
+            """;
+
+    /** Same columns as {@link #SELECT_COLUMNS} with a null location. */
+    private static final String SELECT_SUMMARY_COLUMNS = """
+            SELECT
+                id,
+                first_name,
+                last_name,
+                phone_number,
+                email,
+                license_number,
+                current_state,
+                NULL::text as current_location,
+                rating,
+                total_deliveries,
+                vehicle_id,
+                last_location_update,
+                is_active,
+                created_at,
+                updated_at
+            FROM drivers
+            """;
+
     @Override
     public Flux<DeliveryDriver> findAllWithLocation() {
-        String sql = """
-                SELECT
-                    id,
-                    first_name,
-                    last_name,
-                    phone_number,
-                    email,
-                    license_number,
-                    current_state,
-                    ST_AsText(current_location) as current_location,
-                    rating,
-                    total_deliveries,
-                    vehicle_id,
-                    last_location_update,
-                    is_active,
-                    created_at,
-                    updated_at
-                FROM drivers
-                """;
+        return databaseClient.sql(SELECT_COLUMNS)
+                .map(this::mapRow)
+                .all();
+    }
 
-        return databaseClient.sql(sql)
-                .map((row, metadata) -> {
-                    String stateStr = row.get("current_state", String.class);
-                    DriverState state;
-                    try {
-                        state = stateStr != null ? DriverState.valueOf(stateStr) : null;
-                    } catch (IllegalArgumentException e) {
-                        state = null;
-                    }
+    @Override
+    public Flux<DeliveryDriver> findAllSummaries() {
+        return databaseClient.sql(SELECT_SUMMARY_COLUMNS)
+                .map(this::mapRow)
+                .all();
+    }
+
+    @Override
+    public Mono<DeliveryDriver> findByIdWithLocation(UUID id) {
+        return databaseClient.sql(SELECT_COLUMNS + "WHERE id = :id")
+                .bind("id", id)
+                .map(this::mapRow)
+                .one();
+    }
 
-                    return DeliveryDriver.builder()
-                            .id(row.get("id", UUID.class))
-                            .firstName(row.get("first_name", String.class))
-                            .lastName(row.get("last_name", String.class))
-                            .phoneNumber(row.get("phone_number", String.class))
-                            .email(row.get("email", String.class))
-                            .licenseNumber(row.get("license_number", String.class))
-                            .currentState(state)
-                            .currentLocation(row.get("current_location", String.class))
-                            .rating(row.get("rating", Double.class))
-                            .totalDeliveries(row.get("total_deliveries", Integer.class))
-                            .vehicleId(row.get("vehicle_id", UUID.class))
-                            .lastLocationUpdate(row.get("last_location_update", LocalDateTime.class))
-                            .isActive(row.get("is_active", Boolean.class))
-                            .createdAt(row.get("created_at", LocalDateTime.class))
-                            .updatedAt(row.get("updated_at", LocalDateTime.class))
-                            .build();
-                })
+    @Override
+    public Flux<DeliveryDriver> findActiveByStateWithLocation(DriverState state) {
+        return databaseClient.sql(SELECT_COLUMNS
+                + "WHERE current_state::text = :state AND is_active IS NOT FALSE AND current_location IS NOT NULL")
+                .bind("state", state.name())
+                .map(this::mapRow)
                 .all();
     }
+
+    @Override
+    public Mono<Long> updateLocations(List<DeliveryDriver> drivers) {
+        if (drivers.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder("UPDATE drivers d "
+                + "SET current_location = ST_GeomFromText(v.location, 4326), last_location_update = v.recorded_at "
+                + "FROM (VALUES ");
+        for (int i = 0; i < drivers.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:id").append(i).append("::uuid, :location").append(i).append("::text, :recordedAt").append(i)
+                    .append("::timestamp)");
+        }
+        sql.append(") AS v(id, location, recorded_at) WHERE d.id = v.id "
+                + "AND (d.last_location_update IS NULL OR d.last_location_update <= v.recorded_at)");
+
+        var spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < drivers.size(); i++) {
+            DeliveryDriver driver = drivers.get(i);
+            spec = spec.bind("id" + i, driver.getId())
+                    .bind("location" + i, driver.getCurrentLocation())
+                    .bind("recordedAt" + i, driver.getLastLocationUpdate());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private DeliveryDriver mapRow(Row row, RowMetadata metadata) {
+        String stateStr = row.get("current_state", String.class);
+        DriverState state;
+        try {
+            state = stateStr != null ? DriverState.valueOf(stateStr) : null;
+        } catch (IllegalArgumentException e) {
+            state = null;
+        }
+
+        return DeliveryDriver.builder()
+                .id(row.get("id", UUID.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .phoneNumber(row.get("phone_number", String.class))
+                .email(row.get("email", String.class))
+                .licenseNumber(row.get("license_number", String.class))
+                .currentState(state)
+                .currentLocation(row.get("current_location", String.class))
+                .rating(row.get("rating", Double.class))
+                .totalDeliveries(row.get("total_deliveries", Integer.class))
+                .vehicleId(row.get("vehicle_id", UUID.class))
+                .lastLocationUpdate(row.get("last_location_update", LocalDateTime.class))
+                .isActive(row.get("is_active", Boolean.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .build();
+    }
 }
@@ -0,0 +1,21 @@
+package com.yowyob.delivery.route.repository;
+
+import com.yowyob.delivery.route.domain.entity.HubConnection;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Custom repository for hub connection specific queries.
+ */
+public interface CustomHubConnectionRepository {
+
+    /**
+     * Insert new connections with multi-row INSERT statements. Connections
+     * whose hubs do not exist, or that already exist between the same hubs,
+     * are skipped.
+     *
+     * @return the inserted connections, with their generated IDs
+     */
+    Flux<HubConnection> insertAll(List<HubConnection> connections);
+}
@@ -0,0 +1,81 @@
+package com.yowyob.delivery.route.repository;
+
+import com.yowyob.delivery.route.domain.entity.HubConnection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RequiredArgsConstructor
+public class CustomHubConnectionRepositoryImpl implements CustomHubConnectionRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /** Rows per multi-row INSERT (7 bind parameters per connection). */
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Override
+    public Flux<HubConnection> insertAll(List<HubConnection> connections) {
+        return Flux.fromIterable(connections)
+                .buffer(INSERT_BATCH_SIZE)
+                .concatMap(this::insertBatch);
+    }
+
+    private Flux<HubConnection> insertBatch(List<HubConnection> batch) {
+        StringBuilder sql = new StringBuilder("INSERT INTO hub_connections "
+                + "(from_hub_id, to_hub_id, weight, allowed_vehicles, max_weight_kg, is_highway, is_toll) "
+                + "SELECT v.from_hub_id, v.to_hub_id, v.weight, v.allowed_vehicles, v.max_weight_kg, "
+                + "COALESCE(v.is_highway, FALSE), COALESCE(v.is_toll, FALSE) FROM (VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:from").append(i).append("::uuid, :to").append(i).append("::uuid, :weight").append(i)
+                    .append("::numeric, :allowed").append(i).append("::integer, :maxWeight").append(i)
+                    .append("::double precision, :highway").append(i).append("::boolean, :toll").append(i)
+                    .append("::boolean)");
+        }
+        sql.append(") AS v(from_hub_id, to_hub_id, weight, allowed_vehicles, max_weight_kg, is_highway, is_toll) "
+                + "WHERE EXISTS (SELECT 1 FROM hubs h WHERE h.id = v.from_hub_id) "
+                + "AND EXISTS (SELECT 1 FROM hubs h WHERE h.id = v.to_hub_id) "
+                + "ON CONFLICT (from_hub_id, to_hub_id) DO NOTHING "
+                + "RETURNING id, from_hub_id, to_hub_id, weight, allowed_vehicles, max_weight_kg, is_highway, is_toll");
+
+        var spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < batch.size(); i++) {
+            HubConnection connection = batch.get(i);
+            spec = spec.bind("from" + i, connection.getFromHubId())
+                    .bind("to" + i, connection.getToHubId())
+                    .bind("weight" + i, connection.getWeight());
+            spec = bindNullable(spec, "allowed" + i, connection.getAllowedVehicles(), Integer.class);
+            spec = bindNullable(spec, "maxWeight" + i, connection.getMaxWeightKg(), Double.class);
+            spec = bindNullable(spec, "highway" + i, connection.getIsHighway(), Boolean.class);
+            spec = bindNullable(spec, "toll" + i, connection.getIsToll(), Boolean.class);
+        }
+        return spec.map((row, metadata) -> HubConnection.builder()
+                        .id(row.get("id", UUID.class))
+                        .fromHubId(row.get("from_hub_id", UUID.class))
+                        .toHubId(row.get("to_hub_id", UUID.class))
+                        .weight(row.get("weight", Double.class))
+                        .allowedVehicles(row.get("allowed_vehicles", Integer.class))
+                        .maxWeightKg(row.get("max_weight_kg", Double.class))
+                        .isHighway(row.get("is_highway", Boolean.class))
+                        .isToll(row.get("is_toll", Boolean.class))
+                        .build())
+                .all()
+                .doOnError(e -> log.error("Error inserting {} hub connections", batch.size(), e));
+    }
+
+    private <T> DatabaseClient.GenericExecuteSpec bindNullable(
+            DatabaseClient.GenericExecuteSpec spec, String name, T value, Class<T> type) {
+        if (value != null) {
+            return spec.bind(name, value);
+        } else {
+            return spec.bindNull(name, type);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.yowyob.delivery.route.domain.entity.Hub;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -17,6 +18,12 @@ public interface CustomHubRepository {
      * Uses manual mapping to handle PostGIS geometry types.
      */
     Flux<Hub> findAllWithLocation();
+
+    /**
+     * Find all hubs without their location, for listings that do not show
+     * it: the geometry column is not read.
+     */
+    Flux<Hub> findAllSummaries();
     
     /**
      * Find a hub by ID with location converted to WKT format.
@@ -28,4 +35,13 @@ public interface CustomHubRepository {
      * Converts WKT string to PostGIS geometry using ST_GeomFromText.
      */
     Mono<Hub> saveWithGeometry(Hub hub);
+
+    /**
+     * Insert new hubs with multi-row INSERT statements, many rows per round
+     * trip. IDs are generated here and set on the given hubs, as well as their
+     * creation and update times.
+     *
+     * @return the inserted hubs, in the given order
+     */
+    Flux<Hub> insertAllWithGeometry(List<Hub> hubs);
 }
\ No newline at end of file
@@ -10,6 +10,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -23,6 +26,9 @@ public class CustomHubRepositoryImpl implements CustomHubRepository {
 
     private final DatabaseClient databaseClient;
 
+    /** Rows per multi-row INSERT (4 bind parameters per hub). */
+    private static final int INSERT_BATCH_SIZE = 2000;
+
     @Override
     public Flux<Hub> findAllWithLocation() {
         String sql = """
@@ -44,6 +50,27 @@ public class CustomHubRepositoryImpl implements CustomHubRepository {
                 .doOnError(e -> log.error("Error fetching hubs", e));
     }
 
+    @Override
+    public Flux<Hub> findAllSummaries() {
+        String sql = """
+            SELECT
+                id,
+                address,
+                type,
+                NULL::text as location,
+                created_at,
+                updated_at
+            FROM hubs
+            ORDER BY created_at DESC
+            """;
+
+        return databaseClient.sql(sql)
+                .map(this::mapRowToHub)
+                .all()
+                .doOnSubscribe(s -> log.debug("Fetching all hub summaries"))
+                .doOnError(e -> log.error("Error fetching hub summaries", e));
+    }
+
     @Override
     public Mono<Hub> findByIdWithLocation(UUID id) {
         String sql = """
@@ -111,6 +138,49 @@ public class CustomHubRepositoryImpl implements CustomHubRepository {
         }
     }
 
+    @Override
+    public Flux<Hub> insertAllWithGeometry(List<Hub> hubs) {
+        return Flux.fromIterable(hubs)
+                .buffer(INSERT_BATCH_SIZE)
+                .concatMap(this::insertBatch);
+    }
+
+    private Flux<Hub> insertBatch(List<Hub> batch) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO hubs (id, address, type, location, created_at, updated_at) VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:id").append(i).append("::uuid, :address").append(i).append(", :type").append(i)
+                    .append("::hub_type, ST_GeomFromText(:location").append(i).append(", 4326), NOW(), NOW())");
+        }
+        sql.append(" RETURNING id, created_at, updated_at");
+
+        Map<UUID, Hub> byId = new HashMap<>();
+        var spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < batch.size(); i++) {
+            Hub hub = batch.get(i);
+            hub.setId(UUID.randomUUID());
+            byId.put(hub.getId(), hub);
+            spec = spec.bind("id" + i, hub.getId())
+                    .bind("address" + i, hub.getAddress())
+                    .bind("type" + i, hub.getType().name())
+                    .bind("location" + i, hub.getLocation());
+        }
+        return spec.map((row, metadata) -> {
+                    Hub hub = byId.get(row.get("id", UUID.class));
+                    hub.setCreatedAt(row.get("created_at", LocalDateTime.class));
+                    hub.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+                    return hub;
+                })
+                .all()
+                .count()
+                .doOnSuccess(count -> log.info("Inserted {} hubs", count))
+                .doOnError(e -> log.error("Error inserting {} hubs", batch.size(), e))
+                .thenMany(Flux.fromIterable(batch));
+    }
+
     /**
      * Maps a database row to a Hub entity.
      * Handles the conversion of PostGIS geometry to WKT string.
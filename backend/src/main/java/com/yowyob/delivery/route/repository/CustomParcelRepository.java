@@ -1,9 +1,14 @@
 package com.yowyob.delivery.route.repository;
 
 import com.yowyob.delivery.route.domain.entity.Parcel;
+import com.yowyob.delivery.route.domain.enums.ParcelPriority;
+import com.yowyob.delivery.route.domain.enums.ParcelState;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -18,17 +23,94 @@ public interface CustomParcelRepository {
      */
     Flux<Parcel> findAllWithLocations();
 
+    /**
+     * Find one page of parcels, newest first. Pages are read with keyset
+     * pagination: a page starts right after the {@code (created_at, id)}
+     * position of the last parcel of the previous one, so deep pages cost as
+     * little as the first. Null filters are ignored.
+     *
+     * @param state          only parcels in this state
+     * @param driverId       only parcels assigned to this driver
+     * @param priority       only parcels with this priority
+     * @param afterCreatedAt creation time of the last parcel of the previous
+     *                       page, or null for the first page
+     * @param afterId        ID of the last parcel of the previous page
+     * @param limit          maximum number of parcels returned
+     * @param withLocations  whether locations are converted to WKT; without
+     *                       them the geometry columns are not read at all
+     */
+    Flux<Parcel> findPage(ParcelState state, UUID driverId, ParcelPriority priority, LocalDateTime afterCreatedAt,
+            UUID afterId, int limit, boolean withLocations);
+
+    /**
+     * Stream the parcels matching the filters, newest first. Rows are fetched
+     * in chunks as the subscriber requests them instead of being loaded at
+     * once. Null filters are ignored.
+     *
+     * @param withLocations whether locations are converted to WKT; without
+     *                      them the geometry columns are not read at all
+     */
+    Flux<Parcel> stream(ParcelState state, UUID driverId, ParcelPriority priority, boolean withLocations);
+
     /**
      * Find a parcel by ID with locations converted to WKT format.
      */
     Mono<Parcel> findByIdWithLocations(UUID id);
 
+    /**
+     * Find the parcels with the given IDs, with locations converted to WKT.
+     * Unknown IDs are ignored.
+     */
+    Flux<Parcel> findAllByIdWithLocations(Collection<UUID> ids);
+
+    /**
+     * Find the parcels assigned to a driver that are in one of the given
+     * states, with locations converted to WKT.
+     */
+    Flux<Parcel> findByDriverAndStatesWithLocations(UUID driverId, Collection<ParcelState> states);
+
+    /**
+     * Find the parcels in a state that have no driver yet, oldest first, with
+     * locations converted to WKT.
+     *
+     * @param state the parcel state
+     * @param limit maximum number of parcels returned
+     */
+    Flux<Parcel> findUnassignedByStateWithLocations(ParcelState state, int limit);
+
+    /**
+     * Assign parcels to drivers in a single statement. Each parcel carries the
+     * driver and vehicle it is assigned to. A parcel is only assigned if it is
+     * still PLANNED without a driver and its driver still AVAILABLE; assigned
+     * parcels move to PENDING_PICKUP and their drivers to ASSIGNED.
+     *
+     * @return the IDs of the parcels actually assigned
+     */
+    Flux<UUID> assignDrivers(List<Parcel> assignments);
+
     /**
      * Save a parcel with PostGIS geometry support.
      * Converts WKT strings to PostGIS geometry using ST_GeomFromText.
      */
     Mono<Parcel> saveWithGeometry(Parcel parcel);
 
+    /**
+     * Insert new parcels with multi-row INSERT statements, a few hundred rows
+     * per round trip instead of one. IDs are generated here and set on the
+     * given parcels, as well as their creation and update times.
+     *
+     * @return the inserted parcels, in the given order
+     */
+    Flux<Parcel> insertAllWithGeometry(List<Parcel> parcels);
+
+    /**
+     * Update the Petri Net ID of several parcels in a single statement per
+     * batch. Parcels without a Petri Net ID are skipped.
+     *
+     * @return the number of parcels updated
+     */
+    Mono<Long> updatePetriNetIds(List<Parcel> parcels);
+
     /**
      * Update only the Petri Net ID of a parcel.
      * Used to avoid conversion issues with other fields during creation flow.
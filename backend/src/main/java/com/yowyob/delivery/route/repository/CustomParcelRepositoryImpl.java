@@ -12,6 +12,10 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.Optional;
 
@@ -26,6 +30,72 @@ public class CustomParcelRepositoryImpl implements CustomParcelRepository {
 
     private final DatabaseClient databaseClient;
 
+    /** Rows fetched per round trip when streaming parcels. */
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Rows per multi-row INSERT, keeping the statement well under the
+     * PostgreSQL bind parameter limit (20 parameters per parcel).
+     */
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String SELECT_COLUMNS = """
+            SELECT
+                id,
+                tracking_code,
+                driver_id,
+                vehicle_id,
+                current_state,
+                priority,
+                sender_name,
+                sender_phone,
+                recipient_name,
+                recipient_phone,
+                ST_AsText(pickup_location) as pickup_location,
+                pickup_address,
+                ST_AsText(delivery_location) as delivery_location,
+                delivery_address,
+                weight_kg,
+                declared_value_xaf,
+                distance_km,
+                delivery_fee_xaf,
+                estimated_delivery_time,
+                notes,
+                created_at,
+                updated_at
+            FROM parcels
+            """;
+    /**
+     * Same columns as {@link #SELECT_COLUMNS} with null locations, for lists
+     * that do not show them: no geometry is read or converted to text.
+     */
+    private static final String SELECT_SUMMARY_COLUMNS = """
+            SELECT
+                id,
+                tracking_code,
+                driver_id,
+                vehicle_id,
+                current_state,
+                priority,
+                sender_name,
+                sender_phone,
+                recipient_name,
+                recipient_phone,
+                NULL::text as pickup_location,
+                pickup_address,
+                NULL::text as delivery_location,
+                delivery_address,
+                weight_kg,
+                declared_value_xaf,
+                distance_km,
+                delivery_fee_xaf,
+                estimated_delivery_time,
+                notes,
+                created_at,
+                updated_at
+            FROM parcels
+            """;
+
     @Override
     public Flux<Parcel> findAllWithLocations() {
         String sql = """
@@ -63,6 +133,69 @@ public class CustomParcelRepositoryImpl implements CustomParcelRepository {
                 .doOnError(e -> log.error("Error fetching parcels", e));
     }
 
+    @Override
+    public Flux<Parcel> findPage(ParcelState state, UUID driverId, ParcelPriority priority,
+            LocalDateTime afterCreatedAt, UUID afterId, int limit, boolean withLocations) {
+        String filters = filterClause(state, driverId, priority);
+        StringBuilder sql = new StringBuilder(withLocations ? SELECT_COLUMNS : SELECT_SUMMARY_COLUMNS)
+                .append(filters);
+        if (afterCreatedAt != null && afterId != null) {
+            // Row comparison matches the (created_at, id) index order
+            sql.append(filters.isEmpty() ? "WHERE " : "AND ")
+                    .append("(created_at, id) < (:afterCreatedAt, :afterId) ");
+        }
+        sql.append("ORDER BY created_at DESC, id DESC LIMIT :limit");
+
+        var spec = bindFilters(databaseClient.sql(sql.toString()), state, driverId, priority);
+        if (afterCreatedAt != null && afterId != null) {
+            spec = spec.bind("afterCreatedAt", afterCreatedAt).bind("afterId", afterId);
+        }
+        return spec.bind("limit", limit)
+                .map(this::mapRowToParcel)
+                .all()
+                .doOnError(e -> log.error("Error fetching a page of parcels", e));
+    }
+
+    @Override
+    public Flux<Parcel> stream(ParcelState state, UUID driverId, ParcelPriority priority, boolean withLocations) {
+        String sql = (withLocations ? SELECT_COLUMNS : SELECT_SUMMARY_COLUMNS)
+                + filterClause(state, driverId, priority) + "ORDER BY created_at DESC, id DESC";
+        return bindFilters(databaseClient.sql(sql), state, driverId, priority)
+                // Fetch in chunks driven by downstream demand rather than the whole result at once
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(this::mapRowToParcel)
+                .all()
+                .doOnError(e -> log.error("Error streaming parcels", e));
+    }
+
+    private static String filterClause(ParcelState state, UUID driverId, ParcelPriority priority) {
+        StringBuilder where = new StringBuilder();
+        if (state != null) {
+            where.append("current_state = :state::parcel_state ");
+        }
+        if (driverId != null) {
+            where.append(where.isEmpty() ? "" : "AND ").append("driver_id = :driverId ");
+        }
+        if (priority != null) {
+            where.append(where.isEmpty() ? "" : "AND ").append("priority = :priority::parcel_priority ");
+        }
+        return where.isEmpty() ? "" : "WHERE " + where;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindFilters(DatabaseClient.GenericExecuteSpec spec,
+            ParcelState state, UUID driverId, ParcelPriority priority) {
+        if (state != null) {
+            spec = spec.bind("state", state.name());
+        }
+        if (driverId != null) {
+            spec = spec.bind("driverId", driverId);
+        }
+        if (priority != null) {
+            spec = spec.bind("priority", priority.name());
+        }
+        return spec;
+    }
+
     @Override
     public Mono<Parcel> findByIdWithLocations(UUID id) {
         String sql = """
@@ -101,6 +234,93 @@ public class CustomParcelRepositoryImpl implements CustomParcelRepository {
                 .doOnError(e -> log.error("Error fetching parcel {}", id, e));
     }
 
+    @Override
+    public Flux<Parcel> findAllByIdWithLocations(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(SELECT_COLUMNS + "WHERE id = ANY(:ids)")
+                .bind("ids", ids.toArray(new UUID[0]))
+                .map(this::mapRowToParcel)
+                .all()
+                .doOnError(e -> log.error("Error fetching {} parcels", ids.size(), e));
+    }
+
+    @Override
+    public Flux<Parcel> findByDriverAndStatesWithLocations(UUID driverId, Collection<ParcelState> states) {
+        String[] stateNames = states.stream().map(Enum::name).toArray(String[]::new);
+        return databaseClient.sql(SELECT_COLUMNS + "WHERE driver_id = :driverId "
+                + "AND current_state = ANY(:states::parcel_state[]) ORDER BY created_at")
+                .bind("driverId", driverId)
+                .bind("states", stateNames)
+                .map(this::mapRowToParcel)
+                .all()
+                .doOnError(e -> log.error("Error fetching parcels of driver {}", driverId, e));
+    }
+
+    @Override
+    public Flux<Parcel> findUnassignedByStateWithLocations(ParcelState state, int limit) {
+        return databaseClient.sql(SELECT_COLUMNS + "WHERE driver_id IS NULL AND current_state = :state::parcel_state "
+                + "ORDER BY created_at LIMIT :limit")
+                .bind("state", state.name())
+                .bind("limit", limit)
+                .map(this::mapRowToParcel)
+                .all()
+                .doOnError(e -> log.error("Error fetching unassigned {} parcels", state, e));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Drivers are locked before the parcels are updated, so concurrent batches
+     * never give the same driver two parcels.
+     */
+    @Override
+    public Flux<UUID> assignDrivers(List<Parcel> assignments) {
+        if (assignments.isEmpty()) {
+            return Flux.empty();
+        }
+        StringBuilder sql = new StringBuilder("WITH v (parcel_id, driver_id, vehicle_id) AS (VALUES ");
+        for (int i = 0; i < assignments.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:parcel").append(i).append("::uuid, :driver").append(i).append("::uuid, :vehicle").append(i)
+                    .append("::uuid)");
+        }
+        sql.append("""
+                ),
+                available AS (
+                    SELECT d.id FROM drivers d
+                    WHERE d.id IN (SELECT driver_id FROM v) AND d.current_state = 'AVAILABLE'
+                    FOR UPDATE
+                ),
+                assigned AS (
+                    UPDATE parcels p
+                    SET driver_id = v.driver_id, vehicle_id = v.vehicle_id,
+                        current_state = 'PENDING_PICKUP'::parcel_state, updated_at = NOW()
+                    FROM v JOIN available a ON a.id = v.driver_id
+                    WHERE p.id = v.parcel_id AND p.driver_id IS NULL AND p.current_state = 'PLANNED'
+                    RETURNING p.id, p.driver_id
+                ),
+                busy AS (
+                    UPDATE drivers d SET current_state = 'ASSIGNED'::driver_state, updated_at = NOW()
+                    FROM assigned WHERE d.id = assigned.driver_id
+                )
+                SELECT id FROM assigned
+                """);
+
+        var spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < assignments.size(); i++) {
+            Parcel parcel = assignments.get(i);
+            spec = spec.bind("parcel" + i, parcel.getId());
+            spec = spec.bind("driver" + i, parcel.getDriverId());
+            spec = bindNullable(spec, "vehicle" + i, parcel.getVehicleId(), UUID.class);
+        }
+        return spec.map((row, metadata) -> row.get("id", UUID.class))
+                .all()
+                .doOnError(e -> log.error("Error assigning {} parcels", assignments.size(), e));
+    }
+
     @Override
     public Mono<Parcel> saveWithGeometry(Parcel parcel) {
         if (parcel.getId() == null) {
@@ -228,6 +448,110 @@ public class CustomParcelRepositoryImpl implements CustomParcelRepository {
         }
     }
 
+    @Override
+    public Flux<Parcel> insertAllWithGeometry(List<Parcel> parcels) {
+        return Flux.fromIterable(parcels)
+                .buffer(INSERT_BATCH_SIZE)
+                .concatMap(this::insertBatch);
+    }
+
+    private Flux<Parcel> insertBatch(List<Parcel> batch) {
+        StringBuilder sql = new StringBuilder("""
+                INSERT INTO parcels (
+                    id, tracking_code, driver_id, vehicle_id, current_state, priority,
+                    sender_name, sender_phone, recipient_name, recipient_phone,
+                    pickup_location, pickup_address, delivery_location, delivery_address,
+                    weight_kg, declared_value_xaf, distance_km, delivery_fee_xaf,
+                    estimated_delivery_time, notes, created_at, updated_at
+                )
+                VALUES
+                """);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(",\n");
+            }
+            sql.append("(:id").append(i).append("::uuid, :tracking_code").append(i)
+                    .append(", :driver_id").append(i).append("::uuid, :vehicle_id").append(i)
+                    .append("::uuid, :current_state").append(i).append("::parcel_state, :priority").append(i)
+                    .append("::parcel_priority, :sender_name").append(i).append(", :sender_phone").append(i)
+                    .append(", :recipient_name").append(i).append(", :recipient_phone").append(i)
+                    .append(", ST_GeomFromText(:pickup_location").append(i).append(", 4326), :pickup_address")
+                    .append(i).append(", ST_GeomFromText(:delivery_location").append(i)
+                    .append(", 4326), :delivery_address").append(i).append(", :weight_kg").append(i)
+                    .append("::numeric, :declared_value_xaf").append(i).append("::numeric, :distance_km").append(i)
+                    .append("::numeric, :delivery_fee_xaf").append(i).append("::numeric, :estimated_delivery_time")
+                    .append(i).append("::timestamp, :notes").append(i).append("::text, NOW(), NOW())");
+        }
+        // Timestamps come from the database clock, like single-row inserts, to keep the keyset order
+        sql.append("\nRETURNING id, created_at, updated_at");
+
+        Map<UUID, Parcel> byId = new HashMap<>();
+        var spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < batch.size(); i++) {
+            Parcel parcel = batch.get(i);
+            parcel.setId(UUID.randomUUID());
+            byId.put(parcel.getId(), parcel);
+            spec = spec.bind("id" + i, parcel.getId())
+                    .bind("tracking_code" + i, parcel.getTrackingCode());
+            spec = bindNullable(spec, "driver_id" + i, parcel.getDriverId(), UUID.class);
+            spec = bindNullable(spec, "vehicle_id" + i, parcel.getVehicleId(), UUID.class);
+            spec = spec.bind("current_state" + i, parcel.getCurrentState().name())
+                    .bind("priority" + i, parcel.getPriority().name())
+                    .bind("sender_name" + i, parcel.getSenderName())
+                    .bind("sender_phone" + i, parcel.getSenderPhone())
+                    .bind("recipient_name" + i, parcel.getRecipientName())
+                    .bind("recipient_phone" + i, parcel.getRecipientPhone())
+                    .bind("pickup_location" + i, parcel.getPickupLocation())
+                    .bind("pickup_address" + i, parcel.getPickupAddress())
+                    .bind("delivery_location" + i, parcel.getDeliveryLocation())
+                    .bind("delivery_address" + i, parcel.getDeliveryAddress())
+                    .bind("weight_kg" + i, parcel.getWeightKg());
+            spec = bindNullable(spec, "declared_value_xaf" + i, parcel.getDeclaredValueXaf(), Double.class);
+            spec = bindNullable(spec, "distance_km" + i, parcel.getDistanceKm(), Double.class);
+            spec = bindNullable(spec, "delivery_fee_xaf" + i, parcel.getDeliveryFeeXaf(), Double.class);
+            spec = bindNullable(spec, "estimated_delivery_time" + i, parcel.getEstimatedDeliveryTime(),
+                    LocalDateTime.class);
+            spec = bindNullable(spec, "notes" + i, parcel.getNotes(), String.class);
+        }
+        return spec.map((row, metadata) -> {
+                    Parcel parcel = byId.get(row.get("id", UUID.class));
+                    parcel.setCreatedAt(row.get("created_at", LocalDateTime.class));
+                    parcel.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+                    return parcel;
+                })
+                .all()
+                .count()
+                .doOnSuccess(count -> log.debug("Inserted {} parcels", count))
+                .doOnError(e -> log.error("Error inserting {} parcels", batch.size(), e))
+                .thenMany(Flux.fromIterable(batch));
+    }
+
+    @Override
+    public Mono<Long> updatePetriNetIds(List<Parcel> parcels) {
+        return Flux.fromIterable(parcels)
+                .filter(parcel -> parcel.getId() != null && parcel.getPetriNetId() != null)
+                .buffer(INSERT_BATCH_SIZE)
+                .concatMap(batch -> {
+                    StringBuilder sql = new StringBuilder("UPDATE parcels p SET petri_net_id = v.net_id, "
+                            + "updated_at = NOW() FROM (VALUES ");
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i > 0) {
+                            sql.append(", ");
+                        }
+                        sql.append("(:id").append(i).append("::uuid, :net").append(i).append("::varchar)");
+                    }
+                    sql.append(") AS v(id, net_id) WHERE p.id = v.id");
+
+                    var spec = databaseClient.sql(sql.toString());
+                    for (int i = 0; i < batch.size(); i++) {
+                        spec = spec.bind("id" + i, batch.get(i).getId())
+                                .bind("net" + i, batch.get(i).getPetriNetId());
+                    }
+                    return spec.fetch().rowsUpdated();
+                })
+                .reduce(0L, Long::sum);
+    }
+
     @Override
     public Mono<Long> updatePetriNetId(UUID parcelId, String petriNetId) {
         String sql = "UPDATE parcels SET petri_net_id = :petriNetId, updated_at = NOW() WHERE id = :parcelId";
@@ -1,8 +1,57 @@
 package com.yowyob.delivery.route.repository;
 
 import com.yowyob.delivery.route.domain.entity.Route;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.UUID;
+
 public interface CustomRouteRepository {
+
+    /**
+     * Save a route with PostGIS geometry support.
+     * Decoded geometries are sent as WKB (ST_GeomFromWKB), WKT-only routes
+     * fall back to ST_GeomFromText.
+     */
     Mono<Route> saveWithGeometry(Route route);
+
+    /**
+     * Insert new routes with multi-row INSERT statements, one round trip per
+     * batch. Geometries are sent as in {@link #saveWithGeometry(Route)}. IDs
+     * are generated here and set on the given routes.
+     *
+     * @return the inserted routes, in the given order
+     */
+    Flux<Route> insertAllWithGeometry(List<Route> routes);
+
+    /**
+     * Find a route by ID with its path read as WKB (ST_AsBinary) and decoded
+     * into {@link Route#getGeometry()}.
+     */
+    Mono<Route> findByIdWithGeometry(UUID id);
+
+    /**
+     * Find the most recent active route of a driver, with its path decoded as
+     * in {@link #findByIdWithGeometry(UUID)}.
+     */
+    Mono<Route> findActiveByDriverWithGeometry(UUID driverId);
+
+    /**
+     * Find the active routes whose path passes within {@code bufferMeters} of
+     * a segment. The GiST index on active route geometries prunes candidates
+     * by bounding box before the exact geodesic distance test. Multi-stop
+     * tours are left out: recalculating them as a single hub-to-hub path
+     * would drop their intermediate stops.
+     */
+    Flux<Route> findActiveNearSegment(double startLatitude, double startLongitude, double endLatitude,
+            double endLongitude, double bufferMeters);
+
+    /**
+     * Write the recalculated path, distance, duration and routing service of
+     * many existing routes, one multi-row UPDATE per batch.
+     *
+     * @return the number of updated rows
+     */
+    Mono<Long> updateRecalculatedRoutes(List<Route> routes);
 }
@@ -1,11 +1,17 @@
 package com.yowyob.delivery.route.repository;
 
 import com.yowyob.delivery.route.domain.entity.Route;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import lombok.RequiredArgsConstructor;
 import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -31,18 +37,176 @@ public class CustomRouteRepositoryImpl implements CustomRouteRepository {
         }
     }
 
+    private static final String SELECT_COLUMNS = """
+            SELECT
+                id,
+                parcel_id,
+                driver_id,
+                start_hub_id,
+                end_hub_id,
+                ST_AsBinary(route_geometry) as route_geometry,
+                geometry_levels::text as geometry_levels,
+                waypoints::text as waypoints,
+                total_distance_km,
+                estimated_duration_minutes,
+                routing_service,
+                traffic_factor,
+                is_active,
+                created_at
+            """;
+
+    /**
+     * Rows per multi-row INSERT or UPDATE, keeping the statement well under
+     * the PostgreSQL bind parameter limit and its size reasonable with long
+     * paths.
+     */
+    private static final int BATCH_SIZE = 200;
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    @Override
+    public Mono<Route> findByIdWithGeometry(UUID id) {
+        String sql = SELECT_COLUMNS + """
+            FROM routes
+            WHERE id = :id
+            """;
+
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(this::mapRowToRoute)
+                .one();
+    }
+
+    @Override
+    public Mono<Route> findActiveByDriverWithGeometry(UUID driverId) {
+        String sql = SELECT_COLUMNS + """
+            FROM routes
+            WHERE driver_id = :driverId AND is_active
+            ORDER BY created_at DESC
+            LIMIT 1
+            """;
+
+        return databaseClient.sql(sql)
+                .bind("driverId", driverId)
+                .map(this::mapRowToRoute)
+                .one();
+    }
+
+    @Override
+    public Flux<Route> findActiveNearSegment(double startLatitude, double startLongitude, double endLatitude,
+            double endLongitude, double bufferMeters) {
+        // Bounding-box margin in degrees, converted at the highest latitude so it never under-covers
+        double widestLatitude = Math.min(89.0, Math.max(Math.abs(startLatitude), Math.abs(endLatitude)) + 1.0);
+        double marginDegrees = bufferMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(widestLatitude)));
+        String sql = SELECT_COLUMNS + """
+            FROM routes,
+                (SELECT ST_MakeLine(ST_SetSRID(ST_MakePoint(:start_lng, :start_lat), 4326),
+                                    ST_SetSRID(ST_MakePoint(:end_lng, :end_lat), 4326)) AS line) incident
+            WHERE is_active
+              AND routing_service IS DISTINCT FROM 'TOUR'
+              AND route_geometry && ST_Expand(incident.line, :margin)
+              AND ST_DWithin(route_geometry::geography, incident.line::geography, :buffer)
+            """;
+
+        return databaseClient.sql(sql)
+                .bind("start_lat", startLatitude)
+                .bind("start_lng", startLongitude)
+                .bind("end_lat", endLatitude)
+                .bind("end_lng", endLongitude)
+                .bind("margin", marginDegrees)
+                .bind("buffer", bufferMeters)
+                .map(this::mapRowToRoute)
+                .all();
+    }
+
+    @Override
+    public Mono<Long> updateRecalculatedRoutes(List<Route> routes) {
+        return Flux.fromIterable(routes)
+                .filter(route -> route.getId() != null)
+                .buffer(BATCH_SIZE)
+                .concatMap(this::updateBatch)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> updateBatch(List<Route> batch) {
+        StringBuilder sql = new StringBuilder("UPDATE routes r SET " +
+                "route_geometry = COALESCE(ST_GeomFromWKB(v.geom, 4326), r.route_geometry), " +
+                "geometry_levels = v.levels, total_distance_km = v.distance, " +
+                "estimated_duration_minutes = v.duration, routing_service = v.service FROM (VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:id").append(i).append("::uuid, :geom").append(i).append("::bytea, :levels").append(i)
+                    .append("::jsonb, :distance").append(i).append("::numeric, :duration").append(i)
+                    .append("::integer, :service").append(i).append("::varchar)");
+        }
+        sql.append(") AS v(id, geom, levels, distance, duration, service) WHERE r.id = v.id");
+
+        var spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < batch.size(); i++) {
+            Route route = batch.get(i);
+            CoordinateBuffer path = GeometryCodec.pathOf(route);
+            spec = spec.bind("id" + i, route.getId());
+            spec = bindNullable(spec, "geom" + i, path == null ? null : GeometryCodec.toWkb(path), byte[].class);
+            spec = bindNullable(spec, "levels" + i, route.getGeometryLevels(), String.class);
+            spec = bindNullable(spec, "distance" + i, route.getTotalDistanceKm(), Double.class);
+            spec = bindNullable(spec, "duration" + i, route.getEstimatedDurationMinutes(), Integer.class);
+            spec = bindNullable(spec, "service" + i, route.getRoutingService(), String.class);
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    private Route mapRowToRoute(Row row, RowMetadata metadata) {
+        byte[] wkb = row.get("route_geometry", byte[].class);
+        return Route.builder()
+                .id(row.get("id", UUID.class))
+                .parcelId(row.get("parcel_id", UUID.class))
+                .driverId(row.get("driver_id", UUID.class))
+                .startHubId(row.get("start_hub_id", UUID.class))
+                .endHubId(row.get("end_hub_id", UUID.class))
+                .geometry(wkb == null ? null : GeometryCodec.fromWkb(wkb))
+                .geometryLevels(row.get("geometry_levels", String.class))
+                .waypoints(row.get("waypoints", String.class))
+                .totalDistanceKm(row.get("total_distance_km", Double.class))
+                .estimatedDurationMinutes(row.get("estimated_duration_minutes", Integer.class))
+                .routingService(row.get("routing_service", String.class))
+                .trafficFactor(row.get("traffic_factor", Double.class))
+                .isActive(row.get("is_active", Boolean.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .build();
+    }
+
+    /**
+     * Routes holding decoded vertices are written as WKB, which PostGIS reads
+     * without parsing decimal text; others still go through WKT.
+     */
+    private static String geometryExpression(Route route) {
+        return route.getGeometry() != null
+                ? "ST_GeomFromWKB(:route_geometry, 4326)"
+                : "ST_GeomFromText(:route_geometry, 4326)";
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindGeometry(DatabaseClient.GenericExecuteSpec spec, Route route) {
+        if (route.getGeometry() != null) {
+            return spec.bind("route_geometry", GeometryCodec.toWkb(route.getGeometry()));
+        }
+        return spec.bind("route_geometry", route.getRouteGeometry());
+    }
+
     private Mono<Route> insertWithGeometry(Route route) {
         UUID id = UUID.randomUUID();
-        var spec = databaseClient.sql("INSERT INTO routes (id, parcel_id, driver_id, start_hub_id, end_hub_id, route_geometry, waypoints, total_distance_km, estimated_duration_minutes, routing_service, traffic_factor, is_active, created_at) " +
-                "VALUES (:id, :parcel_id, :driver_id, :start_hub_id, :end_hub_id, ST_GeomFromText(:route_geometry, 4326), :waypoints::jsonb, :total_distance_km, :estimated_duration_minutes, :routing_service, :traffic_factor, :is_active, :created_at)")
-                .bind("id", id)
-                .bind("parcel_id", route.getParcelId());
+        var spec = databaseClient.sql("INSERT INTO routes (id, parcel_id, driver_id, start_hub_id, end_hub_id, route_geometry, geometry_levels, waypoints, total_distance_km, estimated_duration_minutes, routing_service, traffic_factor, is_active, created_at) " +
+                "VALUES (:id, :parcel_id, :driver_id, :start_hub_id, :end_hub_id, " + geometryExpression(route) + ", :geometry_levels::jsonb, :waypoints::jsonb, :total_distance_km, :estimated_duration_minutes, :routing_service, :traffic_factor, :is_active, :created_at)")
+                .bind("id", id);
 
+        spec = bindNullable(spec, "parcel_id", route.getParcelId(), UUID.class);
         spec = bindNullable(spec, "driver_id", route.getDriverId(), UUID.class);
         spec = bindNullable(spec, "start_hub_id", route.getStartHubId(), UUID.class);
         spec = bindNullable(spec, "end_hub_id", route.getEndHubId(), UUID.class);
-        spec = spec.bind("route_geometry", route.getRouteGeometry())
-                .bind("waypoints", route.getWaypoints() == null ? "[]" : route.getWaypoints())
+        spec = bindGeometry(spec, route);
+        spec = bindNullable(spec, "geometry_levels", route.getGeometryLevels(), String.class);
+        spec = spec.bind("waypoints", route.getWaypoints() == null ? "[]" : route.getWaypoints())
                 .bind("total_distance_km", route.getTotalDistanceKm())
                 .bind("estimated_duration_minutes", route.getEstimatedDurationMinutes())
                 .bind("routing_service", route.getRoutingService());
@@ -60,18 +224,70 @@ public class CustomRouteRepositoryImpl implements CustomRouteRepository {
                 });
     }
 
+    @Override
+    public Flux<Route> insertAllWithGeometry(List<Route> routes) {
+        return Flux.fromIterable(routes)
+                .buffer(BATCH_SIZE)
+                .concatMap(this::insertBatch);
+    }
+
+    private Flux<Route> insertBatch(List<Route> batch) {
+        StringBuilder sql = new StringBuilder("INSERT INTO routes (id, parcel_id, driver_id, start_hub_id, end_hub_id, route_geometry, geometry_levels, waypoints, total_distance_km, estimated_duration_minutes, routing_service, traffic_factor, is_active, created_at) VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            Route route = batch.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:id").append(i).append("::uuid, :parcel_id").append(i).append("::uuid, :driver_id").append(i)
+                    .append("::uuid, :start_hub_id").append(i).append("::uuid, :end_hub_id").append(i).append("::uuid, ")
+                    .append(geometryExpression(route).replace(":route_geometry", ":route_geometry" + i))
+                    .append(", :geometry_levels").append(i).append("::jsonb, :waypoints").append(i)
+                    .append("::jsonb, :total_distance_km").append(i).append("::numeric, :estimated_duration_minutes")
+                    .append(i).append("::integer, :routing_service").append(i).append("::varchar, :traffic_factor")
+                    .append(i).append("::numeric, :is_active").append(i).append("::boolean, :created_at)");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        var spec = databaseClient.sql(sql.toString()).bind("created_at", now);
+        for (int i = 0; i < batch.size(); i++) {
+            Route route = batch.get(i);
+            route.setId(UUID.randomUUID());
+            route.setCreatedAt(now);
+            spec = spec.bind("id" + i, route.getId());
+            spec = bindNullable(spec, "parcel_id" + i, route.getParcelId(), UUID.class);
+            spec = bindNullable(spec, "driver_id" + i, route.getDriverId(), UUID.class);
+            spec = bindNullable(spec, "start_hub_id" + i, route.getStartHubId(), UUID.class);
+            spec = bindNullable(spec, "end_hub_id" + i, route.getEndHubId(), UUID.class);
+            spec = route.getGeometry() != null
+                    ? spec.bind("route_geometry" + i, GeometryCodec.toWkb(route.getGeometry()))
+                    : bindNullable(spec, "route_geometry" + i, route.getRouteGeometry(), String.class);
+            spec = bindNullable(spec, "geometry_levels" + i, route.getGeometryLevels(), String.class);
+            spec = spec.bind("waypoints" + i, route.getWaypoints() == null ? "[]" : route.getWaypoints());
+            spec = bindNullable(spec, "total_distance_km" + i, route.getTotalDistanceKm(), Double.class);
+            spec = bindNullable(spec, "estimated_duration_minutes" + i, route.getEstimatedDurationMinutes(),
+                    Integer.class);
+            spec = bindNullable(spec, "routing_service" + i, route.getRoutingService(), String.class);
+            spec = bindNullable(spec, "traffic_factor" + i, route.getTrafficFactor(), Double.class);
+            spec = bindNullable(spec, "is_active" + i, route.getIsActive(), Boolean.class);
+        }
+        return spec.fetch()
+                .rowsUpdated()
+                .thenMany(Flux.fromIterable(batch));
+    }
+
     private Mono<Route> updateWithGeometry(Route route) {
-        var spec = databaseClient.sql("UPDATE routes SET parcel_id = :parcel_id, driver_id = :driver_id, start_hub_id = :start_hub_id, end_hub_id = :end_hub_id, route_geometry = ST_GeomFromText(:route_geometry, 4326), " +
-                "waypoints = :waypoints::jsonb, total_distance_km = :total_distance_km, estimated_duration_minutes = :estimated_duration_minutes, " +
+        var spec = databaseClient.sql("UPDATE routes SET parcel_id = :parcel_id, driver_id = :driver_id, start_hub_id = :start_hub_id, end_hub_id = :end_hub_id, route_geometry = " + geometryExpression(route) + ", " +
+                "geometry_levels = :geometry_levels::jsonb, waypoints = :waypoints::jsonb, total_distance_km = :total_distance_km, estimated_duration_minutes = :estimated_duration_minutes, " +
                 "routing_service = :routing_service, traffic_factor = :traffic_factor, is_active = :is_active WHERE id = :id")
-                .bind("id", route.getId())
-                .bind("parcel_id", route.getParcelId());
+                .bind("id", route.getId());
 
+        spec = bindNullable(spec, "parcel_id", route.getParcelId(), UUID.class);
         spec = bindNullable(spec, "driver_id", route.getDriverId(), UUID.class);
         spec = bindNullable(spec, "start_hub_id", route.getStartHubId(), UUID.class);
         spec = bindNullable(spec, "end_hub_id", route.getEndHubId(), UUID.class);
-        spec = spec.bind("route_geometry", route.getRouteGeometry())
-                .bind("waypoints", route.getWaypoints() == null ? "[]" : route.getWaypoints())
+        spec = bindGeometry(spec, route);
+        spec = bindNullable(spec, "geometry_levels", route.getGeometryLevels(), String.class);
+        spec = spec.bind("waypoints", route.getWaypoints() == null ? "[]" : route.getWaypoints())
                 .bind("total_distance_km", route.getTotalDistanceKm())
                 .bind("estimated_duration_minutes", route.getEstimatedDurationMinutes())
                 .bind("routing_service", route.getRoutingService());
@@ -0,0 +1,16 @@
+package com.yowyob.delivery.route.repository;
+
+import com.yowyob.delivery.route.domain.entity.Incident;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Reactive repository for {@link Incident} entities.
+ */
+@Repository
+public interface IncidentRepository extends R2dbcRepository<Incident, UUID> {
+    Flux<Incident> findByIsActiveTrue();
+}
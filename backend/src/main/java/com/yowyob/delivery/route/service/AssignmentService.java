@@ -0,0 +1,18 @@
+package com.yowyob.delivery.route.service;
+
+import com.yowyob.delivery.route.controller.dto.AssignmentSummaryDTO;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for assigning planned parcels to available drivers.
+ */
+public interface AssignmentService {
+    /**
+     * Matches the unassigned PLANNED parcels to the AVAILABLE drivers so that
+     * the total driver-to-pickup distance is minimal, each driver receiving at
+     * most one parcel its vehicle can carry, and persists the assignments.
+     *
+     * @return a Mono emitting a summary of the run
+     */
+    Mono<AssignmentSummaryDTO> assignPlannedParcels();
+}
@@ -0,0 +1,28 @@
+package com.yowyob.delivery.route.service;
+
+import com.yowyob.delivery.route.controller.dto.DriverLocationDTO;
+import com.yowyob.delivery.route.controller.dto.LocationIngestResponseDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for ingesting the GPS positions reported by drivers.
+ */
+public interface DriverLocationService {
+    /**
+     * Buffers a stream of driver positions. Only the latest position of each
+     * driver is kept until the next flush to the database.
+     *
+     * @param locations the reported positions
+     * @return a Mono emitting the number of accepted and rejected positions
+     *         once the stream completes
+     */
+    Mono<LocationIngestResponseDTO> ingest(Flux<DriverLocationDTO> locations);
+
+    /**
+     * Writes the buffered positions to the database.
+     *
+     * @return a Mono emitting the number of drivers updated
+     */
+    Mono<Long> flush();
+}
@@ -1,7 +1,11 @@
 package com.yowyob.delivery.route.service;
 
 import com.yowyob.delivery.route.controller.dto.DriverResponseDTO;
+import com.yowyob.delivery.route.controller.dto.NearbyDriverDTO;
+import com.yowyob.delivery.route.domain.enums.ListView;
+import com.yowyob.delivery.route.mapper.GeoPointMapper;
 import com.yowyob.delivery.route.repository.DriverRepository;
+import com.yowyob.delivery.route.service.location.DriverLocationIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,19 +19,56 @@ import reactor.core.publisher.Flux;
 @RequiredArgsConstructor
 public class DriverService {
 
+    private static final int MAX_NEAREST_DRIVERS = 100;
+    private static final double MAX_SEARCH_RADIUS_KM = 200;
+
     private final DriverRepository driverRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final GeoPointMapper geoPointMapper;
 
     /**
      * Retrieve all drivers in the system.
      *
+     * @param view {@link ListView#FULL} to include the current location of the
+     *             drivers, {@link ListView#SUMMARY} to leave it out
      * @return a stream of all drivers
      */
-    public Flux<DriverResponseDTO> getAllDrivers() {
-        return driverRepository.findAllWithLocation()
+    public Flux<DriverResponseDTO> getAllDrivers(ListView view) {
+        boolean full = view == ListView.FULL;
+        return (full ? driverRepository.findAllWithLocation() : driverRepository.findAllSummaries())
                 .map(driver -> DriverResponseDTO.builder()
                         .id(driver.getId())
                         .name(driver.getFirstName() + " " + driver.getLastName())
                         .status(driver.getCurrentState() != null ? driver.getCurrentState().toString() : "UNKNOWN")
+                        .currentLocation(full ? geoPointMapper.wktStringToGeoDto(driver.getCurrentLocation()) : null)
+                        .build());
+    }
+
+    /**
+     * Find the available drivers closest to a point, from the in-memory
+     * location index.
+     *
+     * @param latitude      latitude of the point
+     * @param longitude     longitude of the point
+     * @param k             maximum number of drivers returned
+     * @param maxDistanceKm search radius in kilometers
+     * @return the nearest available drivers, closest first
+     */
+    public Flux<NearbyDriverDTO> findNearestAvailable(double latitude, double longitude, int k, double maxDistanceKm) {
+        if (k < 1 || k > MAX_NEAREST_DRIVERS) {
+            return Flux.error(new IllegalArgumentException("k must be between 1 and " + MAX_NEAREST_DRIVERS));
+        }
+        if (maxDistanceKm < 0 || maxDistanceKm > MAX_SEARCH_RADIUS_KM) {
+            return Flux.error(new IllegalArgumentException(
+                    "maxDistanceKm must be between 0 and " + MAX_SEARCH_RADIUS_KM));
+        }
+        return Flux.fromIterable(driverLocationIndex.nearest(longitude, latitude, k, maxDistanceKm))
+                .map(driver -> NearbyDriverDTO.builder()
+                        .driverId(driver.driverId())
+                        .latitude(driver.latitude())
+                        .longitude(driver.longitude())
+                        .distanceMeters(driver.distanceKm() * 1000.0)
+                        .lastLocationUpdate(driver.recordedAt())
                         .build());
     }
 }
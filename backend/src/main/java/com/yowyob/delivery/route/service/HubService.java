@@ -2,8 +2,11 @@ package com.yowyob.delivery.route.service;
 
 import com.yowyob.delivery.route.controller.dto.GeoPointRequestDTO;
 import com.yowyob.delivery.route.controller.dto.GeoPointResponseDTO;
+import com.yowyob.delivery.route.controller.dto.NearbyHubDTO;
+import com.yowyob.delivery.route.domain.enums.ListView;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -19,6 +22,15 @@ public interface HubService {
      */
     Mono<GeoPointResponseDTO> createHub(GeoPointRequestDTO request);
 
+    /**
+     * Registers many hubs at once, inserting them in batches rather than one
+     * statement per hub.
+     *
+     * @param requests the hubs to register
+     * @return a Flux emitting the created hubs, in the order of the requests
+     */
+    Flux<GeoPointResponseDTO> createHubs(List<GeoPointRequestDTO> requests);
+
     /**
      * Retrieves a hub by its unique identifier.
      *
@@ -30,7 +42,20 @@ public interface HubService {
     /**
      * Retrieves all registered hubs in the network.
      *
+     * @param view {@link ListView#FULL} to include the coordinates of the hubs,
+     *             {@link ListView#SUMMARY} to leave them out
      * @return a Flux emitting all hub details
      */
-    Flux<GeoPointResponseDTO> getAllHubs();
+    Flux<GeoPointResponseDTO> getAllHubs(ListView view);
+
+    /**
+     * Finds the hubs closest to a point, using the in-memory spatial index.
+     *
+     * @param latitude     latitude of the point
+     * @param longitude    longitude of the point
+     * @param k            maximum number of hubs returned
+     * @param radiusMeters optional search radius in meters
+     * @return a Flux emitting the hubs, nearest first
+     */
+    Flux<NearbyHubDTO> findNearestHubs(double latitude, double longitude, int k, Double radiusMeters);
 }
@@ -0,0 +1,45 @@
+package com.yowyob.delivery.route.service;
+
+import com.yowyob.delivery.route.controller.dto.ImportJobDTO;
+import com.yowyob.delivery.route.domain.enums.ImportFormat;
+import com.yowyob.delivery.route.domain.enums.ImportType;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Service importing large CSV or GeoJSON files of hubs, connections or
+ * parcels in the background.
+ */
+public interface ImportService {
+
+    /**
+     * Stores an uploaded file and starts importing it.
+     *
+     * @param type     kind of records in the file
+     * @param format   format of the file, or null to infer it from its name
+     * @param fileName name of the uploaded file
+     * @param content  content of the file
+     * @return a Mono emitting the started import, once the file is stored
+     */
+    Mono<ImportJobDTO> startImport(ImportType type, ImportFormat format, String fileName, Flux<DataBuffer> content);
+
+    /**
+     * Retrieves the progress of an import.
+     *
+     * @param id the import ID
+     * @return a Mono emitting the progress of the import
+     */
+    Mono<ImportJobDTO> getImport(UUID id);
+
+    /**
+     * Retrieves the CSV file listing the records rejected by an import so far.
+     *
+     * @param id the import ID
+     * @return a Mono emitting the path of the error file
+     */
+    Mono<Path> getErrorFile(UUID id);
+}
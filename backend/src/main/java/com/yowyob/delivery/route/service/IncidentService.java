@@ -0,0 +1,49 @@
+package com.yowyob.delivery.route.service;
+
+import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.controller.dto.IncidentResponseDTO;
+import com.yowyob.delivery.route.controller.dto.RerouteSummaryDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Service interface for the registry of road incidents.
+ * Active incidents close the hub connections crossing their area for every
+ * subsequent route calculation.
+ */
+public interface IncidentService {
+    /**
+     * Registers a new active incident and re-routes the active routes crossing
+     * its area.
+     *
+     * @param incident the blocked segment, buffer and description
+     * @return a Mono emitting the registered incident with the re-routing
+     *         summary
+     */
+    Mono<IncidentResponseDTO> reportIncident(IncidentDTO incident);
+
+    /**
+     * Retrieves the incidents currently affecting routing.
+     *
+     * @return a Flux emitting the active incidents
+     */
+    Flux<IncidentResponseDTO> getActiveIncidents();
+
+    /**
+     * Marks an incident as resolved so that its area is routable again.
+     *
+     * @param id the unique UUID of the incident
+     * @return a Mono emitting the resolved incident
+     */
+    Mono<IncidentResponseDTO> resolveIncident(UUID id);
+
+    /**
+     * Re-routes the active routes crossing the area of a registered incident.
+     *
+     * @param id the unique UUID of the incident
+     * @return a Mono emitting the re-routing summary
+     */
+    Mono<RerouteSummaryDTO> rerouteAffectedRoutes(UUID id);
+}
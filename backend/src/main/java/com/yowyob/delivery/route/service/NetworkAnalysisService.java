@@ -0,0 +1,30 @@
+package com.yowyob.delivery.route.service;
+
+import com.yowyob.delivery.route.controller.dto.DistanceMatrixRequestDTO;
+import com.yowyob.delivery.route.controller.dto.DistanceMatrixResponseDTO;
+import com.yowyob.delivery.route.controller.dto.IsochroneRequestDTO;
+import com.yowyob.delivery.route.controller.dto.IsochroneResponseDTO;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for bulk queries over the hub network that do not produce
+ * individual routes (cost matrices, reachability).
+ */
+public interface NetworkAnalysisService {
+    /**
+     * Computes shortest distances and durations between every source and every
+     * destination hub.
+     *
+     * @param request the source and destination hubs
+     * @return a Mono emitting the compact cost matrix
+     */
+    Mono<DistanceMatrixResponseDTO> computeDistanceMatrix(DistanceMatrixRequestDTO request);
+
+    /**
+     * Finds every hub reachable from a hub within a distance or duration budget.
+     *
+     * @param request the origin hub and budget
+     * @return a Mono emitting the reachable hubs and, optionally, their hull
+     */
+    Mono<IsochroneResponseDTO> computeIsochrone(IsochroneRequestDTO request);
+}
@@ -1,10 +1,15 @@
 package com.yowyob.delivery.route.service;
 
+import com.yowyob.delivery.route.controller.dto.ParcelPageDTO;
 import com.yowyob.delivery.route.controller.dto.ParcelRequestDTO;
 import com.yowyob.delivery.route.controller.dto.ParcelResponseDTO;
+import com.yowyob.delivery.route.domain.enums.ListView;
+import com.yowyob.delivery.route.domain.enums.ParcelPriority;
+import com.yowyob.delivery.route.domain.enums.ParcelState;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -20,6 +25,15 @@ public interface ParcelService {
      */
     Mono<ParcelResponseDTO> createParcel(ParcelRequestDTO request);
 
+    /**
+     * Registers many parcels at once, inserting them in batches rather than
+     * one statement per parcel.
+     *
+     * @param requests the parcels to register
+     * @return a Flux emitting the created parcels, in the order of the requests
+     */
+    Flux<ParcelResponseDTO> createParcels(List<ParcelRequestDTO> requests);
+
     /**
      * Finds a parcel by its internal unique identifier.
      *
@@ -29,9 +43,31 @@ public interface ParcelService {
     Mono<ParcelResponseDTO> getParcel(UUID id);
 
     /**
-     * Lists all registered parcels in the system.
+     * Lists the registered parcels matching the filters, newest first, as a
+     * stream fetched from the database as the subscriber consumes it.
+     *
+     * @param state    only parcels in this state, or null
+     * @param driverId only parcels assigned to this driver, or null
+     * @param priority only parcels with this priority, or null
+     * @param view     {@link ListView#FULL} to include the pickup and delivery
+     *                 locations, {@link ListView#SUMMARY} to leave them out
+     * @return a Flux emitting the parcel details
+     */
+    Flux<ParcelResponseDTO> getAllParcels(ParcelState state, UUID driverId, ParcelPriority priority, ListView view);
+
+    /**
+     * Lists one page of the parcels matching the filters, newest first.
      *
-     * @return a Flux emitting all parcel details
+     * @param state    only parcels in this state, or null
+     * @param driverId only parcels assigned to this driver, or null
+     * @param priority only parcels with this priority, or null
+     * @param cursor   cursor returned with the previous page, or null for the
+     *                 first page
+     * @param limit    maximum number of parcels in the page
+     * @param view     {@link ListView#FULL} to include the pickup and delivery
+     *                 locations, {@link ListView#SUMMARY} to leave them out
+     * @return a Mono emitting the page and the cursor of the next one
      */
-    Flux<ParcelResponseDTO> getAllParcels();
+    Mono<ParcelPageDTO> getParcelPage(ParcelState state, UUID driverId, ParcelPriority priority, String cursor,
+            int limit, ListView view);
 }
@@ -1,9 +1,16 @@
 package com.yowyob.delivery.route.service;
 
+import com.yowyob.delivery.route.controller.dto.DriverLocationDTO;
 import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.controller.dto.RerouteSummaryDTO;
+import com.yowyob.delivery.route.controller.dto.RouteCacheStatsDTO;
 import com.yowyob.delivery.route.controller.dto.RouteCalculationRequestDTO;
+import com.yowyob.delivery.route.controller.dto.RouteProgressDTO;
 import com.yowyob.delivery.route.controller.dto.RouteResponseDTO;
+import com.yowyob.delivery.route.domain.enums.GeometryFormat;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -19,6 +26,15 @@ public interface RouteService {
      */
     Mono<RouteResponseDTO> calculateRoute(RouteCalculationRequestDTO request);
 
+    /**
+     * Calculates and saves the routes of many requests at once.
+     *
+     * @param requests the routing parameters of each route
+     * @return a Flux emitting the calculated routes, in the order of the
+     *         requests
+     */
+    Flux<RouteResponseDTO> calculateRoutes(List<RouteCalculationRequestDTO> requests);
+
     /**
      * Recalculates an existing route in response to a real-time incident (e.g.,
      * road closure).
@@ -26,14 +42,71 @@ public interface RouteService {
      * @param routeId  the UUID of the route to recalculate
      * @param incident information about the disruption (linear or circular)
      * @return a Mono emitting the updated route
+     * @throws IllegalArgumentException (as an error signal) if the route is a
+     *                                  multi-stop tour
      */
     Mono<RouteResponseDTO> recalculateRoute(UUID routeId, IncidentDTO incident);
 
+    /**
+     * Recalculates a route from the last position matched on it, instead of
+     * its stored start hub, and saves it.
+     *
+     * @param routeId  the UUID of the route to recalculate
+     * @param incident the disruption to avoid, or null when the driver left
+     *                 the route
+     * @return a Mono emitting the updated route
+     * @throws IllegalArgumentException (as an error signal) if the route is a
+     *                                  multi-stop tour
+     */
+    Mono<RouteResponseDTO> rerouteFromCurrentPosition(UUID routeId, IncidentDTO incident);
+
+    /**
+     * Recalculates every active route whose path crosses the area of an
+     * incident and saves the new paths in bulk. Multi-stop tours are not
+     * recalculated.
+     *
+     * @param incident the disruption
+     * @return a Mono emitting the number of affected, re-routed and failed
+     *         routes
+     */
+    Mono<RerouteSummaryDTO> rerouteAffectedRoutes(IncidentDTO incident);
+
     /**
      * Retrieves an existing route by its unique identifier.
      *
-     * @param id the UUID of the route
+     * @param id              the UUID of the route
+     * @param format          representation of the path in the response
+     * @param toleranceMeters optional maximum deviation of a simplified path,
+     *                        in meters; null returns the full-resolution path
      * @return a Mono emitting the route details
      */
-    Mono<RouteResponseDTO> getRoute(UUID id);
+    Mono<RouteResponseDTO> getRoute(UUID id, GeometryFormat format, Double toleranceMeters);
+
+    /**
+     * Retrieves a route with the progress of its driver, matched from the last
+     * known position.
+     *
+     * @param id              the UUID of the route
+     * @param format          representation of the path in the response
+     * @param toleranceMeters optional maximum deviation of a simplified path,
+     *                        in meters; null returns the full-resolution path
+     * @return a Mono emitting the route details and progress
+     */
+    Mono<RouteResponseDTO> getTracking(UUID id, GeometryFormat format, Double toleranceMeters);
+
+    /**
+     * Matches a GPS position onto the path of a route.
+     *
+     * @param id       the UUID of the route
+     * @param position the reported position
+     * @return a Mono emitting the progress along the route
+     */
+    Mono<RouteProgressDTO> recordPosition(UUID id, DriverLocationDTO position);
+
+    /**
+     * Reports the effectiveness of the route result cache.
+     *
+     * @return a Mono emitting hit, miss and eviction counters
+     */
+    Mono<RouteCacheStatsDTO> getCacheStats();
 }
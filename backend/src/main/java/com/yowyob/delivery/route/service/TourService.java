@@ -0,0 +1,20 @@
+package com.yowyob.delivery.route.service;
+
+import com.yowyob.delivery.route.controller.dto.TourOptimizationRequestDTO;
+import com.yowyob.delivery.route.controller.dto.TourResponseDTO;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for planning multi-stop driver tours.
+ */
+public interface TourService {
+    /**
+     * Orders the pickups and deliveries of several parcels into the shortest
+     * tour that picks every parcel up before delivering it, and saves it as a
+     * multi-stop route.
+     *
+     * @param request the parcels, start and optimization budget
+     * @return a Mono emitting the ordered stops and the persisted route
+     */
+    Mono<TourResponseDTO> optimizeTour(TourOptimizationRequestDTO request);
+}
@@ -0,0 +1,36 @@
+package com.yowyob.delivery.route.service.assignment;
+
+import com.yowyob.delivery.route.service.AssignmentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the batch driver-to-parcel assignment at a fixed delay. Off unless
+ * {@code routing.assignment.enabled=true}, since it changes parcel and driver
+ * states on its own; the manual endpoint works either way.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "routing.assignment.enabled", havingValue = "true")
+public class AssignmentScheduler {
+
+    private final AssignmentService assignmentService;
+
+    /**
+     * Runs one assignment batch. Runs on the scheduler thread, so waiting for
+     * the result also keeps two scheduled batches from overlapping.
+     */
+    @Scheduled(initialDelayString = "${routing.assignment.interval:1m}",
+            fixedDelayString = "${routing.assignment.interval:1m}")
+    public void assignPlannedParcels() {
+        try {
+            assignmentService.assignPlannedParcels().block();
+        } catch (RuntimeException e) {
+            log.warn("Scheduled assignment batch failed: {}", e.getMessage());
+        }
+    }
+}
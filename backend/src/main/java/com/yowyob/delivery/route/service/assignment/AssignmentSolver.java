@@ -0,0 +1,150 @@
+package com.yowyob.delivery.route.service.assignment;
+
+import com.yowyob.delivery.route.service.graph.NodeHeap;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost bipartite matching on a sparse cost matrix (the linear
+ * assignment problem solved with the Hungarian method in its shortest
+ * augmenting path form).
+ * <p>
+ * Rows are matched to at most one column and columns to at most one row.
+ * Only the listed (row, column) arcs may be used. Every row also has a private
+ * "unassigned" option of a fixed cost, so a row is left unmatched whenever all
+ * its arcs are taken or dearer than that cost. Each row is added with one
+ * Dijkstra search over reduced costs, using column potentials so every
+ * reduced cost stays non-negative. Arcs are stored in compressed rows and the
+ * whole solve works on primitive arrays.
+ */
+public final class AssignmentSolver {
+
+    private AssignmentSolver() {
+    }
+
+    /**
+     * Solves the assignment problem.
+     *
+     * @param rows           number of rows
+     * @param columns        number of columns
+     * @param rowStart       arcs of row {@code r} are at indices
+     *                       {@code rowStart[r]} to {@code rowStart[r + 1] - 1};
+     *                       length {@code rows + 1}
+     * @param arcColumn      column of each arc
+     * @param arcCost        non-negative cost of each arc
+     * @param unassignedCost cost of leaving a row unmatched
+     * @return the column matched to each row, or -1 for unmatched rows
+     */
+    public static int[] solve(int rows, int columns, int[] rowStart, int[] arcColumn, double[] arcCost,
+            double unassignedCost) {
+        // Column columns + r is the private "unassigned" column of row r
+        int total = columns + rows;
+        double[] potential = new double[total];
+        int[] rowOf = new int[total];
+        Arrays.fill(rowOf, -1);
+        int[] columnOf = new int[rows];
+        Arrays.fill(columnOf, -1);
+        double[] assignedCost = new double[rows];
+
+        double[] dist = new double[total];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        int[] pred = new int[total];
+        double[] predCost = new double[total];
+        boolean[] settled = new boolean[total];
+        int[] touched = new int[total];
+        NodeHeap heap = new NodeHeap(64);
+
+        for (int free = 0; free < rows; free++) {
+            heap.clear();
+            int touchedCount = 0;
+            for (int a = rowStart[free]; a < rowStart[free + 1]; a++) {
+                int j = arcColumn[a];
+                touchedCount = label(j, arcCost[a] - potential[j], free, arcCost[a], dist, pred, predCost, touched,
+                        touchedCount, heap);
+            }
+            int own = columns + free;
+            touchedCount = label(own, unassignedCost - potential[own], free, unassignedCost, dist, pred, predCost,
+                    touched, touchedCount, heap);
+
+            // The row's own unassigned column is always free, so the search ends there at the latest
+            int sink = -1;
+            double sinkDist = 0;
+            while (!heap.isEmpty()) {
+                double key = heap.peekKey();
+                int j = heap.poll();
+                if (settled[j] || key > dist[j]) {
+                    continue;
+                }
+                settled[j] = true;
+                int i = rowOf[j];
+                if (i < 0) {
+                    sink = j;
+                    sinkDist = key;
+                    break;
+                }
+                // Reduced costs of the matched arc are zero: its row potential is implied
+                double rowPotential = assignedCost[i] - potential[j];
+                for (int a = rowStart[i]; a < rowStart[i + 1]; a++) {
+                    int k = arcColumn[a];
+                    if (!settled[k]) {
+                        touchedCount = label(k, key + arcCost[a] - potential[k] - rowPotential, i, arcCost[a], dist,
+                                pred, predCost, touched, touchedCount, heap);
+                    }
+                }
+                int unassigned = columns + i;
+                if (!settled[unassigned]) {
+                    touchedCount = label(unassigned, key + unassignedCost - potential[unassigned] - rowPotential, i,
+                            unassignedCost, dist, pred, predCost, touched, touchedCount, heap);
+                }
+            }
+
+            // Keep reduced costs non-negative, then flip the matching along the path
+            for (int t = 0; t < touchedCount; t++) {
+                int k = touched[t];
+                if (settled[k] && k != sink) {
+                    potential[k] += dist[k] - sinkDist;
+                }
+            }
+            int j = sink;
+            while (true) {
+                int i = pred[j];
+                int previous = columnOf[i];
+                rowOf[j] = i;
+                columnOf[i] = j;
+                assignedCost[i] = predCost[j];
+                if (i == free) {
+                    break;
+                }
+                j = previous;
+            }
+
+            for (int t = 0; t < touchedCount; t++) {
+                int k = touched[t];
+                dist[k] = Double.POSITIVE_INFINITY;
+                settled[k] = false;
+            }
+        }
+
+        for (int r = 0; r < rows; r++) {
+            if (columnOf[r] >= columns) {
+                columnOf[r] = -1;
+            }
+        }
+        return columnOf;
+    }
+
+    private static int label(int column, double distance, int row, double cost, double[] dist, int[] pred,
+            double[] predCost, int[] touched, int touchedCount, NodeHeap heap) {
+        if (distance >= dist[column]) {
+            return touchedCount;
+        }
+        if (dist[column] == Double.POSITIVE_INFINITY) {
+            touched[touchedCount++] = column;
+        }
+        dist[column] = distance;
+        pred[column] = row;
+        predCost[column] = cost;
+        heap.push(distance, column);
+        return touchedCount;
+    }
+}
@@ -0,0 +1,149 @@
+package com.yowyob.delivery.route.service.cache;
+
+import com.yowyob.delivery.route.domain.entity.Hub;
+import com.yowyob.delivery.route.repository.HubRepository;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded read-through LRU cache of hubs, in front of
+ * {@link HubRepository#findByIdWithLocation(UUID)}.
+ * <p>
+ * Hubs are read on every route calculation and on every parcel created from a
+ * hub identifier but rarely change. Entries hold the hub with its location
+ * already parsed, so callers needing coordinates do not parse WKT again.
+ * Concurrent misses on the same hub share one database read. Hubs written
+ * through the application drop their entry; {@code ttl} bounds how long a hub
+ * changed elsewhere can be served stale. Unknown hubs are not cached.
+ * <p>
+ * Hubs without a usable location are cached too, with no coordinates: reading
+ * them works, and only callers that need the coordinates reject them.
+ */
+@Slf4j
+@Component
+public class HubCache {
+
+    private final HubRepository hubRepository;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<UUID, Entry> entries;
+    private final Map<UUID, Mono<CachedHub>> loading = new ConcurrentHashMap<>();
+    /** Bumped by every invalidation, so that loads started before it are not stored. */
+    private long generation;
+
+    /**
+     * A hub with its parsed location.
+     *
+     * @param hub       the hub, as loaded with its WKT location
+     * @param longitude longitude of the hub, null if it has no usable location
+     * @param latitude  latitude of the hub, null if it has no usable location
+     */
+    public record CachedHub(Hub hub, Double longitude, Double latitude) {
+
+        /**
+         * @return whether the coordinates are known
+         */
+        public boolean hasLocation() {
+            return longitude != null && latitude != null;
+        }
+    }
+
+    private record Entry(CachedHub hub, long expiresAt) {
+    }
+
+    public HubCache(HubRepository hubRepository,
+            @Value("${routing.hub-cache.max-entries:10000}") int maxEntries,
+            @Value("${routing.hub-cache.ttl:10m}") Duration ttl) {
+        this.hubRepository = hubRepository;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > HubCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Looks up a hub, loading it on a miss.
+     *
+     * @param id the hub
+     * @return a Mono emitting the hub with its coordinates, empty if it does not
+     *         exist
+     */
+    public Mono<CachedHub> get(UUID id) {
+        if (id == null) {
+            return Mono.empty();
+        }
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt - System.nanoTime() >= 0) {
+                return Mono.just(entry.hub);
+            }
+            if (entry != null) {
+                entries.remove(id);
+            }
+            loadGeneration = generation;
+        }
+        return loading.computeIfAbsent(id, key -> hubRepository.findByIdWithLocation(key)
+                .map(HubCache::toCachedHub)
+                .doOnNext(hub -> store(hub, loadGeneration))
+                .doFinally(signal -> loading.remove(key))
+                .cache());
+    }
+
+    /**
+     * Looks up a hub, loading it on a miss.
+     *
+     * @param id the hub
+     * @return a Mono emitting the hub, empty if it does not exist
+     */
+    public Mono<Hub> getHub(UUID id) {
+        return get(id).map(CachedHub::hub);
+    }
+
+    /**
+     * Drops a hub, e.g. after it changed or was deleted.
+     */
+    public void invalidate(UUID id) {
+        synchronized (this) {
+            generation++;
+            entries.remove(id);
+        }
+    }
+
+    private void store(CachedHub hub, long loadGeneration) {
+        synchronized (this) {
+            // A hub written or invalidated during the load wins over what was read
+            if (generation == loadGeneration) {
+                entries.put(hub.hub().getId(), new Entry(hub, System.nanoTime() + ttlNanos));
+            }
+        }
+    }
+
+    private static CachedHub toCachedHub(Hub hub) {
+        if (hub.getLocation() != null && !hub.getLocation().isBlank()) {
+            try {
+                CoordinateBuffer location = GeometryCodec.fromWkt(hub.getLocation());
+                if (location.size() > 0) {
+                    return new CachedHub(hub, location.x(0), location.y(0));
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid location for hub {}: {}", hub.getId(), hub.getLocation());
+            }
+        }
+        return new CachedHub(hub, null, null);
+    }
+}
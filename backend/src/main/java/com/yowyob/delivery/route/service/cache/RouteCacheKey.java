@@ -0,0 +1,72 @@
+package com.yowyob.delivery.route.service.cache;
+
+import com.yowyob.delivery.route.controller.dto.RoutingConstraintsDTO;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Identity of a route calculation result: the hub pair, every constraint that
+ * can change the computed path, the version of the hub graph and the
+ * generation of the incident set it was computed with and, when traffic
+ * profiles are in use, the time-of-day bucket of the departure.
+ */
+@Value
+public class RouteCacheKey {
+
+    UUID startHubId;
+    UUID endHubId;
+    String algorithm;
+    boolean avoidHighways;
+    boolean avoidTolls;
+    String vehicleType;
+    Double weightKg;
+    long graphVersion;
+    long incidentGeneration;
+    int departureBucket;
+
+    /**
+     * Builds the key for a calculation request that does not depend on the
+     * departure time.
+     *
+     * @param startHubId   origin hub
+     * @param endHubId     destination hub
+     * @param constraints        optional routing constraints
+     * @param graphVersion       version of the hub graph used for the
+     *                           calculation
+     * @param incidentGeneration generation of the active incidents used for
+     *                           the calculation
+     * @return the cache key
+     */
+    public static RouteCacheKey of(UUID startHubId, UUID endHubId, RoutingConstraintsDTO constraints,
+            long graphVersion, long incidentGeneration) {
+        return of(startHubId, endHubId, constraints, graphVersion, incidentGeneration, -1);
+    }
+
+    /**
+     * Builds the key for a calculation request.
+     *
+     * @param startHubId         origin hub
+     * @param endHubId           destination hub
+     * @param constraints        optional routing constraints
+     * @param graphVersion       version of the hub graph used for the
+     *                           calculation
+     * @param incidentGeneration generation of the active incidents used for
+     *                           the calculation
+     * @param departureBucket    traffic profile bucket of the departure, or
+     *                           -1 if travel times do not depend on it
+     * @return the cache key
+     */
+    public static RouteCacheKey of(UUID startHubId, UUID endHubId, RoutingConstraintsDTO constraints,
+            long graphVersion, long incidentGeneration, int departureBucket) {
+        if (constraints == null) {
+            return new RouteCacheKey(startHubId, endHubId, "BASIC", false, false, null, null, graphVersion,
+                    incidentGeneration, departureBucket);
+        }
+        String algorithm = constraints.getAlgorithm() != null ? constraints.getAlgorithm().toUpperCase() : "BASIC";
+        String vehicleType = constraints.getVehicleType() != null ? constraints.getVehicleType().toUpperCase() : null;
+        return new RouteCacheKey(startHubId, endHubId, algorithm, constraints.isAvoidHighways(),
+                constraints.isAvoidTolls(), vehicleType, constraints.getWeightKg(), graphVersion, incidentGeneration,
+                departureBucket);
+    }
+}
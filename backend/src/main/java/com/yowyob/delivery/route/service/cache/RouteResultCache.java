@@ -0,0 +1,229 @@
+package com.yowyob.delivery.route.service.cache;
+
+import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.controller.dto.RouteCacheStatsDTO;
+import com.yowyob.delivery.route.domain.entity.Route;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of computed routes, placed in front of the routing
+ * strategies.
+ * Entries are keyed by {@link RouteCacheKey}; when a key with a newer graph
+ * version or incident generation shows up, every entry computed on an older
+ * graph or incident set is dropped, including incidents reported through
+ * another instance. Entries whose path crosses an incident reported here are
+ * dropped right away as well. Cached routes are
+ * templates: callers always receive a fresh copy without identifiers so it can
+ * be persisted for their own parcel.
+ */
+@Slf4j
+@Component
+public class RouteResultCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<RouteCacheKey, Entry> entries;
+    private long graphVersion;
+    private long incidentGeneration;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public RouteResultCache(@Value("${routing.cache.max-entries:1000}") int maxEntries,
+            @Value("${routing.cache.ttl:10m}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteCacheKey, Entry> eldest) {
+                if (size() > RouteResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static final class Entry {
+        final Route route;
+        final Coordinate[] path;
+        final long expiresAt;
+
+        Entry(Route route, Coordinate[] path, long expiresAt) {
+            this.route = route;
+            this.path = path;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Looks up a previously computed route.
+     *
+     * @param key the calculation identity
+     * @return a copy of the cached route, or empty on a miss
+     */
+    public Optional<Route> get(RouteCacheKey key) {
+        synchronized (this) {
+            advanceVersion(key);
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() < 0) {
+                entries.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(copyOf(entry.route));
+        }
+    }
+
+    /**
+     * Stores a computed route. Results computed on an outdated graph or
+     * incident set are not stored.
+     *
+     * @param key   the calculation identity
+     * @param route the strategy result
+     */
+    public void put(RouteCacheKey key, Route route) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        Entry entry = new Entry(copyOf(route), parsePath(route), System.nanoTime() + ttlNanos);
+        synchronized (this) {
+            advanceVersion(key);
+            if (key.getGraphVersion() == graphVersion && key.getIncidentGeneration() == incidentGeneration) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached route whose path touches the incident area.
+     *
+     * @param incident the reported incident
+     * @return the number of entries removed
+     */
+    public int invalidateIntersecting(IncidentDTO incident) {
+        if (incident == null || incident.getLineStart() == null || incident.getLineEnd() == null) {
+            return 0;
+        }
+        int removed = 0;
+        synchronized (this) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (intersects(it.next().path, incident)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            invalidations.add(removed);
+            log.info("Invalidated {} cached routes crossing incident", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public synchronized void clear() {
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    /**
+     * @return hit, miss and eviction counters since startup
+     */
+    public RouteCacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return RouteCacheStatsDTO.builder()
+                .size(size)
+                .maxSize(maxEntries)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(lookups == 0 ? 0.0 : (double) hitCount / lookups)
+                .evictions(evictions.sum())
+                .invalidations(invalidations.sum())
+                .build();
+    }
+
+    private void advanceVersion(RouteCacheKey key) {
+        if (key.getGraphVersion() > graphVersion || key.getIncidentGeneration() > incidentGeneration) {
+            if (!entries.isEmpty()) {
+                invalidations.add(entries.size());
+                log.debug("Hub graph v{} and incident generation {} seen, dropping {} cached routes",
+                        key.getGraphVersion(), key.getIncidentGeneration(), entries.size());
+                entries.clear();
+            }
+            graphVersion = Math.max(graphVersion, key.getGraphVersion());
+            incidentGeneration = Math.max(incidentGeneration, key.getIncidentGeneration());
+        }
+    }
+
+    private static boolean intersects(Coordinate[] path, IncidentDTO incident) {
+        if (path == null) {
+            // Unknown geometry: be conservative
+            return true;
+        }
+        try {
+            for (int i = 0; i + 1 < path.length; i++) {
+                if (GeometryUtils.doesRouteIntersectIncident(path[i].y, path[i].x, path[i + 1].y, path[i + 1].x,
+                        incident)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static Coordinate[] parsePath(Route route) {
+        try {
+            CoordinateBuffer path = GeometryCodec.pathOf(route);
+            return path == null ? null : path.toCoordinates();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Route copyOf(Route route) {
+        return Route.builder()
+                .routeGeometry(route.getGeometry() == null ? route.getRouteGeometry() : null)
+                .geometry(route.getGeometry())
+                .geometryLevels(route.getGeometryLevels())
+                .waypoints(route.getWaypoints())
+                .totalDistanceKm(route.getTotalDistanceKm())
+                .estimatedDurationMinutes(route.getEstimatedDurationMinutes())
+                .routingService(route.getRoutingService())
+                .trafficFactor(route.getTrafficFactor())
+                .isActive(route.getIsActive())
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.yowyob.delivery.route.service.geometry;
+
+import org.locationtech.jts.geom.Coordinate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Growable sequence of 2D coordinates stored interleaved in a single
+ * {@code double[]} (x0, y0, x1, y1, ...).
+ * Lets large line geometries be built and serialised without allocating one
+ * {@link Coordinate} object per vertex.
+ */
+public final class CoordinateBuffer {
+
+    private double[] xy;
+    private int size;
+
+    public CoordinateBuffer() {
+        this(64);
+    }
+
+    public CoordinateBuffer(int initialCapacity) {
+        xy = new double[Math.max(2, initialCapacity) * 2];
+    }
+
+    /**
+     * @param coordinates JTS coordinates, only x and y are kept
+     * @return a buffer holding the same vertices
+     */
+    public static CoordinateBuffer of(Coordinate[] coordinates) {
+        CoordinateBuffer buffer = new CoordinateBuffer(coordinates.length);
+        for (Coordinate c : coordinates) {
+            buffer.add(c.x, c.y);
+        }
+        return buffer;
+    }
+
+    public void add(double x, double y) {
+        if (size * 2 == xy.length) {
+            xy = Arrays.copyOf(xy, xy.length * 2);
+        }
+        xy[size * 2] = x;
+        xy[size * 2 + 1] = y;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double x(int index) {
+        return xy[index * 2];
+    }
+
+    public double y(int index) {
+        return xy[index * 2 + 1];
+    }
+
+    /**
+     * @return the coordinates as JTS objects
+     */
+    public Coordinate[] toCoordinates() {
+        Coordinate[] coordinates = new Coordinate[size];
+        for (int i = 0; i < size; i++) {
+            coordinates[i] = new Coordinate(xy[i * 2], xy[i * 2 + 1]);
+        }
+        return coordinates;
+    }
+
+    /**
+     * Writes the buffer as a WKT LineString, in the same format as
+     * {@code LineString.toText()}.
+     *
+     * @return the WKT text
+     */
+    public String toLineStringWkt() {
+        if (size == 0) {
+            return "LINESTRING EMPTY";
+        }
+        StringBuilder wkt = new StringBuilder(12 + size * 24);
+        wkt.append("LINESTRING (");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                wkt.append(", ");
+            }
+            appendOrdinate(wkt, xy[i * 2]);
+            wkt.append(' ');
+            appendOrdinate(wkt, xy[i * 2 + 1]);
+        }
+        return wkt.append(')').toString();
+    }
+
+    private static void appendOrdinate(StringBuilder out, double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+            return;
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude >= 1e-3 && magnitude < 1e7) {
+            // Plain notation in this range, no need for BigDecimal
+            out.append(value);
+        } else {
+            out.append(BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+        }
+    }
+}
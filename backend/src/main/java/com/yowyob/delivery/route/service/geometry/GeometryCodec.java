@@ -0,0 +1,221 @@
+package com.yowyob.delivery.route.service.geometry;
+
+import com.yowyob.delivery.route.domain.entity.Route;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary and compact text encodings of route line geometries.
+ * <ul>
+ * <li>WKB (ISO/OGC Well-Known Binary), used to exchange geometries with
+ * PostGIS without formatting and parsing decimal text;</li>
+ * <li>Google encoded polyline, a compact ASCII representation for API
+ * payloads.</li>
+ * </ul>
+ * Both work directly on {@link CoordinateBuffer}, so no JTS object is created
+ * per vertex.
+ */
+public final class GeometryCodec {
+
+    /**
+     * Number of decimals kept by the default encoded polyline precision
+     * (about 1 m), as used by Google and OSRM.
+     */
+    public static final int POLYLINE_PRECISION = 5;
+
+    private static final int WKB_POINT = 1;
+    private static final int WKB_LINESTRING = 2;
+    // EWKB flags set by PostGIS on ST_AsEWKB output
+    private static final int EWKB_Z = 0x80000000;
+    private static final int EWKB_M = 0x40000000;
+    private static final int EWKB_SRID = 0x20000000;
+
+    private GeometryCodec() {
+    }
+
+    /**
+     * Writes a LineString as little-endian WKB.
+     *
+     * @param coordinates the line vertices (x = longitude, y = latitude)
+     * @return the WKB bytes
+     */
+    public static byte[] toWkb(CoordinateBuffer coordinates) {
+        int size = coordinates.size();
+        ByteBuffer out = ByteBuffer.allocate(9 + size * 16).order(ByteOrder.LITTLE_ENDIAN);
+        out.put((byte) 1);
+        out.putInt(WKB_LINESTRING);
+        out.putInt(size);
+        for (int i = 0; i < size; i++) {
+            out.putDouble(coordinates.x(i));
+            out.putDouble(coordinates.y(i));
+        }
+        return out.array();
+    }
+
+    /**
+     * Reads a WKB or PostGIS EWKB LineString (a Point is read as a single
+     * vertex). Z and M ordinates are skipped.
+     *
+     * @param wkb the binary geometry
+     * @return the 2D vertices
+     * @throws IllegalArgumentException if the bytes are not a supported
+     *                                  geometry
+     */
+    public static CoordinateBuffer fromWkb(byte[] wkb) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(wkb);
+            in.order(in.get() == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+            int type = in.getInt();
+            int dimensions = 2;
+            if ((type & EWKB_Z) != 0) {
+                dimensions++;
+            }
+            if ((type & EWKB_M) != 0) {
+                dimensions++;
+            }
+            if ((type & EWKB_SRID) != 0) {
+                in.getInt();
+            }
+            type &= 0x0FFFFFFF;
+            // ISO WKB encodes Z/M in the thousands of the type code
+            int isoFlags = type / 1000;
+            if (isoFlags == 1 || isoFlags == 2) {
+                dimensions++;
+            } else if (isoFlags == 3) {
+                dimensions += 2;
+            }
+            type %= 1000;
+
+            int count;
+            if (type == WKB_LINESTRING) {
+                count = in.getInt();
+            } else if (type == WKB_POINT) {
+                count = 1;
+            } else {
+                throw new IllegalArgumentException("Unsupported WKB geometry type " + type);
+            }
+            CoordinateBuffer coordinates = new CoordinateBuffer(Math.min(count, in.remaining() / 16));
+            for (int i = 0; i < count; i++) {
+                double x = in.getDouble();
+                double y = in.getDouble();
+                for (int d = 2; d < dimensions; d++) {
+                    in.getDouble();
+                }
+                coordinates.add(x, y);
+            }
+            return coordinates;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated WKB geometry", e);
+        }
+    }
+
+    /**
+     * Parses a WKT geometry into its vertices.
+     *
+     * @param wkt the WKT text
+     * @return the 2D vertices
+     * @throws IllegalArgumentException if the text cannot be parsed
+     */
+    public static CoordinateBuffer fromWkt(String wkt) {
+        try {
+            Geometry geometry = new WKTReader().read(wkt);
+            return CoordinateBuffer.of(geometry.getCoordinates());
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Malformed WKT geometry", e);
+        }
+    }
+
+    /**
+     * Returns the path of a route, using the decoded geometry when available
+     * and parsing the WKT otherwise.
+     *
+     * @param route the route
+     * @return the path vertices, or {@code null} if the route has no geometry
+     */
+    public static CoordinateBuffer pathOf(Route route) {
+        if (route.getGeometry() != null) {
+            return route.getGeometry();
+        }
+        String wkt = route.getRouteGeometry();
+        return wkt == null || wkt.isEmpty() ? null : fromWkt(wkt);
+    }
+
+    /**
+     * Encodes vertices with the Google polyline algorithm. Pairs are written
+     * as (latitude, longitude), as the format specifies.
+     *
+     * @param coordinates the vertices (x = longitude, y = latitude)
+     * @param precision   number of decimals kept
+     * @return the encoded polyline
+     */
+    public static String encodePolyline(CoordinateBuffer coordinates, int precision) {
+        double factor = Math.pow(10, precision);
+        StringBuilder out = new StringBuilder(coordinates.size() * 8);
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < coordinates.size(); i++) {
+            long lat = Math.round(coordinates.y(i) * factor);
+            long lng = Math.round(coordinates.x(i) * factor);
+            encodeValue(out, lat - previousLat);
+            encodeValue(out, lng - previousLng);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Decodes a Google encoded polyline.
+     *
+     * @param polyline  the encoded text
+     * @param precision number of decimals used when encoding
+     * @return the vertices (x = longitude, y = latitude)
+     * @throws IllegalArgumentException if the text is truncated or contains
+     *                                  invalid characters
+     */
+    public static CoordinateBuffer decodePolyline(String polyline, int precision) {
+        double factor = Math.pow(10, precision);
+        CoordinateBuffer coordinates = new CoordinateBuffer(Math.max(2, polyline.length() / 8));
+        int[] index = { 0 };
+        long lat = 0;
+        long lng = 0;
+        while (index[0] < polyline.length()) {
+            lat += decodeValue(polyline, index);
+            lng += decodeValue(polyline, index);
+            coordinates.add(lng / factor, lat / factor);
+        }
+        return coordinates;
+    }
+
+    private static void encodeValue(StringBuilder out, long value) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+
+    private static long decodeValue(String polyline, int[] index) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (index[0] >= polyline.length()) {
+                throw new IllegalArgumentException("Truncated encoded polyline");
+            }
+            b = polyline.charAt(index[0]++) - 63;
+            if (b < 0 || b > 63 || shift > 60) {
+                throw new IllegalArgumentException("Invalid encoded polyline");
+            }
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.yowyob.delivery.route.service.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Douglas-Peucker simplification of geographic lines with a tolerance in
+ * meters.
+ * Distances are measured in a local equirectangular projection centred on the
+ * line, which is accurate to well under a percent at city and regional scale.
+ * Works on {@link CoordinateBuffer} and uses an explicit stack, so long OSRM
+ * geometries neither allocate per vertex nor risk deep recursion.
+ */
+public final class LineSimplifier {
+
+    private static final double METERS_PER_DEGREE = 6_371_000 * Math.PI / 180;
+
+    private LineSimplifier() {
+    }
+
+    /**
+     * @param line            the line (x = longitude, y = latitude)
+     * @param toleranceMeters maximum distance between the original line and
+     *                        the simplified one
+     * @return the simplified line, or the input itself if nothing can be
+     *         removed
+     */
+    public static CoordinateBuffer simplify(CoordinateBuffer line, double toleranceMeters) {
+        int n = line.size();
+        if (n <= 2 || toleranceMeters <= 0) {
+            return line;
+        }
+        double latitude = (line.y(0) + line.y(n - 1)) / 2;
+        double kx = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        double ky = METERS_PER_DEGREE;
+        double toleranceSq = toleranceMeters * toleranceMeters;
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        int kept = 2;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double ax = line.x(first) * kx;
+            double ay = line.y(first) * ky;
+            double dx = line.x(last) * kx - ax;
+            double dy = line.y(last) * ky - ay;
+            double lengthSq = dx * dx + dy * dy;
+
+            int farthest = -1;
+            double farthestSq = toleranceSq;
+            for (int i = first + 1; i < last; i++) {
+                double px = line.x(i) * kx - ax;
+                double py = line.y(i) * ky - ay;
+                double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSq));
+                double ex = px - t * dx;
+                double ey = py - t * dy;
+                double distanceSq = ex * ex + ey * ey;
+                if (distanceSq > farthestSq) {
+                    farthestSq = distanceSq;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                kept++;
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+        if (kept == n) {
+            return line;
+        }
+        CoordinateBuffer simplified = new CoordinateBuffer(kept);
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                simplified.add(line.x(i), line.y(i));
+            }
+        }
+        return simplified;
+    }
+}
@@ -0,0 +1,108 @@
+package com.yowyob.delivery.route.service.geometry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Precomputed zoom levels of route paths.
+ * Each route is simplified once, when it is calculated, at every tolerance of
+ * {@code routing.geometry.simplification-levels} (meters). The levels are
+ * stored next to the full geometry as a JSON object mapping the tolerance to
+ * an encoded polyline, and clients asking for a tolerance get the coarsest
+ * level that stays within it. Levels that would not remove any vertex are not
+ * stored.
+ */
+@Slf4j
+@Component
+public class RouteGeometryLevels {
+
+    private static final TypeReference<LinkedHashMap<String, String>> LEVELS_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final double[] tolerances;
+
+    public RouteGeometryLevels(
+            @Value("${routing.geometry.simplification-levels:5,25,100}") double[] tolerances) {
+        this.tolerances = Arrays.stream(tolerances).filter(t -> t > 0).sorted().toArray();
+    }
+
+    /**
+     * Simplifies a path at every configured tolerance.
+     *
+     * @param path the full-resolution path
+     * @return the levels as JSON, or {@code null} if the path cannot be
+     *         simplified
+     */
+    public String precompute(CoordinateBuffer path) {
+        if (path == null || path.size() <= 2) {
+            return null;
+        }
+        Map<String, String> levels = new LinkedHashMap<>();
+        int previousSize = path.size();
+        for (double tolerance : tolerances) {
+            // Always simplify the full path: chaining levels would add up their errors
+            CoordinateBuffer simplified = LineSimplifier.simplify(path, tolerance);
+            if (simplified.size() < previousSize) {
+                levels.put(key(tolerance),
+                        GeometryCodec.encodePolyline(simplified, GeometryCodec.POLYLINE_PRECISION));
+                previousSize = simplified.size();
+            }
+        }
+        if (levels.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(levels);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Picks the coarsest stored level whose tolerance does not exceed the
+     * requested one.
+     *
+     * @param levels          levels JSON as produced by {@link #precompute}
+     * @param toleranceMeters maximum deviation accepted by the client
+     * @return the matching level, or empty if the full geometry must be used
+     */
+    public Optional<SimplifiedGeometry> select(String levels, double toleranceMeters) {
+        if (levels == null || levels.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, String> parsed;
+        try {
+            parsed = objectMapper.readValue(levels, LEVELS_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed geometry levels: {}", e.getMessage());
+            return Optional.empty();
+        }
+        SimplifiedGeometry best = null;
+        for (Map.Entry<String, String> level : parsed.entrySet()) {
+            double tolerance;
+            try {
+                tolerance = Double.parseDouble(level.getKey());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (tolerance <= toleranceMeters && (best == null || tolerance > best.getToleranceMeters())) {
+                best = new SimplifiedGeometry(tolerance, level.getValue());
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static String key(double tolerance) {
+        return tolerance == Math.rint(tolerance) ? Long.toString((long) tolerance) : Double.toString(tolerance);
+    }
+}
@@ -0,0 +1,21 @@
+package com.yowyob.delivery.route.service.geometry;
+
+import lombok.Value;
+
+/**
+ * One precomputed simplification level of a route path.
+ */
+@Value
+public class SimplifiedGeometry {
+    /** Douglas-Peucker tolerance used to build this level, in meters. */
+    double toleranceMeters;
+    /** The simplified path as an encoded polyline (precision 5). */
+    String encodedPolyline;
+
+    /**
+     * @return the decoded vertices
+     */
+    public CoordinateBuffer decode() {
+        return GeometryCodec.decodePolyline(encodedPolyline, GeometryCodec.POLYLINE_PRECISION);
+    }
+}
@@ -0,0 +1,121 @@
+package com.yowyob.delivery.route.service.graph;
+
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * Set of {@link HubGraph} edges closed by active incidents, computed once per
+ * graph snapshot and incident set by {@link IncidentRegistry}.
+ * Searches test membership with a single bit lookup, so honouring incidents
+ * costs nothing per query. Instances are shared and must not be modified.
+ */
+public final class BlockedEdges {
+
+    private final HubGraph graph;
+    private final BitSet edges;
+    private final int incidentCount;
+
+    BlockedEdges(HubGraph graph, BitSet edges, int incidentCount) {
+        this.graph = graph;
+        this.edges = edges;
+        this.incidentCount = incidentCount;
+    }
+
+    /**
+     * @param graph the graph snapshot
+     * @return an empty set for the graph
+     */
+    public static BlockedEdges none(HubGraph graph) {
+        return new BlockedEdges(graph, new BitSet(), 0);
+    }
+
+    /**
+     * @return the graph snapshot the edge indices refer to
+     */
+    public HubGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return number of incidents the set was computed from
+     */
+    public int getIncidentCount() {
+        return incidentCount;
+    }
+
+    /**
+     * @return number of blocked directed edges
+     */
+    public int size() {
+        return edges.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return edges.isEmpty();
+    }
+
+    public boolean isBlocked(int edge) {
+        return edges.get(edge);
+    }
+
+    /**
+     * @param fromHubId origin hub of the connection
+     * @param toHubId   destination hub of the connection
+     * @return true if the connection between the two hubs is blocked
+     */
+    public boolean isBlocked(UUID fromHubId, UUID toHubId) {
+        if (edges.isEmpty()) {
+            return false;
+        }
+        int edge = graph.edgeBetween(graph.indexOf(fromHubId), graph.indexOf(toHubId));
+        return edge >= 0 && edges.get(edge);
+    }
+
+    /**
+     * @param path node indices of a path in the graph
+     * @return true if any step of the path uses a blocked edge
+     */
+    public boolean blocksPath(int[] path) {
+        if (edges.isEmpty()) {
+            return false;
+        }
+        for (int i = 1; i < path.length; i++) {
+            int edge = graph.edgeBetween(path[i - 1], path[i]);
+            if (edge >= 0 && edges.get(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the blocked edges as a bit set indexed by edge. The set is shared
+     * and must be treated as read-only.
+     *
+     * @return the blocked edges
+     */
+    public BitSet asBitSet() {
+        return edges;
+    }
+
+    /**
+     * Returns this set extended with the edges crossing one more incident area,
+     * leaving this instance unchanged.
+     *
+     * @param startLatitude  incident segment start latitude
+     * @param startLongitude incident segment start longitude
+     * @param endLatitude    incident segment end latitude
+     * @param endLongitude   incident segment end longitude
+     * @param bufferMeters   buffer width on each side of the segment
+     * @return the combined set
+     */
+    public BlockedEdges with(double startLatitude, double startLongitude, double endLatitude, double endLongitude,
+            double bufferMeters) {
+        BitSet combined = (BitSet) edges.clone();
+        for (int edge : graph.getSpatialIndex().edgesNearSegment(startLongitude, startLatitude, endLongitude,
+                endLatitude, bufferMeters)) {
+            combined.set(edge);
+        }
+        return new BlockedEdges(graph, combined, incidentCount + 1);
+    }
+}
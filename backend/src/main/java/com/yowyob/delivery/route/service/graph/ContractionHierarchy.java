@@ -0,0 +1,548 @@
+package com.yowyob.delivery.route.service.graph;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Contraction Hierarchy over a {@link HubGraph}.
+ * Nodes are contracted one by one in order of importance (edge difference with
+ * lazy updates), inserting shortcuts wherever a local witness search cannot
+ * prove a shorter detour. Queries then run a bidirectional Dijkstra that only
+ * relaxes edges towards higher-ranked nodes, which settles a tiny fraction of
+ * the graph.
+ * <p>
+ * Since the hub graph is undirected, a single upward adjacency serves both
+ * search directions. The adjacency is held in {@link java.nio.Buffer}s so the
+ * same class works on heap arrays after preprocessing and on a memory-mapped
+ * file after {@link #load(Path, long, int)}.
+ */
+@Slf4j
+public final class ContractionHierarchy {
+
+    private static final int MAGIC = 0x48424348; // "HBCH"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final long fingerprint;
+    private final int nodeCount;
+    private final IntBuffer upFirst;
+    private final IntBuffer upTarget;
+    private final IntBuffer upMiddle;
+    private final DoubleBuffer upWeight;
+    private final ThreadLocal<QueryState> queryState;
+
+    private ContractionHierarchy(long fingerprint, int nodeCount, IntBuffer upFirst, IntBuffer upTarget,
+            IntBuffer upMiddle, DoubleBuffer upWeight) {
+        this.fingerprint = fingerprint;
+        this.nodeCount = nodeCount;
+        this.upFirst = upFirst;
+        this.upTarget = upTarget;
+        this.upMiddle = upMiddle;
+        this.upWeight = upWeight;
+        this.queryState = ThreadLocal.withInitial(() -> new QueryState(nodeCount));
+    }
+
+    /**
+     * @return the fingerprint of the {@link HubGraph} this hierarchy was built
+     *         from
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return number of upward edges, including shortcuts
+     */
+    public int getEdgeCount() {
+        return upTarget.limit();
+    }
+
+    // ------------------------------------------------------------------------
+    // Preprocessing
+    // ------------------------------------------------------------------------
+
+    /**
+     * Contracts the given graph.
+     *
+     * @param graph the hub graph to preprocess
+     * @return the resulting hierarchy
+     */
+    public static ContractionHierarchy build(HubGraph graph) {
+        long startNanos = System.nanoTime();
+        Contractor contractor = new Contractor(graph);
+        ContractionHierarchy hierarchy = contractor.run(graph.getFingerprint());
+        log.info("Contracted {} hubs into {} upward edges ({} shortcuts) in {} ms",
+                graph.getNodeCount(), hierarchy.getEdgeCount(), contractor.shortcuts,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return hierarchy;
+    }
+
+    private static final class Arc {
+        final int target;
+        double weight;
+        int middle;
+
+        Arc(int target, double weight, int middle) {
+            this.target = target;
+            this.weight = weight;
+            this.middle = middle;
+        }
+    }
+
+    private static final class Contractor {
+        final int n;
+        final List<Map<Integer, Arc>> adjacency;
+        final List<List<Arc>> upward;
+        final boolean[] contracted;
+        final int[] contractedNeighbors;
+        final double[] witnessDist;
+        final int[] touched;
+        final NodeHeap heap;
+        int shortcuts;
+
+        Contractor(HubGraph graph) {
+            n = graph.getNodeCount();
+            adjacency = new ArrayList<>(n);
+            upward = new ArrayList<>(n);
+            for (int v = 0; v < n; v++) {
+                Map<Integer, Arc> arcs = new HashMap<>();
+                for (int e = graph.firstEdge(v); e < graph.lastEdge(v); e++) {
+                    arcs.put(graph.edgeTarget(e), new Arc(graph.edgeTarget(e), graph.edgeWeight(e), -1));
+                }
+                adjacency.add(arcs);
+                upward.add(new ArrayList<>());
+            }
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            witnessDist = new double[n];
+            Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+            touched = new int[n];
+            heap = new NodeHeap(64);
+        }
+
+        ContractionHierarchy run(long fingerprint) {
+            NodeHeap order = new NodeHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.push(priority(v), v);
+            }
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                if (contracted[v]) {
+                    continue;
+                }
+                // Lazy update: re-queue if the priority got worse than the next candidate
+                double current = priority(v);
+                if (!order.isEmpty() && current > order.peekKey()) {
+                    order.push(current, v);
+                    continue;
+                }
+                contract(v);
+            }
+            return toHierarchy(fingerprint);
+        }
+
+        double priority(int v) {
+            int degree = adjacency.get(v).size();
+            return contractNode(v, false) - degree + contractedNeighbors[v];
+        }
+
+        void contract(int v) {
+            contractNode(v, true);
+            Map<Integer, Arc> arcs = adjacency.get(v);
+            for (Arc arc : arcs.values()) {
+                upward.get(v).add(arc);
+                adjacency.get(arc.target).remove(v);
+                contractedNeighbors[arc.target]++;
+            }
+            arcs.clear();
+            contracted[v] = true;
+        }
+
+        /**
+         * Simulates or performs the contraction of {@code v}.
+         *
+         * @return the number of shortcuts required
+         */
+        int contractNode(int v, boolean apply) {
+            Arc[] neighbors = adjacency.get(v).values().toArray(new Arc[0]);
+            int required = 0;
+            for (int i = 0; i < neighbors.length; i++) {
+                Arc in = neighbors[i];
+                double maxVia = 0;
+                for (int j = i + 1; j < neighbors.length; j++) {
+                    maxVia = Math.max(maxVia, in.weight + neighbors[j].weight);
+                }
+                if (i + 1 >= neighbors.length) {
+                    continue;
+                }
+                int touchedCount = witnessSearch(in.target, v, maxVia);
+                for (int j = i + 1; j < neighbors.length; j++) {
+                    Arc out = neighbors[j];
+                    double via = in.weight + out.weight;
+                    if (witnessDist[out.target] <= via) {
+                        continue;
+                    }
+                    required++;
+                    if (apply) {
+                        addShortcut(in.target, out.target, via, v);
+                    }
+                }
+                for (int k = 0; k < touchedCount; k++) {
+                    witnessDist[touched[k]] = Double.POSITIVE_INFINITY;
+                }
+            }
+            return required;
+        }
+
+        /**
+         * Bounded Dijkstra from {@code source} in the remaining graph, ignoring
+         * {@code excluded}.
+         *
+         * @return number of entries written to {@link #touched}
+         */
+        int witnessSearch(int source, int excluded, double maxDistance) {
+            int touchedCount = 0;
+            heap.clear();
+            witnessDist[source] = 0;
+            touched[touchedCount++] = source;
+            heap.push(0, source);
+            int settled = 0;
+            while (!heap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                double key = heap.peekKey();
+                int u = heap.poll();
+                if (key > witnessDist[u]) {
+                    continue;
+                }
+                if (key > maxDistance) {
+                    break;
+                }
+                settled++;
+                for (Arc arc : adjacency.get(u).values()) {
+                    if (arc.target == excluded) {
+                        continue;
+                    }
+                    double candidate = key + arc.weight;
+                    if (candidate < witnessDist[arc.target]) {
+                        if (witnessDist[arc.target] == Double.POSITIVE_INFINITY) {
+                            touched[touchedCount++] = arc.target;
+                        }
+                        witnessDist[arc.target] = candidate;
+                        heap.push(candidate, arc.target);
+                    }
+                }
+            }
+            return touchedCount;
+        }
+
+        void addShortcut(int a, int b, double weight, int middle) {
+            Arc existing = adjacency.get(a).get(b);
+            if (existing != null) {
+                if (existing.weight <= weight) {
+                    return;
+                }
+                existing.weight = weight;
+                existing.middle = middle;
+                Arc reverse = adjacency.get(b).get(a);
+                reverse.weight = weight;
+                reverse.middle = middle;
+            } else {
+                adjacency.get(a).put(b, new Arc(b, weight, middle));
+                adjacency.get(b).put(a, new Arc(a, weight, middle));
+            }
+            shortcuts++;
+        }
+
+        ContractionHierarchy toHierarchy(long fingerprint) {
+            int[] first = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                first[v + 1] = first[v] + upward.get(v).size();
+            }
+            int m = first[n];
+            int[] target = new int[m];
+            int[] middle = new int[m];
+            double[] weight = new double[m];
+            for (int v = 0; v < n; v++) {
+                int e = first[v];
+                for (Arc arc : upward.get(v)) {
+                    target[e] = arc.target;
+                    middle[e] = arc.middle;
+                    weight[e] = arc.weight;
+                    e++;
+                }
+            }
+            return new ContractionHierarchy(fingerprint, n, IntBuffer.wrap(first), IntBuffer.wrap(target),
+                    IntBuffer.wrap(middle), DoubleBuffer.wrap(weight));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Query
+    // ------------------------------------------------------------------------
+
+    private static final class QueryState {
+        final double[] distForward;
+        final double[] distBackward;
+        final int[] parentForward;
+        final int[] parentBackward;
+        final int[] edgeForward;
+        final int[] edgeBackward;
+        final int[] touched;
+        int touchedCount;
+        final NodeHeap heapForward = new NodeHeap(64);
+        final NodeHeap heapBackward = new NodeHeap(64);
+
+        QueryState(int n) {
+            distForward = new double[n];
+            distBackward = new double[n];
+            Arrays.fill(distForward, Double.POSITIVE_INFINITY);
+            Arrays.fill(distBackward, Double.POSITIVE_INFINITY);
+            parentForward = new int[n];
+            parentBackward = new int[n];
+            edgeForward = new int[n];
+            edgeBackward = new int[n];
+            touched = new int[n];
+        }
+
+        void touch(int node) {
+            if (distForward[node] == Double.POSITIVE_INFINITY && distBackward[node] == Double.POSITIVE_INFINITY) {
+                touched[touchedCount++] = node;
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                distForward[touched[i]] = Double.POSITIVE_INFINITY;
+                distBackward[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            heapForward.clear();
+            heapBackward.clear();
+        }
+    }
+
+    /**
+     * Computes the shortest path between two nodes.
+     *
+     * @param source origin node index
+     * @param target destination node index
+     * @return the unpacked shortest path, or {@code null} if the nodes are not
+     *         connected
+     */
+    public GraphPath query(int source, int target) {
+        if (source == target) {
+            return new GraphPath(0.0, new int[] { source });
+        }
+        QueryState state = queryState.get();
+        try {
+            state.touch(source);
+            state.distForward[source] = 0;
+            state.parentForward[source] = -1;
+            state.heapForward.push(0, source);
+            state.touch(target);
+            state.distBackward[target] = 0;
+            state.parentBackward[target] = -1;
+            state.heapBackward.push(0, target);
+
+            double best = Double.POSITIVE_INFINITY;
+            int meeting = -1;
+            while (true) {
+                boolean forwardOpen = !state.heapForward.isEmpty() && state.heapForward.peekKey() < best;
+                boolean backwardOpen = !state.heapBackward.isEmpty() && state.heapBackward.peekKey() < best;
+                if (!forwardOpen && !backwardOpen) {
+                    break;
+                }
+                boolean forward = forwardOpen
+                        && (!backwardOpen || state.heapForward.peekKey() <= state.heapBackward.peekKey());
+                NodeHeap heap = forward ? state.heapForward : state.heapBackward;
+                double[] dist = forward ? state.distForward : state.distBackward;
+                double[] opposite = forward ? state.distBackward : state.distForward;
+                int[] parent = forward ? state.parentForward : state.parentBackward;
+                int[] parentEdge = forward ? state.edgeForward : state.edgeBackward;
+
+                double key = heap.peekKey();
+                int u = heap.poll();
+                if (key > dist[u]) {
+                    continue;
+                }
+                if (opposite[u] != Double.POSITIVE_INFINITY && key + opposite[u] < best) {
+                    best = key + opposite[u];
+                    meeting = u;
+                }
+                for (int e = upFirst.get(u); e < upFirst.get(u + 1); e++) {
+                    int v = upTarget.get(e);
+                    double candidate = key + upWeight.get(e);
+                    if (candidate < dist[v]) {
+                        state.touch(v);
+                        dist[v] = candidate;
+                        parent[v] = u;
+                        parentEdge[v] = e;
+                        heap.push(candidate, v);
+                    }
+                }
+            }
+            if (meeting < 0) {
+                return null;
+            }
+            return new GraphPath(best, unpackPath(state, source, meeting));
+        } finally {
+            state.reset();
+        }
+    }
+
+    private int[] unpackPath(QueryState state, int source, int meeting) {
+        // Upward chain from the source to the meeting node
+        Deque<Integer> forwardChain = new ArrayDeque<>();
+        for (int v = meeting; v != source; v = state.parentForward[v]) {
+            forwardChain.push(v);
+        }
+        List<Integer> nodes = new ArrayList<>();
+        nodes.add(source);
+        int previous = source;
+        for (int v : forwardChain) {
+            unpackEdge(previous, v, upMiddle.get(state.edgeForward[v]), nodes);
+            previous = v;
+        }
+        // Downward chain from the meeting node to the target
+        for (int v = meeting; state.parentBackward[v] >= 0; v = state.parentBackward[v]) {
+            int next = state.parentBackward[v];
+            unpackEdge(v, next, upMiddle.get(state.edgeBackward[v]), nodes);
+        }
+        return nodes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Appends the original nodes of the (possibly shortcut) edge {@code a-b},
+     * excluding {@code a}.
+     */
+    private void unpackEdge(int a, int b, int middle, List<Integer> out) {
+        if (middle < 0) {
+            out.add(b);
+            return;
+        }
+        unpackEdge(a, middle, upMiddle.get(findUpwardEdge(middle, a)), out);
+        unpackEdge(middle, b, upMiddle.get(findUpwardEdge(middle, b)), out);
+    }
+
+    private int findUpwardEdge(int lower, int higher) {
+        int found = -1;
+        for (int e = upFirst.get(lower); e < upFirst.get(lower + 1); e++) {
+            if (upTarget.get(e) == higher && (found < 0 || upWeight.get(e) < upWeight.get(found))) {
+                found = e;
+            }
+        }
+        if (found < 0) {
+            throw new IllegalStateException("Corrupted contraction hierarchy: missing edge " + lower + "-" + higher);
+        }
+        return found;
+    }
+
+    // ------------------------------------------------------------------------
+    // Persistence
+    // ------------------------------------------------------------------------
+
+    /**
+     * Writes the hierarchy to a file that can later be memory-mapped with
+     * {@link #load(Path, long, int)}. The file is written to a temporary sibling
+     * first and then moved into place.
+     *
+     * @param file destination file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        int m = getEdgeCount();
+        int intSection = (nodeCount + 1 + 2 * m) * Integer.BYTES;
+        int padding = (HEADER_BYTES + intSection) % Double.BYTES == 0 ? 0 : Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + intSection + padding + m * Double.BYTES);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(fingerprint).putInt(nodeCount).putInt(m);
+        for (int i = 0; i <= nodeCount; i++) {
+            buffer.putInt(upFirst.get(i));
+        }
+        for (int e = 0; e < m; e++) {
+            buffer.putInt(upTarget.get(e));
+        }
+        for (int e = 0; e < m; e++) {
+            buffer.putInt(upMiddle.get(e));
+        }
+        buffer.position(buffer.position() + padding);
+        for (int e = 0; e < m; e++) {
+            buffer.putDouble(upWeight.get(e));
+        }
+        buffer.flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Memory-maps a hierarchy previously written by {@link #save(Path)}.
+     *
+     * @param file                file to map
+     * @param expectedFingerprint fingerprint of the current hub graph
+     * @param expectedNodes       node count of the current hub graph
+     * @return the mapped hierarchy, or empty if the file is missing, invalid or
+     *         was built from a different graph
+     */
+    public static Optional<ContractionHierarchy> load(Path file, long expectedFingerprint, int expectedNodes) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION) {
+                log.warn("Ignoring invalid contraction hierarchy file {}", file);
+                return Optional.empty();
+            }
+            long fingerprint = mapped.getLong(8);
+            int n = mapped.getInt(16);
+            int m = mapped.getInt(20);
+            if (fingerprint != expectedFingerprint || n != expectedNodes) {
+                log.info("Contraction hierarchy file {} is stale, rebuilding", file);
+                return Optional.empty();
+            }
+            int offset = HEADER_BYTES;
+            IntBuffer first = slice(mapped, offset, (n + 1) * Integer.BYTES).asIntBuffer();
+            offset += (n + 1) * Integer.BYTES;
+            IntBuffer target = slice(mapped, offset, m * Integer.BYTES).asIntBuffer();
+            offset += m * Integer.BYTES;
+            IntBuffer middle = slice(mapped, offset, m * Integer.BYTES).asIntBuffer();
+            offset += m * Integer.BYTES;
+            offset += offset % Double.BYTES == 0 ? 0 : Integer.BYTES;
+            DoubleBuffer weight = slice(mapped, offset, m * Double.BYTES).asDoubleBuffer();
+            return Optional.of(new ContractionHierarchy(fingerprint, n, first, target, middle, weight));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to map contraction hierarchy file {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        return buffer.slice(offset, length);
+    }
+}
@@ -0,0 +1,104 @@
+package com.yowyob.delivery.route.service.graph;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Supplies the {@link ContractionHierarchy} matching the current
+ * {@link HubGraph}.
+ * On first use the hierarchy is memory-mapped from the configured file when its
+ * fingerprint matches the graph; otherwise it is rebuilt off the event loop
+ * and written back to the file for the next start.
+ */
+@Slf4j
+@Component
+public class ContractionHierarchyProvider {
+
+    /** Reactor treats this TTL as "never expire". */
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final HubGraphProvider graphProvider;
+    private final Path file;
+    private final boolean preload;
+
+    private volatile Mono<ContractionHierarchy> cachedHierarchy;
+    private volatile long cachedFingerprint;
+
+    public ContractionHierarchyProvider(HubGraphProvider graphProvider,
+            @Value("${routing.ch.file:}") String file,
+            @Value("${routing.ch.preload:false}") boolean preload) {
+        this.graphProvider = graphProvider;
+        this.file = StringUtils.hasText(file) ? Paths.get(file) : null;
+        this.preload = preload;
+    }
+
+    /**
+     * Returns the hierarchy for the given graph, preparing it if the graph
+     * changed since the last call.
+     *
+     * @param graph the current hub graph
+     * @return a Mono emitting the matching hierarchy
+     */
+    public Mono<ContractionHierarchy> getHierarchy(HubGraph graph) {
+        Mono<ContractionHierarchy> current = cachedHierarchy;
+        if (current != null && cachedFingerprint == graph.getFingerprint()) {
+            return current;
+        }
+        synchronized (this) {
+            if (cachedHierarchy == null || cachedFingerprint != graph.getFingerprint()) {
+                cachedFingerprint = graph.getFingerprint();
+                cachedHierarchy = Mono.fromCallable(() -> prepare(graph))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .doOnError(e -> log.error("Failed to prepare contraction hierarchy", e))
+                        .cache(h -> FOREVER, e -> Duration.ZERO, () -> Duration.ZERO);
+            }
+            return cachedHierarchy;
+        }
+    }
+
+    /**
+     * Prepares the hierarchy once the application is up so the first CH request
+     * does not pay for preprocessing. Enabled with {@code routing.ch.preload}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadOnStartup() {
+        if (!preload) {
+            return;
+        }
+        graphProvider.getGraph()
+                .flatMap(this::getHierarchy)
+                .subscribe(h -> log.info("Contraction hierarchy ready: {} hubs, {} upward edges",
+                        h.getNodeCount(), h.getEdgeCount()),
+                        e -> log.warn("Contraction hierarchy preload failed: {}", e.getMessage()));
+    }
+
+    private ContractionHierarchy prepare(HubGraph graph) {
+        if (file != null) {
+            var mapped = ContractionHierarchy.load(file, graph.getFingerprint(), graph.getNodeCount());
+            if (mapped.isPresent()) {
+                log.info("Memory-mapped contraction hierarchy from {}", file);
+                return mapped.get();
+            }
+        }
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        if (file != null) {
+            try {
+                hierarchy.save(file);
+                log.info("Saved contraction hierarchy to {}", file);
+            } catch (Exception e) {
+                log.warn("Could not save contraction hierarchy to {}: {}", file, e.getMessage());
+            }
+        }
+        return hierarchy;
+    }
+}
@@ -0,0 +1,161 @@
+package com.yowyob.delivery.route.service.graph;
+
+import com.yowyob.delivery.route.controller.dto.RoutingConstraintsDTO;
+import com.yowyob.delivery.route.domain.entity.HubConnection;
+import com.yowyob.delivery.route.domain.entity.Vehicle;
+import com.yowyob.delivery.route.domain.enums.VehicleType;
+
+/**
+ * Bit layout of the per-edge restriction masks stored in {@link HubGraph}.
+ * Each set bit of an edge mask names something the edge does not accept
+ * (a vehicle type, a weight class) or a property a request may avoid
+ * (highway, toll). A request is turned into the set of bits it cannot use,
+ * so checking an edge during a search is a single {@code (mask & forbidden)}
+ * test.
+ * <p>
+ * Weight limits are bucketed into the classes of {@link #WEIGHT_CLASSES_KG},
+ * whose bounds are the usual posted limits. A vehicle weighing {@code W} kg
+ * falls in the lightest class of at least {@code W} kg, or in an overflow
+ * class above the heaviest one. An edge limited to {@code L} kg has its limit
+ * rounded up to the next class bound and refuses the classes above it, i.e.
+ * only the vehicles that are heavier than {@code L} whatever their exact
+ * weight. A vehicle under the posted limit is therefore never refused; a
+ * limit that is not a class bound may let through vehicles up to that bound.
+ * An edge limited above the heaviest class refuses no weight.
+ */
+public final class EdgeRestrictions {
+
+    /** No restriction: every request may use the edge. */
+    public static final int NONE = 0;
+
+    /** The edge is part of a highway. */
+    public static final int HIGHWAY = 1 << 5;
+
+    /** The edge is a toll road. */
+    public static final int TOLL = 1 << 6;
+
+    /** Upper bounds, in kg, of the weight classes used for weight limits. */
+    static final double[] WEIGHT_CLASSES_KG = { 2_000, 3_500, 5_000, 7_500, 10_000, 12_000, 16_000, 19_000, 26_000,
+            32_000, 40_000, 44_000 };
+
+    private static final int WEIGHT_SHIFT = 8;
+
+    /** Vehicles heavier than every weight class; refused by any weight limit. */
+    static final int WEIGHT_OVERFLOW = 1 << (WEIGHT_SHIFT + WEIGHT_CLASSES_KG.length);
+
+    private EdgeRestrictions() {
+    }
+
+    /**
+     * Returns the bit of a vehicle type. The same bits are stored in
+     * {@code hub_connections.allowed_vehicles}, so they are fixed per type and
+     * must never change, whatever the order of {@link VehicleType}.
+     *
+     * @param type a vehicle type
+     * @return the bit set on edges the vehicle type may not use
+     */
+    public static int vehicleBit(VehicleType type) {
+        return switch (type) {
+            case BICYCLE -> 1;
+            case MOTORCYCLE -> 1 << 1;
+            case CAR -> 1 << 2;
+            case VAN -> 1 << 3;
+            case TRUCK -> 1 << 4;
+        };
+    }
+
+    /**
+     * Builds the restriction mask of a connection.
+     *
+     * @param connection the persisted connection
+     * @return the mask, {@link #NONE} for an unrestricted connection
+     */
+    public static int maskOf(HubConnection connection) {
+        int mask = NONE;
+        if (connection.getAllowedVehicles() != null) {
+            // Stored as the set of allowed types, kept here as the set of refused ones
+            for (VehicleType type : VehicleType.values()) {
+                if ((connection.getAllowedVehicles() & vehicleBit(type)) == 0) {
+                    mask |= vehicleBit(type);
+                }
+            }
+        }
+        if (connection.getMaxWeightKg() != null) {
+            // Refuse the classes whose lightest vehicle already exceeds the limit
+            for (int i = 1; i < WEIGHT_CLASSES_KG.length; i++) {
+                if (WEIGHT_CLASSES_KG[i - 1] >= connection.getMaxWeightKg()) {
+                    mask |= 1 << (WEIGHT_SHIFT + i);
+                }
+            }
+            if (WEIGHT_CLASSES_KG[WEIGHT_CLASSES_KG.length - 1] >= connection.getMaxWeightKg()) {
+                mask |= WEIGHT_OVERFLOW;
+            }
+        }
+        if (Boolean.TRUE.equals(connection.getIsHighway())) {
+            mask |= HIGHWAY;
+        }
+        if (Boolean.TRUE.equals(connection.getIsToll())) {
+            mask |= TOLL;
+        }
+        return mask;
+    }
+
+    /**
+     * Builds the set of restriction bits a request cannot use.
+     *
+     * @param constraints the routing constraints, may be {@code null}
+     * @return the forbidden bits, {@link #NONE} if every edge may be used
+     * @throws IllegalArgumentException if the vehicle type is unknown
+     */
+    public static int forbiddenMask(RoutingConstraintsDTO constraints) {
+        if (constraints == null) {
+            return NONE;
+        }
+        int forbidden = NONE;
+        if (constraints.getVehicleType() != null && !constraints.getVehicleType().isBlank()) {
+            try {
+                forbidden |= vehicleBit(VehicleType.valueOf(constraints.getVehicleType().trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown vehicle type: " + constraints.getVehicleType());
+            }
+        }
+        if (constraints.getWeightKg() != null && constraints.getWeightKg() > 0) {
+            forbidden |= weightBit(constraints.getWeightKg());
+        }
+        if (constraints.isAvoidHighways()) {
+            forbidden |= HIGHWAY;
+        }
+        if (constraints.isAvoidTolls()) {
+            forbidden |= TOLL;
+        }
+        return forbidden;
+    }
+
+    /**
+     * Builds the set of restriction bits a vehicle cannot use, from its type
+     * and gross weight (its maximum load when the gross weight is unknown).
+     *
+     * @param vehicle the vehicle, may be {@code null}
+     * @return the forbidden bits, {@link #NONE} for an unknown vehicle
+     */
+    public static int forbiddenMask(Vehicle vehicle) {
+        if (vehicle == null) {
+            return NONE;
+        }
+        int forbidden = vehicle.getVehicleType() != null ? vehicleBit(vehicle.getVehicleType()) : NONE;
+        Double weightKg = vehicle.getGrossWeightKg() != null ? vehicle.getGrossWeightKg() : vehicle.getMaxCapacityKg();
+        if (weightKg != null && weightKg > 0) {
+            forbidden |= weightBit(weightKg);
+        }
+        return forbidden;
+    }
+
+    private static int weightBit(double weightKg) {
+        for (int i = 0; i < WEIGHT_CLASSES_KG.length; i++) {
+            if (weightKg <= WEIGHT_CLASSES_KG[i]) {
+                return 1 << (WEIGHT_SHIFT + i);
+            }
+        }
+        return WEIGHT_OVERFLOW;
+    }
+}
@@ -0,0 +1,20 @@
+package com.yowyob.delivery.route.service.graph;
+
+import lombok.Value;
+
+/**
+ * Result of a shortest-path search over a {@link HubGraph}.
+ */
+@Value
+public class GraphPath {
+
+    /**
+     * Total weight of the path.
+     */
+    double distance;
+
+    /**
+     * Node indices from origin to destination (both included).
+     */
+    int[] nodes;
+}
@@ -0,0 +1,391 @@
+package com.yowyob.delivery.route.service.graph;
+
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Plain Dijkstra and A* searches over a {@link HubGraph}.
+ * Each thread reuses its own distance arrays and heap, so running many
+ * searches in parallel (e.g. one per matrix row) allocates nothing per
+ * search beyond the returned result.
+ */
+public final class GraphSearch {
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private GraphSearch() {
+    }
+
+    private static final class Workspace {
+        double[] dist = new double[0];
+        int[] targetSlot = new int[0];
+        int[] parent = new int[0];
+        int[] touched = new int[0];
+        int touchedCount;
+        final NodeHeap heap = new NodeHeap(64);
+
+        void prepare(int n) {
+            if (dist.length < n) {
+                dist = new double[n];
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+                targetSlot = new int[n];
+                Arrays.fill(targetSlot, -1);
+                parent = new int[n];
+                touched = new int[n];
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+
+        void set(int node, double distance) {
+            if (dist[node] == Double.POSITIVE_INFINITY) {
+                touched[touchedCount++] = node;
+            }
+            dist[node] = distance;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+    }
+
+    /**
+     * Computes the shortest distances from one node to a set of targets,
+     * ignoring blocked edges and edges whose restriction mask intersects
+     * {@code forbidden}. The search stops as soon as every target has been
+     * settled.
+     *
+     * @param graph     the hub graph
+     * @param source    origin node index
+     * @param targets   target node indices (negative entries are ignored)
+     * @param blocked   edge indices that must not be used, or {@code null}
+     * @param forbidden restriction bits the request cannot use, see
+     *                  {@link EdgeRestrictions#forbiddenMask}
+     * @return distances aligned with {@code targets}; unreachable or ignored
+     *         targets get {@link Double#POSITIVE_INFINITY}
+     */
+    public static double[] oneToMany(HubGraph graph, int source, int[] targets, BitSet blocked, int forbidden) {
+        double[] result = new double[targets.length];
+        Arrays.fill(result, Double.POSITIVE_INFINITY);
+        if (source < 0) {
+            return result;
+        }
+        Workspace ws = WORKSPACE.get();
+        ws.prepare(graph.getNodeCount());
+        int remaining = 0;
+        for (int i = 0; i < targets.length; i++) {
+            int t = targets[i];
+            if (t >= 0 && ws.targetSlot[t] < 0) {
+                ws.targetSlot[t] = i;
+                remaining++;
+            }
+        }
+        try {
+            ws.set(source, 0);
+            ws.heap.push(0, source);
+            while (remaining > 0 && !ws.heap.isEmpty()) {
+                double key = ws.heap.peekKey();
+                int u = ws.heap.poll();
+                if (key > ws.dist[u]) {
+                    continue;
+                }
+                if (ws.targetSlot[u] >= 0) {
+                    result[ws.targetSlot[u]] = key;
+                    remaining--;
+                }
+                relax(graph, ws, u, key, Double.POSITIVE_INFINITY, blocked, forbidden);
+            }
+        } finally {
+            // Duplicate targets share the first slot
+            for (int i = 0; i < targets.length; i++) {
+                int t = targets[i];
+                if (t >= 0) {
+                    int slot = ws.targetSlot[t];
+                    if (slot >= 0 && slot != i) {
+                        result[i] = result[slot];
+                    }
+                }
+            }
+            for (int t : targets) {
+                if (t >= 0) {
+                    ws.targetSlot[t] = -1;
+                }
+            }
+            ws.reset();
+        }
+        return result;
+    }
+
+    /**
+     * Computes the shortest path between two nodes, ignoring blocked edges.
+     *
+     * @param graph   the hub graph
+     * @param source  origin node index
+     * @param target  destination node index
+     * @param blocked edge indices that must not be used, or {@code null}
+     * @return the path, or {@code null} if the target is unreachable
+     */
+    public static GraphPath shortestPath(HubGraph graph, int source, int target, BitSet blocked) {
+        return shortestPath(graph, source, target, blocked, EdgeRestrictions.NONE);
+    }
+
+    /**
+     * Computes the shortest path between two nodes, ignoring blocked edges and
+     * edges whose restriction mask intersects {@code forbidden}.
+     *
+     * @param graph     the hub graph
+     * @param source    origin node index
+     * @param target    destination node index
+     * @param blocked   edge indices that must not be used, or {@code null}
+     * @param forbidden restriction bits the request cannot use, see
+     *                  {@link EdgeRestrictions#forbiddenMask}
+     * @return the path, or {@code null} if the target is unreachable
+     */
+    public static GraphPath shortestPath(HubGraph graph, int source, int target, BitSet blocked, int forbidden) {
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        Workspace ws = WORKSPACE.get();
+        ws.prepare(graph.getNodeCount());
+        try {
+            ws.set(source, 0);
+            ws.parent[source] = -1;
+            ws.heap.push(0, source);
+            while (!ws.heap.isEmpty()) {
+                double key = ws.heap.peekKey();
+                int u = ws.heap.poll();
+                if (key > ws.dist[u]) {
+                    continue;
+                }
+                if (u == target) {
+                    return toPath(graph, ws, target);
+                }
+                for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                    if ((blocked != null && blocked.get(e)) || !graph.isAllowed(e, forbidden)) {
+                        continue;
+                    }
+                    int v = graph.edgeTarget(e);
+                    double candidate = key + graph.edgeWeight(e);
+                    if (candidate < ws.dist[v]) {
+                        ws.set(v, candidate);
+                        ws.parent[v] = u;
+                        ws.heap.push(candidate, v);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            ws.reset();
+        }
+    }
+
+    /**
+     * Computes the shortest path between two nodes with A*, ignoring blocked
+     * edges and edges whose restriction mask intersects {@code forbidden}.
+     * The heuristic is the straight-line distance to the target scaled by
+     * {@link HubGraph#getHeuristicScale()}; it never overestimates, so the path
+     * found is as short as the one of
+     * {@link #shortestPath(HubGraph, int, int, BitSet, int)}.
+     *
+     * @param graph     the hub graph
+     * @param source    origin node index
+     * @param target    destination node index
+     * @param blocked   edge indices that must not be used, or {@code null}
+     * @param forbidden restriction bits the request cannot use, see
+     *                  {@link EdgeRestrictions#forbiddenMask}
+     * @return the path, or {@code null} if the target is unreachable
+     */
+    public static GraphPath aStarPath(HubGraph graph, int source, int target, BitSet blocked, int forbidden) {
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        double scale = graph.hasLocation(target) ? graph.getHeuristicScale() : 0;
+        Workspace ws = WORKSPACE.get();
+        ws.prepare(graph.getNodeCount());
+        try {
+            ws.set(source, 0);
+            ws.parent[source] = -1;
+            ws.heap.push(heuristic(graph, source, target, scale), source);
+            while (!ws.heap.isEmpty()) {
+                double key = ws.heap.peekKey();
+                int u = ws.heap.poll();
+                if (key > ws.dist[u] + heuristic(graph, u, target, scale)) {
+                    continue;
+                }
+                if (u == target) {
+                    return toPath(graph, ws, target);
+                }
+                for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                    if ((blocked != null && blocked.get(e)) || !graph.isAllowed(e, forbidden)) {
+                        continue;
+                    }
+                    int v = graph.edgeTarget(e);
+                    double candidate = ws.dist[u] + graph.edgeWeight(e);
+                    if (candidate < ws.dist[v]) {
+                        ws.set(v, candidate);
+                        ws.parent[v] = u;
+                        ws.heap.push(candidate + heuristic(graph, v, target, scale), v);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            ws.reset();
+        }
+    }
+
+    private static double heuristic(HubGraph graph, int node, int target, double scale) {
+        if (scale == 0 || !graph.hasLocation(node)) {
+            return 0;
+        }
+        return scale * GeometryUtils.haversineDistance(graph.latitude(node), graph.longitude(node),
+                graph.latitude(target), graph.longitude(target));
+    }
+
+    /**
+     * Computes the fastest path between two nodes for a given departure time
+     * (time-dependent Dijkstra). Node labels are arrival times and each edge is
+     * timed with the speed of the bucket in which it is entered.
+     *
+     * @param graph           the hub graph
+     * @param source          origin node index
+     * @param target          destination node index
+     * @param blocked         edge indices that must not be used, or {@code null}
+     * @param forbidden       restriction bits the request cannot use
+     * @param profiles        speed profiles of the graph's edges
+     * @param departureMinute departure time in minutes since midnight
+     * @return the path with its total weight, or {@code null} if the target
+     *         is unreachable
+     */
+    public static GraphPath fastestPath(HubGraph graph, int source, int target, BitSet blocked, int forbidden,
+            TrafficProfiles profiles, double departureMinute) {
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        Workspace ws = WORKSPACE.get();
+        ws.prepare(graph.getNodeCount());
+        try {
+            ws.set(source, 0);
+            ws.parent[source] = -1;
+            ws.heap.push(0, source);
+            while (!ws.heap.isEmpty()) {
+                double key = ws.heap.peekKey();
+                int u = ws.heap.poll();
+                if (key > ws.dist[u]) {
+                    continue;
+                }
+                if (u == target) {
+                    return toPath(graph, ws, target);
+                }
+                for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                    if ((blocked != null && blocked.get(e)) || !graph.isAllowed(e, forbidden)) {
+                        continue;
+                    }
+                    int v = graph.edgeTarget(e);
+                    double candidate = key + profiles.travelMinutes(e, departureMinute + key);
+                    if (candidate < ws.dist[v]) {
+                        ws.set(v, candidate);
+                        ws.parent[v] = u;
+                        ws.heap.push(candidate, v);
+                    }
+                }
+            }
+            return null;
+        } finally {
+            ws.reset();
+        }
+    }
+
+    /**
+     * Rebuilds the path ending at {@code target} from the parent links, with
+     * its total edge weight.
+     */
+    private static GraphPath toPath(HubGraph graph, Workspace ws, int target) {
+        int length = 1;
+        for (int node = target; ws.parent[node] >= 0; node = ws.parent[node]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        for (int node = target, i = length - 1; i >= 0; node = ws.parent[node], i--) {
+            nodes[i] = node;
+        }
+        double weight = 0;
+        for (int i = 1; i < length; i++) {
+            weight += graph.edgeWeight(graph.edgeBetween(nodes[i - 1], nodes[i]));
+        }
+        return new GraphPath(weight, nodes);
+    }
+
+    /**
+     * Settles every node whose distance from {@code source} does not exceed
+     * {@code budget}, ignoring blocked edges and edges whose restriction mask
+     * intersects {@code forbidden}.
+     *
+     * @param graph     the hub graph
+     * @param source    origin node index
+     * @param budget    maximum path cost (inclusive)
+     * @param blocked   edge indices that must not be used, or {@code null}
+     * @param forbidden restriction bits the request cannot use, see
+     *                  {@link EdgeRestrictions#forbiddenMask}
+     * @return the reachable nodes in increasing order of cost
+     */
+    public static Reachability withinBudget(HubGraph graph, int source, double budget, BitSet blocked,
+            int forbidden) {
+        Workspace ws = WORKSPACE.get();
+        ws.prepare(graph.getNodeCount());
+        int[] nodes = new int[16];
+        double[] costs = new double[16];
+        int count = 0;
+        try {
+            ws.set(source, 0);
+            ws.heap.push(0, source);
+            while (!ws.heap.isEmpty()) {
+                double key = ws.heap.peekKey();
+                int u = ws.heap.poll();
+                if (key > ws.dist[u]) {
+                    continue;
+                }
+                if (count == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, count * 2);
+                    costs = Arrays.copyOf(costs, count * 2);
+                }
+                nodes[count] = u;
+                costs[count++] = key;
+                relax(graph, ws, u, key, budget, blocked, forbidden);
+            }
+        } finally {
+            ws.reset();
+        }
+        return new Reachability(Arrays.copyOf(nodes, count), Arrays.copyOf(costs, count));
+    }
+
+    private static void relax(HubGraph graph, Workspace ws, int u, double key, double budget, BitSet blocked,
+            int forbidden) {
+        for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+            if ((blocked != null && blocked.get(e)) || !graph.isAllowed(e, forbidden)) {
+                continue;
+            }
+            int v = graph.edgeTarget(e);
+            double candidate = key + graph.edgeWeight(e);
+            if (candidate <= budget && candidate < ws.dist[v]) {
+                ws.set(v, candidate);
+                ws.heap.push(candidate, v);
+            }
+        }
+    }
+
+    /**
+     * Nodes settled by a budgeted search, with their costs.
+     */
+    @lombok.Value
+    public static class Reachability {
+        int[] nodes;
+        double[] costs;
+    }
+}
@@ -0,0 +1,376 @@
+package com.yowyob.delivery.route.service.graph;
+
+import com.yowyob.delivery.route.domain.entity.Hub;
+import com.yowyob.delivery.route.domain.entity.HubConnection;
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.WKTReader;
+
+import java.util.*;
+
+/**
+ * Immutable, array-based snapshot of the hub network used by the in-process
+ * routing algorithms.
+ * Hubs are indexed densely (sorted by UUID so that the numbering is stable
+ * between reloads) and connections are stored in compressed sparse row (CSR)
+ * form. Connections are treated as undirected, matching the behaviour of
+ * {@link com.yowyob.delivery.route.service.strategy.DijkstraRoutingStrategy}.
+ * Each edge also carries a restriction mask (see {@link EdgeRestrictions})
+ * so vehicle-specific searches share the same snapshot.
+ */
+@Slf4j
+public final class HubGraph {
+
+    private final long version;
+    private final long fingerprint;
+    private final Hub[] hubs;
+    private final Map<UUID, Integer> indexById;
+    private final double[] longitudes;
+    private final double[] latitudes;
+    private final int[] firstEdge;
+    private final int[] edgeTarget;
+    private final double[] edgeWeight;
+    private final int[] edgeMask;
+    private volatile HubSpatialIndex spatialIndex;
+    private volatile double heuristicScale = Double.NaN;
+
+    private HubGraph(long version, long fingerprint, Hub[] hubs, Map<UUID, Integer> indexById,
+            double[] longitudes, double[] latitudes, int[] firstEdge, int[] edgeTarget, double[] edgeWeight,
+            int[] edgeMask) {
+        this.version = version;
+        this.fingerprint = fingerprint;
+        this.hubs = hubs;
+        this.indexById = indexById;
+        this.longitudes = longitudes;
+        this.latitudes = latitudes;
+        this.firstEdge = firstEdge;
+        this.edgeTarget = edgeTarget;
+        this.edgeWeight = edgeWeight;
+        this.edgeMask = edgeMask;
+    }
+
+    /**
+     * Builds a graph snapshot from the persisted hubs and connections.
+     * Hub locations are parsed from WKT once here, so searches never touch WKT.
+     * Connections referencing unknown hubs are skipped and parallel connections
+     * keep their lowest weight, with the restrictions of the connection
+     * providing it (the least restrictive one on ties).
+     *
+     * @param version     version number assigned to this snapshot
+     * @param hubList     all hubs, with their location as WKT
+     * @param connections all hub connections
+     * @return the compact graph
+     */
+    public static HubGraph build(long version, List<Hub> hubList, List<HubConnection> connections) {
+        Hub[] hubs = hubList.stream()
+                .filter(h -> h.getId() != null)
+                .sorted(Comparator.comparing(Hub::getId))
+                .toArray(Hub[]::new);
+        int n = hubs.length;
+
+        Map<UUID, Integer> indexById = new HashMap<>(n * 2);
+        double[] longitudes = new double[n];
+        double[] latitudes = new double[n];
+        WKTReader wktReader = new WKTReader();
+        for (int i = 0; i < n; i++) {
+            indexById.put(hubs[i].getId(), i);
+            Coordinate c = parsePoint(wktReader, hubs[i].getLocation());
+            longitudes[i] = c != null ? c.x : Double.NaN;
+            latitudes[i] = c != null ? c.y : Double.NaN;
+        }
+
+        // Deduplicate undirected edges, keeping the minimum weight
+        Map<Long, Double> undirected = new HashMap<>();
+        Map<Long, Integer> masks = new HashMap<>();
+        for (HubConnection connection : connections) {
+            Integer from = indexById.get(connection.getFromHubId());
+            Integer to = indexById.get(connection.getToHubId());
+            if (from == null || to == null || from.equals(to)) {
+                continue;
+            }
+            double weight = connection.getWeight() == null ? 0.0 : connection.getWeight();
+            long key = edgeKey(Math.min(from, to), Math.max(from, to));
+            int mask = EdgeRestrictions.maskOf(connection);
+            Double current = undirected.get(key);
+            if (current == null || weight < current) {
+                undirected.put(key, weight);
+                masks.put(key, mask);
+            } else if (weight == current) {
+                masks.merge(key, mask, (a, b) -> a & b);
+            }
+        }
+
+        int[] degree = new int[n];
+        for (long key : undirected.keySet()) {
+            degree[(int) (key >>> 32)]++;
+            degree[(int) key]++;
+        }
+        int[] firstEdge = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            firstEdge[i + 1] = firstEdge[i] + degree[i];
+        }
+        int[] edgeTarget = new int[firstEdge[n]];
+        double[] edgeWeight = new double[firstEdge[n]];
+        int[] edgeMask = new int[firstEdge[n]];
+        int[] cursor = Arrays.copyOf(firstEdge, n);
+
+        // Insert in key order so the CSR layout is deterministic
+        long[] keys = undirected.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        for (long key : keys) {
+            int a = (int) (key >>> 32);
+            int b = (int) key;
+            double weight = undirected.get(key);
+            int mask = masks.get(key);
+            edgeTarget[cursor[a]] = b;
+            edgeMask[cursor[a]] = mask;
+            edgeWeight[cursor[a]++] = weight;
+            edgeTarget[cursor[b]] = a;
+            edgeMask[cursor[b]] = mask;
+            edgeWeight[cursor[b]++] = weight;
+        }
+
+        long fingerprint = computeFingerprint(hubs, longitudes, latitudes, keys, undirected, masks);
+        log.debug("Built hub graph: {} hubs, {} undirected edges", n, keys.length);
+        return new HubGraph(version, fingerprint, hubs, indexById, longitudes, latitudes, firstEdge, edgeTarget,
+                edgeWeight, edgeMask);
+    }
+
+    private static Coordinate parsePoint(WKTReader reader, String wkt) {
+        if (wkt == null || wkt.isEmpty()) {
+            return null;
+        }
+        try {
+            Geometry geometry = reader.read(wkt);
+            return geometry instanceof Point point && !point.isEmpty() ? point.getCoordinate() : null;
+        } catch (Exception e) {
+            log.warn("Invalid hub location WKT '{}'", wkt);
+            return null;
+        }
+    }
+
+    private static long edgeKey(int a, int b) {
+        return ((long) a << 32) | (b & 0xffffffffL);
+    }
+
+    private static long computeFingerprint(Hub[] hubs, double[] longitudes, double[] latitudes, long[] keys,
+            Map<Long, Double> weights, Map<Long, Integer> masks) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < hubs.length; i++) {
+            hash = 31 * hash + hubs[i].getId().hashCode();
+            hash = 31 * hash + Double.hashCode(longitudes[i]);
+            hash = 31 * hash + Double.hashCode(latitudes[i]);
+        }
+        for (long key : keys) {
+            hash = 31 * hash + Long.hashCode(key);
+            hash = 31 * hash + Double.hashCode(weights.get(key));
+            int mask = masks.get(key);
+            if (mask != EdgeRestrictions.NONE) {
+                // Unrestricted edges leave the hash unchanged, keeping older fingerprints valid
+                hash = 31 * hash + mask;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a view of this snapshot carrying another version number. The
+     * underlying arrays are shared.
+     *
+     * @param newVersion the version to assign
+     * @return a graph with identical content and the given version
+     */
+    public HubGraph withVersion(long newVersion) {
+        if (newVersion == version) {
+            return this;
+        }
+        return new HubGraph(newVersion, fingerprint, hubs, indexById, longitudes, latitudes, firstEdge, edgeTarget,
+                edgeWeight, edgeMask);
+    }
+
+    /**
+     * @return the version of this snapshot, incremented each time the network
+     *         content changes
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return a content hash of hubs, coordinates and edge weights
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getNodeCount() {
+        return hubs.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * @param hubId the hub UUID
+     * @return the dense node index of the hub, or -1 if it is not in the graph
+     */
+    public int indexOf(UUID hubId) {
+        Integer index = hubId == null ? null : indexById.get(hubId);
+        return index == null ? -1 : index;
+    }
+
+    public UUID hubId(int node) {
+        return hubs[node].getId();
+    }
+
+    public Hub hub(int node) {
+        return hubs[node];
+    }
+
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+
+    public boolean hasLocation(int node) {
+        return !Double.isNaN(longitudes[node]) && !Double.isNaN(latitudes[node]);
+    }
+
+    /**
+     * Returns the spatial index over the hub locations of this snapshot,
+     * building it on first use.
+     *
+     * @return the spatial index
+     */
+    public HubSpatialIndex getSpatialIndex() {
+        HubSpatialIndex index = spatialIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = spatialIndex;
+                if (index == null) {
+                    index = HubSpatialIndex.build(this);
+                    spatialIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the largest factor by which the straight-line distance between
+     * two hubs, in kilometres, can be multiplied without exceeding the weight
+     * of any edge. Scaled this way, the straight-line distance to a target
+     * never overestimates the remaining path weight, so it is a valid A*
+     * heuristic whatever unit the weights use.
+     *
+     * @return the scale, 0 when an edge touches a hub without a location or no
+     *         edge joins two distinct locations
+     */
+    public double getHeuristicScale() {
+        double scale = heuristicScale;
+        if (Double.isNaN(scale)) {
+            scale = Double.POSITIVE_INFINITY;
+            for (int u = 0; u < hubs.length && scale > 0; u++) {
+                for (int e = firstEdge[u]; e < firstEdge[u + 1]; e++) {
+                    int v = edgeTarget[e];
+                    if (!hasLocation(u) || !hasLocation(v)) {
+                        // Nothing bounds the weight of a path through a hub without a location
+                        scale = 0;
+                        break;
+                    }
+                    double km = GeometryUtils.haversineDistance(latitudes[u], longitudes[u], latitudes[v],
+                            longitudes[v]);
+                    if (km > 0) {
+                        scale = Math.min(scale, edgeWeight[e] / km);
+                    }
+                }
+            }
+            scale = scale == Double.POSITIVE_INFINITY ? 0 : Math.max(scale, 0);
+            heuristicScale = scale;
+        }
+        return scale;
+    }
+
+    /**
+     * @return index of the first outgoing edge of {@code node}
+     */
+    public int firstEdge(int node) {
+        return firstEdge[node];
+    }
+
+    /**
+     * @return index one past the last outgoing edge of {@code node}
+     */
+    public int lastEdge(int node) {
+        return firstEdge[node + 1];
+    }
+
+    public int edgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    public double edgeWeight(int edge) {
+        return edgeWeight[edge];
+    }
+
+    /**
+     * @return the restriction mask of the edge, see {@link EdgeRestrictions}
+     */
+    public int edgeMask(int edge) {
+        return edgeMask[edge];
+    }
+
+    /**
+     * @param edge      the edge index
+     * @param forbidden restriction bits the request cannot use
+     * @return true if the edge may be used by the request
+     */
+    public boolean isAllowed(int edge, int forbidden) {
+        return (edgeMask[edge] & forbidden) == 0;
+    }
+
+    /**
+     * @param from source node index
+     * @param to   target node index
+     * @return index of the edge from {@code from} to {@code to}, or -1 if the
+     *         nodes are not connected
+     */
+    public int edgeBetween(int from, int to) {
+        if (from < 0 || to < 0) {
+            return -1;
+        }
+        for (int e = firstEdge[from]; e < firstEdge[from + 1]; e++) {
+            if (edgeTarget[e] == to) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converts a node path into JTS coordinates, skipping hubs without a
+     * location. A single-node path is duplicated so it can form a LineString.
+     *
+     * @param path node indices from origin to destination
+     * @return coordinates of the path
+     */
+    public Coordinate[] toCoordinates(int[] path) {
+        List<Coordinate> coordinates = new ArrayList<>(path.length + 1);
+        for (int node : path) {
+            if (hasLocation(node)) {
+                coordinates.add(new Coordinate(longitudes[node], latitudes[node]));
+            }
+        }
+        if (coordinates.size() == 1) {
+            Coordinate c = coordinates.get(0);
+            coordinates.add(new Coordinate(c.x, c.y));
+        }
+        return coordinates.toArray(new Coordinate[0]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.yowyob.delivery.route.service.graph;
+
+import com.yowyob.delivery.route.repository.HubConnectionRepository;
+import com.yowyob.delivery.route.repository.HubRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the resident {@link HubGraph} shared by the in-process routing
+ * algorithms.
+ * The graph is loaded lazily, kept in memory and reloaded after the
+ * configured refresh interval or an explicit {@link #invalidate()}. Its
+ * version only changes when the network content actually changes.
+ */
+@Slf4j
+@Component
+public class HubGraphProvider {
+
+    private final HubRepository hubRepository;
+    private final HubConnectionRepository connectionRepository;
+    private final Duration refreshInterval;
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Mono<HubGraph> cachedGraph;
+    private volatile HubGraph lastGraph;
+
+    public HubGraphProvider(HubRepository hubRepository,
+            HubConnectionRepository connectionRepository,
+            @Value("${routing.graph.refresh-interval:5m}") Duration refreshInterval) {
+        this.hubRepository = hubRepository;
+        this.connectionRepository = connectionRepository;
+        this.refreshInterval = refreshInterval;
+        this.cachedGraph = newLoader();
+    }
+
+    /**
+     * Returns the current graph snapshot, loading it from the database if needed.
+     *
+     * @return a Mono emitting the resident graph
+     */
+    public Mono<HubGraph> getGraph() {
+        return cachedGraph;
+    }
+
+    /**
+     * Forces the next {@link #getGraph()} call to reload hubs and connections.
+     * Called whenever the network is modified through the API.
+     */
+    public void invalidate() {
+        log.debug("Hub graph invalidated");
+        cachedGraph = newLoader();
+    }
+
+    /**
+     * @return the version of the most recently loaded graph (0 if none yet)
+     */
+    public long currentVersion() {
+        HubGraph graph = lastGraph;
+        return graph != null ? graph.getVersion() : 0L;
+    }
+
+    private Mono<HubGraph> newLoader() {
+        return Mono.zip(hubRepository.findAllWithLocation().collectList(),
+                connectionRepository.findAll().collectList())
+                .map(tuple -> {
+                    HubGraph previous = lastGraph;
+                    HubGraph loaded = HubGraph.build(0L, tuple.getT1(), tuple.getT2());
+                    if (previous != null && previous.getFingerprint() == loaded.getFingerprint()) {
+                        return previous;
+                    }
+                    HubGraph graph = loaded.withVersion(version.incrementAndGet());
+                    log.info("Loaded hub graph v{}: {} hubs, {} directed edges", graph.getVersion(),
+                            graph.getNodeCount(), graph.getEdgeCount());
+                    lastGraph = graph;
+                    return graph;
+                })
+                .doOnError(e -> log.error("Failed to load hub graph", e))
+                .cache(graph -> refreshInterval, e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+}
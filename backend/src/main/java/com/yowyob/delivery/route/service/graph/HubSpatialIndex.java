@@ -0,0 +1,247 @@
+package com.yowyob.delivery.route.service.graph;
+
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.ItemDistance;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only R-trees (JTS {@link STRtree}) over the hub locations and the
+ * connection segments of a {@link HubGraph} snapshot.
+ * Hubs are indexed in an equirectangular projection centred on the network
+ * (longitudes scaled by the cosine of the mean latitude) so that tree
+ * distances are proportional to ground distances. Query results are always
+ * confirmed with great-circle distances, so the projection only affects
+ * pruning, never correctness of radius and buffer queries.
+ * Queries are thread-safe once the index is built.
+ */
+public final class HubSpatialIndex {
+
+    private static final double METERS_PER_DEGREE = 6_371_000 * Math.PI / 180;
+
+    private static final ItemDistance ENVELOPE_DISTANCE = (ItemBoundable a, ItemBoundable b) -> ((Envelope) a
+            .getBounds()).distance((Envelope) b.getBounds());
+
+    private final HubGraph graph;
+    private final STRtree tree;
+    private final STRtree edgeTree;
+    private final int[] edgeSource;
+    private final double xScale;
+    private final double maxAbsLatitude;
+    private final int size;
+
+    private HubSpatialIndex(HubGraph graph, STRtree tree, STRtree edgeTree, int[] edgeSource, double xScale,
+            double maxAbsLatitude, int size) {
+        this.graph = graph;
+        this.tree = tree;
+        this.edgeTree = edgeTree;
+        this.edgeSource = edgeSource;
+        this.xScale = xScale;
+        this.maxAbsLatitude = maxAbsLatitude;
+        this.size = size;
+    }
+
+    /**
+     * Indexes every hub of the graph that has a location, and every connection
+     * between two located hubs.
+     *
+     * @param graph the graph snapshot
+     * @return the index
+     */
+    public static HubSpatialIndex build(HubGraph graph) {
+        double latitudeSum = 0;
+        double maxAbsLatitude = 0;
+        int located = 0;
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            if (graph.hasLocation(node)) {
+                latitudeSum += graph.latitude(node);
+                maxAbsLatitude = Math.max(maxAbsLatitude, Math.abs(graph.latitude(node)));
+                located++;
+            }
+        }
+        double xScale = located == 0 ? 1.0 : Math.cos(Math.toRadians(latitudeSum / located));
+        STRtree tree = new STRtree();
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            if (graph.hasLocation(node)) {
+                double x = graph.longitude(node) * xScale;
+                double y = graph.latitude(node);
+                tree.insert(new Envelope(x, x, y, y), node);
+            }
+        }
+        tree.build();
+
+        // Each undirected connection is indexed once, through its lower-numbered end
+        STRtree edgeTree = new STRtree();
+        int[] edgeSource = new int[graph.getEdgeCount()];
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            for (int edge = graph.firstEdge(node); edge < graph.lastEdge(node); edge++) {
+                edgeSource[edge] = node;
+                int target = graph.edgeTarget(edge);
+                if (node < target && graph.hasLocation(node) && graph.hasLocation(target)) {
+                    edgeTree.insert(new Envelope(graph.longitude(node) * xScale, graph.longitude(target) * xScale,
+                            graph.latitude(node), graph.latitude(target)), edge);
+                }
+            }
+        }
+        edgeTree.build();
+        return new HubSpatialIndex(graph, tree, edgeTree, edgeSource, xScale, maxAbsLatitude, located);
+    }
+
+    /**
+     * @return number of indexed hubs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the hubs closest to a point.
+     *
+     * @param longitude query longitude
+     * @param latitude  query latitude
+     * @param k         maximum number of hubs returned
+     * @return node indices, nearest first
+     */
+    public int[] nearest(double longitude, double latitude, int k) {
+        if (k <= 0 || size == 0) {
+            return new int[0];
+        }
+        double x = longitude * xScale;
+        // Over-fetch a little: the projected ranking can differ slightly from great-circle distances
+        Object[] items = tree.nearestNeighbour(new Envelope(x, x, latitude, latitude), -1, ENVELOPE_DISTANCE,
+                Math.min(2 * k + 4, size));
+        int[] nearest = sortByDistance(Arrays.stream(items).mapToInt(item -> (Integer) item).toArray(), longitude,
+                latitude);
+        return nearest.length > k ? Arrays.copyOf(nearest, k) : nearest;
+    }
+
+    /**
+     * Finds every hub within a great-circle distance of a point.
+     *
+     * @param longitude    query longitude
+     * @param latitude     query latitude
+     * @param radiusMeters search radius
+     * @return node indices, nearest first
+     */
+    public int[] withinRadius(double longitude, double latitude, double radiusMeters) {
+        if (radiusMeters < 0 || size == 0) {
+            return new int[0];
+        }
+        List<Integer> candidates = candidates(longitude, latitude, longitude, latitude, radiusMeters);
+        double radiusKm = radiusMeters / 1000.0;
+        int[] matches = candidates.stream()
+                .mapToInt(Integer::intValue)
+                .filter(node -> GeometryUtils.haversineDistance(latitude, longitude, graph.latitude(node),
+                        graph.longitude(node)) <= radiusKm)
+                .toArray();
+        return sortByDistance(matches, longitude, latitude);
+    }
+
+    /**
+     * Finds every hub inside the buffer of a segment, using the same distance
+     * as {@link GeometryUtils#isPointInLineBuffer}.
+     *
+     * @param startLongitude segment start longitude
+     * @param startLatitude  segment start latitude
+     * @param endLongitude   segment end longitude
+     * @param endLatitude    segment end latitude
+     * @param bufferMeters   buffer width on each side of the segment
+     * @return node indices in no particular order
+     */
+    public int[] nearSegment(double startLongitude, double startLatitude, double endLongitude, double endLatitude,
+            double bufferMeters) {
+        if (bufferMeters < 0 || size == 0) {
+            return new int[0];
+        }
+        return candidates(startLongitude, startLatitude, endLongitude, endLatitude, bufferMeters).stream()
+                .mapToInt(Integer::intValue)
+                .filter(node -> GeometryUtils.isPointInSegmentBuffer(graph.latitude(node), graph.longitude(node),
+                        startLatitude, startLongitude, endLatitude, endLongitude, bufferMeters))
+                .toArray();
+    }
+
+    /**
+     * Finds every connection crossing the buffer of a segment, using the same
+     * test as {@link GeometryUtils#doesRouteIntersectIncident}.
+     *
+     * @param startLongitude segment start longitude
+     * @param startLatitude  segment start latitude
+     * @param endLongitude   segment end longitude
+     * @param endLatitude    segment end latitude
+     * @param bufferMeters   buffer width on each side of the segment
+     * @return edge indices of the matching connections, both directions
+     *         included, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public int[] edgesNearSegment(double startLongitude, double startLatitude, double endLongitude,
+            double endLatitude, double bufferMeters) {
+        if (bufferMeters < 0 || graph.getEdgeCount() == 0) {
+            return new int[0];
+        }
+        List<Integer> found = edgeTree.query(envelope(startLongitude, startLatitude, endLongitude, endLatitude,
+                bufferMeters));
+        return found.stream()
+                .mapToInt(Integer::intValue)
+                .filter(edge -> {
+                    int from = edgeSource[edge];
+                    int to = graph.edgeTarget(edge);
+                    return GeometryUtils.doesSegmentIntersectIncident(graph.latitude(from), graph.longitude(from),
+                            graph.latitude(to), graph.longitude(to), startLatitude, startLongitude, endLatitude,
+                            endLongitude, bufferMeters);
+                })
+                .flatMap(edge -> IntStream.of(edge, reverseEdge(edge)))
+                .filter(edge -> edge >= 0)
+                .toArray();
+    }
+
+    /**
+     * @param edge an edge index
+     * @return the node the edge leaves from
+     */
+    public int edgeSource(int edge) {
+        return edgeSource[edge];
+    }
+
+    private int reverseEdge(int edge) {
+        return graph.edgeBetween(graph.edgeTarget(edge), edgeSource[edge]);
+    }
+
+    /**
+     * Returns the hubs whose location lies in the bounding box of the two
+     * points expanded by {@code marginMeters}. The margin is converted to
+     * degrees at the highest latitude involved so the box never misses a
+     * matching hub.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Integer> candidates(double lon1, double lat1, double lon2, double lat2, double marginMeters) {
+        List<Integer> found = tree.query(envelope(lon1, lat1, lon2, lat2, marginMeters));
+        return found == null ? new ArrayList<>() : found;
+    }
+
+    private Envelope envelope(double lon1, double lat1, double lon2, double lat2, double marginMeters) {
+        double marginLat = marginMeters / METERS_PER_DEGREE;
+        double minLat = Math.min(lat1, lat2) - marginLat;
+        double maxLat = Math.max(lat1, lat2) + marginLat;
+        double widestLat = Math.min(89.9, Math.max(maxAbsLatitude, Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double marginLon = marginMeters / (METERS_PER_DEGREE * Math.cos(Math.toRadians(widestLat)));
+        double minX = (Math.min(lon1, lon2) - marginLon) * xScale;
+        double maxX = (Math.max(lon1, lon2) + marginLon) * xScale;
+        return new Envelope(minX, maxX, minLat, maxLat);
+    }
+
+    private int[] sortByDistance(int[] nodes, double longitude, double latitude) {
+        return Arrays.stream(nodes)
+                .boxed()
+                .sorted(Comparator.comparingDouble(node -> GeometryUtils.haversineDistance(latitude, longitude,
+                        graph.latitude(node), graph.longitude(node))))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
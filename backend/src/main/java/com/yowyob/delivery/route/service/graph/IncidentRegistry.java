@@ -0,0 +1,159 @@
+package com.yowyob.delivery.route.service.graph;
+
+import com.yowyob.delivery.route.domain.entity.Incident;
+import com.yowyob.delivery.route.repository.IncidentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the active incidents in memory and translates them into the
+ * {@link BlockedEdges} of the current {@link HubGraph}.
+ * Affected edges are found through the graph's spatial index and computed only
+ * when the graph or the incident set changes; every route computation in
+ * between reuses the same bit set. Incidents are reloaded after
+ * {@link #invalidate()} or the configured refresh interval.
+ * <p>
+ * The incident set carries a generation, incremented by every local change
+ * and by every reload that finds a different set (e.g. incidents reported
+ * through another instance). Results derived from the incidents, such as
+ * cached routes, are keyed by it.
+ */
+@Slf4j
+@Component
+public class IncidentRegistry {
+
+    private final IncidentRepository incidentRepository;
+    private final Duration refreshInterval;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Mono<Loaded> cachedIncidents;
+    private volatile List<Incident> lastLoaded;
+    private volatile Snapshot lastSnapshot;
+
+    private record Loaded(List<Incident> incidents, long generation) {
+    }
+
+    private record Snapshot(List<Incident> incidents, BlockedEdges blocked) {
+    }
+
+    public IncidentRegistry(IncidentRepository incidentRepository,
+            @Value("${routing.incidents.refresh-interval:1m}") Duration refreshInterval) {
+        this.incidentRepository = incidentRepository;
+        this.refreshInterval = refreshInterval;
+        this.cachedIncidents = newLoader();
+    }
+
+    /**
+     * Returns the edges of a graph closed by the active incidents.
+     *
+     * @param graph the graph snapshot used by the caller
+     * @return a Mono emitting the blocked edges
+     */
+    public Mono<BlockedEdges> getBlockedEdges(HubGraph graph) {
+        return cachedIncidents.map(Loaded::incidents).map(incidents -> {
+            Snapshot snapshot = lastSnapshot;
+            if (snapshot != null && snapshot.incidents() == incidents && snapshot.blocked().getGraph() == graph) {
+                return snapshot.blocked();
+            }
+            BlockedEdges blocked = compute(graph, incidents);
+            lastSnapshot = new Snapshot(incidents, blocked);
+            return blocked;
+        });
+    }
+
+    /**
+     * @return a Mono emitting the active incidents with a complete location,
+     *         the same list instance until the incidents are reloaded
+     */
+    public Mono<List<Incident>> getActiveIncidents() {
+        return cachedIncidents.map(Loaded::incidents);
+    }
+
+    /**
+     * @return a Mono emitting the generation of the active incident set,
+     *         which only grows
+     */
+    public Mono<Long> getGeneration() {
+        return cachedIncidents.map(Loaded::generation);
+    }
+
+    /**
+     * Forces the active incidents to be reloaded. Called whenever an incident
+     * is registered or resolved; the generation changes immediately, so
+     * results computed before the change are recognised as stale.
+     */
+    public void invalidate() {
+        log.debug("Incident registry invalidated");
+        generation.incrementAndGet();
+        cachedIncidents = newLoader();
+    }
+
+    private static BlockedEdges compute(HubGraph graph, List<Incident> incidents) {
+        BitSet edges = new BitSet(graph.getEdgeCount());
+        HubSpatialIndex index = graph.getSpatialIndex();
+        for (Incident incident : incidents) {
+            double buffer = incident.getBufferDistance() == null ? 0.0 : incident.getBufferDistance();
+            for (int edge : index.edgesNearSegment(incident.getStartLongitude(), incident.getStartLatitude(),
+                    incident.getEndLongitude(), incident.getEndLatitude(), buffer)) {
+                edges.set(edge);
+            }
+        }
+        if (!incidents.isEmpty()) {
+            log.info("{} active incidents block {} of {} directed edges in hub graph v{}", incidents.size(),
+                    edges.cardinality(), graph.getEdgeCount(), graph.getVersion());
+        }
+        return new BlockedEdges(graph, edges, incidents.size());
+    }
+
+    private Mono<Loaded> newLoader() {
+        return incidentRepository.findByIsActiveTrue()
+                .filter(i -> i.getStartLatitude() != null && i.getStartLongitude() != null
+                        && i.getEndLatitude() != null && i.getEndLongitude() != null)
+                // Sorted so that reloads of an unchanged set compare equal
+                .collectSortedList(Comparator.comparing(Incident::getId))
+                .map(this::loaded)
+                .doOnError(e -> log.error("Failed to load active incidents", e))
+                .cache(loaded -> refreshInterval, e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private synchronized Loaded loaded(List<Incident> incidents) {
+        List<Incident> previous = lastLoaded;
+        if (previous != null && !sameIncidents(previous, incidents)) {
+            generation.incrementAndGet();
+        }
+        lastLoaded = incidents;
+        return new Loaded(incidents, generation.get());
+    }
+
+    /**
+     * Compares two loaded incident sets by what routing depends on: identity,
+     * location and buffer.
+     */
+    private static boolean sameIncidents(List<Incident> a, List<Incident> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            Incident x = a.get(i);
+            Incident y = b.get(i);
+            if (!Objects.equals(x.getId(), y.getId())
+                    || !Objects.equals(x.getStartLatitude(), y.getStartLatitude())
+                    || !Objects.equals(x.getStartLongitude(), y.getStartLongitude())
+                    || !Objects.equals(x.getEndLatitude(), y.getEndLatitude())
+                    || !Objects.equals(x.getEndLongitude(), y.getEndLongitude())
+                    || !Objects.equals(x.getBufferDistance(), y.getBufferDistance())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+package com.yowyob.delivery.route.service.graph;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of (key, node) pairs backed by primitive arrays.
+ * Used by the graph searches and the assignment solver instead of a
+ * {@code PriorityQueue} of boxed objects. Decrease-key is handled lazily:
+ * callers push the node again and skip stale entries when polling.
+ */
+public final class NodeHeap {
+
+    private double[] keys;
+    private int[] nodes;
+    private int size;
+
+    public NodeHeap(int initialCapacity) {
+        int capacity = Math.max(4, initialCapacity);
+        keys = new double[capacity];
+        nodes = new int[capacity];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the smallest key in the heap; only valid if the heap is not empty
+     */
+    public double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * @return the node of the smallest key; only valid if the heap is not empty
+     */
+    public int peekNode() {
+        return nodes[0];
+    }
+
+    public void push(double key, int node) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            nodes[i] = nodes[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+    }
+
+    /**
+     * Removes the entry with the smallest key.
+     *
+     * @return the node of the removed entry
+     */
+    public int poll() {
+        int top = nodes[0];
+        size--;
+        if (size > 0) {
+            double key = keys[size];
+            int node = nodes[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && keys[right] < keys[child]) {
+                    child = right;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+        return top;
+    }
+}
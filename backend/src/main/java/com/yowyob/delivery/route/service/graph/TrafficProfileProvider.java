@@ -0,0 +1,102 @@
+package com.yowyob.delivery.route.service.graph;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Supplies the {@link TrafficProfiles} matching the current {@link HubGraph}.
+ * Profiles are read from the configured file off the event loop the first
+ * time a graph is seen; without a file (or if it cannot be read) every edge
+ * uses the default speed.
+ */
+@Slf4j
+@Component
+public class TrafficProfileProvider {
+
+    /** Reactor treats this TTL as "never expire". */
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final Path file;
+    private final double defaultSpeedKmh;
+
+    private volatile Mono<TrafficProfiles> cachedProfiles;
+    private volatile long cachedFingerprint;
+
+    public TrafficProfileProvider(@Value("${routing.traffic.file:}") String file,
+            @Value("${routing.traffic.default-speed-kmh:30}") double defaultSpeedKmh) {
+        this.file = StringUtils.hasText(file) ? Paths.get(file) : null;
+        this.defaultSpeedKmh = defaultSpeedKmh;
+    }
+
+    /**
+     * Returns the profiles for the given graph, loading them if the graph
+     * changed since the last call.
+     *
+     * @param graph the current hub graph
+     * @return a Mono emitting the matching profiles
+     */
+    public Mono<TrafficProfiles> getProfiles(HubGraph graph) {
+        Mono<TrafficProfiles> current = cachedProfiles;
+        if (current != null && cachedFingerprint == graph.getFingerprint()) {
+            return current;
+        }
+        synchronized (this) {
+            if (cachedProfiles == null || cachedFingerprint != graph.getFingerprint()) {
+                cachedFingerprint = graph.getFingerprint();
+                cachedProfiles = Mono.fromCallable(() -> prepare(graph))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .cache(p -> FOREVER, e -> Duration.ZERO, () -> Duration.ZERO);
+            }
+            return cachedProfiles;
+        }
+    }
+
+    /**
+     * Estimates a travel time at the default speed, for estimates that do not
+     * follow a graph path (distance matrices, isochrones, tours).
+     *
+     * @param distanceKm a distance in kilometers
+     * @return the travel time in minutes
+     */
+    public double defaultMinutes(double distanceKm) {
+        return distanceKm / defaultSpeedKmh * 60.0;
+    }
+
+    /**
+     * @param minutes a travel time in minutes
+     * @return the distance covered at the default speed, in kilometers
+     */
+    public double defaultDistanceKm(double minutes) {
+        return minutes / 60.0 * defaultSpeedKmh;
+    }
+
+    /**
+     * @param departure departure time, or {@code null} for now
+     * @return the departure time in minutes since midnight
+     */
+    public static double minuteOfDay(LocalDateTime departure) {
+        LocalDateTime time = departure != null ? departure : LocalDateTime.now();
+        return time.getHour() * 60 + time.getMinute() + time.getSecond() / 60.0;
+    }
+
+    private TrafficProfiles prepare(HubGraph graph) {
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                return TrafficProfiles.load(file, graph, defaultSpeedKmh);
+            } catch (Exception e) {
+                log.warn("Could not load traffic profiles from {}: {}", file, e.getMessage());
+            }
+        }
+        return TrafficProfiles.uniform(graph, defaultSpeedKmh);
+    }
+}
@@ -0,0 +1,310 @@
+package com.yowyob.delivery.route.service.graph;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Time-of-day speed profiles of the connections of a {@link HubGraph}.
+ * The day is split into equal buckets and each directed edge holds one speed
+ * per bucket, stored in a single {@code short[]} (tenths of km/h, edge-major)
+ * aligned with the graph's edge indices. Edges without a profile, or with a
+ * zero speed in the file, use the configured default speed.
+ * <p>
+ * Connection weights are read as distances in kilometers, so the travel time
+ * of an edge is {@code weight / speed}. The default speed
+ * ({@code routing.traffic.default-speed-kmh}, 30 km/h) is an urban driving
+ * average.
+ * <p>
+ * Profiles are loaded from a columnar binary file (see {@link #write}) that is
+ * memory-mapped and read column by column, without any database access.
+ */
+@Slf4j
+public final class TrafficProfiles {
+
+    private static final int MAGIC = 0x54505246; // "TPRF"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final HubGraph graph;
+    private final int bucketMinutes;
+    private final int bucketCount;
+    private final short[] speeds;
+    private final double defaultSpeedKmh;
+    private final int profiledEdges;
+
+    private TrafficProfiles(HubGraph graph, int bucketMinutes, short[] speeds, double defaultSpeedKmh,
+            int profiledEdges) {
+        this.graph = graph;
+        this.bucketMinutes = bucketMinutes;
+        this.bucketCount = MINUTES_PER_DAY / bucketMinutes;
+        this.speeds = speeds;
+        this.defaultSpeedKmh = defaultSpeedKmh;
+        this.profiledEdges = profiledEdges;
+    }
+
+    /**
+     * Speed profile of one directed connection, as written to the profile file.
+     *
+     * @param fromHubId origin hub
+     * @param toHubId   destination hub
+     * @param speedsKmh speed in km/h for each bucket of the day
+     */
+    public record ConnectionProfile(UUID fromHubId, UUID toHubId, float[] speedsKmh) {
+    }
+
+    /**
+     * @param graph           the graph snapshot
+     * @param defaultSpeedKmh speed applied to every edge
+     * @return profiles giving every edge the same constant speed
+     */
+    public static TrafficProfiles uniform(HubGraph graph, double defaultSpeedKmh) {
+        return new TrafficProfiles(graph, MINUTES_PER_DAY, new short[0], defaultSpeedKmh, 0);
+    }
+
+    /**
+     * @return the graph snapshot the edge indices refer to
+     */
+    public HubGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return true if no edge has a time-dependent profile
+     */
+    public boolean isUniform() {
+        return profiledEdges == 0;
+    }
+
+    /**
+     * @return number of directed edges with a profile
+     */
+    public int getProfiledEdges() {
+        return profiledEdges;
+    }
+
+    /**
+     * @param minuteOfDay minutes since midnight, any value (wrapped to the day)
+     * @return the bucket containing that time
+     */
+    public int bucketOf(double minuteOfDay) {
+        double wrapped = minuteOfDay % MINUTES_PER_DAY;
+        if (wrapped < 0) {
+            wrapped += MINUTES_PER_DAY;
+        }
+        return Math.min(bucketCount - 1, (int) (wrapped / bucketMinutes));
+    }
+
+    /**
+     * @return the speed of an edge in a bucket, in km/h
+     */
+    public double speedKmh(int edge, int bucket) {
+        if (profiledEdges == 0) {
+            return defaultSpeedKmh;
+        }
+        short speed = speeds[edge * bucketCount + bucket];
+        return speed > 0 ? speed / 10.0 : defaultSpeedKmh;
+    }
+
+    /**
+     * @param edge        the edge index
+     * @param minuteOfDay time the edge is entered, in minutes since midnight
+     * @return the time needed to traverse the edge, in minutes
+     */
+    public double travelMinutes(int edge, double minuteOfDay) {
+        return graph.edgeWeight(edge) / speedKmh(edge, bucketOf(minuteOfDay)) * 60.0;
+    }
+
+    /**
+     * @param edge the edge index
+     * @return the traversal time at the highest speed of the day, in minutes
+     */
+    public double freeFlowMinutes(int edge) {
+        double best = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            best = Math.max(best, speedKmh(edge, bucket));
+        }
+        return graph.edgeWeight(edge) / best * 60.0;
+    }
+
+    /**
+     * Travel time along a path, each edge being timed at the moment it is
+     * entered.
+     *
+     * @param path            node indices from origin to destination
+     * @param departureMinute departure time in minutes since midnight
+     * @return the total travel time in minutes
+     */
+    public double pathMinutes(int[] path, double departureMinute) {
+        double elapsed = 0;
+        for (int i = 1; i < path.length; i++) {
+            int edge = graph.edgeBetween(path[i - 1], path[i]);
+            if (edge >= 0) {
+                elapsed += travelMinutes(edge, departureMinute + elapsed);
+            }
+        }
+        return elapsed;
+    }
+
+    /**
+     * @param path node indices from origin to destination
+     * @return the travel time along the path at free-flow speeds, in minutes
+     */
+    public double pathFreeFlowMinutes(int[] path) {
+        double total = 0;
+        for (int i = 1; i < path.length; i++) {
+            int edge = graph.edgeBetween(path[i - 1], path[i]);
+            if (edge >= 0) {
+                total += freeFlowMinutes(edge);
+            }
+        }
+        return total;
+    }
+
+    // ------------------------------------------------------------------------
+    // Persistence
+    // ------------------------------------------------------------------------
+
+    /**
+     * Writes connection profiles to a columnar file: a header (magic, format
+     * version, bucket length in minutes, bucket count, connection count), then
+     * the origin UUID high and low bits, the destination UUID high and low bits,
+     * and finally every speed in tenths of km/h, connection-major.
+     *
+     * @param file          destination file
+     * @param bucketMinutes length of a bucket, must divide 1440
+     * @param profiles      the connection profiles, one speed per bucket each
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, int bucketMinutes, List<ConnectionProfile> profiles) throws IOException {
+        if (bucketMinutes <= 0 || MINUTES_PER_DAY % bucketMinutes != 0) {
+            throw new IllegalArgumentException("Bucket length must divide a day: " + bucketMinutes);
+        }
+        int buckets = MINUTES_PER_DAY / bucketMinutes;
+        int count = profiles.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * 4 * Long.BYTES + count * buckets * Short.BYTES);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(bucketMinutes).putInt(buckets).putInt(count).putInt(0);
+        for (ConnectionProfile p : profiles) {
+            buffer.putLong(p.fromHubId().getMostSignificantBits());
+        }
+        for (ConnectionProfile p : profiles) {
+            buffer.putLong(p.fromHubId().getLeastSignificantBits());
+        }
+        for (ConnectionProfile p : profiles) {
+            buffer.putLong(p.toHubId().getMostSignificantBits());
+        }
+        for (ConnectionProfile p : profiles) {
+            buffer.putLong(p.toHubId().getLeastSignificantBits());
+        }
+        for (ConnectionProfile p : profiles) {
+            if (p.speedsKmh().length != buckets) {
+                throw new IllegalArgumentException("Expected " + buckets + " speeds per connection");
+            }
+            for (float speed : p.speedsKmh()) {
+                buffer.putShort((short) Math.max(0, Math.min(Short.MAX_VALUE, Math.round(speed * 10))));
+            }
+        }
+        buffer.flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a profile file written by {@link #write} and aligns it with the
+     * edges of a graph. A profile given for one direction only also applies to
+     * the opposite direction; connections unknown to the graph are ignored.
+     *
+     * @param file            the profile file
+     * @param graph           the graph snapshot
+     * @param defaultSpeedKmh speed of edges without a profile
+     * @return the profiles
+     * @throws IOException if the file cannot be read or is not a valid profile
+     *                     file
+     */
+    public static TrafficProfiles load(Path file, HubGraph graph, double defaultSpeedKmh) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not a traffic profile file");
+            }
+            int bucketMinutes = mapped.getInt(8);
+            int buckets = mapped.getInt(12);
+            int count = mapped.getInt(16);
+            if (bucketMinutes <= 0 || buckets * bucketMinutes != MINUTES_PER_DAY || count < 0
+                    || mapped.limit() < HEADER_BYTES + (long) count * (4L * Long.BYTES + (long) buckets * Short.BYTES)) {
+                throw new IOException("Corrupt traffic profile file header");
+            }
+            int offset = HEADER_BYTES;
+            LongBuffer fromHigh = mapped.slice(offset, count * Long.BYTES).asLongBuffer();
+            offset += count * Long.BYTES;
+            LongBuffer fromLow = mapped.slice(offset, count * Long.BYTES).asLongBuffer();
+            offset += count * Long.BYTES;
+            LongBuffer toHigh = mapped.slice(offset, count * Long.BYTES).asLongBuffer();
+            offset += count * Long.BYTES;
+            LongBuffer toLow = mapped.slice(offset, count * Long.BYTES).asLongBuffer();
+            offset += count * Long.BYTES;
+            ShortBuffer speedColumn = mapped.slice(offset, count * buckets * Short.BYTES).asShortBuffer();
+
+            short[] speeds = new short[graph.getEdgeCount() * buckets];
+            boolean[] explicit = new boolean[graph.getEdgeCount()];
+            int[] edgeOfRow = new int[count];
+            int[] sourceOfRow = new int[count];
+            int profiled = 0;
+            for (int row = 0; row < count; row++) {
+                int from = graph.indexOf(new UUID(fromHigh.get(row), fromLow.get(row)));
+                int to = graph.indexOf(new UUID(toHigh.get(row), toLow.get(row)));
+                int edge = graph.edgeBetween(from, to);
+                edgeOfRow[row] = edge;
+                sourceOfRow[row] = from;
+                if (edge >= 0) {
+                    speedColumn.get(row * buckets, speeds, edge * buckets, buckets);
+                    if (!explicit[edge]) {
+                        explicit[edge] = true;
+                        profiled++;
+                    }
+                }
+            }
+            // Profiles given for a single direction apply both ways
+            for (int row = 0; row < count; row++) {
+                int edge = edgeOfRow[row];
+                if (edge < 0) {
+                    continue;
+                }
+                int reverse = graph.edgeBetween(graph.edgeTarget(edge), sourceOfRow[row]);
+                if (reverse >= 0 && !explicit[reverse]) {
+                    System.arraycopy(speeds, edge * buckets, speeds, reverse * buckets, buckets);
+                    explicit[reverse] = true;
+                    profiled++;
+                }
+            }
+            log.info("Loaded traffic profiles from {}: {} of {} directed edges, {} buckets of {} min", file, profiled,
+                    graph.getEdgeCount(), buckets, bucketMinutes);
+            return new TrafficProfiles(graph, bucketMinutes, speeds, defaultSpeedKmh, profiled);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid traffic profile file: " + e.getMessage(), e);
+        }
+    }
+}
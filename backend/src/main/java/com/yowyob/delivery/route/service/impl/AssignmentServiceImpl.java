@@ -0,0 +1,409 @@
+package com.yowyob.delivery.route.service.impl;
+
+import com.yowyob.delivery.route.controller.dto.AssignmentSummaryDTO;
+import com.yowyob.delivery.route.controller.dto.DriverAssignmentDTO;
+import com.yowyob.delivery.route.domain.entity.DeliveryDriver;
+import com.yowyob.delivery.route.domain.entity.Parcel;
+import com.yowyob.delivery.route.domain.entity.Vehicle;
+import com.yowyob.delivery.route.domain.enums.DriverState;
+import com.yowyob.delivery.route.domain.enums.ParcelPriority;
+import com.yowyob.delivery.route.domain.enums.ParcelState;
+import com.yowyob.delivery.route.repository.DriverRepository;
+import com.yowyob.delivery.route.repository.ParcelRepository;
+import com.yowyob.delivery.route.repository.VehicleRepository;
+import com.yowyob.delivery.route.service.AssignmentService;
+import com.yowyob.delivery.route.service.assignment.AssignmentSolver;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import com.yowyob.delivery.route.service.graph.BlockedEdges;
+import com.yowyob.delivery.route.service.graph.EdgeRestrictions;
+import com.yowyob.delivery.route.service.graph.GraphSearch;
+import com.yowyob.delivery.route.service.graph.HubGraph;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
+import com.yowyob.delivery.route.service.graph.IncidentRegistry;
+import com.yowyob.delivery.route.service.location.DriverLocationIndex;
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of {@link AssignmentService}.
+ * Drivers and pickup points are attached to their nearest hub; the cost of a
+ * (driver, parcel) pair is the straight-line distance to and from those hubs
+ * plus the shortest hub-graph distance between them, as for tours, avoiding
+ * active incidents and the connections the driver's vehicle may not use. Each
+ * driver keeps only its cheapest feasible parcels as candidates, and
+ * {@link AssignmentSolver} finds the matching assigning the most parcels at
+ * the lowest total cost. Urgent parcels are favoured by adding a per-priority
+ * distance penalty to the others.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AssignmentServiceImpl implements AssignmentService {
+
+    private final DriverRepository driverRepository;
+    private final ParcelRepository parcelRepository;
+    private final VehicleRepository vehicleRepository;
+    private final HubGraphProvider hubGraphProvider;
+    private final IncidentRegistry incidentRegistry;
+    private final DriverLocationIndex driverLocationIndex;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${routing.assignment.max-parcels:5000}")
+    private int maxParcels;
+
+    @Value("${routing.assignment.max-distance-km:30}")
+    private double maxDistanceKm;
+
+    @Value("${routing.assignment.candidates-per-driver:32}")
+    private int candidatesPerDriver;
+
+    @Value("${routing.assignment.priority-weight-km:2}")
+    private double priorityWeightKm;
+
+    @Value("${routing.assignment.batch-size:500}")
+    private int batchSize;
+
+    /** An available driver and what its vehicle can carry. */
+    private record Courier(DeliveryDriver driver, Vehicle vehicle, double longitude, double latitude) {
+    }
+
+    /** A parcel waiting for a driver, with its pickup point. */
+    private record Job(Parcel parcel, double longitude, double latitude) {
+    }
+
+    /**
+     * {@inheritDoc}
+     * Only one run executes at a time; a concurrent request fails with 409.
+     */
+    @Override
+    public Mono<AssignmentSummaryDTO> assignPlannedParcels() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                        "An assignment run is already in progress"));
+            }
+            long startedAt = System.nanoTime();
+            return Mono.zip(driverRepository.findActiveByStateWithLocation(DriverState.AVAILABLE).collectList(),
+                    parcelRepository.findUnassignedByStateWithLocations(ParcelState.PLANNED, maxParcels)
+                            .collectList(),
+                    hubGraphProvider.getGraph().flatMap(incidentRegistry::getBlockedEdges))
+                    .flatMap(tuple -> couriers(tuple.getT1()).flatMap(couriers -> {
+                        List<Job> jobs = jobs(tuple.getT2());
+                        return match(tuple.getT3(), couriers, jobs)
+                                .flatMap(this::persist)
+                                .map(assignments -> summarise(couriers.size(), jobs.size(), assignments,
+                                        startedAt));
+                    }))
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    /**
+     * Keeps the drivers whose vehicle is known and active.
+     */
+    private Mono<List<Courier>> couriers(List<DeliveryDriver> drivers) {
+        Set<UUID> vehicleIds = new HashSet<>();
+        drivers.forEach(d -> {
+            if (d.getVehicleId() != null) {
+                vehicleIds.add(d.getVehicleId());
+            }
+        });
+        if (vehicleIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return vehicleRepository.findAllById(vehicleIds)
+                .collectMap(Vehicle::getId)
+                .map(vehicles -> {
+                    List<Courier> couriers = new ArrayList<>(drivers.size());
+                    for (DeliveryDriver driver : drivers) {
+                        Vehicle vehicle = driver.getVehicleId() == null ? null : vehicles.get(driver.getVehicleId());
+                        double[] location = point(driver.getCurrentLocation());
+                        if (vehicle != null && !Boolean.FALSE.equals(vehicle.getIsActive()) && location != null) {
+                            couriers.add(new Courier(driver, vehicle, location[0], location[1]));
+                        }
+                    }
+                    return couriers;
+                });
+    }
+
+    private static List<Job> jobs(List<Parcel> parcels) {
+        List<Job> jobs = new ArrayList<>(parcels.size());
+        for (Parcel parcel : parcels) {
+            double[] pickup = point(parcel.getPickupLocation());
+            if (pickup != null) {
+                jobs.add(new Job(parcel, pickup[0], pickup[1]));
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * @return {longitude, latitude}, or {@code null} for a missing or malformed
+     *         point
+     */
+    private static double[] point(String wkt) {
+        if (wkt == null || wkt.isEmpty()) {
+            return null;
+        }
+        try {
+            CoordinateBuffer coordinates = GeometryCodec.fromWkt(wkt);
+            return coordinates.size() == 0 ? null : new double[] { coordinates.x(0), coordinates.y(0) };
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the candidate arcs of every driver and solves the assignment.
+     */
+    private Mono<List<DriverAssignmentDTO>> match(BlockedEdges blockedEdges, List<Courier> couriers,
+            List<Job> jobs) {
+        if (couriers.isEmpty() || jobs.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        HubGraph graph = blockedEdges.getGraph();
+        BitSet blocked = blockedEdges.isEmpty() ? null : blockedEdges.asBitSet();
+        int drivers = couriers.size();
+        int parcels = jobs.size();
+        int[] driverHub = new int[drivers];
+        int[] driverForbidden = new int[drivers];
+        double[] driverOffset = new double[drivers];
+        for (int i = 0; i < drivers; i++) {
+            Courier c = couriers.get(i);
+            driverHub[i] = nearestHub(graph, c.longitude(), c.latitude());
+            driverForbidden[i] = EdgeRestrictions.forbiddenMask(c.vehicle());
+            driverOffset[i] = offset(graph, driverHub[i], c.longitude(), c.latitude());
+        }
+        int[] parcelHub = new int[parcels];
+        double[] parcelOffset = new double[parcels];
+        for (int j = 0; j < parcels; j++) {
+            Job job = jobs.get(j);
+            parcelHub[j] = nearestHub(graph, job.longitude(), job.latitude());
+            parcelOffset[j] = offset(graph, parcelHub[j], job.longitude(), job.latitude());
+        }
+        // One search per hub and set of forbidden connections, shared by the drivers there
+        List<long[]> sources = new ArrayList<>();
+        Map<Long, Integer> sourceIndex = new HashMap<>();
+        int[] sourceRow = new int[drivers];
+        for (int i = 0; i < drivers; i++) {
+            if (driverHub[i] < 0) {
+                sourceRow[i] = -1;
+                continue;
+            }
+            long key = ((long) driverHub[i] << 32) | (driverForbidden[i] & 0xffffffffL);
+            Integer row = sourceIndex.get(key);
+            if (row == null) {
+                row = sources.size();
+                sourceIndex.put(key, row);
+                sources.add(new long[] { driverHub[i], driverForbidden[i] });
+            }
+            sourceRow[i] = row;
+        }
+        int[] targets = Arrays.stream(parcelHub).filter(h -> h >= 0).distinct().toArray();
+        int[] targetColumn = indexOf(parcelHub, targets);
+        double[][] hubDistances = new double[sources.size()][];
+
+        int k = Math.min(candidatesPerDriver, parcels);
+        int[] candidateParcel = new int[drivers * k];
+        double[] candidateCost = new double[drivers * k];
+        double[] candidateKm = new double[drivers * k];
+        int[] candidateCount = new int[drivers];
+
+        return Flux.range(0, sources.size())
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .doOnNext(s -> hubDistances[s] = GraphSearch.oneToMany(graph, (int) sources.get(s)[0], targets,
+                        blocked, (int) sources.get(s)[1]))
+                .sequential()
+                .thenMany(Flux.range(0, drivers)
+                        .parallel()
+                        .runOn(Schedulers.parallel())
+                        .doOnNext(i -> {
+                            Courier c = couriers.get(i);
+                            double capacity = c.vehicle().getMaxCapacityKg() == null ? Double.POSITIVE_INFINITY
+                                    : c.vehicle().getMaxCapacityKg();
+                            double[] row = driverHub[i] >= 0 ? hubDistances[sourceRow[i]] : null;
+                            int base = i * k;
+                            int count = 0;
+                            for (int j = 0; j < parcels; j++) {
+                                Job job = jobs.get(j);
+                                Double weight = job.parcel().getWeightKg();
+                                if (weight != null && weight > capacity) {
+                                    continue;
+                                }
+                                double km = Double.POSITIVE_INFINITY;
+                                if (row != null && parcelHub[j] >= 0 && driverHub[i] != parcelHub[j]) {
+                                    km = driverOffset[i] + row[targetColumn[j]] + parcelOffset[j];
+                                }
+                                if (km == Double.POSITIVE_INFINITY) {
+                                    km = GeometryUtils.haversineDistance(c.latitude(), c.longitude(), job.latitude(),
+                                            job.longitude());
+                                }
+                                if (km > maxDistanceKm) {
+                                    continue;
+                                }
+                                double cost = km + priorityRank(job.parcel()) * priorityWeightKm;
+                                count = insertCandidate(candidateParcel, candidateCost, candidateKm, base, count, k,
+                                        j, cost, km);
+                            }
+                            candidateCount[i] = count;
+                        })
+                        .sequential())
+                .then(Mono.fromSupplier(() -> {
+                    int[] rowStart = new int[drivers + 1];
+                    for (int i = 0; i < drivers; i++) {
+                        rowStart[i + 1] = rowStart[i] + candidateCount[i];
+                    }
+                    int arcs = rowStart[drivers];
+                    int[] arcColumn = new int[arcs];
+                    double[] arcCost = new double[arcs];
+                    double maxCost = 0;
+                    for (int i = 0; i < drivers; i++) {
+                        System.arraycopy(candidateParcel, i * k, arcColumn, rowStart[i], candidateCount[i]);
+                        System.arraycopy(candidateCost, i * k, arcCost, rowStart[i], candidateCount[i]);
+                        for (int a = 0; a < candidateCount[i]; a++) {
+                            maxCost = Math.max(maxCost, candidateCost[i * k + a]);
+                        }
+                    }
+                    // Leaving a driver idle costs more than any set of detours: the most parcels get assigned
+                    double unassignedCost = (maxCost + 1) * (Math.min(drivers, parcels) + 1);
+                    int[] assigned = AssignmentSolver.solve(drivers, parcels, rowStart, arcColumn, arcCost,
+                            unassignedCost);
+
+                    List<DriverAssignmentDTO> assignments = new ArrayList<>();
+                    for (int i = 0; i < drivers; i++) {
+                        int j = assigned[i];
+                        if (j < 0) {
+                            continue;
+                        }
+                        double km = 0;
+                        for (int a = 0; a < candidateCount[i]; a++) {
+                            if (candidateParcel[i * k + a] == j) {
+                                km = candidateKm[i * k + a];
+                                break;
+                            }
+                        }
+                        Courier c = couriers.get(i);
+                        Parcel parcel = jobs.get(j).parcel();
+                        assignments.add(DriverAssignmentDTO.builder()
+                                .parcelId(parcel.getId())
+                                .trackingCode(parcel.getTrackingCode())
+                                .driverId(c.driver().getId())
+                                .vehicleId(c.vehicle().getId())
+                                .distanceKm(km)
+                                .build());
+                    }
+                    return assignments;
+                }));
+    }
+
+    /**
+     * Keeps the {@code k} cheapest candidates of a driver sorted by cost in
+     * {@code [base, base + count)}.
+     *
+     * @return the new number of candidates
+     */
+    private static int insertCandidate(int[] parcel, double[] cost, double[] km, int base, int count, int k,
+            int candidate, double candidateCost, double candidateKm) {
+        if (count == k && candidateCost >= cost[base + k - 1]) {
+            return count;
+        }
+        int i = count < k ? count++ : k - 1;
+        while (i > 0 && cost[base + i - 1] > candidateCost) {
+            parcel[base + i] = parcel[base + i - 1];
+            cost[base + i] = cost[base + i - 1];
+            km[base + i] = km[base + i - 1];
+            i--;
+        }
+        parcel[base + i] = candidate;
+        cost[base + i] = candidateCost;
+        km[base + i] = candidateKm;
+        return count;
+    }
+
+    private static int priorityRank(Parcel parcel) {
+        ParcelPriority priority = parcel.getPriority() == null ? ParcelPriority.NORMAL : parcel.getPriority();
+        return priority.ordinal();
+    }
+
+    private static int nearestHub(HubGraph graph, double longitude, double latitude) {
+        int[] nearest = graph.getSpatialIndex().nearest(longitude, latitude, 1);
+        return nearest.length > 0 ? nearest[0] : -1;
+    }
+
+    private static double offset(HubGraph graph, int hub, double longitude, double latitude) {
+        return hub < 0 ? 0 : GeometryUtils.haversineDistance(latitude, longitude, graph.latitude(hub),
+                graph.longitude(hub));
+    }
+
+    /**
+     * @return for each value, its position in {@code distinct}, or -1 for
+     *         negative values
+     */
+    private static int[] indexOf(int[] values, int[] distinct) {
+        Map<Integer, Integer> position = new HashMap<>();
+        for (int i = 0; i < distinct.length; i++) {
+            position.put(distinct[i], i);
+        }
+        int[] index = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            index[i] = values[i] >= 0 ? position.get(values[i]) : -1;
+        }
+        return index;
+    }
+
+    /**
+     * Writes the assignments in batches and keeps those that were applied;
+     * parcels or drivers taken in the meantime are skipped.
+     */
+    private Mono<List<DriverAssignmentDTO>> persist(List<DriverAssignmentDTO> assignments) {
+        if (assignments.isEmpty()) {
+            return Mono.just(assignments);
+        }
+        return Flux.fromIterable(assignments)
+                .map(a -> Parcel.builder().id(a.getParcelId()).driverId(a.getDriverId()).vehicleId(a.getVehicleId())
+                        .build())
+                .buffer(batchSize)
+                .concatMap(parcelRepository::assignDrivers)
+                .collect(HashSet::new, Set::add)
+                .map(applied -> assignments.stream()
+                        .filter(a -> applied.contains(a.getParcelId()))
+                        .toList())
+                .doOnNext(applied -> applied.forEach(a -> driverLocationIndex.setAvailable(a.getDriverId(), false)));
+    }
+
+    private static AssignmentSummaryDTO summarise(int drivers, int parcels, List<DriverAssignmentDTO> assignments,
+            long startedAt) {
+        AssignmentSummaryDTO summary = AssignmentSummaryDTO.builder()
+                .availableDrivers(drivers)
+                .plannedParcels(parcels)
+                .assignedParcels(assignments.size())
+                .totalDistanceKm(assignments.stream().mapToDouble(DriverAssignmentDTO::getDistanceKm).sum())
+                .durationMs((System.nanoTime() - startedAt) / 1_000_000)
+                .assignments(assignments)
+                .build();
+        log.info("Batch assignment: {} parcels assigned to {} available drivers ({} planned) in {} ms",
+                summary.getAssignedParcels(), drivers, parcels, summary.getDurationMs());
+        return summary;
+    }
+}
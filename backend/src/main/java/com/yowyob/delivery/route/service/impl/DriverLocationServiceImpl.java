@@ -0,0 +1,159 @@
+package com.yowyob.delivery.route.service.impl;
+
+import com.yowyob.delivery.route.controller.dto.DriverLocationDTO;
+import com.yowyob.delivery.route.controller.dto.LocationIngestResponseDTO;
+import com.yowyob.delivery.route.domain.entity.DeliveryDriver;
+import com.yowyob.delivery.route.repository.DriverRepository;
+import com.yowyob.delivery.route.service.DriverLocationService;
+import com.yowyob.delivery.route.service.location.DriverLocationIndex;
+import com.yowyob.delivery.route.service.tracking.RouteProgressTracker;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link DriverLocationService}.
+ * Positions are coalesced in memory, keeping the most recent one per driver,
+ * and written at a fixed interval with one multi-row update per batch. A few
+ * thousand drivers pinging every few seconds therefore cost a handful of
+ * statements per flush instead of one per ping. Positions of a failed flush
+ * stay buffered for the next one unless a newer position replaced them.
+ * Every accepted position also updates the {@link DriverLocationIndex} right
+ * away, so nearest-driver queries do not wait for the flush, and is matched
+ * onto the driver's active route by the {@link RouteProgressTracker}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DriverLocationServiceImpl implements DriverLocationService {
+
+    private final DriverRepository driverRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final RouteProgressTracker routeProgressTracker;
+    private final Map<UUID, Fix> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    @Value("${routing.locations.batch-size:500}")
+    private int batchSize;
+
+    /** Latest known position of a driver. */
+    private record Fix(double longitude, double latitude, LocalDateTime recordedAt) {
+    }
+
+    /**
+     * {@inheritDoc}
+     * Positions without a driver or with out-of-range coordinates are counted
+     * as rejected and skipped; the rest of the stream is still processed.
+     */
+    @Override
+    public Mono<LocationIngestResponseDTO> ingest(Flux<DriverLocationDTO> locations) {
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        return locations
+                .doOnNext(location -> {
+                    if (accept(location)) {
+                        accepted.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                })
+                .then(Mono.fromSupplier(() -> LocationIngestResponseDTO.builder()
+                        .accepted(accepted.get())
+                        .rejected(rejected.get())
+                        .build()));
+    }
+
+    private boolean accept(DriverLocationDTO location) {
+        if (location == null || location.getDriverId() == null || location.getLatitude() == null
+                || location.getLongitude() == null || Math.abs(location.getLatitude()) > 90
+                || Math.abs(location.getLongitude()) > 180) {
+            return false;
+        }
+        Fix fix = new Fix(location.getLongitude(), location.getLatitude(),
+                location.getRecordedAt() != null ? location.getRecordedAt() : LocalDateTime.now());
+        // Pings may arrive out of order: keep the most recent measurement
+        pending.merge(location.getDriverId(), fix,
+                (current, update) -> update.recordedAt().isBefore(current.recordedAt()) ? current : update);
+        driverLocationIndex.updatePosition(location.getDriverId(), fix.longitude(), fix.latitude(), fix.recordedAt());
+        routeProgressTracker.onDriverPosition(location.getDriverId(), fix.longitude(), fix.latitude(),
+                fix.recordedAt());
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Concurrent flushes are skipped rather than queued.
+     */
+    @Override
+    public Mono<Long> flush() {
+        return Mono.defer(() -> {
+            if (pending.isEmpty() || !flushing.compareAndSet(false, true)) {
+                return Mono.just(0L);
+            }
+            List<Map.Entry<UUID, Fix>> snapshot = new ArrayList<>(pending.size());
+            pending.forEach((driverId, fix) -> snapshot.add(Map.entry(driverId, fix)));
+            return Flux.fromIterable(snapshot)
+                    .buffer(batchSize)
+                    .concatMap(batch -> driverRepository.updateLocations(toDrivers(batch))
+                            // Positions received since the snapshot stay buffered
+                            .doOnNext(updated -> batch.forEach(e -> pending.remove(e.getKey(), e.getValue())))
+                            .onErrorResume(e -> {
+                                log.warn("Could not write {} driver locations: {}", batch.size(), e.getMessage());
+                                return Mono.just(0L);
+                            }))
+                    .reduce(0L, Long::sum)
+                    .doOnNext(updated -> log.debug("Flushed {} driver locations, {} drivers updated",
+                            snapshot.size(), updated))
+                    .doFinally(signal -> flushing.set(false));
+        });
+    }
+
+    private static List<DeliveryDriver> toDrivers(List<Map.Entry<UUID, Fix>> batch) {
+        List<DeliveryDriver> drivers = new ArrayList<>(batch.size());
+        for (Map.Entry<UUID, Fix> entry : batch) {
+            Fix fix = entry.getValue();
+            drivers.add(DeliveryDriver.builder()
+                    .id(entry.getKey())
+                    .currentLocation("POINT(" + fix.longitude() + " " + fix.latitude() + ")")
+                    .lastLocationUpdate(fix.recordedAt())
+                    .build());
+        }
+        return drivers;
+    }
+
+    /**
+     * Periodic flush. Waiting for the result on the scheduler thread keeps
+     * flushes from piling up when the database is slow.
+     */
+    @Scheduled(fixedDelayString = "${routing.locations.flush-interval:1s}")
+    public void scheduledFlush() {
+        flush().block();
+    }
+
+    /**
+     * Writes the remaining positions on shutdown.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush().block(Duration.ofSeconds(10));
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} driver locations on shutdown: {}", pending.size(), e.getMessage());
+        }
+    }
+}
@@ -2,17 +2,26 @@ package com.yowyob.delivery.route.service.impl;
 
 import com.yowyob.delivery.route.controller.dto.GeoPointRequestDTO;
 import com.yowyob.delivery.route.controller.dto.GeoPointResponseDTO;
+import com.yowyob.delivery.route.controller.dto.NearbyHubDTO;
 import com.yowyob.delivery.route.domain.entity.Hub;
 import com.yowyob.delivery.route.domain.enums.HubType;
+import com.yowyob.delivery.route.domain.enums.ListView;
 import com.yowyob.delivery.route.repository.HubRepository;
 import com.yowyob.delivery.route.service.HubService;
+import com.yowyob.delivery.route.service.cache.HubCache;
+import com.yowyob.delivery.route.service.graph.HubGraph;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,6 +35,13 @@ import java.util.regex.Pattern;
 public class HubServiceImpl implements HubService {
 
     private final HubRepository hubRepository;
+    private final HubGraphProvider hubGraphProvider;
+    private final HubCache hubCache;
+
+    private static final int MAX_NEAREST_HUBS = 100;
+
+    @Value("${routing.bulk.max-items:5000}")
+    private int maxBulkItems;
 
     // Pattern pour extraire lat/lon depuis WKT: "POINT(lon lat)"
     private static final Pattern WKT_PATTERN = Pattern.compile("POINT\\s*\\(\\s*([\\d.-]+)\\s+([\\d.-]+)\\s*\\)");
@@ -35,39 +51,105 @@ public class HubServiceImpl implements HubService {
     public Mono<GeoPointResponseDTO> createHub(GeoPointRequestDTO request) {
         log.info("Creating hub: {}", request.getAddress());
 
+        return hubRepository.saveWithGeometry(toNewHub(request))
+                .doOnSuccess(saved -> log.info("Hub created with ID: {}", saved.getId()))
+                .doOnSuccess(saved -> hubGraphProvider.invalidate())
+                .doOnSuccess(saved -> hubCache.invalidate(saved.getId()))
+                .map(this::toResponseDTO);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The hub graph is rebuilt once for the whole batch.
+     *
+     * @throws IllegalArgumentException (as an error signal) if there are no
+     *                                  hubs or more than
+     *                                  {@code routing.bulk.max-items}
+     */
+    @Override
+    @Transactional
+    public Flux<GeoPointResponseDTO> createHubs(List<GeoPointRequestDTO> requests) {
+        if (requests.isEmpty() || requests.size() > maxBulkItems) {
+            return Flux.error(new IllegalArgumentException(
+                    "Between 1 and " + maxBulkItems + " hubs can be created at once"));
+        }
+        log.info("Creating {} hubs", requests.size());
+
+        List<Hub> hubs;
+        try {
+            hubs = requests.stream().map(this::toNewHub).toList();
+        } catch (IllegalArgumentException e) {
+            return Flux.error(e);
+        }
+        return hubRepository.insertAllWithGeometry(hubs)
+                .doOnNext(saved -> hubCache.invalidate(saved.getId()))
+                .doOnComplete(hubGraphProvider::invalidate)
+                .map(this::toResponseDTO);
+    }
+
+    private Hub toNewHub(GeoPointRequestDTO request) {
         // Convertir lat/lon en WKT format: POINT(longitude latitude)
         String wkt = String.format(java.util.Locale.US, "POINT(%f %f)", request.getLongitude(), request.getLatitude());
 
-        Hub hub = Hub.builder()
+        return Hub.builder()
                 .address(request.getAddress())
                 .type(HubType.valueOf(request.getType()))
                 .location(wkt)
                 .build();
-
-        return hubRepository.saveWithGeometry(hub)
-                .doOnSuccess(saved -> log.info("Hub created with ID: {}", saved.getId()))
-                .map(this::toResponseDTO);
     }
 
     @Override
     public Mono<GeoPointResponseDTO> getHub(UUID id) {
         log.debug("Fetching hub with ID: {}", id);
 
-        return hubRepository.findByIdWithLocation(id)
+        return hubCache.get(id)
                 .map(this::toResponseDTO)
                 .switchIfEmpty(Mono.error(
                         new RuntimeException("Hub not found with ID: " + id)));
     }
 
     @Override
-    public Flux<GeoPointResponseDTO> getAllHubs() {
-        log.debug("Fetching all hubs");
+    public Flux<GeoPointResponseDTO> getAllHubs(ListView view) {
+        log.debug("Fetching all hubs ({})", view);
 
+        if (view == ListView.SUMMARY) {
+            return hubRepository.findAllSummaries()
+                    .map(this::toSummaryDTO)
+                    .doOnComplete(() -> log.debug("Finished fetching all hubs"));
+        }
         return hubRepository.findAllWithLocation()
                 .map(this::toResponseDTO)
                 .doOnComplete(() -> log.debug("Finished fetching all hubs"));
     }
 
+    @Override
+    public Flux<NearbyHubDTO> findNearestHubs(double latitude, double longitude, int k, Double radiusMeters) {
+        if (k < 1 || k > MAX_NEAREST_HUBS) {
+            return Flux.error(new IllegalArgumentException("k must be between 1 and " + MAX_NEAREST_HUBS));
+        }
+        if (radiusMeters != null && radiusMeters < 0) {
+            return Flux.error(new IllegalArgumentException("radiusMeters must not be negative"));
+        }
+        return hubGraphProvider.getGraph().flatMapMany(graph -> {
+            int[] nodes = radiusMeters != null
+                    ? graph.getSpatialIndex().withinRadius(longitude, latitude, radiusMeters)
+                    : graph.getSpatialIndex().nearest(longitude, latitude, k);
+            return Flux.fromStream(Arrays.stream(nodes).limit(k).boxed())
+                    .map(node -> toNearbyHubDTO(graph, node, latitude, longitude));
+        });
+    }
+
+    private NearbyHubDTO toNearbyHubDTO(HubGraph graph, int node, double latitude, double longitude) {
+        return NearbyHubDTO.builder()
+                .hubId(graph.hubId(node))
+                .address(graph.hub(node).getAddress())
+                .latitude(graph.latitude(node))
+                .longitude(graph.longitude(node))
+                .distanceMeters(GeometryUtils.haversineDistance(latitude, longitude, graph.latitude(node),
+                        graph.longitude(node)) * 1000.0)
+                .build();
+    }
+
     /**
      * Convertit une entité Hub en DTO de réponse.
      * Parse le WKT pour extraire latitude et longitude.
@@ -84,6 +166,27 @@ public class HubServiceImpl implements HubService {
                 .build();
     }
 
+    private GeoPointResponseDTO toResponseDTO(HubCache.CachedHub cached) {
+        if (!cached.hasLocation()) {
+            return toResponseDTO(cached.hub());
+        }
+        return GeoPointResponseDTO.builder()
+                .id(cached.hub().getId())
+                .address(cached.hub().getAddress())
+                .longitude(cached.longitude())
+                .latitude(cached.latitude())
+                .type(cached.hub().getType().name())
+                .build();
+    }
+
+    private GeoPointResponseDTO toSummaryDTO(Hub hub) {
+        return GeoPointResponseDTO.builder()
+                .id(hub.getId())
+                .address(hub.getAddress())
+                .type(hub.getType().name())
+                .build();
+    }
+
     /**
      * Parse une chaîne WKT pour extraire longitude et latitude.
      * Format attendu: "POINT(longitude latitude)"
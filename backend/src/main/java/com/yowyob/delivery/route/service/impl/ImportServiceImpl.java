@@ -0,0 +1,474 @@
+package com.yowyob.delivery.route.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yowyob.delivery.route.controller.dto.GeoPointRequestDTO;
+import com.yowyob.delivery.route.controller.dto.ImportJobDTO;
+import com.yowyob.delivery.route.controller.dto.ParcelRequestDTO;
+import com.yowyob.delivery.route.controller.exception.ResourceNotFoundException;
+import com.yowyob.delivery.route.domain.entity.HubConnection;
+import com.yowyob.delivery.route.domain.enums.HubType;
+import com.yowyob.delivery.route.domain.enums.ImportFormat;
+import com.yowyob.delivery.route.domain.enums.ImportStatus;
+import com.yowyob.delivery.route.domain.enums.ImportType;
+import com.yowyob.delivery.route.domain.enums.VehicleType;
+import com.yowyob.delivery.route.repository.HubConnectionRepository;
+import com.yowyob.delivery.route.service.HubService;
+import com.yowyob.delivery.route.service.ImportService;
+import com.yowyob.delivery.route.service.ParcelService;
+import com.yowyob.delivery.route.service.graph.EdgeRestrictions;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
+import com.yowyob.delivery.route.service.imports.CsvRows;
+import com.yowyob.delivery.route.service.imports.GeoJsonFeatureReader;
+import com.yowyob.delivery.route.service.imports.ImportJob;
+import com.yowyob.delivery.route.service.imports.ImportRow;
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link ImportService}.
+ * <p>
+ * The upload is first spooled to a temporary file, so the request completes
+ * quickly and the import does not depend on the client connection. The file
+ * is then read in small buffers and parsed record by record; records are
+ * grouped in chunks of {@code routing.imports.chunk-size} that are validated
+ * and written with the bulk inserts of the other services. The next chunk is
+ * only read once the previous one is written, so a slow database slows the
+ * reading down instead of filling the memory.
+ * <p>
+ * A record that cannot be read or validated is rejected alone; a chunk whose
+ * insert fails rejects all its records. Jobs are kept in memory, the oldest
+ * finished ones being dropped beyond {@code routing.imports.max-jobs}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportServiceImpl implements ImportService {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final HubService hubService;
+    private final ParcelService parcelService;
+    private final HubConnectionRepository hubConnectionRepository;
+    private final HubGraphProvider hubGraphProvider;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Map<UUID, ImportJob> jobs = new LinkedHashMap<>();
+
+    @Value("${routing.imports.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${routing.imports.max-jobs:50}")
+    private int maxJobs;
+
+    @Override
+    public Mono<ImportJobDTO> startImport(ImportType type, ImportFormat format, String fileName,
+            Flux<DataBuffer> content) {
+        ImportFormat resolvedFormat = format != null ? format : formatOf(fileName);
+        if (resolvedFormat == null) {
+            return Mono.error(new IllegalArgumentException(
+                    "Cannot infer the format of '" + fileName + "', pass format=CSV or format=GEOJSON"));
+        }
+        return Mono.fromCallable(() -> Files.createTempFile("import-", ".upload"))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(file -> DataBufferUtils.write(content, file)
+                        .then(Mono.fromCallable(() -> new ImportJob(type, resolvedFormat, fileName)))
+                        .doOnError(e -> delete(file))
+                        .map(job -> {
+                            register(job);
+                            log.info("Import {} of {} from {} ({}) started", job.getId(), type, fileName,
+                                    resolvedFormat);
+                            run(job, file).subscribe();
+                            return toDTO(job);
+                        }));
+    }
+
+    @Override
+    public Mono<ImportJobDTO> getImport(UUID id) {
+        return Mono.justOrEmpty(job(id))
+                .map(this::toDTO)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Import", "id", id)));
+    }
+
+    @Override
+    public Mono<Path> getErrorFile(UUID id) {
+        return Mono.justOrEmpty(job(id))
+                .doOnNext(ImportJob::flushErrors)
+                .map(ImportJob::getErrorFile)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Import", "id", id)));
+    }
+
+    private Mono<Void> run(ImportJob job, Path file) {
+        return rows(job.getFormat(), file)
+                .doOnNext(row -> job.getRowsRead().incrementAndGet())
+                .buffer(chunkSize)
+                .concatMap(chunk -> importChunk(job, chunk), 1)
+                .then(Mono.fromRunnable(() -> {
+                    if (job.getType() == ImportType.CONNECTIONS) {
+                        hubGraphProvider.invalidate();
+                    }
+                    job.finish(null);
+                    log.info("Import {} completed: {} imported, {} rejected", job.getId(),
+                            job.getRowsImported(), job.getRowsRejected());
+                }))
+                .onErrorResume(e -> {
+                    log.warn("Import {} failed after {} records: {}", job.getId(), job.getRowsRead(), e.getMessage());
+                    job.finish(message(e));
+                    return Mono.empty();
+                })
+                .doFinally(signal -> delete(file))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private Flux<ImportRow> rows(ImportFormat format, Path file) {
+        Flux<DataBuffer> data = DataBufferUtils.read(file, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE);
+        if (format == ImportFormat.CSV) {
+            return CsvRows.parse(StringDecoder.allMimeTypes()
+                    .decode(data, ResolvableType.forClass(String.class), null, Collections.emptyMap()));
+        }
+        return Flux.defer(() -> {
+            GeoJsonFeatureReader reader = new GeoJsonFeatureReader(objectMapper);
+            return data.concatMapIterable(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                return reader.feed(bytes);
+            }).concatWith(Flux.defer(() -> Flux.fromIterable(reader.finish())));
+        });
+    }
+
+    private Mono<Void> importChunk(ImportJob job, List<ImportRow> chunk) {
+        return switch (job.getType()) {
+            case HUBS -> importChunk(job, chunk, this::toHubRequest,
+                    requests -> hubService.createHubs(requests).then(Mono.just(accepted(requests))));
+            case PARCELS -> importChunk(job, chunk, this::toParcelRequest,
+                    requests -> parcelService.createParcels(requests).then(Mono.just(accepted(requests))));
+            case CONNECTIONS -> importChunk(job, chunk, this::toConnection, this::insertConnections);
+        };
+    }
+
+    /**
+     * Converts and validates the records of a chunk, writes the valid ones and
+     * reports every record as imported or rejected.
+     *
+     * @param writer writes the converted records and emits, for each one, why
+     *               it was not written or null if it was
+     */
+    private <T> Mono<Void> importChunk(ImportJob job, List<ImportRow> chunk, Function<ImportRow, T> converter,
+            Function<List<T>, Mono<List<String>>> writer) {
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        List<T> items = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error() != null) {
+                job.reject(row.number(), row.error());
+                continue;
+            }
+            try {
+                T item = converter.apply(row);
+                validate(item);
+                rows.add(row);
+                items.add(item);
+            } catch (IllegalArgumentException e) {
+                job.reject(row.number(), e.getMessage());
+            }
+        }
+        if (items.isEmpty()) {
+            job.flushErrors();
+            return Mono.empty();
+        }
+        return writer.apply(items)
+                .onErrorResume(e -> Mono.just(Collections.nCopies(items.size(), "Chunk rejected: " + message(e))))
+                .doOnNext(results -> {
+                    for (int i = 0; i < results.size(); i++) {
+                        if (results.get(i) == null) {
+                            job.getRowsImported().incrementAndGet();
+                        } else {
+                            job.reject(rows.get(i).number(), results.get(i));
+                        }
+                    }
+                    job.flushErrors();
+                })
+                .then();
+    }
+
+    private static List<String> accepted(List<?> items) {
+        return Collections.nCopies(items.size(), null);
+    }
+
+    private Mono<List<String>> insertConnections(List<HubConnection> connections) {
+        return hubConnectionRepository.insertAll(connections)
+                .map(connection -> connection.getFromHubId() + ">" + connection.getToHubId())
+                .collect(Collectors.toCollection(HashSet::new))
+                .map(inserted -> {
+                    List<String> results = new ArrayList<>(connections.size());
+                    Set<String> seen = new HashSet<>();
+                    for (HubConnection connection : connections) {
+                        String key = connection.getFromHubId() + ">" + connection.getToHubId();
+                        // A pair repeated in the chunk is only inserted once
+                        results.add(inserted.contains(key) && seen.add(key) ? null
+                                : "Unknown hub or connection already exists");
+                    }
+                    return results;
+                });
+    }
+
+    private GeoPointRequestDTO toHubRequest(ImportRow row) {
+        double[] position = row.positions().isEmpty()
+                ? new double[] { number(row, "longitude", "lon", "lng"), number(row, "latitude", "lat") }
+                : row.positions().get(0);
+        checkPosition(position);
+        String type = row.get("type");
+        if (type != null) {
+            type = type.toUpperCase(Locale.ROOT);
+            try {
+                HubType.valueOf(type);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown hub type '" + type + "'");
+            }
+        }
+        return GeoPointRequestDTO.builder()
+                .address(row.get("address", "name"))
+                .type(type)
+                .longitude(position[0])
+                .latitude(position[1])
+                .build();
+    }
+
+    private ParcelRequestDTO toParcelRequest(ImportRow row) {
+        List<double[]> positions = row.positions();
+        return ParcelRequestDTO.builder()
+                .senderName(row.get("senderName"))
+                .senderPhone(row.get("senderPhone"))
+                .recipientName(row.get("recipientName"))
+                .recipientPhone(row.get("recipientPhone"))
+                .pickupLocation(location(row, "pickup", positions.isEmpty() ? null : positions.get(0)))
+                .pickupAddress(row.get("pickupAddress"))
+                .deliveryLocation(location(row, "delivery",
+                        positions.size() < 2 ? null : positions.get(positions.size() - 1)))
+                .deliveryAddress(row.get("deliveryAddress"))
+                .weightKg(optionalNumber(row, "weightKg", "weight"))
+                .declaredValueXaf(optionalNumber(row, "declaredValueXaf", "declaredValue"))
+                .notes(row.get("notes"))
+                .build();
+    }
+
+    /**
+     * A parcel location is taken from the {@code <prefix>Location} field (hub
+     * ID, "lat,lng" or WKT), else from {@code <prefix>Latitude} and
+     * {@code <prefix>Longitude}, else from the feature geometry.
+     */
+    private static String location(ImportRow row, String prefix, double[] position) {
+        String location = row.get(prefix + "Location");
+        if (location != null) {
+            return location;
+        }
+        Double latitude = optionalNumber(row, prefix + "Latitude", prefix + "Lat");
+        Double longitude = optionalNumber(row, prefix + "Longitude", prefix + "Lon", prefix + "Lng");
+        if (latitude != null && longitude != null) {
+            position = new double[] { longitude, latitude };
+        }
+        if (position == null) {
+            return null;
+        }
+        checkPosition(position);
+        return position[1] + "," + position[0];
+    }
+
+    private HubConnection toConnection(ImportRow row) {
+        Double weight = optionalNumber(row, "weight", "distanceKm", "distance");
+        if (weight == null && row.positions().size() >= 2) {
+            // Without a weight, the length of the feature geometry is used
+            weight = 0.0;
+            for (int i = 1; i < row.positions().size(); i++) {
+                double[] from = row.positions().get(i - 1);
+                double[] to = row.positions().get(i);
+                weight += GeometryUtils.haversineDistance(from[1], from[0], to[1], to[0]);
+            }
+        }
+        if (weight == null || weight < 0) {
+            throw new IllegalArgumentException("A non-negative weight is required");
+        }
+        return HubConnection.builder()
+                .fromHubId(uuid(row, "fromHubId", "from"))
+                .toHubId(uuid(row, "toHubId", "to"))
+                .weight(weight)
+                .allowedVehicles(vehicles(row.get("allowedVehicles")))
+                .maxWeightKg(optionalNumber(row, "maxWeightKg", "maxWeight"))
+                .isHighway(bool(row.get("isHighway", "highway")))
+                .isToll(bool(row.get("isToll", "toll")))
+                .build();
+    }
+
+    private void validate(Object item) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static double number(ImportRow row, String... names) {
+        Double value = optionalNumber(row, names);
+        if (value == null) {
+            throw new IllegalArgumentException(names[0] + " is required");
+        }
+        return value;
+    }
+
+    private static Double optionalNumber(ImportRow row, String... names) {
+        String value = row.get(names);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + names[0] + ": '" + value + "'");
+        }
+    }
+
+    private static UUID uuid(ImportRow row, String... names) {
+        String value = row.get(names);
+        if (value == null) {
+            throw new IllegalArgumentException(names[0] + " is required");
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid UUID for " + names[0] + ": '" + value + "'");
+        }
+    }
+
+    private static Boolean bool(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "y" -> true;
+            case "false", "0", "no", "n" -> false;
+            default -> throw new IllegalArgumentException("Invalid boolean '" + value + "'");
+        };
+    }
+
+    /**
+     * @param value vehicle type names separated by '|', ' ' or ';'
+     * @return the mask of the allowed types, null (all types) if none is given
+     */
+    private static Integer vehicles(String value) {
+        if (value == null) {
+            return null;
+        }
+        int mask = 0;
+        for (String name : value.split("[|;\\s]+")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                mask |= EdgeRestrictions.vehicleBit(VehicleType.valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown vehicle type '" + name + "'");
+            }
+        }
+        return mask;
+    }
+
+    private static void checkPosition(double[] position) {
+        if (!(position[0] >= -180 && position[0] <= 180 && position[1] >= -90 && position[1] <= 90)) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+    }
+
+    private static ImportFormat formatOf(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return ImportFormat.CSV;
+        }
+        if (name.endsWith(".geojson") || name.endsWith(".json")) {
+            return ImportFormat.GEOJSON;
+        }
+        return null;
+    }
+
+    private static String message(Throwable e) {
+        Throwable cause = e instanceof UncheckedIOException && e.getCause() != null ? e.getCause() : e;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private void register(ImportJob job) {
+        List<ImportJob> dropped = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            var it = jobs.values().iterator();
+            while (jobs.size() > maxJobs && it.hasNext()) {
+                ImportJob oldest = it.next();
+                if (oldest.getStatus() != ImportStatus.RUNNING) {
+                    it.remove();
+                    dropped.add(oldest);
+                }
+            }
+        }
+        dropped.forEach(ImportJob::discard);
+    }
+
+    private Optional<ImportJob> job(UUID id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private ImportJobDTO toDTO(ImportJob job) {
+        return ImportJobDTO.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .format(job.getFormat())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .rowsRead(job.getRowsRead().get())
+                .rowsImported(job.getRowsImported().get())
+                .rowsRejected(job.getRowsRejected().get())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .failure(job.getFailure())
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.yowyob.delivery.route.service.impl;
+
+import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.controller.dto.IncidentResponseDTO;
+import com.yowyob.delivery.route.controller.dto.RerouteSummaryDTO;
+import com.yowyob.delivery.route.controller.exception.ResourceNotFoundException;
+import com.yowyob.delivery.route.domain.entity.Incident;
+import com.yowyob.delivery.route.repository.IncidentRepository;
+import com.yowyob.delivery.route.service.IncidentService;
+import com.yowyob.delivery.route.service.RouteService;
+import com.yowyob.delivery.route.service.cache.RouteResultCache;
+import com.yowyob.delivery.route.service.graph.IncidentRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Implementation of {@link IncidentService} persisting incidents and keeping
+ * the in-memory {@link IncidentRegistry}, the route cache and the active
+ * routes consistent with them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IncidentServiceImpl implements IncidentService {
+
+    private final IncidentRepository incidentRepository;
+    private final IncidentRegistry incidentRegistry;
+    private final RouteResultCache routeResultCache;
+    private final RouteService routeService;
+
+    @Override
+    public Mono<IncidentResponseDTO> reportIncident(IncidentDTO request) {
+        if (!isValidLocation(request.getLineStart()) || !isValidLocation(request.getLineEnd())) {
+            return Mono.error(new IllegalArgumentException("Incident lineStart and lineEnd coordinates are required"));
+        }
+        if (request.getBufferDistance() != null && request.getBufferDistance() < 0) {
+            return Mono.error(new IllegalArgumentException("Incident bufferDistance must not be negative"));
+        }
+        log.info("Registering {} incident: {}", request.getType(), request.getDescription());
+
+        Incident incident = Incident.builder()
+                .type(request.getType())
+                .description(request.getDescription())
+                .startLatitude(request.getLineStart().getLatitude())
+                .startLongitude(request.getLineStart().getLongitude())
+                .endLatitude(request.getLineEnd().getLatitude())
+                .endLongitude(request.getLineEnd().getLongitude())
+                .bufferDistance(request.getBufferDistance() == null ? 0.0 : request.getBufferDistance())
+                .isActive(true)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        return incidentRepository.save(incident)
+                .doOnSuccess(saved -> {
+                    incidentRegistry.invalidate();
+                    // Cached paths crossing the incident must not be served anymore
+                    routeResultCache.invalidateIntersecting(toIncidentDTO(saved));
+                })
+                .flatMap(saved -> routeService.rerouteAffectedRoutes(toIncidentDTO(saved))
+                        .map(summary -> {
+                            IncidentResponseDTO response = toResponseDTO(saved);
+                            response.setReroute(summary);
+                            return response;
+                        }));
+    }
+
+    @Override
+    public Mono<RerouteSummaryDTO> rerouteAffectedRoutes(UUID id) {
+        return incidentRepository.findById(id)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Incident", "id", id)))
+                .flatMap(incident -> Boolean.TRUE.equals(incident.getIsActive())
+                        ? routeService.rerouteAffectedRoutes(toIncidentDTO(incident))
+                        : Mono.error(new IllegalArgumentException("Incident " + id + " is resolved")));
+    }
+
+    @Override
+    public Flux<IncidentResponseDTO> getActiveIncidents() {
+        return incidentRepository.findByIsActiveTrue()
+                .map(this::toResponseDTO);
+    }
+
+    @Override
+    public Mono<IncidentResponseDTO> resolveIncident(UUID id) {
+        return incidentRepository.findById(id)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Incident", "id", id)))
+                .flatMap(incident -> {
+                    if (!Boolean.TRUE.equals(incident.getIsActive())) {
+                        return Mono.just(incident);
+                    }
+                    incident.setIsActive(false);
+                    incident.setResolvedAt(LocalDateTime.now());
+                    return incidentRepository.save(incident)
+                            .doOnSuccess(saved -> {
+                                log.info("Incident {} resolved", saved.getId());
+                                incidentRegistry.invalidate();
+                                // Cached detours may no longer be the shortest routes
+                                routeResultCache.clear();
+                            });
+                })
+                .map(this::toResponseDTO);
+    }
+
+    private static boolean isValidLocation(IncidentDTO.GeoLocation location) {
+        return location != null && location.getLatitude() != null && location.getLongitude() != null;
+    }
+
+    private IncidentDTO toIncidentDTO(Incident incident) {
+        IncidentDTO dto = new IncidentDTO();
+        dto.setType(incident.getType());
+        dto.setDescription(incident.getDescription());
+        dto.setLineStart(toGeoLocation(incident.getStartLatitude(), incident.getStartLongitude()));
+        dto.setLineEnd(toGeoLocation(incident.getEndLatitude(), incident.getEndLongitude()));
+        dto.setBufferDistance(incident.getBufferDistance());
+        return dto;
+    }
+
+    private IncidentResponseDTO toResponseDTO(Incident incident) {
+        return IncidentResponseDTO.builder()
+                .id(incident.getId())
+                .type(incident.getType())
+                .description(incident.getDescription())
+                .lineStart(toGeoLocation(incident.getStartLatitude(), incident.getStartLongitude()))
+                .lineEnd(toGeoLocation(incident.getEndLatitude(), incident.getEndLongitude()))
+                .bufferDistance(incident.getBufferDistance())
+                .active(incident.getIsActive())
+                .createdAt(incident.getCreatedAt())
+                .resolvedAt(incident.getResolvedAt())
+                .build();
+    }
+
+    private static IncidentDTO.GeoLocation toGeoLocation(Double latitude, Double longitude) {
+        IncidentDTO.GeoLocation location = new IncidentDTO.GeoLocation();
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}
@@ -0,0 +1,213 @@
+package com.yowyob.delivery.route.service.impl;
+
+import com.yowyob.delivery.route.controller.dto.DistanceMatrixRequestDTO;
+import com.yowyob.delivery.route.controller.dto.DistanceMatrixResponseDTO;
+import com.yowyob.delivery.route.controller.dto.IsochroneRequestDTO;
+import com.yowyob.delivery.route.controller.dto.IsochroneResponseDTO;
+import com.yowyob.delivery.route.controller.dto.ReachableHubDTO;
+import com.yowyob.delivery.route.controller.exception.ResourceNotFoundException;
+import com.yowyob.delivery.route.service.NetworkAnalysisService;
+import com.yowyob.delivery.route.service.graph.EdgeRestrictions;
+import com.yowyob.delivery.route.service.graph.GraphSearch;
+import com.yowyob.delivery.route.service.graph.HubGraph;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
+import com.yowyob.delivery.route.service.graph.IncidentRegistry;
+import com.yowyob.delivery.route.service.graph.TrafficProfileProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.algorithm.hull.ConcaveHull;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of {@link NetworkAnalysisService} running searches on the
+ * resident {@link HubGraph}.
+ */
+@Slf4j
+@Service
+public class NetworkAnalysisServiceImpl implements NetworkAnalysisService {
+
+    private final HubGraphProvider graphProvider;
+    private final IncidentRegistry incidentRegistry;
+    private final TrafficProfileProvider trafficProfileProvider;
+    private final int maxMatrixCells;
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    public NetworkAnalysisServiceImpl(HubGraphProvider graphProvider, IncidentRegistry incidentRegistry,
+            TrafficProfileProvider trafficProfileProvider,
+            @Value("${routing.matrix.max-cells:250000}") int maxMatrixCells) {
+        this.graphProvider = graphProvider;
+        this.incidentRegistry = incidentRegistry;
+        this.trafficProfileProvider = trafficProfileProvider;
+        this.maxMatrixCells = maxMatrixCells;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Runs one one-to-many Dijkstra per row in parallel on the CPU-bound
+     * scheduler, avoiding connections closed by active incidents or refused by
+     * the vehicle constraints. When neither applies the hub graph is
+     * undirected, so the searches start from whichever side of the matrix is
+     * smaller.
+     */
+    @Override
+    public Mono<DistanceMatrixResponseDTO> computeDistanceMatrix(DistanceMatrixRequestDTO request) {
+        List<UUID> sources = request.getSourceHubIds();
+        List<UUID> destinations = request.getDestinationHubIds();
+        if (sources == null || sources.isEmpty() || destinations == null || destinations.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("sourceHubIds and destinationHubIds must not be empty"));
+        }
+        long cells = (long) sources.size() * destinations.size();
+        if (cells > maxMatrixCells) {
+            return Mono.error(new IllegalArgumentException(
+                    "Matrix of " + cells + " cells exceeds the limit of " + maxMatrixCells));
+        }
+        int forbidden;
+        try {
+            forbidden = EdgeRestrictions.forbiddenMask(request.getConstraints());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+
+        return graphProvider.getGraph().flatMap(incidentRegistry::getBlockedEdges).flatMap(blockedEdges -> {
+            HubGraph graph = blockedEdges.getGraph();
+            BitSet blocked = blockedEdges.isEmpty() ? null : blockedEdges.asBitSet();
+            int[] sourceNodes = resolve(graph, sources);
+            int[] destinationNodes = resolve(graph, destinations);
+            // Blocked edges and restriction masks may differ between the two directions
+            boolean transposed = blocked == null && forbidden == EdgeRestrictions.NONE
+                    && sourceNodes.length > destinationNodes.length;
+            int[] origins = transposed ? destinationNodes : sourceNodes;
+            int[] targets = transposed ? sourceNodes : destinationNodes;
+
+            int rows = sourceNodes.length;
+            int columns = destinationNodes.length;
+            double[] distances = new double[rows * columns];
+            int[] durations = new int[rows * columns];
+
+            long startNanos = System.nanoTime();
+            return Flux.range(0, origins.length)
+                    .parallel()
+                    .runOn(Schedulers.parallel())
+                    .doOnNext(i -> {
+                        double[] row = GraphSearch.oneToMany(graph, origins[i], targets, blocked, forbidden);
+                        for (int j = 0; j < row.length; j++) {
+                            int cell = transposed ? j * columns + i : i * columns + j;
+                            boolean reachable = row[j] != Double.POSITIVE_INFINITY;
+                            distances[cell] = reachable ? row[j] : -1;
+                            durations[cell] = reachable
+                                    ? (int) Math.round(trafficProfileProvider.defaultMinutes(row[j]))
+                                    : -1;
+                        }
+                    })
+                    .sequential()
+                    .then(Mono.fromSupplier(() -> {
+                        log.debug("Computed {}x{} matrix in {} ms", rows, columns,
+                                (System.nanoTime() - startNanos) / 1_000_000);
+                        return DistanceMatrixResponseDTO.builder()
+                                .sourceHubIds(sources)
+                                .destinationHubIds(destinations)
+                                .rows(rows)
+                                .columns(columns)
+                                .distancesKm(distances)
+                                .durationsMinutes(durations)
+                                .build();
+                    }));
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * Runs a Dijkstra search bounded by the budget, so only the reachable part
+     * of the network is explored, avoiding connections closed by active
+     * incidents or refused by the vehicle constraints. Durations are estimated
+     * at the default traffic speed.
+     */
+    @Override
+    public Mono<IsochroneResponseDTO> computeIsochrone(IsochroneRequestDTO request) {
+        double budget = Double.POSITIVE_INFINITY;
+        if (request.getMaxDistanceKm() != null) {
+            budget = request.getMaxDistanceKm();
+        }
+        if (request.getMaxDurationMinutes() != null) {
+            budget = Math.min(budget, trafficProfileProvider.defaultDistanceKm(request.getMaxDurationMinutes()));
+        }
+        if (Double.isInfinite(budget) || budget < 0) {
+            return Mono.error(new IllegalArgumentException(
+                    "A non-negative maxDistanceKm or maxDurationMinutes is required"));
+        }
+        double concavity = request.getConcavity() != null ? request.getConcavity() : 0.3;
+        if (concavity < 0 || concavity > 1) {
+            return Mono.error(new IllegalArgumentException("concavity must be between 0 and 1"));
+        }
+        int forbidden;
+        try {
+            forbidden = EdgeRestrictions.forbiddenMask(request.getConstraints());
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        double maxDistance = budget;
+
+        return graphProvider.getGraph().flatMap(incidentRegistry::getBlockedEdges).map(blockedEdges -> {
+            HubGraph graph = blockedEdges.getGraph();
+            int origin = graph.indexOf(request.getHubId());
+            if (origin < 0) {
+                throw new ResourceNotFoundException("Hub", "id", request.getHubId());
+            }
+            GraphSearch.Reachability reachable = GraphSearch.withinBudget(graph, origin, maxDistance,
+                    blockedEdges.isEmpty() ? null : blockedEdges.asBitSet(), forbidden);
+            int[] nodes = reachable.getNodes();
+            double[] costs = reachable.getCosts();
+
+            List<ReachableHubDTO> hubs = new ArrayList<>(nodes.length);
+            List<Coordinate> coordinates = new ArrayList<>(nodes.length);
+            for (int i = 0; i < nodes.length; i++) {
+                int node = nodes[i];
+                boolean located = graph.hasLocation(node);
+                hubs.add(ReachableHubDTO.builder()
+                        .hubId(graph.hubId(node))
+                        .latitude(located ? graph.latitude(node) : null)
+                        .longitude(located ? graph.longitude(node) : null)
+                        .distanceKm(costs[i])
+                        .durationMinutes((int) Math.round(trafficProfileProvider.defaultMinutes(costs[i])))
+                        .build());
+                if (located) {
+                    coordinates.add(new Coordinate(graph.longitude(node), graph.latitude(node)));
+                }
+            }
+
+            String polygon = null;
+            if (request.isIncludePolygon() && !coordinates.isEmpty()) {
+                polygon = ConcaveHull.concaveHullByLengthRatio(
+                        geometryFactory.createMultiPointFromCoords(coordinates.toArray(new Coordinate[0])),
+                        concavity).toText();
+            }
+            return IsochroneResponseDTO.builder()
+                    .hubId(request.getHubId())
+                    .maxDistanceKm(maxDistance)
+                    .reachableHubs(hubs)
+                    .polygon(polygon)
+                    .build();
+        });
+    }
+
+    private static int[] resolve(HubGraph graph, List<UUID> hubIds) {
+        int[] nodes = new int[hubIds.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.indexOf(hubIds.get(i));
+            if (nodes[i] < 0) {
+                throw new ResourceNotFoundException("Hub", "id", hubIds.get(i));
+            }
+        }
+        return nodes;
+    }
+}
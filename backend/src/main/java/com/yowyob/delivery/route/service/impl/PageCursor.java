@@ -0,0 +1,40 @@
+package com.yowyob.delivery.route.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position of a parcel page: the creation time and ID of the last
+ * parcel returned. Clients see it as an opaque URL-safe Base64 string of
+ * {@code createdAt|id}.
+ *
+ * @param createdAt creation time of the last parcel of the page
+ * @param id        ID of the last parcel of the page
+ */
+record PageCursor(LocalDateTime createdAt, UUID id) {
+
+    /**
+     * @return the cursor as sent to clients
+     */
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor a cursor returned by {@link #encode()}
+     * @return the decoded position
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    static PageCursor decode(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\|", 2);
+            return new PageCursor(LocalDateTime.parse(position[0]), UUID.fromString(position[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
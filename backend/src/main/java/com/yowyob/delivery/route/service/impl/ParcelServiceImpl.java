@@ -1,20 +1,32 @@
 package com.yowyob.delivery.route.service.impl;
 
+import com.yowyob.delivery.route.controller.dto.ParcelPageDTO;
 import com.yowyob.delivery.route.controller.dto.ParcelRequestDTO;
 import com.yowyob.delivery.route.controller.dto.ParcelResponseDTO;
+import com.yowyob.delivery.route.domain.entity.Hub;
 import com.yowyob.delivery.route.domain.entity.Parcel;
+import com.yowyob.delivery.route.domain.enums.ListView;
+import com.yowyob.delivery.route.domain.enums.ParcelPriority;
 import com.yowyob.delivery.route.domain.enums.ParcelState;
 import com.yowyob.delivery.route.mapper.ParcelMapper;
 import com.yowyob.delivery.route.repository.ParcelRepository;
-import com.yowyob.delivery.route.repository.HubRepository;
 import com.yowyob.delivery.route.service.ParcelService;
+import com.yowyob.delivery.route.service.cache.HubCache;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * Implementation of {@link ParcelService} using R2DBC for reactive persistence.
@@ -26,9 +38,28 @@ import java.util.UUID;
 public class ParcelServiceImpl implements ParcelService {
 
     private final ParcelRepository parcelRepository;
-    private final HubRepository hubRepository;
+    private final HubCache hubCache;
     private final ParcelMapper parcelMapper;
     private final com.yowyob.delivery.route.client.PetriNetClient petriNetClient;
+    private final HubGraphProvider hubGraphProvider;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Raw "lat,lng" locations closer than this to a hub are snapped to it,
+     * replacing the client's coordinates and address with the hub's. Off by
+     * default (0).
+     */
+    @Value("${routing.spatial.snap-radius:0}")
+    private double snapRadiusMeters;
+
+    @Value("${routing.parcels.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${routing.bulk.max-items:5000}")
+    private int maxBulkItems;
+
+    @Value("${routing.bulk.concurrency:8}")
+    private int bulkConcurrency;
 
     /**
      * {@inheritDoc}
@@ -40,28 +71,7 @@ public class ParcelServiceImpl implements ParcelService {
         return Mono.zip(
                 resolveLocation(request.getPickupLocation()),
                 resolveLocation(request.getDeliveryLocation())).flatMap(locations -> {
-                    Parcel parcel = parcelMapper.toEntity(request);
-
-                    // Set resolved coordinates and addresses
-                    parcel.setPickupLocation(locations.getT1().location);
-                    if (parcel.getPickupAddress() == null || parcel.getPickupAddress().isEmpty()
-                            || parcel.getPickupAddress().equals("Address not specified")) {
-                        parcel.setPickupAddress(locations.getT1().address);
-                    }
-
-                    parcel.setDeliveryLocation(locations.getT2().location);
-                    if (parcel.getDeliveryAddress() == null || parcel.getDeliveryAddress().isEmpty()
-                            || parcel.getDeliveryAddress().equals("Address not specified")) {
-                        parcel.setDeliveryAddress(locations.getT2().address);
-                    }
-
-                    parcel.setTrackingCode("TRK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-                    parcel.setCurrentState(ParcelState.PLANNED);
-                    parcel.setPriority(com.yowyob.delivery.route.domain.enums.ParcelPriority.NORMAL);
-
-                    if (parcel.getDeliveryFeeXaf() == null) {
-                        parcel.setDeliveryFeeXaf(0.0);
-                    }
+                    Parcel parcel = toNewParcel(request, locations.getT1(), locations.getT2());
 
                     return parcelRepository.saveWithGeometry(parcel)
                             .flatMap(savedParcel -> petriNetClient.initializeParcelNet(savedParcel.getId())
@@ -73,6 +83,76 @@ public class ParcelServiceImpl implements ParcelService {
                 });
     }
 
+    /**
+     * {@inheritDoc}
+     * Locations are resolved as for a single parcel, concurrently and each
+     * distinct hub or coordinate once. Parcels are then inserted a thousand
+     * per statement in one transaction and their Petri Nets initialized
+     * concurrently; a parcel whose net could not be initialized is kept
+     * without one.
+     *
+     * @throws IllegalArgumentException (as an error signal) if there are no
+     *                                  parcels or more than
+     *                                  {@code routing.bulk.max-items}
+     */
+    @Override
+    public Flux<ParcelResponseDTO> createParcels(List<ParcelRequestDTO> requests) {
+        if (requests.isEmpty() || requests.size() > maxBulkItems) {
+            return Flux.error(new IllegalArgumentException(
+                    "Between 1 and " + maxBulkItems + " parcels can be created at once"));
+        }
+        Map<String, Mono<ResolvedLocation>> resolved = new HashMap<>();
+        Function<String, Mono<ResolvedLocation>> resolve = location -> resolved
+                .computeIfAbsent(location == null ? "" : location, key -> resolveLocation(key).cache());
+        return Flux.fromIterable(requests)
+                .flatMapSequential(request -> Mono.zip(resolve.apply(request.getPickupLocation()),
+                        resolve.apply(request.getDeliveryLocation()))
+                        .map(locations -> toNewParcel(request, locations.getT1(), locations.getT2())),
+                        bulkConcurrency)
+                .collectList()
+                .flatMapMany(parcels -> transactionalOperator
+                        .transactional(parcelRepository.insertAllWithGeometry(parcels)))
+                .collectList()
+                .flatMapMany(saved -> Flux.fromIterable(saved)
+                        .flatMap(parcel -> petriNetClient.initializeParcelNet(parcel.getId())
+                                .doOnNext(parcel::setPetriNetId)
+                                .onErrorResume(e -> Mono.empty()), bulkConcurrency)
+                        .then(parcelRepository.updatePetriNetIds(saved))
+                        .doOnNext(count -> log.info("Created {} parcels, {} with a Petri Net", saved.size(), count))
+                        .thenMany(Flux.fromIterable(saved)))
+                .map(parcelMapper::toResponseDTO);
+    }
+
+    /**
+     * Builds a new PLANNED parcel from a request and its resolved locations,
+     * with a random tracking code (TRK-XXXX).
+     */
+    private Parcel toNewParcel(ParcelRequestDTO request, ResolvedLocation pickup, ResolvedLocation delivery) {
+        Parcel parcel = parcelMapper.toEntity(request);
+
+        // Set resolved coordinates and addresses
+        parcel.setPickupLocation(pickup.location);
+        if (parcel.getPickupAddress() == null || parcel.getPickupAddress().isEmpty()
+                || parcel.getPickupAddress().equals("Address not specified")) {
+            parcel.setPickupAddress(pickup.address);
+        }
+
+        parcel.setDeliveryLocation(delivery.location);
+        if (parcel.getDeliveryAddress() == null || parcel.getDeliveryAddress().isEmpty()
+                || parcel.getDeliveryAddress().equals("Address not specified")) {
+            parcel.setDeliveryAddress(delivery.address);
+        }
+
+        parcel.setTrackingCode("TRK-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        parcel.setCurrentState(ParcelState.PLANNED);
+        parcel.setPriority(com.yowyob.delivery.route.domain.enums.ParcelPriority.NORMAL);
+
+        if (parcel.getDeliveryFeeXaf() == null) {
+            parcel.setDeliveryFeeXaf(0.0);
+        }
+        return parcel;
+    }
+
     private static class ResolvedLocation {
         final String location;
         final String address;
@@ -91,7 +171,7 @@ public class ParcelServiceImpl implements ParcelService {
         // Check if it's a UUID (Hub ID)
         try {
             UUID hubId = UUID.fromString(locationStr);
-            return hubRepository.findByIdWithLocation(hubId)
+            return hubCache.getHub(hubId)
                     .map(hub -> new ResolvedLocation(hub.getLocation(), hub.getAddress()))
                     .switchIfEmpty(Mono.just(new ResolvedLocation("POINT(0 0)", "Unknown Hub")));
         } catch (IllegalArgumentException e) {
@@ -105,7 +185,8 @@ public class ParcelServiceImpl implements ParcelService {
                     String[] parts = locationStr.split(",");
                     double lat = Double.parseDouble(parts[0].trim());
                     double lng = Double.parseDouble(parts[1].trim());
-                    return Mono.just(new ResolvedLocation(String.format("POINT(%f %f)", lng, lat), "Coordinates"));
+                    return snapToHub(lat, lng)
+                            .defaultIfEmpty(new ResolvedLocation(String.format("POINT(%f %f)", lng, lat), "Coordinates"));
                 } catch (Exception ex) {
                     log.warn("Failed to parse coordinates: {}", locationStr);
                 }
@@ -114,6 +195,25 @@ public class ParcelServiceImpl implements ParcelService {
         }
     }
 
+    /**
+     * Resolves coordinates to the nearest hub within the snap radius, so that
+     * parcels dropped at a hub reference its exact location and address.
+     */
+    private Mono<ResolvedLocation> snapToHub(double lat, double lng) {
+        if (snapRadiusMeters <= 0) {
+            return Mono.empty();
+        }
+        return hubGraphProvider.getGraph().flatMap(graph -> {
+            int[] nodes = graph.getSpatialIndex().withinRadius(lng, lat, snapRadiusMeters);
+            if (nodes.length == 0) {
+                return Mono.empty();
+            }
+            Hub hub = graph.hub(nodes[0]);
+            log.debug("Snapped location {},{} to hub {}", lat, lng, hub.getId());
+            return Mono.just(new ResolvedLocation(hub.getLocation(), hub.getAddress()));
+        });
+    }
+
     /**
      * {@inheritDoc}
      * Retrieves a parcel record by its unique identifier.
@@ -126,11 +226,55 @@ public class ParcelServiceImpl implements ParcelService {
 
     /**
      * {@inheritDoc}
-     * Lists all parcels currently stored in the system.
      */
     @Override
-    public Flux<ParcelResponseDTO> getAllParcels() {
-        return parcelRepository.findAllWithLocations()
+    public Flux<ParcelResponseDTO> getAllParcels(ParcelState state, UUID driverId, ParcelPriority priority,
+            ListView view) {
+        return parcelRepository.stream(state, driverId, priority, view == ListView.FULL)
                 .map(parcelMapper::toResponseDTO);
     }
+
+    /**
+     * {@inheritDoc}
+     * One parcel more than the limit is read to know whether a next page
+     * exists. The cursor encodes the creation time and ID of the last parcel
+     * of the page.
+     *
+     * @throws IllegalArgumentException (as an error signal) if the limit is
+     *                                  out of range or the cursor is invalid
+     */
+    @Override
+    public Mono<ParcelPageDTO> getParcelPage(ParcelState state, UUID driverId, ParcelPriority priority,
+            String cursor, int limit, ListView view) {
+        if (limit < 1 || limit > maxPageSize) {
+            return Mono.error(new IllegalArgumentException("limit must be between 1 and " + maxPageSize));
+        }
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                PageCursor position = PageCursor.decode(cursor);
+                afterCreatedAt = position.createdAt();
+                afterId = position.id();
+            } catch (IllegalArgumentException e) {
+                return Mono.error(e);
+            }
+        }
+        return parcelRepository.findPage(state, driverId, priority, afterCreatedAt, afterId, limit + 1,
+                view == ListView.FULL)
+                .collectList()
+                .map(parcels -> {
+                    boolean hasMore = parcels.size() > limit;
+                    List<Parcel> page = hasMore ? parcels.subList(0, limit) : parcels;
+                    String nextCursor = null;
+                    if (hasMore) {
+                        Parcel last = page.get(page.size() - 1);
+                        nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+                    }
+                    return ParcelPageDTO.builder()
+                            .items(page.stream().map(parcelMapper::toResponseDTO).toList())
+                            .nextCursor(nextCursor)
+                            .build();
+                });
+    }
 }
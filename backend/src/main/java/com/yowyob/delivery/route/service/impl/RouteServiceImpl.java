@@ -1,39 +1,96 @@
 package com.yowyob.delivery.route.service.impl;
 
+import com.yowyob.delivery.route.controller.dto.DriverLocationDTO;
 import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.controller.dto.RerouteSummaryDTO;
+import com.yowyob.delivery.route.controller.dto.RouteCacheStatsDTO;
 import com.yowyob.delivery.route.controller.dto.RouteCalculationRequestDTO;
+import com.yowyob.delivery.route.controller.dto.RouteProgressDTO;
 import com.yowyob.delivery.route.controller.dto.RouteResponseDTO;
 import com.yowyob.delivery.route.controller.dto.RoutingConstraintsDTO;
+import com.yowyob.delivery.route.controller.exception.NoPathFoundException;
+import com.yowyob.delivery.route.controller.exception.ResourceNotFoundException;
+import com.yowyob.delivery.route.domain.entity.DeliveryDriver;
 import com.yowyob.delivery.route.domain.entity.Hub;
+import com.yowyob.delivery.route.domain.entity.Route;
+import com.yowyob.delivery.route.domain.enums.GeometryFormat;
 import com.yowyob.delivery.route.mapper.RouteMapper;
-import com.yowyob.delivery.route.repository.HubRepository;
+import com.yowyob.delivery.route.repository.DriverRepository;
 import com.yowyob.delivery.route.repository.RouteRepository;
+import com.yowyob.delivery.route.repository.VehicleRepository;
 import com.yowyob.delivery.route.service.RouteService;
+import com.yowyob.delivery.route.service.cache.HubCache;
+import com.yowyob.delivery.route.service.cache.RouteCacheKey;
+import com.yowyob.delivery.route.service.cache.RouteResultCache;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import com.yowyob.delivery.route.service.geometry.RouteGeometryLevels;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
+import com.yowyob.delivery.route.service.graph.IncidentRegistry;
+import com.yowyob.delivery.route.service.graph.TrafficProfileProvider;
+import com.yowyob.delivery.route.service.graph.TrafficProfiles;
 import com.yowyob.delivery.route.service.strategy.AStarRoutingStrategy;
 import com.yowyob.delivery.route.service.strategy.BasicRoutingStrategy;
+import com.yowyob.delivery.route.service.strategy.ContractionHierarchyRoutingStrategy;
 import com.yowyob.delivery.route.service.strategy.DijkstraRoutingStrategy;
 import com.yowyob.delivery.route.service.strategy.OsrmRoutingStrategy;
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
 import com.yowyob.delivery.route.service.strategy.RoutingStrategy;
+import com.yowyob.delivery.route.service.tracking.RouteProgressTracker;
+import com.yowyob.delivery.route.service.tracking.RouteProgressTracker.RouteProgress;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementation of {@link RouteService} using R2DBC for reactive persistence.
  * Leverages multiple {@link RoutingStrategy} implementations to calculate
  * paths.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RouteServiceImpl implements RouteService {
 
         private final RouteRepository routeRepository;
-        private final HubRepository hubRepository;
+        private final HubCache hubCache;
+        private final VehicleRepository vehicleRepository;
+        private final DriverRepository driverRepository;
         private final List<RoutingStrategy> routingStrategies;
         private final RouteMapper routeMapper;
+        private final HubGraphProvider hubGraphProvider;
+        private final IncidentRegistry incidentRegistry;
+        private final TrafficProfileProvider trafficProfileProvider;
+        private final RouteResultCache routeResultCache;
+        private final RouteGeometryLevels routeGeometryLevels;
+        private final RouteProgressTracker routeProgressTracker;
+        private final TransactionalOperator transactionalOperator;
+
+        @Value("${osrm.resilience.hedge-delay:800ms}")
+        private Duration hedgeDelay;
+
+        @Value("${routing.incidents.reroute-concurrency:8}")
+        private int rerouteConcurrency;
+
+        @Value("${routing.incidents.reroute-batch-size:100}")
+        private int rerouteBatchSize;
+
+        @Value("${routing.bulk.max-items:5000}")
+        private int maxBulkItems;
+
+        @Value("${routing.bulk.concurrency:8}")
+        private int bulkConcurrency;
 
         /**
          * {@inheritDoc}
@@ -43,34 +100,176 @@ public class RouteServiceImpl implements RouteService {
          */
         @Override
         public Mono<RouteResponseDTO> calculateRoute(RouteCalculationRequestDTO request) {
-                return Mono.zip(
-                                hubRepository.findByIdWithLocation(request.getStartHubId()),
-                                hubRepository.findByIdWithLocation(request.getEndHubId())).flatMap(tuple -> {
+                return routeFor(request)
+                                .flatMap(routeRepository::saveWithGeometry)
+                                .map(route -> routeMapper.toResponseDTO(route, request.getGeometryFormat()));
+        }
+
+        /**
+         * {@inheritDoc}
+         * Routes are computed concurrently, then inserted together with
+         * multi-row INSERT statements in one transaction.
+         *
+         * @throws IllegalArgumentException (as an error signal) if there are no
+         *                                  requests or more than
+         *                                  {@code routing.bulk.max-items}
+         */
+        @Override
+        public Flux<RouteResponseDTO> calculateRoutes(List<RouteCalculationRequestDTO> requests) {
+                if (requests.isEmpty() || requests.size() > maxBulkItems) {
+                        return Flux.error(new IllegalArgumentException(
+                                        "Between 1 and " + maxBulkItems + " routes can be calculated at once"));
+                }
+                return Flux.fromIterable(requests)
+                                .flatMapSequential(this::routeFor, bulkConcurrency)
+                                .collectList()
+                                .flatMapMany(routes -> transactionalOperator
+                                                .transactional(routeRepository.insertAllWithGeometry(routes)))
+                                .index()
+                                .map(saved -> routeMapper.toResponseDTO(saved.getT2(),
+                                                requests.get(saved.getT1().intValue()).getGeometryFormat()));
+        }
+
+        /**
+         * Computes the route of a request, from the cache when possible, without
+         * saving it. Emits exactly one route or an error, so that bulk results
+         * line up with their requests.
+         *
+         * @throws ResourceNotFoundException (as an error signal) if a hub does not
+         *                                   exist
+         */
+        private Mono<Route> routeFor(RouteCalculationRequestDTO request) {
+                return applyVehicle(request.getConstraints()).then(Mono.zip(
+                                requiredHub(request.getStartHubId()),
+                                requiredHub(request.getEndHubId())).flatMap(tuple -> {
                                         Hub start = tuple.getT1();
                                         Hub end = tuple.getT2();
 
                                         RoutingStrategy strategy = selectStrategy(request.getConstraints());
-                                        return strategy.calculateOptimalRoute(start, end, request.getConstraints())
-                                                        .onErrorResume(e -> {
-                                                                // Fallback to OSRM if primary strategy fails (e.g. No
-                                                                // Path Found in Dijkstra)
-                                                                return routingStrategies.stream()
-                                                                                .filter(s -> s instanceof OsrmRoutingStrategy)
-                                                                                .findFirst()
-                                                                                .map(osrm -> osrm.calculateOptimalRoute(
-                                                                                                start, end,
-                                                                                                request.getConstraints()))
-                                                                                .orElse(Mono.error(e));
-                                                        })
+                                        // The key is taken before computing, so a result overtaken by an
+                                        // incident change carries an old generation and is not cached
+                                        return hubGraphProvider.getGraph()
+                                                        .flatMap(graph -> Mono.zip(
+                                                                        trafficProfileProvider.getProfiles(graph),
+                                                                        incidentRegistry.getGeneration())
+                                                                        .map(context -> RouteCacheKey.of(start.getId(),
+                                                                                        end.getId(),
+                                                                                        request.getConstraints(),
+                                                                                        graph.getVersion(),
+                                                                                        context.getT2(),
+                                                                                        departureBucket(context.getT1(),
+                                                                                                        request.getConstraints()))))
+                                                        .flatMap(key -> routeResultCache.get(key)
+                                                                        .map(Mono::just)
+                                                                        .orElseGet(() -> compute(strategy, start, end,
+                                                                                        request.getConstraints())
+                                                                                        .map(computed -> cache(key,
+                                                                                                        computed))))
                                                         .map(route -> {
                                                                 route.setParcelId(request.getParcelId());
                                                                 route.setStartHubId(start.getId());
                                                                 route.setEndHubId(end.getId());
                                                                 return route;
-                                                        })
-                                                        .flatMap(routeRepository::saveWithGeometry)
-                                                        .map(routeMapper::toResponseDTO);
+                                                        });
+                                }));
+        }
+
+        private Mono<Hub> requiredHub(UUID hubId) {
+                return hubCache.getHub(hubId)
+                                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Hub", "id", hubId)));
+        }
+
+        /**
+         * A computed route; {@code fallback} is set when it does not come from the
+         * selected strategy.
+         */
+        private record Computed(Route route, boolean fallback) {
+        }
+
+        /**
+         * Precomputes the geometry levels of a computed route and caches it.
+         * Fallback routes are not cached: the key names the selected strategy,
+         * which must be tried again on the next request.
+         */
+        private Route cache(RouteCacheKey key, Computed computed) {
+                Route route = withGeometryLevels(computed.route());
+                if (!computed.fallback()) {
+                        routeResultCache.put(key, route);
+                }
+                return route;
+        }
+
+        private Mono<Route> computeRoute(RoutingStrategy strategy, Hub start, Hub end,
+                        RoutingConstraintsDTO constraints) {
+                return compute(strategy, start, end, constraints).map(Computed::route);
+        }
+
+        /**
+         * Runs the selected strategy, falling back to OSRM if it fails (e.g. no
+         * path found in Dijkstra). OSRM itself is hedged with the in-process graph
+         * search, see {@link #hedgedOsrmRoute}.
+         */
+        private Mono<Computed> compute(RoutingStrategy strategy, Hub start, Hub end,
+                        RoutingConstraintsDTO constraints) {
+                if (strategy instanceof OsrmRoutingStrategy) {
+                        return hedgedOsrmRoute(strategy, start, end, constraints);
+                }
+                return strategy.calculateOptimalRoute(start, end, constraints)
+                                .map(route -> new Computed(route, false))
+                                .onErrorResume(e -> routingStrategies.stream()
+                                                .filter(s -> s instanceof OsrmRoutingStrategy)
+                                                .findFirst()
+                                                .map(osrm -> osrm.calculateOptimalRoute(start, end, constraints)
+                                                                .map(route -> new Computed(route, true)))
+                                                .orElse(Mono.error(e)));
+        }
+
+        /**
+         * Races OSRM against the in-process A* (or Dijkstra) search so that a
+         * degraded external router cannot stall the request.
+         * The local search starts as soon as OSRM fails, or after
+         * {@code osrm.resilience.hedge-delay} if OSRM has not answered yet; the
+         * first successful result wins and the other call is cancelled. A route
+         * from the local search is marked as a fallback.
+         */
+        private Mono<Computed> hedgedOsrmRoute(RoutingStrategy osrm, Hub start, Hub end,
+                        RoutingConstraintsDTO constraints) {
+                Optional<RoutingStrategy> local = findStrategy(AStarRoutingStrategy.class)
+                                .or(() -> findStrategy(DijkstraRoutingStrategy.class));
+                if (local.isEmpty()) {
+                        return osrm.calculateOptimalRoute(start, end, constraints)
+                                        .map(route -> new Computed(route, false));
+                }
+                Mono<Computed> fallback = local.get().calculateOptimalRoute(start, end, constraints)
+                                .map(route -> new Computed(route, true))
+                                .cache();
+                Mono<Computed> primary = osrm.calculateOptimalRoute(start, end, constraints)
+                                .map(route -> new Computed(route, false))
+                                .onErrorResume(e -> {
+                                        log.warn("OSRM unavailable, using graph route: {}", e.getMessage());
+                                        return fallback;
                                 });
+                Mono<Computed> hedge = Mono.delay(hedgeDelay).then(fallback);
+                return Mono.firstWithValue(primary, hedge)
+                                // Both failed: report the local search error (e.g. no path found)
+                                .onErrorResume(e -> fallback);
+        }
+
+        /**
+         * Precomputes the simplified versions of the route path served to
+         * clients asking for a tolerance.
+         */
+        private Route withGeometryLevels(Route route) {
+                try {
+                        route.setGeometryLevels(routeGeometryLevels.precompute(GeometryCodec.pathOf(route)));
+                } catch (IllegalArgumentException e) {
+                        log.warn("Cannot simplify route geometry: {}", e.getMessage());
+                }
+                return route;
+        }
+
+        private Optional<RoutingStrategy> findStrategy(Class<? extends RoutingStrategy> type) {
+                return routingStrategies.stream().filter(type::isInstance).findFirst();
         }
 
         /**
@@ -80,26 +279,310 @@ public class RouteServiceImpl implements RouteService {
          */
         @Override
         public Mono<RouteResponseDTO> recalculateRoute(UUID routeId, IncidentDTO incident) {
-                return routeRepository.findById(routeId)
-                                .flatMap(route -> {
-                                        // Use the same algorithm that was used for initial calculation
-                                        String algorithm = route.getRoutingService();
-                                        RoutingConstraintsDTO constraints = new RoutingConstraintsDTO();
-
-                                        if (algorithm != null && !algorithm.isEmpty()) {
-                                                // Extract base algorithm name (e.g., "OSRM" from "OSRM" or
-                                                // "BASIC_DETOUR")
-                                                String baseAlgo = algorithm.split("_")[0];
-                                                constraints.setAlgorithm(baseAlgo);
-                                        }
+                // Cached paths crossing the incident must not be served anymore
+                routeResultCache.invalidateIntersecting(incident);
+                return routeRepository.findByIdWithGeometry(routeId)
+                                .flatMap(route -> recalculateTracked(route, incident))
+                                .flatMap(routeRepository::saveWithGeometry)
+                                .doOnNext(route -> routeProgressTracker.invalidate(route.getId()))
+                                .map(routeMapper::toResponseDTO);
+        }
 
-                                        RoutingStrategy strategy = selectStrategy(constraints);
-                                        return strategy.recalculateRoute(route, incident)
-                                                        .flatMap(routeRepository::saveWithGeometry)
-                                                        .map(routeMapper::toResponseDTO);
+        /**
+         * {@inheritDoc}
+         * Affected routes are found with a spatial query, recalculated with
+         * bounded concurrency and written back with batched multi-row updates.
+         * Routes that cannot be recalculated keep their current path.
+         */
+        @Override
+        public Mono<RerouteSummaryDTO> rerouteAffectedRoutes(IncidentDTO incident) {
+                if (incident == null || incident.getLineStart() == null || incident.getLineEnd() == null) {
+                        return Mono.error(new IllegalArgumentException(
+                                        "Incident lineStart and lineEnd coordinates are required"));
+                }
+                long startedAt = System.nanoTime();
+                AtomicInteger affected = new AtomicInteger();
+                AtomicInteger failed = new AtomicInteger();
+                routeResultCache.invalidateIntersecting(incident);
+                double buffer = incident.getBufferDistance() == null ? 0.0 : incident.getBufferDistance();
+                return routeRepository.findActiveNearSegment(incident.getLineStart().getLatitude(),
+                                incident.getLineStart().getLongitude(), incident.getLineEnd().getLatitude(),
+                                incident.getLineEnd().getLongitude(), buffer)
+                                .doOnNext(route -> affected.incrementAndGet())
+                                .flatMap(route -> recalculateTracked(route, incident)
+                                                .onErrorResume(e -> {
+                                                        failed.incrementAndGet();
+                                                        log.warn("Could not reroute route {}: {}", route.getId(),
+                                                                        e.getMessage());
+                                                        return Mono.empty();
+                                                }), rerouteConcurrency)
+                                .buffer(rerouteBatchSize)
+                                .concatMap(batch -> routeRepository.updateRecalculatedRoutes(batch)
+                                                .doOnNext(updated -> batch.forEach(route -> routeProgressTracker
+                                                                .invalidate(route.getId()))))
+                                .reduce(0L, Long::sum)
+                                .map(updated -> {
+                                        RerouteSummaryDTO summary = RerouteSummaryDTO.builder()
+                                                        .affectedRoutes(affected.get())
+                                                        .reroutedRoutes(updated.intValue())
+                                                        .failedRoutes(failed.get())
+                                                        .durationMs((System.nanoTime() - startedAt) / 1_000_000)
+                                                        .build();
+                                        log.info("Incident fan-out: {} affected, {} rerouted, {} failed in {} ms",
+                                                        summary.getAffectedRoutes(), summary.getReroutedRoutes(),
+                                                        summary.getFailedRoutes(), summary.getDurationMs());
+                                        return summary;
                                 });
         }
 
+        /**
+         * {@inheritDoc}
+         * The route must be tracked, i.e. a position was matched on it.
+         */
+        @Override
+        public Mono<RouteResponseDTO> rerouteFromCurrentPosition(UUID routeId, IncidentDTO incident) {
+                Optional<RouteProgress> progress = routeProgressTracker.current(routeId);
+                if (progress.isEmpty()) {
+                        return Mono.error(new IllegalArgumentException("No known position on route " + routeId));
+                }
+                if (incident != null) {
+                        routeResultCache.invalidateIntersecting(incident);
+                }
+                return routeRepository.findByIdWithGeometry(routeId)
+                                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Route", "id", routeId)))
+                                .flatMap(route -> recalculateFrom(route, progress.get(), incident))
+                                .flatMap(routeRepository::saveWithGeometry)
+                                .doOnNext(route -> routeProgressTracker.invalidate(route.getId()))
+                                .map(routeMapper::toResponseDTO);
+        }
+
+        /**
+         * Recalculates a route from the last position of its driver when the
+         * route is tracked, from its stored start hub otherwise.
+         */
+        private Mono<Route> recalculateTracked(Route route, IncidentDTO incident) {
+                return routeProgressTracker.current(route.getId())
+                                .map(progress -> recalculateFrom(route, progress, incident))
+                                .orElseGet(() -> recalculate(route, incident));
+        }
+
+        /**
+         * Recalculates the rest of a route from the position of its driver.
+         * The strategy sees a route starting at that position: the remaining
+         * path is prefixed with the position for strategies reading the path,
+         * and the start hub is the hub closest to it for graph searches. Without
+         * an incident, a new route to the end hub is computed. The result keeps
+         * the identity and hubs of the route and starts at the position. It is
+         * not saved.
+         */
+        private Mono<Route> recalculateFrom(Route route, RouteProgress progress, IncidentDTO incident) {
+                if (isTour(route)) {
+                        return tourNotRecalculable(route);
+                }
+                if (route.getEndHubId() == null) {
+                        return Mono.error(new IllegalArgumentException("Route " + route.getId() + " has no end hub"));
+                }
+                double longitude = progress.longitude();
+                double latitude = progress.latitude();
+                return hubGraphProvider.getGraph().flatMap(graph -> {
+                        int[] nearest = graph.getSpatialIndex().nearest(longitude, latitude, 1);
+                        if (nearest.length == 0) {
+                                return Mono.<Route>error(new NoPathFoundException("No hub near the current position"));
+                        }
+                        UUID nearestHubId = graph.hubId(nearest[0]);
+                        Mono<Route> recalculated;
+                        if (incident == null) {
+                                Hub start = Hub.builder()
+                                                .id(nearestHubId)
+                                                .location("POINT(" + longitude + " " + latitude + ")")
+                                                .build();
+                                recalculated = Mono.zip(constraintsFor(route), requiredHub(route.getEndHubId()))
+                                                .flatMap(tuple -> computeRoute(selectStrategy(tuple.getT1()), start,
+                                                                tuple.getT2(), tuple.getT1()));
+                        } else {
+                                double remaining = 1 - progress.completedFraction();
+                                recalculated = recalculatePath(Route.builder()
+                                                .id(route.getId())
+                                                .parcelId(route.getParcelId())
+                                                .driverId(route.getDriverId())
+                                                .startHubId(nearestHubId)
+                                                .endHubId(route.getEndHubId())
+                                                .geometry(startingAt(progress.remainingPath(), longitude, latitude))
+                                                .totalDistanceKm(route.getTotalDistanceKm() == null ? null
+                                                                : route.getTotalDistanceKm() * remaining)
+                                                .estimatedDurationMinutes(route.getEstimatedDurationMinutes() == null
+                                                                ? null
+                                                                : (int) Math.round(route.getEstimatedDurationMinutes()
+                                                                                * remaining))
+                                                .routingService(route.getRoutingService())
+                                                .trafficFactor(route.getTrafficFactor())
+                                                .isActive(route.getIsActive())
+                                                .createdAt(route.getCreatedAt())
+                                                .build(), incident);
+                        }
+                        return recalculated.map(newRoute -> {
+                                newRoute.setId(route.getId());
+                                newRoute.setParcelId(route.getParcelId());
+                                newRoute.setDriverId(route.getDriverId());
+                                newRoute.setStartHubId(route.getStartHubId());
+                                newRoute.setEndHubId(route.getEndHubId());
+                                newRoute.setIsActive(route.getIsActive());
+                                newRoute.setCreatedAt(route.getCreatedAt());
+                                CoordinateBuffer path = GeometryCodec.pathOf(newRoute);
+                                CoordinateBuffer fromPosition = startingAt(path, longitude, latitude);
+                                if (fromPosition != path) {
+                                        // Graph paths start at the nearest hub: add the leg from the driver
+                                        newRoute.setGeometry(fromPosition);
+                                        if (newRoute.getTotalDistanceKm() != null) {
+                                                newRoute.setTotalDistanceKm(newRoute.getTotalDistanceKm()
+                                                                + GeometryUtils.haversineDistance(latitude, longitude,
+                                                                                path.y(0), path.x(0)));
+                                        }
+                                }
+                                return withGeometryLevels(newRoute);
+                        });
+                });
+        }
+
+        /**
+         * Returns the path prefixed with a position, or the path itself when it
+         * is empty or already starts there.
+         */
+        private static CoordinateBuffer startingAt(CoordinateBuffer path, double longitude, double latitude) {
+                if (path == null || path.size() == 0
+                                || (path.x(0) == longitude && path.y(0) == latitude)) {
+                        return path;
+                }
+                CoordinateBuffer extended = new CoordinateBuffer(path.size() + 1);
+                extended.add(longitude, latitude);
+                for (int i = 0; i < path.size(); i++) {
+                        extended.add(path.x(i), path.y(i));
+                }
+                return extended;
+        }
+
+        /**
+         * Recalculates a route with the algorithm it was originally computed with,
+         * falling back to Dijkstra when OSRM fails. The result is not saved.
+         */
+        private Mono<Route> recalculate(Route route, IncidentDTO incident) {
+                if (isTour(route)) {
+                        return tourNotRecalculable(route);
+                }
+                return recalculatePath(route, incident).map(this::withGeometryLevels);
+        }
+
+        /**
+         * Returns true for multi-stop tours. The strategies only recompute a
+         * path between the start and end hubs, which would drop the
+         * intermediate stops of a tour (and send the driver of a round trip
+         * straight back to the start), so tours are not recalculated.
+         */
+        private static boolean isTour(Route route) {
+                return "TOUR".equals(route.getRoutingService());
+        }
+
+        private static Mono<Route> tourNotRecalculable(Route route) {
+                return Mono.error(new IllegalArgumentException("Route " + route.getId()
+                                + " is a multi-stop tour and cannot be recalculated; optimize the tour again"));
+        }
+
+        /**
+         * Recalculates the path of a route for the vehicle of its driver, see
+         * {@link #constraintsFor(Route)}. The result is not saved.
+         */
+        private Mono<Route> recalculatePath(Route route, IncidentDTO incident) {
+                return constraintsFor(route).flatMap(constraints -> {
+                        RoutingStrategy strategy = selectStrategy(constraints);
+                        return strategy.recalculateRoute(route, incident, constraints)
+                                        .onErrorResume(e -> strategy instanceof OsrmRoutingStrategy
+                                                        ? findStrategy(DijkstraRoutingStrategy.class)
+                                                                        .map(dijkstra -> dijkstra.recalculateRoute(
+                                                                                        route, incident, constraints))
+                                                                        .orElse(Mono.error(e))
+                                                        : Mono.error(e));
+                });
+        }
+
+        /**
+         * Returns constraints selecting the algorithm a route was originally
+         * computed with, restricted to the connections the vehicle of its
+         * driver may use. Routes without a driver, or whose driver has no
+         * vehicle, get the algorithm only.
+         *
+         * @throws ResourceNotFoundException (as an error signal) if the
+         *                                   driver's vehicle does not exist
+         */
+        private Mono<RoutingConstraintsDTO> constraintsFor(Route route) {
+                RoutingConstraintsDTO constraints = algorithmOf(route);
+                if (route.getDriverId() == null) {
+                        return Mono.just(constraints);
+                }
+                return driverRepository.findByIdWithLocation(route.getDriverId())
+                                .mapNotNull(DeliveryDriver::getVehicleId)
+                                .flatMap(vehicleId -> {
+                                        constraints.setVehicleId(vehicleId);
+                                        return applyVehicle(constraints);
+                                })
+                                .thenReturn(constraints);
+        }
+
+        /**
+         * Returns constraints selecting the algorithm a route was originally
+         * computed with.
+         */
+        private static RoutingConstraintsDTO algorithmOf(Route route) {
+                String algorithm = route.getRoutingService();
+                RoutingConstraintsDTO constraints = new RoutingConstraintsDTO();
+
+                if (algorithm != null && !algorithm.isEmpty()) {
+                        // Extract base algorithm name (e.g., "OSRM" from "OSRM" or
+                        // "BASIC_DETOUR")
+                        String baseAlgo = algorithm.split("_")[0];
+                        constraints.setAlgorithm(baseAlgo);
+                }
+                return constraints;
+        }
+
+        /**
+         * Fills in the vehicle type and weight of the constraints from the requested
+         * vehicle, keeping values given explicitly. The weight checked against
+         * connection limits is the vehicle's gross weight. For vehicles without
+         * one, the maximum load stands in for it: it underestimates the laden
+         * weight, so limits may let such vehicles through.
+         */
+        private Mono<Void> applyVehicle(RoutingConstraintsDTO constraints) {
+                if (constraints == null || constraints.getVehicleId() == null) {
+                        return Mono.empty();
+                }
+                return vehicleRepository.findById(constraints.getVehicleId())
+                                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Vehicle", "id",
+                                                constraints.getVehicleId())))
+                                .doOnNext(vehicle -> {
+                                        if (constraints.getVehicleType() == null && vehicle.getVehicleType() != null) {
+                                                constraints.setVehicleType(vehicle.getVehicleType().name());
+                                        }
+                                        if (constraints.getWeightKg() == null) {
+                                                constraints.setWeightKg(vehicle.getGrossWeightKg() != null
+                                                                ? vehicle.getGrossWeightKg()
+                                                                : vehicle.getMaxCapacityKg());
+                                        }
+                                })
+                                .then();
+        }
+
+        /**
+         * Returns the traffic profile bucket a request departs in, or -1 when travel
+         * times do not depend on the departure (no profiles, or no departure time
+         * requested).
+         */
+        private static int departureBucket(TrafficProfiles profiles, RoutingConstraintsDTO constraints) {
+                if (profiles.isUniform() || constraints == null || constraints.getDepartureTime() == null) {
+                        return -1;
+                }
+                return profiles.bucketOf(TrafficProfileProvider.minuteOfDay(constraints.getDepartureTime()));
+        }
+
         /**
          * Selects the appropriate routing algorithm strategy based on provided
          * constraints.
@@ -121,6 +604,9 @@ public class RouteServiceImpl implements RouteService {
                         case "ASTAR" -> routingStrategies.stream()
                                         .filter(s -> s instanceof AStarRoutingStrategy)
                                         .findFirst();
+                        case "CH" -> routingStrategies.stream()
+                                        .filter(s -> s instanceof ContractionHierarchyRoutingStrategy)
+                                        .findFirst();
                         case "BASIC" -> routingStrategies.stream()
                                         .filter(s -> s instanceof BasicRoutingStrategy)
                                         .findFirst();
@@ -140,8 +626,49 @@ public class RouteServiceImpl implements RouteService {
          * Retrieves a specific route from the database.
          */
         @Override
-        public Mono<RouteResponseDTO> getRoute(UUID id) {
-                return routeRepository.findById(id)
-                                .map(routeMapper::toResponseDTO);
+        public Mono<RouteResponseDTO> getRoute(UUID id, GeometryFormat format, Double toleranceMeters) {
+                return routeRepository.findByIdWithGeometry(id)
+                                .map(route -> Optional.ofNullable(toleranceMeters)
+                                                .flatMap(tolerance -> routeGeometryLevels
+                                                                .select(route.getGeometryLevels(), tolerance))
+                                                .map(level -> routeMapper.toResponseDTO(route, level, format))
+                                                .orElseGet(() -> routeMapper.toResponseDTO(route, format)));
+        }
+
+        /**
+         * {@inheritDoc}
+         * The progress is the one last recorded for the route, if it is tracked.
+         */
+        @Override
+        public Mono<RouteResponseDTO> getTracking(UUID id, GeometryFormat format, Double toleranceMeters) {
+                return getRoute(id, format, toleranceMeters)
+                                .doOnNext(dto -> routeProgressTracker.current(id)
+                                                .ifPresent(progress -> dto.setProgress(
+                                                                routeMapper.toProgressDTO(progress))));
+        }
+
+        /**
+         * {@inheritDoc}
+         * The route is loaded and indexed on the first position only.
+         */
+        @Override
+        public Mono<RouteProgressDTO> recordPosition(UUID id, DriverLocationDTO position) {
+                if (position == null || position.getLatitude() == null || position.getLongitude() == null
+                                || Math.abs(position.getLatitude()) > 90 || Math.abs(position.getLongitude()) > 180) {
+                        return Mono.error(new IllegalArgumentException("A valid latitude and longitude are required"));
+                }
+                LocalDateTime recordedAt = position.getRecordedAt() != null ? position.getRecordedAt()
+                                : LocalDateTime.now();
+                return routeProgressTracker.update(id, position.getLongitude(), position.getLatitude(), recordedAt)
+                                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Route", "id", id)))
+                                .map(routeMapper::toProgressDTO);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Mono<RouteCacheStatsDTO> getCacheStats() {
+                return Mono.fromSupplier(routeResultCache::getStats);
         }
 }
@@ -0,0 +1,422 @@
+package com.yowyob.delivery.route.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yowyob.delivery.route.controller.dto.TourOptimizationRequestDTO;
+import com.yowyob.delivery.route.controller.dto.TourResponseDTO;
+import com.yowyob.delivery.route.controller.dto.TourStopDTO;
+import com.yowyob.delivery.route.controller.exception.ResourceNotFoundException;
+import com.yowyob.delivery.route.domain.entity.DeliveryDriver;
+import com.yowyob.delivery.route.domain.entity.Parcel;
+import com.yowyob.delivery.route.domain.entity.Route;
+import com.yowyob.delivery.route.domain.enums.ParcelState;
+import com.yowyob.delivery.route.domain.enums.StopType;
+import com.yowyob.delivery.route.mapper.RouteMapper;
+import com.yowyob.delivery.route.repository.DriverRepository;
+import com.yowyob.delivery.route.repository.ParcelRepository;
+import com.yowyob.delivery.route.repository.RouteRepository;
+import com.yowyob.delivery.route.repository.VehicleRepository;
+import com.yowyob.delivery.route.service.TourService;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import com.yowyob.delivery.route.service.geometry.RouteGeometryLevels;
+import com.yowyob.delivery.route.service.graph.EdgeRestrictions;
+import com.yowyob.delivery.route.service.graph.GraphPath;
+import com.yowyob.delivery.route.service.graph.GraphSearch;
+import com.yowyob.delivery.route.service.graph.HubGraph;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
+import com.yowyob.delivery.route.service.graph.IncidentRegistry;
+import com.yowyob.delivery.route.service.graph.TrafficProfileProvider;
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
+import com.yowyob.delivery.route.service.tour.TourOptimizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Implementation of {@link TourService}.
+ * Each stop is attached to its nearest hub; the cost between two stops is the
+ * straight-line distance to and from those hubs plus the shortest hub-graph
+ * distance between them (or the straight-line distance between the stops when
+ * they share a hub or the hubs are not connected). Hub paths avoid active
+ * incidents and, when the tour is for a driver with a vehicle, the connections
+ * that vehicle may not use. The tour itself is computed by
+ * {@link TourOptimizer}, one independent search per worker thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TourServiceImpl implements TourService {
+
+    private static final Set<ParcelState> AWAITING_PICKUP = EnumSet.of(ParcelState.PLANNED,
+            ParcelState.PENDING_PICKUP);
+    private static final Set<ParcelState> ON_BOARD = EnumSet.of(ParcelState.PICKED_UP, ParcelState.IN_TRANSIT,
+            ParcelState.OUT_FOR_DELIVERY);
+
+    private final ParcelRepository parcelRepository;
+    private final DriverRepository driverRepository;
+    private final VehicleRepository vehicleRepository;
+    private final RouteRepository routeRepository;
+    private final HubGraphProvider hubGraphProvider;
+    private final IncidentRegistry incidentRegistry;
+    private final TrafficProfileProvider trafficProfileProvider;
+    private final RouteGeometryLevels routeGeometryLevels;
+    private final RouteMapper routeMapper;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${routing.tour.default-time-budget:1s}")
+    private Duration defaultTimeBudget;
+
+    @Value("${routing.tour.max-time-budget:10s}")
+    private Duration maxTimeBudget;
+
+    @Value("${routing.tour.max-stops:400}")
+    private int maxStops;
+
+    @Value("${routing.tour.workers:0}")
+    private int workers;
+
+    /** A stop of the tour; the start of the tour has no parcel. */
+    private record Stop(Parcel parcel, StopType type, double longitude, double latitude) {
+    }
+
+    /** The graph with the edges the tour may not use. */
+    private record Network(HubGraph graph, BitSet blocked, int forbidden) {
+    }
+
+    /** Best tour over all workers, with their combined effort. */
+    private record Solution(TourOptimizer.Tour best, long iterations, double initialCost) {
+    }
+
+    /**
+     * {@inheritDoc}
+     * Parcels awaiting pickup get a pickup and a delivery stop, parcels
+     * already on board only a delivery stop. Durations are estimated at the
+     * default traffic speed.
+     */
+    @Override
+    public Mono<TourResponseDTO> optimizeTour(TourOptimizationRequestDTO request) {
+        if ((request.getParcelIds() == null || request.getParcelIds().isEmpty()) && request.getDriverId() == null) {
+            return Mono.error(new IllegalArgumentException("parcelIds or driverId is required"));
+        }
+        if (request.getTimeBudgetMs() != null && request.getTimeBudgetMs() <= 0) {
+            return Mono.error(new IllegalArgumentException("timeBudgetMs must be positive"));
+        }
+        Duration budget = request.getTimeBudgetMs() != null ? Duration.ofMillis(request.getTimeBudgetMs())
+                : defaultTimeBudget;
+        Duration timeBudget = budget.compareTo(maxTimeBudget) > 0 ? maxTimeBudget : budget;
+
+        Mono<Optional<DeliveryDriver>> driver = request.getDriverId() == null ? Mono.just(Optional.empty())
+                : driverRepository.findByIdWithLocation(request.getDriverId())
+                        .switchIfEmpty(Mono.error(new ResourceNotFoundException("Driver", "id",
+                                request.getDriverId())))
+                        .map(Optional::of);
+
+        return driver.flatMap(d -> loadParcels(request).flatMap(parcels -> {
+            double[] start = startOf(request, d.orElse(null));
+            List<Stop> stops = toStops(start, parcels);
+            if (stops.size() - 1 > maxStops) {
+                return Mono.error(new IllegalArgumentException(
+                        "Tour of " + (stops.size() - 1) + " stops exceeds the limit of " + maxStops));
+            }
+            return forbiddenMask(d.orElse(null))
+                    .flatMap(forbidden -> hubGraphProvider.getGraph()
+                            .flatMap(incidentRegistry::getBlockedEdges)
+                            .map(blockedEdges -> new Network(blockedEdges.getGraph(),
+                                    blockedEdges.isEmpty() ? null : blockedEdges.asBitSet(), forbidden)))
+                    .flatMap(network -> plan(network, stops, request, timeBudget));
+        }));
+    }
+
+    /**
+     * @return the connections the driver's vehicle may not use, none when there
+     *         is no driver or vehicle
+     */
+    private Mono<Integer> forbiddenMask(DeliveryDriver driver) {
+        if (driver == null || driver.getVehicleId() == null) {
+            return Mono.just(EdgeRestrictions.NONE);
+        }
+        return vehicleRepository.findById(driver.getVehicleId())
+                .map(EdgeRestrictions::forbiddenMask)
+                .defaultIfEmpty(EdgeRestrictions.NONE);
+    }
+
+    private Mono<List<Parcel>> loadParcels(TourOptimizationRequestDTO request) {
+        List<UUID> ids = request.getParcelIds();
+        if (ids == null || ids.isEmpty()) {
+            Set<ParcelState> open = EnumSet.copyOf(AWAITING_PICKUP);
+            open.addAll(ON_BOARD);
+            return parcelRepository.findByDriverAndStatesWithLocations(request.getDriverId(), open).collectList()
+                    .flatMap(parcels -> parcels.isEmpty()
+                            ? Mono.error(new IllegalArgumentException("Driver has no open parcels"))
+                            : Mono.just(parcels));
+        }
+        Set<UUID> requested = new HashSet<>(ids);
+        return parcelRepository.findAllByIdWithLocations(requested).collectList().flatMap(parcels -> {
+            if (parcels.size() < requested.size()) {
+                Set<UUID> found = new HashSet<>();
+                parcels.forEach(p -> found.add(p.getId()));
+                UUID missing = requested.stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+                return Mono.error(new ResourceNotFoundException("Parcel", "id", missing));
+            }
+            // Keep the request order so equal-cost tours come out the same way
+            Map<UUID, Integer> rank = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                rank.putIfAbsent(ids.get(i), i);
+            }
+            parcels.sort(Comparator.comparing(p -> rank.get(p.getId())));
+            return Mono.just(parcels);
+        });
+    }
+
+    /**
+     * @return the start of the tour as {longitude, latitude}
+     */
+    private static double[] startOf(TourOptimizationRequestDTO request, DeliveryDriver driver) {
+        if (request.getStartLatitude() != null && request.getStartLongitude() != null) {
+            return new double[] { request.getStartLongitude(), request.getStartLatitude() };
+        }
+        if (driver != null && driver.getCurrentLocation() != null) {
+            return point(driver.getCurrentLocation(), "Driver " + driver.getId() + " location");
+        }
+        throw new IllegalArgumentException("startLatitude and startLongitude are required when the driver has "
+                + "no known location");
+    }
+
+    private static List<Stop> toStops(double[] start, List<Parcel> parcels) {
+        List<Stop> stops = new ArrayList<>(parcels.size() * 2 + 1);
+        stops.add(new Stop(null, null, start[0], start[1]));
+        for (Parcel parcel : parcels) {
+            if (AWAITING_PICKUP.contains(parcel.getCurrentState())) {
+                double[] pickup = point(parcel.getPickupLocation(), "Parcel " + parcel.getId() + " pickup location");
+                stops.add(new Stop(parcel, StopType.PICKUP, pickup[0], pickup[1]));
+            } else if (!ON_BOARD.contains(parcel.getCurrentState())) {
+                throw new IllegalArgumentException(
+                        "Parcel " + parcel.getId() + " cannot be toured in state " + parcel.getCurrentState());
+            }
+            double[] delivery = point(parcel.getDeliveryLocation(), "Parcel " + parcel.getId() + " delivery location");
+            stops.add(new Stop(parcel, StopType.DELIVERY, delivery[0], delivery[1]));
+        }
+        return stops;
+    }
+
+    private static double[] point(String wkt, String description) {
+        if (wkt == null || wkt.isEmpty()) {
+            throw new IllegalArgumentException(description + " is missing");
+        }
+        CoordinateBuffer coordinates = GeometryCodec.fromWkt(wkt);
+        if (coordinates.size() == 0) {
+            throw new IllegalArgumentException(description + " is empty");
+        }
+        return new double[] { coordinates.x(0), coordinates.y(0) };
+    }
+
+    private Mono<TourResponseDTO> plan(Network network, List<Stop> stops, TourOptimizationRequestDTO request,
+            Duration timeBudget) {
+        HubGraph graph = network.graph();
+        long startNanos = System.nanoTime();
+        int n = stops.size();
+        int[] hubs = new int[n];
+        double[] offsets = new double[n];
+        for (int i = 0; i < n; i++) {
+            Stop stop = stops.get(i);
+            int[] nearest = graph.getSpatialIndex().nearest(stop.longitude(), stop.latitude(), 1);
+            hubs[i] = nearest.length > 0 ? nearest[0] : -1;
+            offsets[i] = hubs[i] >= 0 ? GeometryUtils.haversineDistance(stop.latitude(), stop.longitude(),
+                    graph.latitude(hubs[i]), graph.longitude(hubs[i])) : 0;
+        }
+        int[] distinctHubs = Arrays.stream(hubs).filter(h -> h >= 0).distinct().toArray();
+        Map<Integer, Integer> column = new HashMap<>();
+        for (int i = 0; i < distinctHubs.length; i++) {
+            column.put(distinctHubs[i], i);
+        }
+        double[][] hubDistances = new double[distinctHubs.length][];
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+
+        return Flux.range(0, distinctHubs.length)
+                .parallel()
+                .runOn(Schedulers.parallel())
+                .doOnNext(i -> hubDistances[i] = GraphSearch.oneToMany(graph, distinctHubs[i], distinctHubs,
+                        network.blocked(), network.forbidden()))
+                .sequential()
+                .then(Mono.fromSupplier(() -> {
+                    double[] matrix = new double[n * n];
+                    for (int i = 0; i < n; i++) {
+                        for (int j = 0; j < n; j++) {
+                            if (i != j) {
+                                matrix[i * n + j] = legKm(stops, hubs, offsets, hubDistances, column, i, j);
+                            }
+                        }
+                    }
+                    int[] required = new int[n];
+                    Arrays.fill(required, -1);
+                    for (int i = 1; i < n; i++) {
+                        Stop stop = stops.get(i);
+                        Stop previous = stops.get(i - 1);
+                        if (stop.type() == StopType.DELIVERY && previous.type() == StopType.PICKUP
+                                && previous.parcel() == stop.parcel()) {
+                            required[i] = i - 1;
+                        }
+                    }
+                    return new TourOptimizer(matrix, n, required, request.isReturnToStart());
+                }))
+                .flatMap(optimizer -> solve(optimizer, threads, timeBudget))
+                .flatMap(solution -> {
+                    log.debug("Optimized tour of {} stops: {} km -> {} km in {} iterations", n - 1,
+                            solution.initialCost(), solution.best().cost(), solution.iterations());
+                    List<TourStopDTO> stopDtos = new ArrayList<>();
+                    Route route = buildRoute(network, stops, hubs, solution.best(), request, stopDtos);
+                    return routeRepository.saveWithGeometry(route)
+                            .map(saved -> TourResponseDTO.builder()
+                                    .route(routeMapper.toResponseDTO(saved, request.getGeometryFormat()))
+                                    .stops(stopDtos)
+                                    .initialDistanceKm(solution.initialCost())
+                                    .iterations(solution.iterations())
+                                    .computeTimeMs((System.nanoTime() - startNanos) / 1_000_000)
+                                    .build());
+                });
+    }
+
+    /**
+     * Runs one search per worker, each with its own seed, and keeps the best
+     * tour.
+     */
+    private Mono<Solution> solve(TourOptimizer optimizer, int threads, Duration timeBudget) {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        return Flux.range(0, threads)
+                .parallel(threads)
+                .runOn(Schedulers.parallel())
+                .map(seed -> optimizer.solve(deadline, seed))
+                .sequential()
+                .collectList()
+                .map(tours -> {
+                    TourOptimizer.Tour best = tours.get(0);
+                    long iterations = 0;
+                    double initialCost = Double.POSITIVE_INFINITY;
+                    for (TourOptimizer.Tour tour : tours) {
+                        if (tour.cost() < best.cost()) {
+                            best = tour;
+                        }
+                        iterations += tour.iterations();
+                        initialCost = Math.min(initialCost, tour.initialCost());
+                    }
+                    return new Solution(best, iterations, initialCost);
+                });
+    }
+
+    private static double legKm(List<Stop> stops, int[] hubs, double[] offsets, double[][] hubDistances,
+            Map<Integer, Integer> column, int from, int to) {
+        Stop a = stops.get(from);
+        Stop b = stops.get(to);
+        if (hubs[from] >= 0 && hubs[to] >= 0 && hubs[from] != hubs[to]) {
+            double network = hubDistances[column.get(hubs[from])][column.get(hubs[to])];
+            if (network != Double.POSITIVE_INFINITY) {
+                return offsets[from] + network + offsets[to];
+            }
+        }
+        return GeometryUtils.haversineDistance(a.latitude(), a.longitude(), b.latitude(), b.longitude());
+    }
+
+    /**
+     * Assembles the multi-stop route: stop to hub, hub path, hub to stop for
+     * every leg, and fills {@code stopDtos} with the ordered stops.
+     */
+    private Route buildRoute(Network network, List<Stop> stops, int[] hubs, TourOptimizer.Tour tour,
+            TourOptimizationRequestDTO request, List<TourStopDTO> stopDtos) {
+        HubGraph graph = network.graph();
+        int[] visit = new int[tour.order().length + (request.isReturnToStart() ? 2 : 1)];
+        visit[0] = 0;
+        System.arraycopy(tour.order(), 0, visit, 1, tour.order().length);
+
+        CoordinateBuffer path = new CoordinateBuffer(visit.length * 4);
+        addPoint(path, stops.get(0).longitude(), stops.get(0).latitude());
+        double travelled = 0;
+        for (int k = 1; k < visit.length; k++) {
+            int from = visit[k - 1];
+            int to = visit[k];
+            Stop a = stops.get(from);
+            Stop b = stops.get(to);
+            double leg = GeometryUtils.haversineDistance(a.latitude(), a.longitude(), b.latitude(), b.longitude());
+            if (hubs[from] >= 0 && hubs[to] >= 0 && hubs[from] != hubs[to]) {
+                GraphPath hubPath = GraphSearch.shortestPath(graph, hubs[from], hubs[to], network.blocked(),
+                        network.forbidden());
+                if (hubPath != null) {
+                    for (int node : hubPath.getNodes()) {
+                        if (graph.hasLocation(node)) {
+                            addPoint(path, graph.longitude(node), graph.latitude(node));
+                        }
+                    }
+                    leg = GeometryUtils.haversineDistance(a.latitude(), a.longitude(), graph.latitude(hubs[from]),
+                            graph.longitude(hubs[from])) + hubPath.getDistance()
+                            + GeometryUtils.haversineDistance(graph.latitude(hubs[to]), graph.longitude(hubs[to]),
+                                    b.latitude(), b.longitude());
+                }
+            }
+            addPoint(path, b.longitude(), b.latitude());
+            travelled += leg;
+            if (to != 0) {
+                stopDtos.add(TourStopDTO.builder()
+                        .sequence(k)
+                        .parcelId(b.parcel().getId())
+                        .trackingCode(b.parcel().getTrackingCode())
+                        .type(b.type())
+                        .latitude(b.latitude())
+                        .longitude(b.longitude())
+                        .hubId(hubs[to] >= 0 ? graph.hubId(hubs[to]) : null)
+                        .distanceFromStartKm(travelled)
+                        .etaMinutes((int) Math.round(trafficProfileProvider.defaultMinutes(travelled)))
+                        .build());
+            }
+        }
+        if (path.size() == 1) {
+            // Every stop at the start: duplicate the point so it forms a LineString
+            path.add(path.x(0), path.y(0));
+        }
+
+        int last = visit[visit.length - 1];
+        String waypoints;
+        try {
+            waypoints = objectMapper.writeValueAsString(stopDtos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise tour stops", e);
+        }
+        return Route.builder()
+                .driverId(request.getDriverId())
+                .startHubId(hubs[0] >= 0 ? graph.hubId(hubs[0]) : null)
+                .endHubId(hubs[last] >= 0 ? graph.hubId(hubs[last]) : null)
+                .geometry(path)
+                .geometryLevels(routeGeometryLevels.precompute(path))
+                .waypoints(waypoints)
+                .totalDistanceKm(travelled)
+                .estimatedDurationMinutes((int) Math.round(trafficProfileProvider.defaultMinutes(travelled)))
+                // Marks the route as a tour: incident and off-route recalculations leave it alone
+                .routingService("TOUR")
+                .isActive(true)
+                .build();
+    }
+
+    private static void addPoint(CoordinateBuffer path, double longitude, double latitude) {
+        int size = path.size();
+        if (size == 0 || path.x(size - 1) != longitude || path.y(size - 1) != latitude) {
+            path.add(longitude, latitude);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.yowyob.delivery.route.service.imports;
+
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the lines of a CSV file into {@link ImportRow}s as they are read.
+ * <p>
+ * The first line is the header. Fields are separated by commas, or by
+ * semicolons when the header has no comma, and may be quoted with double
+ * quotes ({@code ""} inside quotes is a quote). Quoted fields may not span
+ * several lines. Blank lines are skipped.
+ */
+public final class CsvRows {
+
+    private CsvRows() {
+    }
+
+    /**
+     * @param lines the lines of the file, without line separators
+     * @return the records, in file order; a line that cannot be split carries
+     *         an {@link ImportRow#error()}
+     */
+    public static Flux<ImportRow> parse(Flux<String> lines) {
+        return Flux.defer(() -> {
+            State state = new State();
+            return lines.handle((line, sink) -> {
+                long number = ++state.lineNumber;
+                if (state.header == null) {
+                    String header = line.startsWith("\uFEFF") ? line.substring(1) : line;
+                    if (header.isBlank()) {
+                        return;
+                    }
+                    state.separator = header.indexOf(',') < 0 && header.indexOf(';') >= 0 ? ';' : ',';
+                    List<String> names = split(header, state.separator);
+                    if (names == null) {
+                        sink.error(new IllegalArgumentException("Invalid CSV header"));
+                        return;
+                    }
+                    state.header = names.stream().map(ImportRow::normalize).toList();
+                    return;
+                }
+                if (line.isBlank()) {
+                    return;
+                }
+                List<String> values = split(line, state.separator);
+                if (values == null) {
+                    sink.next(new ImportRow(number, Map.of(), List.of(),
+                            "Unterminated quoted field (fields spanning several lines are not supported)"));
+                } else if (values.size() != state.header.size()) {
+                    sink.next(new ImportRow(number, Map.of(), List.of(), "Expected " + state.header.size()
+                            + " fields but found " + values.size()));
+                } else {
+                    Map<String, String> fields = new HashMap<>();
+                    for (int i = 0; i < values.size(); i++) {
+                        fields.put(state.header.get(i), values.get(i));
+                    }
+                    sink.next(new ImportRow(number, fields, List.of(), null));
+                }
+            });
+        });
+    }
+
+    /** Parsing state of one file. */
+    private static final class State {
+        private long lineNumber;
+        private List<String> header;
+        private char separator;
+    }
+
+    /**
+     * @return the fields of a line, or null if a quote is not closed
+     */
+    static List<String> split(String line, char separator) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
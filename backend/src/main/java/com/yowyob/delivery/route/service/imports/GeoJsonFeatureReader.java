@@ -0,0 +1,151 @@
+package com.yowyob.delivery.route.service.imports;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental reader of a GeoJSON FeatureCollection.
+ * <p>
+ * Bytes are fed as they arrive to a non-blocking Jackson parser; only the
+ * tokens of the feature being read are buffered, so memory stays bounded by
+ * the largest feature whatever the size of the file. Each complete feature of
+ * the top-level {@code features} array becomes an {@link ImportRow} whose
+ * fields are its properties and whose positions are the coordinates of a
+ * Point, MultiPoint or LineString geometry.
+ * <p>
+ * Not thread-safe: feed the chunks of one file in order.
+ */
+public final class GeoJsonFeatureReader {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private int depth;
+    private boolean featuresField;
+    private boolean inFeatures;
+    private boolean sawFeatures;
+    private TokenBuffer feature;
+    private long count;
+
+    public GeoJsonFeatureReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Reads the next chunk of the file.
+     *
+     * @return the features completed by this chunk
+     */
+    public List<ImportRow> feed(byte[] bytes) {
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            return drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Signals the end of the file.
+     *
+     * @return the features completed by the last bytes
+     * @throws IllegalArgumentException if the file is not a FeatureCollection
+     */
+    public List<ImportRow> finish() {
+        try {
+            feeder.endOfInput();
+            List<ImportRow> rows = drain();
+            if (!sawFeatures || depth != 0) {
+                throw new IllegalArgumentException("Not a complete GeoJSON FeatureCollection");
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<ImportRow> drain() throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (feature != null) {
+                feature.copyCurrentEvent(parser);
+            }
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    depth++;
+                    if (token == JsonToken.START_ARRAY && depth == 2 && featuresField) {
+                        inFeatures = true;
+                    } else if (token == JsonToken.START_OBJECT && inFeatures && depth == 3) {
+                        feature = new TokenBuffer(parser);
+                        feature.copyCurrentEvent(parser);
+                    }
+                    featuresField = false;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    depth--;
+                    if (feature != null && depth == 2) {
+                        JsonNode node = objectMapper.readTree(feature.asParser());
+                        feature = null;
+                        rows.add(toRow(++count, node));
+                    } else if (inFeatures && depth == 1) {
+                        inFeatures = false;
+                        sawFeatures = true;
+                    }
+                }
+                case FIELD_NAME -> featuresField = depth == 1 && "features".equals(parser.currentName());
+                default -> featuresField = false;
+            }
+        }
+        return rows;
+    }
+
+    private static ImportRow toRow(long number, JsonNode feature) {
+        Map<String, String> fields = new HashMap<>();
+        JsonNode properties = feature.path("properties");
+        for (Iterator<Map.Entry<String, JsonNode>> it = properties.fields(); it.hasNext();) {
+            Map.Entry<String, JsonNode> property = it.next();
+            JsonNode value = property.getValue();
+            if (!value.isNull()) {
+                fields.put(ImportRow.normalize(property.getKey()),
+                        value.isValueNode() ? value.asText() : value.toString());
+            }
+        }
+
+        List<double[]> positions = new ArrayList<>();
+        JsonNode geometry = feature.path("geometry");
+        JsonNode coordinates = geometry.path("coordinates");
+        switch (geometry.path("type").asText()) {
+            case "Point" -> addPosition(positions, coordinates);
+            case "MultiPoint", "LineString" -> coordinates.forEach(position -> addPosition(positions, position));
+            default -> {
+                // Other geometries carry no position usable by an import
+            }
+        }
+        return new ImportRow(number, fields, positions, null);
+    }
+
+    private static void addPosition(List<double[]> positions, JsonNode position) {
+        if (position.size() >= 2 && position.get(0).isNumber() && position.get(1).isNumber()) {
+            positions.add(new double[] { position.get(0).asDouble(), position.get(1).asDouble() });
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.yowyob.delivery.route.service.imports;
+
+import com.yowyob.delivery.route.domain.enums.ImportFormat;
+import com.yowyob.delivery.route.domain.enums.ImportStatus;
+import com.yowyob.delivery.route.domain.enums.ImportType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import, with the file listing its rejected records.
+ * <p>
+ * Counters may be read while the import runs. Rejected records are appended
+ * to a CSV file ({@code row,error}) that lives as long as the job.
+ */
+@Slf4j
+@Getter
+public class ImportJob {
+
+    private final UUID id = UUID.randomUUID();
+    private final ImportType type;
+    private final ImportFormat format;
+    private final String fileName;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final Path errorFile;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private volatile ImportStatus status = ImportStatus.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failure;
+    @Getter(AccessLevel.NONE)
+    private BufferedWriter errors;
+
+    public ImportJob(ImportType type, ImportFormat format, String fileName) throws IOException {
+        this.type = type;
+        this.format = format;
+        this.fileName = fileName;
+        this.errorFile = Files.createTempFile("import-" + id + "-errors-", ".csv");
+        this.errors = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8);
+        this.errors.write("row,error\n");
+    }
+
+    /**
+     * Records a rejected record in the error file.
+     */
+    public synchronized void reject(long row, String error) {
+        rowsRejected.incrementAndGet();
+        if (errors == null) {
+            return;
+        }
+        try {
+            errors.write(row + ",\"" + (error == null ? "Unknown error" : error).replace("\"", "\"\"") + "\"\n");
+        } catch (IOException e) {
+            log.warn("Could not write the error file of import {}: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Makes the errors recorded so far visible in the error file.
+     */
+    public synchronized void flushErrors() {
+        if (errors != null) {
+            try {
+                errors.flush();
+            } catch (IOException e) {
+                log.warn("Could not write the error file of import {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Marks the import as finished, {@link ImportStatus#FAILED} if a failure
+     * is given, and closes the error file.
+     */
+    public synchronized void finish(String failure) {
+        this.failure = failure;
+        this.finishedAt = LocalDateTime.now();
+        this.status = failure == null ? ImportStatus.COMPLETED : ImportStatus.FAILED;
+        if (errors != null) {
+            try {
+                errors.close();
+            } catch (IOException e) {
+                log.warn("Could not close the error file of import {}: {}", id, e.getMessage());
+            }
+            errors = null;
+        }
+    }
+
+    /**
+     * Closes and deletes the error file, once the job is forgotten.
+     */
+    public synchronized void discard() {
+        if (errors != null) {
+            finish("Discarded");
+        }
+        try {
+            Files.deleteIfExists(errorFile);
+        } catch (IOException e) {
+            log.warn("Could not delete the error file of import {}: {}", id, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.yowyob.delivery.route.service.imports;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One record of an import file.
+ *
+ * @param number    line of the record in a CSV file, or position of the
+ *                  feature in a GeoJSON file, from 1
+ * @param fields    values keyed by {@link #normalize normalized} name
+ * @param positions {@code [longitude, latitude]} positions of the GeoJSON
+ *                  geometry, empty for CSV records
+ * @param error     why the record could not be read, null if it could
+ */
+public record ImportRow(long number, Map<String, String> fields, List<double[]> positions, String error) {
+
+    /**
+     * Normalizes a column or property name so that {@code sender_name},
+     * {@code senderName} and {@code Sender Name} designate the same field.
+     */
+    public static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the trimmed value of the first of the given fields that is set,
+     *         or null
+     */
+    public String get(String... names) {
+        for (String name : names) {
+            String value = fields.get(normalize(name));
+            if (value != null && !value.isBlank()) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+}
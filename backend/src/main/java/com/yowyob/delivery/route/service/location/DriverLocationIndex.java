@@ -0,0 +1,289 @@
+package com.yowyob.delivery.route.service.location;
+
+import com.yowyob.delivery.route.domain.entity.DeliveryDriver;
+import com.yowyob.delivery.route.domain.enums.DriverState;
+import com.yowyob.delivery.route.repository.DriverRepository;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import com.yowyob.delivery.route.service.strategy.GeometryUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory grid index of the last known driver positions, answering
+ * "k nearest available drivers" without a database round trip.
+ * <p>
+ * The plane is cut into square cells of {@code routing.drivers.index-cell-degrees}
+ * degrees. Each driver has one immutable entry (position, cell, availability)
+ * replaced atomically in a {@link ConcurrentHashMap}, and its ID is listed in
+ * the concurrent set of its cell, so position updates from the ingestion
+ * stream and queries run without locks. A query scans rings of cells around
+ * the point until no unseen cell can hold a closer driver.
+ * <p>
+ * Positions come from the location stream as they arrive. Availability and
+ * the positions of drivers that do not stream are reconciled from the
+ * database at a fixed interval, the most recent position winning. Longitudes
+ * are not wrapped at the antimeridian.
+ */
+@Slf4j
+@Component
+public class DriverLocationIndex {
+
+    private static final double KM_PER_DEGREE = 6371.0 * Math.PI / 180;
+
+    private final DriverRepository driverRepository;
+    private final double cellDegrees;
+    private final Map<UUID, Entry> drivers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+    /** Bounds of every cell ever used, so queries far from any driver stop early. */
+    private final AtomicInteger minRow = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger maxRow = new AtomicInteger(Integer.MIN_VALUE);
+    private final AtomicInteger minColumn = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger maxColumn = new AtomicInteger(Integer.MIN_VALUE);
+
+    /** Last known state of a driver; replaced, never mutated. */
+    private record Entry(double longitude, double latitude, long cell, boolean available,
+            LocalDateTime recordedAt) {
+    }
+
+    /**
+     * A driver found by {@link #nearest}.
+     *
+     * @param driverId   the driver
+     * @param longitude  last known longitude
+     * @param latitude   last known latitude
+     * @param distanceKm great-circle distance from the queried point
+     * @param recordedAt time of the position
+     */
+    public record NearbyDriver(UUID driverId, double longitude, double latitude, double distanceKm,
+            LocalDateTime recordedAt) {
+    }
+
+    public DriverLocationIndex(DriverRepository driverRepository,
+            @Value("${routing.drivers.index-cell-degrees:0.01}") double cellDegrees) {
+        this.driverRepository = driverRepository;
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Records a new position of a driver. An older position than the one
+     * already known is ignored. Drivers first seen here are not available
+     * until the next reconciliation tells their state.
+     */
+    public void updatePosition(UUID driverId, double longitude, double latitude, LocalDateTime recordedAt) {
+        long cell = cellOf(longitude, latitude);
+        drivers.compute(driverId, (id, current) -> {
+            if (current != null && current.recordedAt() != null && recordedAt.isBefore(current.recordedAt())) {
+                return current;
+            }
+            move(id, current, cell);
+            return new Entry(longitude, latitude, cell, current != null && current.available(), recordedAt);
+        });
+    }
+
+    /**
+     * Marks a driver available or not, e.g. once a parcel was assigned to it.
+     */
+    public void setAvailable(UUID driverId, boolean available) {
+        drivers.computeIfPresent(driverId, (id, current) -> current.available() == available ? current
+                : new Entry(current.longitude(), current.latitude(), current.cell(), available,
+                        current.recordedAt()));
+    }
+
+    /**
+     * @return number of indexed drivers, available or not
+     */
+    public int size() {
+        return drivers.size();
+    }
+
+    /**
+     * Finds the available drivers closest to a point.
+     *
+     * @param longitude     query longitude
+     * @param latitude      query latitude
+     * @param k             maximum number of drivers returned
+     * @param maxDistanceKm search radius
+     * @return the drivers, nearest first
+     */
+    public List<NearbyDriver> nearest(double longitude, double latitude, int k, double maxDistanceKm) {
+        if (k <= 0 || maxDistanceKm < 0 || drivers.isEmpty()) {
+            return List.of();
+        }
+        UUID[] ids = new UUID[k];
+        Entry[] entries = new Entry[k];
+        double[] distances = new double[k];
+        int found = 0;
+
+        int row = (int) Math.floor(latitude / cellDegrees);
+        int column = (int) Math.floor(longitude / cellDegrees);
+        double cellHeightKm = cellDegrees * KM_PER_DEGREE;
+        // Rings outside the bounds of the used cells are empty
+        int firstRing = Math.max(0, Math.max(Math.max(minRow.get() - row, row - maxRow.get()),
+                Math.max(minColumn.get() - column, column - maxColumn.get())));
+        int lastRing = Math.max(Math.max(row - minRow.get(), maxRow.get() - row),
+                Math.max(column - minColumn.get(), maxColumn.get() - column));
+        for (int ring = firstRing; ring <= lastRing; ring++) {
+            // A cell of this ring is at least ring - 1 cells away from the point
+            double widestLatitude = Math.min(89.0, Math.abs(latitude) + (ring + 1) * cellDegrees);
+            double bound = (ring - 1) * cellHeightKm * Math.cos(Math.toRadians(widestLatitude));
+            if (bound > maxDistanceKm || (found == k && bound >= distances[k - 1])) {
+                break;
+            }
+            for (int dy = -ring; dy <= ring; dy++) {
+                // Only the border of the ring: the inside was scanned by the previous rings
+                int step = dy == -ring || dy == ring ? 1 : 2 * ring;
+                for (int dx = -ring; dx <= ring; dx += step) {
+                    long cell = key(row + dy, column + dx);
+                    Set<UUID> members = cells.get(cell);
+                    if (members == null) {
+                        continue;
+                    }
+                    for (UUID id : members) {
+                        Entry entry = drivers.get(id);
+                        // Drivers that just moved are found in their new cell
+                        if (entry == null || !entry.available() || entry.cell() != cell) {
+                            continue;
+                        }
+                        double distance = GeometryUtils.haversineDistance(latitude, longitude, entry.latitude(),
+                                entry.longitude());
+                        if (distance > maxDistanceKm || (found == k && distance >= distances[k - 1])) {
+                            continue;
+                        }
+                        int i = found < k ? found++ : k - 1;
+                        while (i > 0 && distances[i - 1] > distance) {
+                            ids[i] = ids[i - 1];
+                            entries[i] = entries[i - 1];
+                            distances[i] = distances[i - 1];
+                            i--;
+                        }
+                        ids[i] = id;
+                        entries[i] = entry;
+                        distances[i] = distance;
+                    }
+                }
+            }
+        }
+
+        List<NearbyDriver> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(new NearbyDriver(ids[i], entries[i].longitude(), entries[i].latitude(), distances[i],
+                    entries[i].recordedAt()));
+        }
+        return result;
+    }
+
+    /**
+     * Reloads availability and positions from the database. Drivers that are
+     * gone or have no location any more leave the index.
+     */
+    @Scheduled(fixedDelayString = "${routing.drivers.index-refresh-interval:30s}")
+    public void refresh() {
+        try {
+            List<DeliveryDriver> all = driverRepository.findAllWithLocation().collectList().block();
+            if (all != null) {
+                reconcile(all);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the driver location index: {}", e.getMessage());
+        }
+    }
+
+    private void reconcile(List<DeliveryDriver> all) {
+        Set<UUID> seen = new HashSet<>();
+        int available = 0;
+        for (DeliveryDriver driver : all) {
+            double[] position = point(driver.getCurrentLocation());
+            if (position == null) {
+                continue;
+            }
+            seen.add(driver.getId());
+            boolean isAvailable = driver.getCurrentState() == DriverState.AVAILABLE
+                    && !Boolean.FALSE.equals(driver.getIsActive());
+            if (isAvailable) {
+                available++;
+            }
+            long cell = cellOf(position[0], position[1]);
+            drivers.compute(driver.getId(), (id, current) -> {
+                LocalDateTime stored = driver.getLastLocationUpdate();
+                // A fresher streamed position wins over the database one
+                if (current != null && current.recordedAt() != null
+                        && (stored == null || !stored.isAfter(current.recordedAt()))) {
+                    return new Entry(current.longitude(), current.latitude(), current.cell(), isAvailable,
+                            current.recordedAt());
+                }
+                move(id, current, cell);
+                return new Entry(position[0], position[1], cell, isAvailable, stored);
+            });
+        }
+        for (UUID id : drivers.keySet()) {
+            if (!seen.contains(id)) {
+                drivers.computeIfPresent(id, (key, current) -> {
+                    Set<UUID> members = cells.get(current.cell());
+                    if (members != null) {
+                        members.remove(key);
+                    }
+                    return null;
+                });
+            }
+        }
+        log.debug("Driver location index refreshed: {} drivers, {} available", drivers.size(), available);
+    }
+
+    /**
+     * Moves a driver ID between cell sets; called while its entry is locked by
+     * {@code compute}.
+     */
+    private void move(UUID id, Entry current, long cell) {
+        if (current != null && current.cell() == cell) {
+            return;
+        }
+        if (current != null) {
+            Set<UUID> previous = cells.get(current.cell());
+            if (previous != null) {
+                previous.remove(id);
+            }
+        }
+        cells.computeIfAbsent(cell, c -> {
+            int row = (int) (c >> 32);
+            int column = (int) (long) c;
+            minRow.accumulateAndGet(row, Math::min);
+            maxRow.accumulateAndGet(row, Math::max);
+            minColumn.accumulateAndGet(column, Math::min);
+            maxColumn.accumulateAndGet(column, Math::max);
+            return ConcurrentHashMap.newKeySet();
+        }).add(id);
+    }
+
+    private long cellOf(double longitude, double latitude) {
+        return key((int) Math.floor(latitude / cellDegrees), (int) Math.floor(longitude / cellDegrees));
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static double[] point(String wkt) {
+        if (wkt == null || wkt.isEmpty()) {
+            return null;
+        }
+        try {
+            CoordinateBuffer coordinates = GeometryCodec.fromWkt(wkt);
+            return coordinates.size() == 0 ? null : new double[] { coordinates.x(0), coordinates.y(0) };
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -2,138 +2,118 @@ package com.yowyob.delivery.route.service.strategy;
 
 import com.yowyob.delivery.route.controller.dto.IncidentDTO;
 import com.yowyob.delivery.route.controller.dto.RoutingConstraintsDTO;
+import com.yowyob.delivery.route.controller.exception.NoPathFoundException;
 import com.yowyob.delivery.route.domain.entity.Hub;
-import com.yowyob.delivery.route.domain.entity.HubConnection;
 import com.yowyob.delivery.route.domain.entity.Route;
-import com.yowyob.delivery.route.mapper.HubMapper;
-import com.yowyob.delivery.route.repository.HubConnectionRepository;
-import com.yowyob.delivery.route.repository.HubRepository;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.graph.BlockedEdges;
+import com.yowyob.delivery.route.service.graph.EdgeRestrictions;
+import com.yowyob.delivery.route.service.graph.GraphPath;
+import com.yowyob.delivery.route.service.graph.GraphSearch;
+import com.yowyob.delivery.route.service.graph.HubGraph;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
+import com.yowyob.delivery.route.service.graph.IncidentRegistry;
+import com.yowyob.delivery.route.service.graph.TrafficProfileProvider;
+import com.yowyob.delivery.route.service.graph.TrafficProfiles;
 import lombok.RequiredArgsConstructor;
 import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.LineString;
-import org.locationtech.jts.geom.Point;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.util.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * Routing strategy implementing the A* algorithm.
  * Extends Dijkstra's algorithm by using a heuristic function to guide the
- * search towards the destination.
+ * search towards the destination. Searches run on the resident
+ * {@link HubGraph}, skipping connections closed by active incidents (see
+ * {@link IncidentRegistry}) and those the requested vehicle may not use (see
+ * {@link EdgeRestrictions}). The heuristic is built on distances, so
+ * departure-time queries on time-dependent traffic profiles go to
+ * {@link DijkstraRoutingStrategy}.
  */
 @Component
 @RequiredArgsConstructor
 public class AStarRoutingStrategy implements RoutingStrategy {
 
-    private final HubConnectionRepository connectionRepository;
-    private final HubRepository hubRepository;
-    private final HubMapper hubMapper;
-    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private final HubGraphProvider graphProvider;
+    private final IncidentRegistry incidentRegistry;
+    private final TrafficProfileProvider trafficProfileProvider;
+    private final DijkstraRoutingStrategy dijkstraRoutingStrategy;
 
     /**
      * {@inheritDoc}
-     * Executes A* search using Euclidean distance as the heuristic (h-score).
+     * Executes A* search using the straight-line distance as the heuristic
+     * (h-score), see {@link GraphSearch#aStarPath}.
      */
     @Override
     public Mono<Route> calculateOptimalRoute(Hub start, Hub end, RoutingConstraintsDTO constraints) {
-        return Mono.zip(hubRepository.findAll().collectList(), connectionRepository.findAll().collectList())
-                .flatMap(tuple -> {
-                    List<Hub> allHubs = tuple.getT1();
-                    List<HubConnection> allConnections = tuple.getT2();
-
-                    Map<UUID, Double> gScore = new HashMap<>();
-                    Map<UUID, Double> fScore = new HashMap<>();
-                    Map<UUID, UUID> previous = new HashMap<>();
-                    PriorityQueue<HubScore> pq = new PriorityQueue<>(Comparator.comparing(HubScore::getFScore));
-
-                    for (Hub hub : allHubs) {
-                        gScore.put(hub.getId(), Double.MAX_VALUE);
-                        fScore.put(hub.getId(), Double.MAX_VALUE);
-                    }
-
-                    gScore.put(start.getId(), 0.0);
-                    double hStart = calculateHeuristic(start, end);
-                    fScore.put(start.getId(), hStart);
-                    pq.add(new HubScore(start, hStart));
-
-                    while (!pq.isEmpty()) {
-                        Hub current = pq.poll().getHub();
-                        if (current.getId().equals(end.getId()))
-                            break;
-
-                        allConnections.stream()
-                                .filter(c -> c.getFromHubId().equals(current.getId()))
-                                .forEach(connection -> {
-                                    UUID neighborId = connection.getToHubId();
-                                    double tentativeGScore = gScore.get(current.getId()) + connection.getWeight();
-
-                                    if (tentativeGScore < gScore.get(neighborId)) {
-                                        previous.put(neighborId, current.getId());
-                                        gScore.put(neighborId, tentativeGScore);
-                                        Hub neighbor = allHubs.stream().filter(h -> h.getId().equals(neighborId))
-                                                .findFirst().orElseThrow();
-                                        double hNeighbor = calculateHeuristic(neighbor, end);
-                                        fScore.put(neighborId, tentativeGScore + hNeighbor);
-
-                                        if (pq.stream().noneMatch(hs -> hs.getHub().getId().equals(neighborId))) {
-                                            pq.add(new HubScore(neighbor, fScore.get(neighborId)));
-                                        }
-                                    }
-                                });
-                    }
-
-                    return buildRouteFromPath(start, end, previous, gScore.get(end.getId()), allHubs);
-                });
+        LocalDateTime departure = constraints != null ? constraints.getDepartureTime() : null;
+        int forbidden;
+        try {
+            forbidden = EdgeRestrictions.forbiddenMask(constraints);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        return calculateRouteWithExclusions(start.getId(), end.getId(), null, departure, forbidden)
+                .switchIfEmpty(Mono.defer(() -> dijkstraRoutingStrategy.calculateOptimalRoute(start, end,
+                        constraints)));
     }
 
     /**
-     * Calculates the heuristic estimate (h-score) using straight-line distance.
-     *
-     * @param hub current hub
-     * @param end destination hub
-     * @return the Euclidean distance between points
+     * @return the route, or an empty Mono when the departure needs a
+     *         time-dependent search
      */
-    private double calculateHeuristic(Hub hub, Hub end) {
-        Point p1 = hubMapper.wktToPoint(hub.getLocation());
-        Point p2 = hubMapper.wktToPoint(end.getLocation());
-        return p1 != null && p2 != null ? p1.distance(p2) : 0.0;
+    private Mono<Route> calculateRouteWithExclusions(UUID startId, UUID endId, IncidentDTO incident,
+            LocalDateTime departure, int forbidden) {
+        return graphProvider.getGraph()
+                .flatMap(graph -> Mono.zip(incidentRegistry.getBlockedEdges(graph),
+                        trafficProfileProvider.getProfiles(graph)))
+                .flatMap(tuple -> {
+                    BlockedEdges registered = tuple.getT1();
+                    TrafficProfiles profiles = tuple.getT2();
+                    if (departure != null && !profiles.isUniform()) {
+                        return Mono.empty();
+                    }
+                    HubGraph graph = registered.getGraph();
+                    // An incident reported with the request is added on top of the registered ones
+                    BlockedEdges blocked = registered;
+                    if (incident != null && incident.getLineStart() != null && incident.getLineEnd() != null
+                            && incident.getBufferDistance() != null) {
+                        blocked = registered.with(incident.getLineStart().getLatitude(),
+                                incident.getLineStart().getLongitude(), incident.getLineEnd().getLatitude(),
+                                incident.getLineEnd().getLongitude(), incident.getBufferDistance());
+                    }
+                    GraphPath path = GraphSearch.aStarPath(graph, graph.indexOf(startId), graph.indexOf(endId),
+                            blocked.isEmpty() ? null : blocked.asBitSet(), forbidden);
+                    if (path == null) {
+                        return Mono.error(new NoPathFoundException("No path found between hubs"));
+                    }
+                    return buildRoute(graph, path, profiles, TrafficProfileProvider.minuteOfDay(departure));
+                });
     }
 
     /**
-     * Reconstructs the {@link Route} object by backtracking through the search
-     * tree.
+     * Converts a graph path into a {@link Route}.
      *
-     * @param start         origin
-     * @param end           destination
-     * @param previous      map of path predecessors
-     * @param totalDistance accumulated g-score
-     * @param allHubs       helper list for point lookup
-     * @return a Mono emitting the final route
+     * @param graph           the graph the path was computed on
+     * @param path            node path and accumulated weight
+     * @param profiles        traffic profiles used to time the path
+     * @param departureMinute departure time in minutes since midnight
+     * @return a Mono emitting the assembled route
      */
-    private Mono<Route> buildRouteFromPath(Hub start, Hub end, Map<UUID, UUID> previous, Double totalDistance,
-            List<Hub> allHubs) {
-        if (!previous.containsKey(end.getId()) && !start.getId().equals(end.getId())) {
-            return Mono.error(new RuntimeException("No path found"));
-        }
-
-        List<Coordinate> coordinates = new ArrayList<>();
-        UUID currentId = end.getId();
-        while (currentId != null) {
-            final UUID finalId = currentId;
-            Hub hub = allHubs.stream().filter(h -> h.getId().equals(finalId)).findFirst().orElseThrow();
-            Point pt = hubMapper.wktToPoint(hub.getLocation());
-            coordinates.add(0, pt.getCoordinate());
-            currentId = previous.get(currentId);
+    private Mono<Route> buildRoute(HubGraph graph, GraphPath path, TrafficProfiles profiles,
+            double departureMinute) {
+        Coordinate[] coordinates = graph.toCoordinates(path.getNodes());
+        if (coordinates.length < 2) {
+            return Mono.error(new NoPathFoundException("No path found between hubs"));
         }
-
-        LineString path = geometryFactory.createLineString(coordinates.toArray(new Coordinate[0]));
-
         return Mono.just(Route.builder()
-                .routeGeometry(path.toText())
-                .totalDistanceKm(totalDistance)
-                .estimatedDurationMinutes((int) (totalDistance * 10))
+                .geometry(CoordinateBuffer.of(coordinates))
+                .totalDistanceKm(path.getDistance())
+                .estimatedDurationMinutes((int) Math.round(profiles.pathMinutes(path.getNodes(), departureMinute)))
+                .trafficFactor(DijkstraRoutingStrategy.trafficFactor(profiles, path.getNodes(), departureMinute))
                 .routingService("ASTAR")
                 .isActive(true)
                 .build());
@@ -141,40 +121,43 @@ public class AStarRoutingStrategy implements RoutingStrategy {
 
     /**
      * {@inheritDoc}
-     * Recalculates the route using A* algorithm with the stored start and end hubs.
+     * Recalculates the route using A* with the stored start and end hubs, with
+     * the incident area excluded.
      */
     @Override
     public Mono<Route> recalculateRoute(Route currentRoute, IncidentDTO incident) {
+        return recalculateRoute(currentRoute, incident, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Connections the vehicle of the constraints may not use are skipped, as
+     * in {@link #calculateOptimalRoute}.
+     */
+    @Override
+    public Mono<Route> recalculateRoute(Route currentRoute, IncidentDTO incident, RoutingConstraintsDTO constraints) {
         if (currentRoute.getStartHubId() == null || currentRoute.getEndHubId() == null) {
             // Fallback for legacy routes without stored hubs
             return Mono.just(currentRoute);
         }
+        int forbidden;
+        try {
+            forbidden = EdgeRestrictions.forbiddenMask(constraints);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
 
-        return Mono.zip(
-            hubRepository.findById(currentRoute.getStartHubId()),
-            hubRepository.findById(currentRoute.getEndHubId())
-        ).flatMap(tuple -> {
-             // Recalculate using A* - the heuristic will naturally find alternative paths
-             return calculateOptimalRoute(tuple.getT1(), tuple.getT2(), null)
-                 .map(newRoute -> {
-                     newRoute.setId(currentRoute.getId());
-                     newRoute.setParcelId(currentRoute.getParcelId());
-                     newRoute.setDriverId(currentRoute.getDriverId());
-                     newRoute.setStartHubId(currentRoute.getStartHubId());
-                     newRoute.setEndHubId(currentRoute.getEndHubId());
-                     newRoute.setCreatedAt(currentRoute.getCreatedAt());
-                     newRoute.setRoutingService("ASTAR_RECALC"); // Mark as recalculated
-                     return newRoute;
-                 });
-        });
-    }
-
-    /**
-     * Helper class representing a hub and its current A* f-score (g + h).
-     */
-    @lombok.Value
-    private static class HubScore {
-        Hub hub;
-        Double fScore;
+        return calculateRouteWithExclusions(currentRoute.getStartHubId(), currentRoute.getEndHubId(), incident,
+                null, forbidden)
+                .map(newRoute -> {
+                    newRoute.setId(currentRoute.getId());
+                    newRoute.setParcelId(currentRoute.getParcelId());
+                    newRoute.setDriverId(currentRoute.getDriverId());
+                    newRoute.setStartHubId(currentRoute.getStartHubId());
+                    newRoute.setEndHubId(currentRoute.getEndHubId());
+                    newRoute.setCreatedAt(currentRoute.getCreatedAt());
+                    newRoute.setRoutingService("ASTAR_RECALC"); // Mark as recalculated
+                    return newRoute;
+                });
     }
 }
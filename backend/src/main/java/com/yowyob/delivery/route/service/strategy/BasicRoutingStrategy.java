@@ -6,6 +6,7 @@ import com.yowyob.delivery.route.domain.entity.Hub;
 import com.yowyob.delivery.route.domain.entity.Route;
 import com.yowyob.delivery.route.mapper.HubMapper;
 import com.yowyob.delivery.route.repository.HubRepository;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
 import lombok.RequiredArgsConstructor;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -43,11 +44,10 @@ public class BasicRoutingStrategy implements RoutingStrategy {
                 startPt.getCoordinate(),
                 endPt.getCoordinate()
         };
-        LineString path = geometryFactory.createLineString(coordinates);
         double distance = startPt.distance(endPt);
 
         return Mono.just(Route.builder()
-                .routeGeometry(path.toText())
+                .geometry(CoordinateBuffer.of(coordinates))
                 .totalDistanceKm(distance)
                 .estimatedDurationMinutes((int) (distance * 10))
                 .routingService("BASIC")
@@ -0,0 +1,134 @@
+package com.yowyob.delivery.route.service.strategy;
+
+import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.controller.dto.RoutingConstraintsDTO;
+import com.yowyob.delivery.route.controller.exception.NoPathFoundException;
+import com.yowyob.delivery.route.domain.entity.Hub;
+import com.yowyob.delivery.route.domain.entity.Route;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.graph.ContractionHierarchyProvider;
+import com.yowyob.delivery.route.service.graph.EdgeRestrictions;
+import com.yowyob.delivery.route.service.graph.GraphPath;
+import com.yowyob.delivery.route.service.graph.HubGraph;
+import com.yowyob.delivery.route.service.graph.HubGraphProvider;
+import com.yowyob.delivery.route.service.graph.IncidentRegistry;
+import com.yowyob.delivery.route.service.graph.TrafficProfileProvider;
+import com.yowyob.delivery.route.service.graph.TrafficProfiles;
+import lombok.RequiredArgsConstructor;
+import org.locationtech.jts.geom.Coordinate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Routing strategy answering shortest-path queries on a precomputed
+ * Contraction Hierarchy of the hub network.
+ * Produces the same paths as {@link DijkstraRoutingStrategy} while settling
+ * only a handful of nodes per query. Incident-aware recalculations change the
+ * graph, so they are delegated to Dijkstra, as are queries whose path crosses
+ * an edge closed by a registered incident. Shortcuts are built on distances, so
+ * departure-time queries on time-dependent traffic profiles also go to
+ * Dijkstra. Shortcuts also ignore vehicle restrictions: an unrestricted
+ * shortest path that the vehicle may use is still optimal for it, otherwise
+ * the query is answered by Dijkstra on the allowed edges.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContractionHierarchyRoutingStrategy implements RoutingStrategy {
+
+    private final HubGraphProvider graphProvider;
+    private final ContractionHierarchyProvider hierarchyProvider;
+    private final DijkstraRoutingStrategy dijkstraRoutingStrategy;
+    private final IncidentRegistry incidentRegistry;
+    private final TrafficProfileProvider trafficProfileProvider;
+
+    /**
+     * {@inheritDoc}
+     * Runs a bidirectional upward search on the contracted graph and unpacks
+     * the shortcuts of the resulting path.
+     */
+    @Override
+    public Mono<Route> calculateOptimalRoute(Hub start, Hub end, RoutingConstraintsDTO constraints) {
+        LocalDateTime departure = constraints != null ? constraints.getDepartureTime() : null;
+        int forbidden;
+        try {
+            forbidden = EdgeRestrictions.forbiddenMask(constraints);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(e);
+        }
+        return graphProvider.getGraph()
+                .flatMap(graph -> Mono.zip(hierarchyProvider.getHierarchy(graph),
+                        incidentRegistry.getBlockedEdges(graph), trafficProfileProvider.getProfiles(graph))
+                        .flatMap(tuple -> {
+                            TrafficProfiles profiles = tuple.getT3();
+                            if (departure != null && !profiles.isUniform()) {
+                                return dijkstraRoutingStrategy.calculateOptimalRoute(start, end, constraints);
+                            }
+                            int source = graph.indexOf(start.getId());
+                            int target = graph.indexOf(end.getId());
+                            if (source < 0 || target < 0) {
+                                return Mono.error(new NoPathFoundException("No path found between hubs"));
+                            }
+                            GraphPath path = tuple.getT1().query(source, target);
+                            if (path == null) {
+                                return Mono.error(new NoPathFoundException("No path found between hubs"));
+                            }
+                            if (tuple.getT2().blocksPath(path.getNodes())
+                                    || !isAllowed(graph, path.getNodes(), forbidden)) {
+                                // The shortcuts ignore incidents and restrictions: search the open edges instead
+                                return dijkstraRoutingStrategy.calculateOptimalRoute(start, end, constraints);
+                            }
+                            return Mono.just(toRoute(graph, path, profiles,
+                                    TrafficProfileProvider.minuteOfDay(departure)));
+                        }));
+    }
+
+    private static boolean isAllowed(HubGraph graph, int[] nodes, int forbidden) {
+        if (forbidden == EdgeRestrictions.NONE) {
+            return true;
+        }
+        for (int i = 1; i < nodes.length; i++) {
+            int edge = graph.edgeBetween(nodes[i - 1], nodes[i]);
+            if (edge >= 0 && !graph.isAllowed(edge, forbidden)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Route toRoute(HubGraph graph, GraphPath path, TrafficProfiles profiles, double departureMinute) {
+        Coordinate[] coordinates = graph.toCoordinates(path.getNodes());
+        if (coordinates.length < 2) {
+            throw new NoPathFoundException("No path found between hubs");
+        }
+        return Route.builder()
+                .geometry(CoordinateBuffer.of(coordinates))
+                .totalDistanceKm(path.getDistance())
+                .estimatedDurationMinutes((int) Math.round(profiles.pathMinutes(path.getNodes(), departureMinute)))
+                .trafficFactor(DijkstraRoutingStrategy.trafficFactor(profiles, path.getNodes(), departureMinute))
+                .routingService("CH")
+                .isActive(true)
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Incidents invalidate the precomputed shortcuts, so recalculation falls back
+     * to Dijkstra with the incident area excluded.
+     */
+    @Override
+    public Mono<Route> recalculateRoute(Route currentRoute, IncidentDTO incident) {
+        return dijkstraRoutingStrategy.recalculateRoute(currentRoute, incident);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Falls back to Dijkstra, which skips the connections the vehicle may not
+     * use.
+     */
+    @Override
+    public Mono<Route> recalculateRoute(Route currentRoute, IncidentDTO incident, RoutingConstraintsDTO constraints) {
+        return dijkstraRoutingStrategy.recalculateRoute(currentRoute, incident, constraints);
+    }
+}
@@ -32,10 +32,28 @@ public class GeometryUtils {
             return false;
         }
 
+        return isPointInSegmentBuffer(pointLat, pointLng,
+                lineStart.getLatitude(), lineStart.getLongitude(),
+                lineEnd.getLatitude(), lineEnd.getLongitude(), bufferMeters);
+    }
+
+    /**
+     * Check if a point is within the buffer zone of a line segment given by its
+     * end coordinates
+     *
+     * @param bufferMeters Buffer distance in meters
+     * @return true if the point is within the buffer zone
+     */
+    public static boolean isPointInSegmentBuffer(
+            double pointLat, double pointLng,
+            double segStartLat, double segStartLng,
+            double segEndLat, double segEndLng,
+            double bufferMeters) {
+
         double distance = pointToSegmentDistance(
                 pointLat, pointLng,
-                lineStart.getLatitude(), lineStart.getLongitude(),
-                lineEnd.getLatitude(), lineEnd.getLongitude());
+                segStartLat, segStartLng,
+                segEndLat, segEndLng);
 
         // Convert buffer from meters to kilometers for comparison
         double bufferKm = bufferMeters / 1000.0;
@@ -125,6 +143,26 @@ public class GeometryUtils {
             return false;
         }
 
+        return doesSegmentIntersectIncident(routeStartLat, routeStartLng, routeEndLat, routeEndLng,
+                incident.getLineStart().getLatitude(), incident.getLineStart().getLongitude(),
+                incident.getLineEnd().getLatitude(), incident.getLineEnd().getLongitude(),
+                incident.getBufferDistance());
+    }
+
+    /**
+     * Check if a route segment intersects the buffer zone of an incident segment
+     * given by its end coordinates
+     *
+     * @param bufferMeters Incident buffer distance in meters
+     * @return true if the route segment intersects the incident buffer
+     */
+    public static boolean doesSegmentIntersectIncident(
+            double routeStartLat, double routeStartLng,
+            double routeEndLat, double routeEndLng,
+            double incidentStartLat, double incidentStartLng,
+            double incidentEndLat, double incidentEndLng,
+            double bufferMeters) {
+
         // Robust check for crossing/intersection using JTS
         try {
             Coordinate[] routeCoords = new Coordinate[] {
@@ -134,8 +172,8 @@ public class GeometryUtils {
             LineString routeLine = geometryFactory.createLineString(routeCoords);
 
             Coordinate[] incidentCoords = new Coordinate[] {
-                    new Coordinate(incident.getLineStart().getLongitude(), incident.getLineStart().getLatitude()),
-                    new Coordinate(incident.getLineEnd().getLongitude(), incident.getLineEnd().getLatitude())
+                    new Coordinate(incidentStartLng, incidentStartLat),
+                    new Coordinate(incidentEndLng, incidentEndLat)
             };
             LineString incidentLine = geometryFactory.createLineString(incidentCoords);
 
@@ -147,29 +185,29 @@ public class GeometryUtils {
         }
 
         // Check if route start or end point is within incident buffer
-        if (isPointInLineBuffer(routeStartLat, routeStartLng,
-                incident.getLineStart(), incident.getLineEnd(), incident.getBufferDistance())) {
+        if (isPointInSegmentBuffer(routeStartLat, routeStartLng,
+                incidentStartLat, incidentStartLng, incidentEndLat, incidentEndLng, bufferMeters)) {
             return true;
         }
 
-        if (isPointInLineBuffer(routeEndLat, routeEndLng,
-                incident.getLineStart(), incident.getLineEnd(), incident.getBufferDistance())) {
+        if (isPointInSegmentBuffer(routeEndLat, routeEndLng,
+                incidentStartLat, incidentStartLng, incidentEndLat, incidentEndLng, bufferMeters)) {
             return true;
         }
 
         // Check middle point of route
         double midLat = (routeStartLat + routeEndLat) / 2;
         double midLng = (routeStartLng + routeEndLng) / 2;
-        if (isPointInLineBuffer(midLat, midLng,
-                incident.getLineStart(), incident.getLineEnd(), incident.getBufferDistance())) {
+        if (isPointInSegmentBuffer(midLat, midLng,
+                incidentStartLat, incidentStartLng, incidentEndLat, incidentEndLng, bufferMeters)) {
             return true;
         }
 
         // Check if incident line endpoints are within route buffer
         // (This handles cases where incident line crosses the route)
-        double routeBufferKm = incident.getBufferDistance() / 1000.0;
+        double routeBufferKm = bufferMeters / 1000.0;
         double distToIncidentStart = pointToSegmentDistance(
-                incident.getLineStart().getLatitude(), incident.getLineStart().getLongitude(),
+                incidentStartLat, incidentStartLng,
                 routeStartLat, routeStartLng, routeEndLat, routeEndLng);
 
         if (distToIncidentStart <= routeBufferKm) {
@@ -177,7 +215,7 @@ public class GeometryUtils {
         }
 
         double distToIncidentEnd = pointToSegmentDistance(
-                incident.getLineEnd().getLatitude(), incident.getLineEnd().getLongitude(),
+                incidentEndLat, incidentEndLng,
                 routeStartLat, routeStartLng, routeEndLat, routeEndLng);
         return distToIncidentEnd <= routeBufferKm;
     }
@@ -1,47 +1,41 @@
 package com.yowyob.delivery.route.service.strategy;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yowyob.delivery.route.client.OsrmClient;
+import com.yowyob.delivery.route.client.OsrmRoute;
 import com.yowyob.delivery.route.controller.dto.IncidentDTO;
 import com.yowyob.delivery.route.controller.dto.RoutingConstraintsDTO;
 import com.yowyob.delivery.route.domain.entity.Hub;
 import com.yowyob.delivery.route.domain.entity.Route;
 import com.yowyob.delivery.route.mapper.HubMapper;
-import com.yowyob.delivery.route.repository.HubRepository;
+import com.yowyob.delivery.route.service.cache.HubCache;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.io.WKTReader;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Routing strategy using OSRM (Open Source Routing Machine) API.
- * Fetches real-world driving routes.
+ * Fetches real-world driving routes through the caching {@link OsrmClient}.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OsrmRoutingStrategy implements RoutingStrategy {
 
-    private final WebClient.Builder webClientBuilder;
+    private final OsrmClient osrmClient;
     private final HubMapper hubMapper;
     private final GeometryFactory geometryFactory = new GeometryFactory();
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final WKTReader wktReader = new WKTReader();
-    private final HubRepository hubRepository;
-
-    @Value("${osrm.api-url:http://router.project-osrm.org/route/v1/driving}")
-    private String osrmApiUrl;
+    private final HubCache hubCache;
 
     @Override
     public Mono<Route> calculateOptimalRoute(Hub start, Hub end, RoutingConstraintsDTO constraints) {
@@ -51,73 +45,34 @@ public class OsrmRoutingStrategy implements RoutingStrategy {
             org.locationtech.jts.geom.Point endPoint = (org.locationtech.jts.geom.Point) wktReader
                     .read(end.getLocation());
 
-            // Prepare coordinates for OSRM: longitude,latitude;longitude,latitude
-            String coordinates = String.format(java.util.Locale.US, "%f,%f;%f,%f",
-                    startPoint.getX(), startPoint.getY(),
-                    endPoint.getX(), endPoint.getY());
-
-            String url = String.format("%s/%s?overview=full&geometries=geojson", osrmApiUrl, coordinates);
-
-            log.info("Requesting OSRM route: {}", url);
-
-            return webClientBuilder.build()
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .flatMap(json -> parseOsrmResponse(json, startPoint, endPoint, start.getId(), end.getId()));
+            return osrmClient.route(List.of(startPoint.getCoordinate(), endPoint.getCoordinate()))
+                    .flatMap(osrmRoute -> toRoute(osrmRoute, startPoint, endPoint, start.getId(), end.getId()));
         } catch (Exception e) {
             return Mono.error(new RuntimeException("Failed to parse hub locations", e));
         }
     }
 
-    private Mono<Route> parseOsrmResponse(String jsonResponse, org.locationtech.jts.geom.Point startPoint,
+    private Mono<Route> toRoute(OsrmRoute osrmRoute, org.locationtech.jts.geom.Point startPoint,
             org.locationtech.jts.geom.Point endPoint, java.util.UUID startHubId, java.util.UUID endHubId) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonResponse);
-            JsonNode routesNode = root.path("routes");
-
-            if (routesNode.isEmpty()) {
-                return Mono.error(new RuntimeException("No route found by OSRM"));
-            }
-
-            JsonNode primaryRoute = routesNode.get(0);
-            double distanceMeters = primaryRoute.path("distance").asDouble();
-            double durationSeconds = primaryRoute.path("duration").asDouble();
-            JsonNode geometryNode = primaryRoute.path("geometry");
-
-            // Convert GeoJSON LineString to WKT or JTS Geometry
-            // OSRM returns coordinates as [lon, lat]
-            List<Coordinate> coordinates = new ArrayList<>();
-            JsonNode coordsArray = geometryNode.path("coordinates");
-            for (JsonNode coordNode : coordsArray) {
-                double lon = coordNode.get(0).asDouble();
-                double lat = coordNode.get(1).asDouble();
-                coordinates.add(new Coordinate(lon, lat));
-            }
-
-            if (coordinates.size() < 2) {
-                // Determine if fallback is needed, but for now just error or create simple line
-                coordinates.add(new Coordinate(startPoint.getX(), startPoint.getY()));
-                coordinates.add(new Coordinate(endPoint.getX(), endPoint.getY()));
-            }
-
-            LineString lineString = geometryFactory.createLineString(coordinates.toArray(new Coordinate[0]));
-
-            return Mono.just(Route.builder()
-                    .routeGeometry(lineString.toText())
-                    .totalDistanceKm(distanceMeters / 1000.0)
-                    .estimatedDurationMinutes((int) (durationSeconds / 60))
-                    .routingService("OSRM")
-                    .isActive(true)
-                    .startHubId(startHubId)
-                    .endHubId(endHubId)
-                    .build());
-
-        } catch (Exception e) {
-            log.error("Failed to parse OSRM response", e);
-            return Mono.error(new RuntimeException("Failed to process routing response", e));
+        // OSRM returns coordinates as [lon, lat], already collected by the streaming parser
+        // The parsed route may be shared by coalesced requests, so it is never modified
+        CoordinateBuffer coordinates = osrmRoute.getGeometry();
+        if (coordinates.size() < 2) {
+            // Determine if fallback is needed, but for now just error or create simple line
+            coordinates = new CoordinateBuffer(2);
+            coordinates.add(startPoint.getX(), startPoint.getY());
+            coordinates.add(endPoint.getX(), endPoint.getY());
         }
+
+        return Mono.just(Route.builder()
+                .geometry(coordinates)
+                .totalDistanceKm(osrmRoute.getDistanceMeters() / 1000.0)
+                .estimatedDurationMinutes((int) (osrmRoute.getDurationSeconds() / 60))
+                .routingService("OSRM")
+                .isActive(true)
+                .startHubId(startHubId)
+                .endHubId(endHubId)
+                .build());
     }
 
     @Override
@@ -136,36 +91,34 @@ public class OsrmRoutingStrategy implements RoutingStrategy {
         }
 
         return Mono.zip(
-                hubRepository.findById(currentRoute.getStartHubId()),
-                hubRepository.findById(currentRoute.getEndHubId())).flatMap(tuple -> {
+                hubCache.get(currentRoute.getStartHubId()),
+                hubCache.get(currentRoute.getEndHubId())).flatMap(tuple -> {
+                    if (!tuple.getT2().hasLocation()) {
+                        return Mono.error(new IllegalArgumentException(
+                                "Hub " + currentRoute.getEndHubId() + " has no location"));
+                    }
                     try {
-                        Hub startHub = tuple.getT1();
-                        Hub endHub = tuple.getT2();
+                        Hub startHub = tuple.getT1().hub();
+                        Hub endHub = tuple.getT2().hub();
 
                         // Extract current position from route geometry (first point)
-                        String wkt = currentRoute.getRouteGeometry();
-                        if (wkt == null || !wkt.startsWith("LINESTRING")) {
+                        CoordinateBuffer routeLine = GeometryCodec.pathOf(currentRoute);
+                        if (routeLine == null) {
                             log.warn("Invalid route geometry");
                             return Mono.just(currentRoute);
                         }
-
-                        // Parse WKT to get current position (first coordinate) using WKTReader
-                        LineString routeLine = (LineString) wktReader.read(wkt);
-                        if (routeLine.getNumPoints() < 2) {
+                        if (routeLine.size() < 2) {
                             log.warn("Route geometry has insufficient points");
                             return Mono.just(currentRoute);
                         }
 
                         // Current position is the first point in the route
-                        Coordinate firstCoord = routeLine.getCoordinateN(0);
-                        double currentLng = firstCoord.x;
-                        double currentLat = firstCoord.y;
+                        double currentLng = routeLine.x(0);
+                        double currentLat = routeLine.y(0);
 
                         // End position
-                        org.locationtech.jts.geom.Point endPoint = (org.locationtech.jts.geom.Point) wktReader
-                                .read(endHub.getLocation());
-                        double endLng = endPoint.getX();
-                        double endLat = endPoint.getY();
+                        double endLng = tuple.getT2().longitude();
+                        double endLat = tuple.getT2().latitude();
 
                         log.info("Current position: ({}, {})", currentLng, currentLat);
                         log.info("End position: ({}, {})", endLng, endLat);
@@ -239,24 +192,18 @@ public class OsrmRoutingStrategy implements RoutingStrategy {
                                 bufferDeg);
 
                         // Create OSRM request with 3 points: current position -> waypoint -> end
-                        String coordinates = String.format(java.util.Locale.US, "%f,%f;%f,%f;%f,%f",
-                                currentLng, currentLat,
-                                waypointLng, waypointLat,
-                                endLng, endLat);
-
-                        String url = String.format("%s/%s?overview=full&geometries=geojson", osrmApiUrl, coordinates);
-                        log.info("Requesting OSRM detour route: {}", url);
-
-                        return webClientBuilder.build()
-                                .get()
-                                .uri(url)
-                                .retrieve()
-                                .bodyToMono(String.class)
-                                .flatMap(json -> {
+                        log.info("Requesting OSRM detour route");
+                        return osrmClient.route(List.of(
+                                new Coordinate(currentLng, currentLat),
+                                new Coordinate(waypointLng, waypointLat),
+                                new Coordinate(endLng, endLat)))
+                                .flatMap(osrmRoute -> {
                                     try {
                                         org.locationtech.jts.geom.Point startPoint = geometryFactory
                                                 .createPoint(new Coordinate(currentLng, currentLat));
-                                        return parseOsrmResponse(json, startPoint, endPoint, startHub.getId(),
+                                        org.locationtech.jts.geom.Point endPoint = geometryFactory
+                                                .createPoint(new Coordinate(endLng, endLat));
+                                        return toRoute(osrmRoute, startPoint, endPoint, startHub.getId(),
                                                 endHub.getId());
                                     } catch (Exception e) {
                                         log.error("Failed to parse detour response", e);
@@ -291,21 +238,12 @@ public class OsrmRoutingStrategy implements RoutingStrategy {
                     .read(end.getLocation());
 
             // Create OSRM request with 3 points: start -> waypoint -> end
-            String coordinates = String.format(java.util.Locale.US, "%f,%f;%f,%f;%f,%f",
-                    startPoint.getX(), startPoint.getY(),
-                    waypointLng, waypointLat,
-                    endPoint.getX(), endPoint.getY());
-
-            String url = String.format("%s/%s?overview=full&geometries=geojson", osrmApiUrl, coordinates);
-
-            log.info("Requesting OSRM route with detour waypoint: {}", url);
-
-            return webClientBuilder.build()
-                    .get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .flatMap(json -> parseOsrmResponse(json, startPoint, endPoint, start.getId(), end.getId()))
+            log.info("Requesting OSRM route with detour waypoint");
+            return osrmClient.route(List.of(
+                    startPoint.getCoordinate(),
+                    new Coordinate(waypointLng, waypointLat),
+                    endPoint.getCoordinate()))
+                    .flatMap(osrmRoute -> toRoute(osrmRoute, startPoint, endPoint, start.getId(), end.getId()))
                     .map(newRoute -> {
                         newRoute.setId(currentRoute.getId());
                         newRoute.setParcelId(currentRoute.getParcelId());
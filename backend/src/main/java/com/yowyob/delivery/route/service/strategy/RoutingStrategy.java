@@ -31,4 +31,20 @@ public interface RoutingStrategy {
      * @return a Mono emitting the adjusted route
      */
     Mono<Route> recalculateRoute(Route currentRoute, IncidentDTO incident);
+
+    /**
+     * Updates an existing route in response to a real-time incident, for the
+     * vehicle described by the constraints. Strategies that cannot restrict
+     * their search to a vehicle ignore the constraints.
+     *
+     * @param currentRoute the route to be recalculated
+     * @param incident     details about the disruption (linear or circular)
+     * @param constraints  vehicle type, weight and other restrictions of the
+     *                     route, may be {@code null}
+     * @return a Mono emitting the adjusted route
+     */
+    default Mono<Route> recalculateRoute(Route currentRoute, IncidentDTO incident,
+            RoutingConstraintsDTO constraints) {
+        return recalculateRoute(currentRoute, incident);
+    }
 }
@@ -0,0 +1,497 @@
+package com.yowyob.delivery.route.service.tour;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Orders the stops of a single-vehicle tour with pickup-before-delivery
+ * precedence (a small pickup-and-delivery TSP).
+ * <p>
+ * Node 0 is the start of the tour and nodes {@code 1..n-1} are the stops. A
+ * stop may name one other stop that has to be visited before it (its pickup);
+ * chains longer than a pair are not supported. The tour either ends at its
+ * last stop or returns to the start.
+ * <p>
+ * A solve builds a tour by cheapest insertion, improves it with 2-opt segment
+ * reversals and Or-opt chain moves, then runs a large neighbourhood search
+ * (remove some requests, reinsert them cheaply, re-optimise) until the
+ * deadline. Everything works on primitive arrays; the optimizer itself is
+ * immutable, so several solves with different seeds can run in parallel.
+ */
+public final class TourOptimizer {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_CHAIN = 3;
+    private static final int MAX_REMOVED = 15;
+
+    /** Nodes including the start; the virtual tour end is node {@code n}. */
+    private final int n;
+    private final int size;
+    private final double[] cost;
+    private final int[] required;
+    /** Requests: first stop of each request, and its delivery or -1. */
+    private final int[] requestFirst;
+    private final int[] requestSecond;
+    private final int[] requestOf;
+
+    /**
+     * @param matrix        travel costs, row-major {@code n x n}, node 0 being
+     *                      the start of the tour
+     * @param n             number of nodes, start included
+     * @param required      for each node, the node that must be visited
+     *                      before it, or -1
+     * @param returnToStart whether the tour ends back at the start
+     * @throws IllegalArgumentException if the precedence relation is not made
+     *                                  of disjoint pairs
+     */
+    public TourOptimizer(double[] matrix, int n, int[] required, boolean returnToStart) {
+        if (matrix.length != n * n || required.length != n) {
+            throw new IllegalArgumentException("Matrix and precedence sizes do not match " + n + " nodes");
+        }
+        this.n = n;
+        this.size = n + 1;
+        this.cost = new double[size * size];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(matrix, i * n, cost, i * size, n);
+            // Reaching the virtual end is free for an open tour
+            cost[i * size + n] = returnToStart ? matrix[i * n] : 0;
+        }
+        this.required = required.clone();
+
+        int[] dependent = new int[n];
+        Arrays.fill(dependent, -1);
+        for (int s = 1; s < n; s++) {
+            int r = required[s];
+            if (r < 0) {
+                continue;
+            }
+            if (r == 0 || r >= n || r == s || required[r] >= 0 || dependent[r] >= 0) {
+                throw new IllegalArgumentException("Precedence must pair stops one to one (stop " + s + ")");
+            }
+            dependent[r] = s;
+        }
+        int requests = 0;
+        for (int s = 1; s < n; s++) {
+            if (required[s] < 0) {
+                requests++;
+            }
+        }
+        this.requestFirst = new int[requests];
+        this.requestSecond = new int[requests];
+        this.requestOf = new int[n];
+        int k = 0;
+        for (int s = 1; s < n; s++) {
+            if (required[s] < 0) {
+                requestFirst[k] = s;
+                requestSecond[k] = dependent[s];
+                requestOf[s] = k;
+                if (dependent[s] >= 0) {
+                    requestOf[dependent[s]] = k;
+                }
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Result of a solve.
+     *
+     * @param order      the stops (node indices, start excluded) in visiting
+     *                   order
+     * @param cost       total cost of the tour
+     * @param initialCost cost of the constructed tour before improvement
+     * @param iterations number of large neighbourhood search iterations run
+     */
+    public record Tour(int[] order, double cost, double initialCost, long iterations) {
+    }
+
+    /**
+     * Computes a tour.
+     *
+     * @param deadlineNanos {@link System#nanoTime()} value at which the search
+     *                      stops improving
+     * @param seed          random seed; seed 0 builds the initial tour
+     *                      deterministically
+     * @return the best tour found
+     */
+    public Tour solve(long deadlineNanos, long seed) {
+        Random random = new Random(seed);
+        int[] seq = new int[size + 1];
+        seq[0] = 0;
+        seq[1] = n;
+        int length = construct(seq, 2, random, seed != 0);
+        double initialCost = tourCost(seq, length);
+
+        Search search = new Search(length);
+        search.load(seq, length);
+        search.improve(deadlineNanos);
+        int[] best = Arrays.copyOf(search.seq, length);
+        double bestCost = search.cost();
+        double currentCost = bestCost;
+        int[] current = best.clone();
+
+        long iterations = 0;
+        long start = System.nanoTime();
+        int[] removed = new int[requestFirst.length];
+        while (requestFirst.length > 1 && System.nanoTime() < deadlineNanos) {
+            iterations++;
+            int[] candidate = current.clone();
+            // Small tours may be rebuilt almost entirely, large ones lose at most a few dozen stops
+            int count = 1 + random.nextInt(Math.min(requestFirst.length, Math.max(4, Math.min(requestFirst.length / 3,
+                    MAX_REMOVED))));
+            int picked = iterations % 2 == 0 ? pickRandom(random, removed, count) : pickRelated(random, removed, count);
+            int candidateLength = removeRequests(candidate, length, removed, picked);
+            shuffle(random, removed, picked);
+            for (int i = 0; i < picked; i++) {
+                candidateLength = insertRequest(candidate, candidateLength, removed[i]);
+            }
+            search.load(candidate, candidateLength);
+            search.improve(deadlineNanos);
+            double candidateCost = search.cost();
+
+            // Record-to-record acceptance, tightening as the deadline approaches
+            double remaining = Math.max(0, (double) (deadlineNanos - System.nanoTime()) / Math.max(1,
+                    deadlineNanos - start));
+            if (candidateCost < currentCost - EPSILON || candidateCost < bestCost * (1 + 0.02 * remaining)) {
+                current = Arrays.copyOf(search.seq, length);
+                currentCost = candidateCost;
+                if (candidateCost < bestCost - EPSILON) {
+                    best = current.clone();
+                    bestCost = candidateCost;
+                }
+            }
+        }
+        return new Tour(Arrays.copyOfRange(best, 1, length - 1), bestCost, initialCost, iterations);
+    }
+
+    /**
+     * @param order stops in visiting order, start excluded
+     * @return the cost of visiting them from the start
+     */
+    public double cost(int[] order) {
+        int[] seq = new int[order.length + 2];
+        seq[0] = 0;
+        System.arraycopy(order, 0, seq, 1, order.length);
+        seq[order.length + 1] = n;
+        return tourCost(seq, seq.length);
+    }
+
+    /**
+     * @param order stops in visiting order, start excluded
+     * @return true if every stop appears after the stop it requires
+     */
+    public boolean isFeasible(int[] order) {
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        for (int s : order) {
+            if (required[s] >= 0 && (position[required[s]] < 0 || position[required[s]] > position[s])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+    // Construction and repair
+    // ------------------------------------------------------------------------
+
+    private int construct(int[] seq, int length, Random random, boolean shuffled) {
+        int[] order = new int[requestFirst.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        if (shuffled) {
+            shuffle(random, order, order.length);
+        } else {
+            // Farthest requests first: they shape the tour, closer ones fit in between
+            Integer[] boxed = Arrays.stream(order).boxed().toArray(Integer[]::new);
+            Arrays.sort(boxed, (a, b) -> Double.compare(c(0, requestFirst[b]), c(0, requestFirst[a])));
+            for (int i = 0; i < order.length; i++) {
+                order[i] = boxed[i];
+            }
+        }
+        for (int request : order) {
+            length = insertRequest(seq, length, request);
+        }
+        return length;
+    }
+
+    /**
+     * Inserts a request at its cheapest feasible position: a single stop on
+     * its cheapest edge, a pair with its delivery at or after its pickup.
+     */
+    private int insertRequest(int[] seq, int length, int request) {
+        int first = requestFirst[request];
+        int second = requestSecond[request];
+        if (second < 0) {
+            int bestEdge = 0;
+            double bestDelta = Double.POSITIVE_INFINITY;
+            for (int e = 0; e < length - 1; e++) {
+                double delta = c(seq[e], first) + c(first, seq[e + 1]) - c(seq[e], seq[e + 1]);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestEdge = e;
+                }
+            }
+            insertAt(seq, length, bestEdge + 1, first);
+            return length + 1;
+        }
+
+        // Pickup on edge i, delivery on edge j >= i, tracking the best pickup edge seen so far
+        double bestDelta = Double.POSITIVE_INFINITY;
+        int bestI = 0;
+        int bestJ = 0;
+        double bestPickup = Double.POSITIVE_INFINITY;
+        int bestPickupEdge = -1;
+        for (int j = 0; j < length - 1; j++) {
+            int a = seq[j];
+            int b = seq[j + 1];
+            double base = c(a, b);
+            double together = c(a, first) + c(first, second) + c(second, b) - base;
+            if (together < bestDelta) {
+                bestDelta = together;
+                bestI = j;
+                bestJ = j;
+            }
+            if (bestPickupEdge >= 0) {
+                double split = bestPickup + c(a, second) + c(second, b) - base;
+                if (split < bestDelta) {
+                    bestDelta = split;
+                    bestI = bestPickupEdge;
+                    bestJ = j;
+                }
+            }
+            double pickup = c(a, first) + c(first, b) - base;
+            if (pickup < bestPickup) {
+                bestPickup = pickup;
+                bestPickupEdge = j;
+            }
+        }
+        insertAt(seq, length, bestJ + 1, second);
+        insertAt(seq, length + 1, bestI + 1, first);
+        return length + 2;
+    }
+
+    private static void insertAt(int[] seq, int length, int index, int value) {
+        System.arraycopy(seq, index, seq, index + 1, length - index);
+        seq[index] = value;
+    }
+
+    private int removeRequests(int[] seq, int length, int[] requests, int count) {
+        boolean[] drop = new boolean[requestFirst.length];
+        for (int i = 0; i < count; i++) {
+            drop[requests[i]] = true;
+        }
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            int node = seq[i];
+            if (node == 0 || node == n || !drop[requestOf[node]]) {
+                seq[kept++] = node;
+            }
+        }
+        return kept;
+    }
+
+    private int pickRandom(Random random, int[] out, int count) {
+        int[] all = new int[requestFirst.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        shuffle(random, all, all.length);
+        System.arraycopy(all, 0, out, 0, count);
+        return count;
+    }
+
+    /** Picks a random request and the requests whose first stop is closest to it. */
+    private int pickRelated(Random random, int[] out, int count) {
+        int seed = requestFirst[random.nextInt(requestFirst.length)];
+        Integer[] all = new Integer[requestFirst.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        Arrays.sort(all, (a, b) -> Double.compare(c(seed, requestFirst[a]), c(seed, requestFirst[b])));
+        for (int i = 0; i < count; i++) {
+            out[i] = all[i];
+        }
+        return count;
+    }
+
+    private static void shuffle(Random random, int[] values, int count) {
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private double tourCost(int[] seq, int length) {
+        double total = 0;
+        for (int i = 0; i < length - 1; i++) {
+            total += c(seq[i], seq[i + 1]);
+        }
+        return total;
+    }
+
+    private double c(int from, int to) {
+        return cost[from * size + to];
+    }
+
+    // ------------------------------------------------------------------------
+    // Local search
+    // ------------------------------------------------------------------------
+
+    /**
+     * Mutable local-search state over a sequence {@code start, stops..., end},
+     * with prefix sums of the forward and backward leg costs so that the cost
+     * change of any 2-opt reversal is computed in constant time, even for
+     * asymmetric costs.
+     */
+    private final class Search {
+
+        final int[] seq;
+        final int[] position;
+        final double[] forward;
+        final double[] backward;
+        int length;
+
+        Search(int capacity) {
+            seq = new int[capacity];
+            position = new int[size];
+            forward = new double[capacity];
+            backward = new double[capacity];
+        }
+
+        void load(int[] source, int sourceLength) {
+            System.arraycopy(source, 0, seq, 0, sourceLength);
+            length = sourceLength;
+            refresh();
+        }
+
+        double cost() {
+            return forward[length - 1];
+        }
+
+        private void refresh() {
+            forward[0] = 0;
+            backward[0] = 0;
+            for (int i = 0; i < length; i++) {
+                position[seq[i]] = i;
+                if (i > 0) {
+                    forward[i] = forward[i - 1] + c(seq[i - 1], seq[i]);
+                    backward[i] = backward[i - 1] + c(seq[i], seq[i - 1]);
+                }
+            }
+        }
+
+        void improve(long deadlineNanos) {
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadlineNanos) {
+                improved = twoOpt() || orOpt();
+            }
+        }
+
+        /** Applies the first improving feasible segment reversal. */
+        private boolean twoOpt() {
+            int last = length - 2;
+            for (int i = 1; i < last; i++) {
+                int before = seq[i - 1];
+                double removedBefore = c(before, seq[i]);
+                for (int j = i + 1; j <= last; j++) {
+                    int after = seq[j + 1];
+                    double delta = c(before, seq[j]) + c(seq[i], after) - removedBefore - c(seq[j], after)
+                            + (backward[j] - backward[i]) - (forward[j] - forward[i]);
+                    if (delta < -EPSILON && canReverse(i, j)) {
+                        reverse(i, j);
+                        refresh();
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean canReverse(int i, int j) {
+            for (int k = i + 1; k <= j; k++) {
+                int r = required[seq[k]];
+                if (r >= 0 && position[r] >= i) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void reverse(int i, int j) {
+            while (i < j) {
+                int tmp = seq[i];
+                seq[i++] = seq[j];
+                seq[j--] = tmp;
+            }
+        }
+
+        /** Applies the first improving feasible move of a chain of up to three stops. */
+        private boolean orOpt() {
+            int last = length - 2;
+            for (int chain = 1; chain <= MAX_CHAIN; chain++) {
+                for (int i = 1; i + chain - 1 <= last; i++) {
+                    int head = seq[i];
+                    int tail = seq[i + chain - 1];
+                    int prev = seq[i - 1];
+                    int next = seq[i + chain];
+                    double gain = c(prev, head) + c(tail, next) - c(prev, next);
+                    if (gain <= EPSILON) {
+                        continue;
+                    }
+                    for (int p = 0; p < length - 1; p++) {
+                        if (p >= i - 1 && p <= i + chain - 1) {
+                            continue;
+                        }
+                        double delta = c(seq[p], head) + c(tail, seq[p + 1]) - c(seq[p], seq[p + 1]) - gain;
+                        if (delta < -EPSILON && canMove(i, chain, p)) {
+                            move(i, chain, p);
+                            refresh();
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean canMove(int i, int chain, int p) {
+            int chainEnd = i + chain - 1;
+            if (p > chainEnd) {
+                // Chain jumps forward over seq[chainEnd+1..p]: none of those may require a chain stop
+                for (int k = chainEnd + 1; k <= p; k++) {
+                    int r = required[seq[k]];
+                    if (r >= 0 && position[r] >= i && position[r] <= chainEnd) {
+                        return false;
+                    }
+                }
+            } else {
+                // Chain jumps backward over seq[p+1..i-1]: no chain stop may require one of those
+                for (int k = i; k <= chainEnd; k++) {
+                    int r = required[seq[k]];
+                    if (r >= 0 && position[r] > p && position[r] < i) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void move(int i, int chain, int p) {
+            int[] moved = Arrays.copyOfRange(seq, i, i + chain);
+            if (p > i) {
+                System.arraycopy(seq, i + chain, seq, i, p - (i + chain) + 1);
+                System.arraycopy(moved, 0, seq, p - chain + 1, chain);
+            } else {
+                System.arraycopy(seq, p + 1, seq, p + 1 + chain, i - (p + 1));
+                System.arraycopy(moved, 0, seq, p + 1, chain);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.yowyob.delivery.route.service.tracking;
+
+import com.yowyob.delivery.route.controller.dto.IncidentDTO;
+import com.yowyob.delivery.route.domain.entity.Incident;
+import com.yowyob.delivery.route.service.RouteService;
+import com.yowyob.delivery.route.service.graph.IncidentRegistry;
+import com.yowyob.delivery.route.service.tracking.RouteProgressTracker.RouteProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches the progress of tracked routes and re-routes drivers from their
+ * actual position when they leave their route or an active incident lies
+ * ahead on it.
+ * <p>
+ * Triggers are debounced and coalesced so that noisy GPS bursts do not turn
+ * into a storm of OSRM or graph searches:
+ * <ul>
+ * <li>a driver is off-route only after {@code confirmations} consecutive
+ * off-route positions spanning at least {@code debounce};</li>
+ * <li>an incident triggers once per route, as long as the remaining path
+ * still comes within its buffer;</li>
+ * <li>triggers of a route are merged until the next drain, an incident
+ * winning over a deviation, and a route is re-routed at most once per
+ * {@code cooldown};</li>
+ * <li>drains run on a fixed delay with bounded concurrency.</li>
+ * </ul>
+ * Whether the path meets an incident is computed once per route path and
+ * incident set, so a position costs a few comparisons. Multi-stop tours are
+ * tracked but never re-routed, since a recalculation would drop their
+ * intermediate stops.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "routing.tracking.reroute.enabled", havingValue = "true", matchIfMissing = true)
+public class RouteDeviationMonitor {
+
+    private final RouteService routeService;
+    private final IncidentRegistry incidentRegistry;
+    private final Map<UUID, RouteState> states = new ConcurrentHashMap<>();
+    private final Map<UUID, Trigger> pending = new ConcurrentHashMap<>();
+    private volatile List<Incident> incidents = List.of();
+
+    @Value("${routing.tracking.reroute.confirmations:3}")
+    private int confirmations;
+
+    @Value("${routing.tracking.reroute.debounce:10s}")
+    private Duration debounce;
+
+    @Value("${routing.tracking.reroute.cooldown:2m}")
+    private Duration cooldown;
+
+    @Value("${routing.tracking.reroute.concurrency:4}")
+    private int concurrency;
+
+    /** Why a route should be recalculated; {@code incident} is null for a deviation. */
+    private record Trigger(UUID routeId, Incident incident) {
+
+        private Trigger merge(Trigger other) {
+            return incident != null ? this : other;
+        }
+    }
+
+    /** An incident met by a route path, up to {@code lastAlongMeters} along it. */
+    private record IncidentHit(Incident incident, double lastAlongMeters) {
+    }
+
+    /** Deviation and incident state of a tracked route, guarded by its own lock. */
+    private static final class RouteState {
+        private int offRouteCount;
+        private LocalDateTime offRouteSince;
+        private RouteProgressMatcher matcher;
+        private List<Incident> incidents;
+        private List<IncidentHit> hits = List.of();
+        private final Set<UUID> handledIncidents = new HashSet<>();
+        private long reroutedAt;
+        private boolean rerouted;
+        private long seenAt;
+    }
+
+    public RouteDeviationMonitor(RouteProgressTracker routeProgressTracker, RouteService routeService,
+            IncidentRegistry incidentRegistry) {
+        this.routeService = routeService;
+        this.incidentRegistry = incidentRegistry;
+        routeProgressTracker.addListener(this::onProgress);
+    }
+
+    private void onProgress(RouteProgress progress) {
+        UUID routeId = progress.route().getId();
+        if (routeId == null || !Boolean.TRUE.equals(progress.route().getIsActive())
+                || "TOUR".equals(progress.route().getRoutingService())) {
+            return;
+        }
+        RouteState state = states.computeIfAbsent(routeId, id -> new RouteState());
+        Trigger trigger = null;
+        synchronized (state) {
+            state.seenAt = System.nanoTime();
+            if (progress.offRoute()) {
+                state.offRouteCount++;
+                if (state.offRouteSince == null) {
+                    state.offRouteSince = progress.recordedAt();
+                }
+                if (state.offRouteCount >= confirmations && (state.offRouteSince == null
+                        || progress.recordedAt() == null
+                        || !Duration.between(state.offRouteSince, progress.recordedAt()).minus(debounce)
+                                .isNegative())) {
+                    trigger = new Trigger(routeId, null);
+                }
+            } else {
+                state.offRouteCount = 0;
+                state.offRouteSince = null;
+            }
+
+            List<Incident> active = incidents;
+            if (state.matcher != progress.matcher() || state.incidents != active) {
+                state.matcher = progress.matcher();
+                state.incidents = active;
+                state.hits = hits(progress.matcher(), active);
+            }
+            for (IncidentHit hit : state.hits) {
+                // Only incidents still ahead of the driver matter
+                if (hit.lastAlongMeters() > progress.match().alongMeters()
+                        && !state.handledIncidents.contains(hit.incident().getId())) {
+                    trigger = new Trigger(routeId, hit.incident());
+                    break;
+                }
+            }
+        }
+        if (trigger != null) {
+            pending.merge(routeId, trigger, Trigger::merge);
+        }
+    }
+
+    private static List<IncidentHit> hits(RouteProgressMatcher matcher, List<Incident> active) {
+        List<IncidentHit> hits = new ArrayList<>();
+        for (Incident incident : active) {
+            double buffer = incident.getBufferDistance() == null ? 0.0 : incident.getBufferDistance();
+            double lastAlong = matcher.lastAlongNear(incident.getStartLongitude(), incident.getStartLatitude(),
+                    incident.getEndLongitude(), incident.getEndLatitude(), buffer);
+            if (lastAlong >= 0) {
+                hits.add(new IncidentHit(incident, lastAlong));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Re-routes the routes triggered since the last drain. Waiting for the
+     * recalculations on the scheduler thread keeps drains from overlapping;
+     * the scheduler pool has a thread per job, so a slow drain does not hold
+     * up the location flush or the driver index refresh.
+     */
+    @Scheduled(fixedDelayString = "${routing.tracking.reroute.interval:2s}")
+    public void drain() {
+        try {
+            List<Incident> active = incidentRegistry.getActiveIncidents().block();
+            if (active != null) {
+                incidents = active;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not load the active incidents: {}", e.getMessage());
+        }
+        long now = System.nanoTime();
+        states.entrySet().removeIf(entry -> isIdle(entry.getValue(), now) && !pending.containsKey(entry.getKey()));
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Trigger> ready = new ArrayList<>();
+        for (UUID routeId : new ArrayList<>(pending.keySet())) {
+            Trigger trigger = pending.remove(routeId);
+            RouteState state = states.get(routeId);
+            if (trigger == null || state == null) {
+                continue;
+            }
+            synchronized (state) {
+                // Triggers during the cooldown are dropped; a lasting condition triggers again
+                if (state.rerouted && now - state.reroutedAt < cooldown.toNanos()) {
+                    continue;
+                }
+                state.rerouted = true;
+                state.reroutedAt = now;
+                state.offRouteCount = 0;
+                state.offRouteSince = null;
+                if (trigger.incident() != null) {
+                    state.handledIncidents.add(trigger.incident().getId());
+                }
+            }
+            ready.add(trigger);
+        }
+
+        Long rerouted = Flux.fromIterable(ready)
+                .flatMap(trigger -> routeService
+                        .rerouteFromCurrentPosition(trigger.routeId(),
+                                trigger.incident() == null ? null : toIncidentDTO(trigger.incident()))
+                        .map(route -> 1L)
+                        .onErrorResume(e -> {
+                            log.warn("Could not re-route route {}: {}", trigger.routeId(), e.getMessage());
+                            return Mono.empty();
+                        }), concurrency)
+                .count()
+                .block();
+        if (!ready.isEmpty()) {
+            log.info("Re-routed {} of {} triggered routes from the drivers' positions", rerouted, ready.size());
+        }
+    }
+
+    /**
+     * The state of a route is dropped once no position was received for a
+     * cooldown and no deviation or cooldown is ongoing.
+     */
+    private boolean isIdle(RouteState state, long now) {
+        synchronized (state) {
+            return state.offRouteCount == 0 && now - state.seenAt >= cooldown.toNanos()
+                    && (!state.rerouted || now - state.reroutedAt >= cooldown.toNanos());
+        }
+    }
+
+    private static IncidentDTO toIncidentDTO(Incident incident) {
+        IncidentDTO dto = new IncidentDTO();
+        dto.setType(incident.getType());
+        dto.setDescription(incident.getDescription());
+        dto.setLineStart(toGeoLocation(incident.getStartLatitude(), incident.getStartLongitude()));
+        dto.setLineEnd(toGeoLocation(incident.getEndLatitude(), incident.getEndLongitude()));
+        dto.setBufferDistance(incident.getBufferDistance());
+        return dto;
+    }
+
+    private static IncidentDTO.GeoLocation toGeoLocation(Double latitude, Double longitude) {
+        IncidentDTO.GeoLocation location = new IncidentDTO.GeoLocation();
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}
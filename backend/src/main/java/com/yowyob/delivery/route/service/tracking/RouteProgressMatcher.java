@@ -0,0 +1,210 @@
+package com.yowyob.delivery.route.service.tracking;
+
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import org.locationtech.jts.algorithm.Distance;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.ItemDistance;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.linearref.LinearLocation;
+import org.locationtech.jts.linearref.LocationIndexedLine;
+
+/**
+ * Projects GPS positions onto the path of one route.
+ * <p>
+ * The path is converted once to a local equirectangular projection in meters
+ * (as in {@code LineSimplifier}), with the distance along the path of every
+ * vertex. Its segments are indexed in a JTS {@link STRtree}, so matching a
+ * position is a nearest-segment query in {@code O(log n)} instead of a scan of
+ * the whole polyline. Positions are expressed as JTS {@link LinearLocation}s
+ * (segment index and fraction), and the rest of the path is cut with a
+ * {@link LocationIndexedLine}.
+ * <p>
+ * Where the path passes close to itself (loops, out-and-back legs), the
+ * candidate closest along the path to the previous match wins, so a driver is
+ * not teleported to the other carriageway. Instances are immutable and
+ * thread-safe.
+ */
+public final class RouteProgressMatcher {
+
+    private static final double METERS_PER_DEGREE = 6_371_000 * Math.PI / 180;
+
+    /** Segments compared when the nearest one is ambiguous. */
+    private static final int CANDIDATES = 4;
+
+    /** Candidates within this distance of the nearest one are considered equally close. */
+    private static final double AMBIGUITY_METERS = 25;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] along;
+    private final double kx;
+    private final STRtree segments;
+    private final LocationIndexedLine indexedLine;
+
+    /**
+     * Where a position falls on the path.
+     *
+     * @param location         segment index and fraction along it
+     * @param distanceMeters   distance between the position and the path
+     * @param alongMeters      distance from the start of the path to the
+     *                         matched point
+     * @param snappedLongitude longitude of the matched point
+     * @param snappedLatitude  latitude of the matched point
+     */
+    public record Match(LinearLocation location, double distanceMeters, double alongMeters, double snappedLongitude,
+            double snappedLatitude) {
+    }
+
+    /**
+     * @param path the route path (x = longitude, y = latitude), at least two
+     *             vertices
+     * @throws IllegalArgumentException if the path has fewer than two vertices
+     */
+    public RouteProgressMatcher(CoordinateBuffer path) {
+        int n = path.size();
+        if (n < 2) {
+            throw new IllegalArgumentException("A route path needs at least two points");
+        }
+        double latitude = (path.y(0) + path.y(n - 1)) / 2;
+        kx = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        xs = new double[n];
+        ys = new double[n];
+        along = new double[n];
+        Coordinate[] coordinates = new Coordinate[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = path.x(i) * kx;
+            ys[i] = path.y(i) * METERS_PER_DEGREE;
+            coordinates[i] = new Coordinate(path.x(i), path.y(i));
+            if (i > 0) {
+                along[i] = along[i - 1] + Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+            }
+        }
+        segments = new STRtree();
+        for (int i = 0; i < n - 1; i++) {
+            segments.insert(new Envelope(xs[i], xs[i + 1], ys[i], ys[i + 1]), i);
+        }
+        segments.build();
+        LineString line = new GeometryFactory().createLineString(coordinates);
+        indexedLine = new LocationIndexedLine(line);
+    }
+
+    /**
+     * @return length of the path in meters
+     */
+    public double lengthMeters() {
+        return along[along.length - 1];
+    }
+
+    /**
+     * Matches a position to the path.
+     *
+     * @param longitude        position longitude
+     * @param latitude         position latitude
+     * @param hintAlongMeters  distance along the path of the previous match, or
+     *                         a negative value if there is none
+     * @return the match
+     */
+    public Match match(double longitude, double latitude, double hintAlongMeters) {
+        double px = longitude * kx;
+        double py = latitude * METERS_PER_DEGREE;
+        ItemDistance toPoint = (ItemBoundable a, ItemBoundable b) -> {
+            Object item = a.getItem() instanceof Integer ? a.getItem() : b.getItem();
+            return segmentDistance((Integer) item, px, py);
+        };
+        Object[] nearest = segments.nearestNeighbour(new Envelope(px, px, py, py), new double[] { px, py },
+                toPoint, Math.min(CANDIDATES, xs.length - 1));
+
+        int bestSegment = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (Object item : nearest) {
+            double distance = segmentDistance((Integer) item, px, py);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestSegment = (Integer) item;
+            }
+        }
+        if (hintAlongMeters >= 0) {
+            double bestGap = Math.abs(alongOf(bestSegment, px, py) - hintAlongMeters);
+            for (Object item : nearest) {
+                int segment = (Integer) item;
+                if (segmentDistance(segment, px, py) <= bestDistance + AMBIGUITY_METERS) {
+                    double gap = Math.abs(alongOf(segment, px, py) - hintAlongMeters);
+                    if (gap < bestGap) {
+                        bestGap = gap;
+                        bestSegment = segment;
+                    }
+                }
+            }
+        }
+
+        double fraction = fraction(bestSegment, px, py);
+        double sx = xs[bestSegment] + fraction * (xs[bestSegment + 1] - xs[bestSegment]);
+        double sy = ys[bestSegment] + fraction * (ys[bestSegment + 1] - ys[bestSegment]);
+        return new Match(new LinearLocation(bestSegment, fraction), Math.hypot(px - sx, py - sy),
+                alongOf(bestSegment, px, py), sx / kx, sy / METERS_PER_DEGREE);
+    }
+
+    /**
+     * @param match a match on this path
+     * @return the part of the path from the matched point to the end
+     */
+    public CoordinateBuffer remaining(Match match) {
+        return CoordinateBuffer.of(indexedLine.extractLine(match.location(), indexedLine.getEndIndex())
+                .getCoordinates());
+    }
+
+    /**
+     * Finds how far along the path it stays close to a line segment, e.g. an
+     * incident. Only the path segments whose bounding box meets the buffered
+     * segment are tested.
+     *
+     * @param startLongitude segment start longitude
+     * @param startLatitude  segment start latitude
+     * @param endLongitude   segment end longitude
+     * @param endLatitude    segment end latitude
+     * @param bufferMeters   distance under which the path is considered
+     *                       affected
+     * @return the distance along the path of the end of the last affected
+     *         path segment, or -1 if the path never comes that close
+     */
+    public double lastAlongNear(double startLongitude, double startLatitude, double endLongitude,
+            double endLatitude, double bufferMeters) {
+        Coordinate a = new Coordinate(startLongitude * kx, startLatitude * METERS_PER_DEGREE);
+        Coordinate b = new Coordinate(endLongitude * kx, endLatitude * METERS_PER_DEGREE);
+        Envelope area = new Envelope(a, b);
+        area.expandBy(bufferMeters);
+        double last = -1;
+        for (Object item : segments.query(area)) {
+            int segment = (Integer) item;
+            if (along[segment + 1] > last && Distance.segmentToSegment(a, b,
+                    new Coordinate(xs[segment], ys[segment]),
+                    new Coordinate(xs[segment + 1], ys[segment + 1])) <= bufferMeters) {
+                last = along[segment + 1];
+            }
+        }
+        return last;
+    }
+
+    private double fraction(int segment, double px, double py) {
+        double dx = xs[segment + 1] - xs[segment];
+        double dy = ys[segment + 1] - ys[segment];
+        double lengthSq = dx * dx + dy * dy;
+        return lengthSq == 0 ? 0
+                : Math.max(0, Math.min(1, ((px - xs[segment]) * dx + (py - ys[segment]) * dy) / lengthSq));
+    }
+
+    private double alongOf(int segment, double px, double py) {
+        return along[segment] + fraction(segment, px, py) * (along[segment + 1] - along[segment]);
+    }
+
+    private double segmentDistance(int segment, double px, double py) {
+        double t = fraction(segment, px, py);
+        double sx = xs[segment] + t * (xs[segment + 1] - xs[segment]);
+        double sy = ys[segment] + t * (ys[segment + 1] - ys[segment]);
+        return Math.hypot(px - sx, py - sy);
+    }
+}
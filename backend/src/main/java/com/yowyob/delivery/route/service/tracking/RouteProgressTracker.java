@@ -0,0 +1,257 @@
+package com.yowyob.delivery.route.service.tracking;
+
+import com.yowyob.delivery.route.domain.entity.Route;
+import com.yowyob.delivery.route.repository.RouteRepository;
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import com.yowyob.delivery.route.service.geometry.GeometryCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Follows the progress of drivers along their active routes.
+ * <p>
+ * Each tracked route keeps a {@link RouteProgressMatcher} built once from its
+ * path and the last matched position, which seeds the next match. A GPS ping
+ * therefore costs one nearest-segment query on the route's segment index, not
+ * a scan of the polyline. Tracked routes are held in a bounded LRU map.
+ * <p>
+ * Pings from the location stream are matched against the active route of
+ * their driver, looked up once in the database; drivers without an active
+ * route are not looked up again before {@code routing.tracking.lookup-interval}.
+ */
+@Slf4j
+@Component
+public class RouteProgressTracker {
+
+    private final RouteRepository routeRepository;
+    private final int maxRoutes;
+    private final double offRouteMeters;
+    private final long lookupIntervalNanos;
+    private final Map<UUID, TrackedRoute> routes;
+    private final Map<UUID, UUID> routeOfDriver = new ConcurrentHashMap<>();
+    /** Drivers found without an active route, with the time of the lookup. */
+    private final Map<UUID, Long> lookedUp = new ConcurrentHashMap<>();
+    private final List<Consumer<RouteProgress>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Progress of a route at the time of a position.
+     *
+     * @param route      the tracked route, as loaded
+     * @param longitude  reported longitude
+     * @param latitude   reported latitude
+     * @param recordedAt time of the position
+     * @param match      the position matched on the path
+     * @param offRoute   whether the position is farther from the path than
+     *                   {@code routing.tracking.off-route-meters}
+     * @param matcher    the matcher of the route path
+     */
+    public record RouteProgress(Route route, double longitude, double latitude, LocalDateTime recordedAt,
+            RouteProgressMatcher.Match match, boolean offRoute, RouteProgressMatcher matcher) {
+
+        /**
+         * @return share of the path already travelled, between 0 and 1
+         */
+        public double completedFraction() {
+            double length = matcher.lengthMeters();
+            return length == 0 ? 1 : Math.min(1, match.alongMeters() / length);
+        }
+
+        /**
+         * @return the part of the path still to travel
+         */
+        public CoordinateBuffer remainingPath() {
+            return matcher.remaining(match);
+        }
+    }
+
+    /** A route with its matcher and last progress, guarded by its own lock. */
+    private static final class TrackedRoute {
+        private final Route route;
+        private final RouteProgressMatcher matcher;
+        private RouteProgress last;
+
+        private TrackedRoute(Route route, RouteProgressMatcher matcher) {
+            this.route = route;
+            this.matcher = matcher;
+        }
+    }
+
+    public RouteProgressTracker(RouteRepository routeRepository,
+            @Value("${routing.tracking.max-routes:10000}") int maxRoutes,
+            @Value("${routing.tracking.off-route-meters:50}") double offRouteMeters,
+            @Value("${routing.tracking.lookup-interval:1m}") Duration lookupInterval) {
+        this.routeRepository = routeRepository;
+        this.maxRoutes = maxRoutes;
+        this.offRouteMeters = offRouteMeters;
+        this.lookupIntervalNanos = lookupInterval.toNanos();
+        this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, TrackedRoute> eldest) {
+                if (size() > RouteProgressTracker.this.maxRoutes) {
+                    forgetDriver(eldest.getValue().route);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Registers a callback receiving every new progress, on the thread that
+     * reported the position. Callbacks must be fast and must not block.
+     */
+    public void addListener(Consumer<RouteProgress> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Matches a position on a route, loading the route on first use.
+     *
+     * @param routeId    the route
+     * @param longitude  position longitude
+     * @param latitude   position latitude
+     * @param recordedAt time of the position
+     * @return a Mono emitting the progress, empty if the route does not exist
+     * @throws IllegalArgumentException (as an error signal) if the route has no
+     *                                  usable path
+     */
+    public Mono<RouteProgress> update(UUID routeId, double longitude, double latitude, LocalDateTime recordedAt) {
+        return tracked(routeId).map(tracked -> record(tracked, longitude, latitude, recordedAt));
+    }
+
+    /**
+     * @return the last progress recorded for a route, if it is tracked
+     */
+    public Optional<RouteProgress> current(UUID routeId) {
+        TrackedRoute tracked;
+        synchronized (routes) {
+            tracked = routes.get(routeId);
+        }
+        if (tracked == null) {
+            return Optional.empty();
+        }
+        synchronized (tracked) {
+            return Optional.ofNullable(tracked.last);
+        }
+    }
+
+    /**
+     * Matches a position from the location stream against the active route
+     * of the driver. Never blocks: the route of an unknown driver is looked up
+     * in the background and the position is matched once it is loaded.
+     */
+    public void onDriverPosition(UUID driverId, double longitude, double latitude, LocalDateTime recordedAt) {
+        UUID routeId = routeOfDriver.get(driverId);
+        if (routeId != null) {
+            TrackedRoute tracked;
+            synchronized (routes) {
+                tracked = routes.get(routeId);
+            }
+            if (tracked != null) {
+                record(tracked, longitude, latitude, recordedAt);
+                return;
+            }
+        }
+        long now = System.nanoTime();
+        Long lastLookup = lookedUp.get(driverId);
+        if (lastLookup != null && now - lastLookup < lookupIntervalNanos) {
+            return;
+        }
+        lookedUp.put(driverId, now);
+        routeRepository.findActiveByDriverWithGeometry(driverId)
+                .map(this::track)
+                .subscribe(tracked -> {
+                    lookedUp.remove(driverId);
+                    record(tracked, longitude, latitude, recordedAt);
+                }, e -> log.warn("Could not track the route of driver {}: {}", driverId, e.getMessage()));
+    }
+
+    /**
+     * Stops tracking a route, e.g. after its path changed. The next position
+     * reloads it.
+     */
+    public void invalidate(UUID routeId) {
+        synchronized (routes) {
+            TrackedRoute tracked = routes.remove(routeId);
+            if (tracked != null) {
+                forgetDriver(tracked.route);
+            }
+        }
+    }
+
+    private Mono<TrackedRoute> tracked(UUID routeId) {
+        TrackedRoute tracked;
+        synchronized (routes) {
+            tracked = routes.get(routeId);
+        }
+        if (tracked != null) {
+            return Mono.just(tracked);
+        }
+        return routeRepository.findByIdWithGeometry(routeId).map(this::track);
+    }
+
+    private TrackedRoute track(Route route) {
+        CoordinateBuffer path = GeometryCodec.pathOf(route);
+        if (path == null || path.size() < 2) {
+            throw new IllegalArgumentException("Route " + route.getId() + " has no path to track");
+        }
+        TrackedRoute tracked = new TrackedRoute(route, new RouteProgressMatcher(path));
+        synchronized (routes) {
+            // Another ping may have loaded the route meanwhile: keep its progress
+            TrackedRoute current = routes.putIfAbsent(route.getId(), tracked);
+            if (current != null) {
+                return current;
+            }
+            if (route.getDriverId() != null && Boolean.TRUE.equals(route.getIsActive())) {
+                routeOfDriver.put(route.getDriverId(), route.getId());
+            }
+        }
+        return tracked;
+    }
+
+    private RouteProgress record(TrackedRoute tracked, double longitude, double latitude, LocalDateTime recordedAt) {
+        RouteProgress progress;
+        synchronized (tracked) {
+            RouteProgress last = tracked.last;
+            // Pings may arrive out of order: an older position does not move the driver back
+            if (last != null && recordedAt != null && last.recordedAt() != null
+                    && recordedAt.isBefore(last.recordedAt())) {
+                return last;
+            }
+            RouteProgressMatcher.Match match = tracked.matcher.match(longitude, latitude,
+                    last == null ? -1 : last.match().alongMeters());
+            progress = new RouteProgress(tracked.route, longitude, latitude, recordedAt, match,
+                    match.distanceMeters() > offRouteMeters, tracked.matcher);
+            tracked.last = progress;
+        }
+        for (Consumer<RouteProgress> listener : listeners) {
+            try {
+                listener.accept(progress);
+            } catch (RuntimeException e) {
+                log.warn("Route progress listener failed for route {}: {}", progress.route().getId(),
+                        e.getMessage());
+            }
+        }
+        return progress;
+    }
+
+    /** Called while holding the lock on {@link #routes}. */
+    private void forgetDriver(Route route) {
+        if (route.getDriverId() != null) {
+            routeOfDriver.remove(route.getDriverId(), route.getId());
+        }
+    }
+}
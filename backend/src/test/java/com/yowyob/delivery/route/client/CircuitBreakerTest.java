@@ -0,0 +1,160 @@
+package com.yowyob.delivery.route.client;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FOREVER = Long.MAX_VALUE;
+
+    /** Window of 4 calls, opens at 50% failures once 4 calls are known. */
+    private static CircuitBreaker breaker(long openDurationNanos, int halfOpenCalls) {
+        return new CircuitBreaker("test", 4, 4, 0.5, openDurationNanos, halfOpenCalls);
+    }
+
+    private static void fail(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.tryAcquire().onFailure();
+        }
+    }
+
+    private static void succeed(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.tryAcquire().onSuccess();
+        }
+    }
+
+    @Test
+    void staysClosedUntilMinimumCallsAreKnown() {
+        CircuitBreaker breaker = breaker(FOREVER, 1);
+        fail(breaker, 3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertNotNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = breaker(FOREVER, 1);
+        succeed(breaker, 2);
+        fail(breaker, 1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(breaker, 1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire(), "An open breaker must reject calls");
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        CircuitBreaker breaker = breaker(FOREVER, 1);
+        fail(breaker, 1);
+        succeed(breaker, 3);
+        // The failure is pushed out: 1 failure out of the last 4 calls
+        fail(breaker, 1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void ignoredCallsAreNotRecorded() {
+        CircuitBreaker breaker = breaker(FOREVER, 1);
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire().onIgnored();
+        }
+        fail(breaker, 3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenLimitsTrialCallsAndClosesAfterSuccesses() {
+        CircuitBreaker breaker = breaker(0, 2);
+        fail(breaker, 4);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        CircuitBreaker.Permit first = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        CircuitBreaker.Permit second = breaker.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(breaker.tryAcquire(), "Only halfOpenCalls trial calls may run");
+
+        first.onSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNull(breaker.tryAcquire(), "A succeeded trial still counts towards the limit");
+        second.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // The window starts empty again
+        fail(breaker, 3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenFailureReopens() {
+        CircuitBreaker breaker = breaker(0, 2);
+        fail(breaker, 4);
+        CircuitBreaker.Permit trial = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        trial.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void ignoredTrialFreesItsSlot() {
+        CircuitBreaker breaker = breaker(0, 1);
+        fail(breaker, 4);
+        CircuitBreaker.Permit trial = breaker.tryAcquire();
+        assertNull(breaker.tryAcquire());
+        trial.onIgnored();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertNotNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void callAdmittedWhileClosedIsNotATrialCall() {
+        CircuitBreaker breaker = breaker(0, 1);
+        CircuitBreaker.Permit early = breaker.tryAcquire();
+        CircuitBreaker.Permit lateFailure = breaker.tryAcquire();
+        fail(breaker, 4);
+        CircuitBreaker.Permit trial = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        early.onSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(),
+                "A call admitted while CLOSED must not close the breaker");
+        assertNull(breaker.tryAcquire(), "A call admitted while CLOSED must not free a trial slot");
+
+        lateFailure.onFailure();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(),
+                "A call admitted while CLOSED must not re-open the breaker");
+
+        trial.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void trialOfAnEarlierHalfOpenPeriodIsNotCounted() {
+        CircuitBreaker breaker = breaker(0, 2);
+        fail(breaker, 4);
+        CircuitBreaker.Permit slow = breaker.tryAcquire();
+        breaker.tryAcquire().onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        CircuitBreaker.Permit trial = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        slow.onSuccess();
+        trial.onSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(),
+                "Only trials of the current period count towards closing");
+        breaker.tryAcquire().onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void outcomeIsReportedOnce() {
+        CircuitBreaker breaker = breaker(0, 1);
+        fail(breaker, 4);
+        CircuitBreaker.Permit trial = breaker.tryAcquire();
+        trial.onIgnored();
+        trial.onFailure();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,159 @@
+package com.yowyob.delivery.route.client;
+
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OsrmRouteParserTest {
+
+    /**
+     * Shape of a {@code /route/v1/driving} response with
+     * {@code geometries=geojson&steps=true&alternatives=true}: legs and steps
+     * carry their own distances, durations, geometries and {@code location}
+     * arrays, and the alternative route must not leak into the result.
+     */
+    private static final String ROUTES = """
+            "routes": [
+              {
+                "geometry": {
+                  "coordinates": [[9.700123, 4.050456], [9.705, 4.0511], [9.71, 4.052], [9.720001, 4.060002]],
+                  "type": "LineString"
+                },
+                "legs": [
+                  {
+                    "steps": [
+                      {
+                        "geometry": {"coordinates": [[1.0, 1.0], [2.0, 2.0]], "type": "LineString"},
+                        "maneuver": {"bearing_after": 87, "location": [9.700123, 4.050456], "type": "depart"},
+                        "intersections": [{"location": [9.700123, 4.050456], "bearings": [87], "entry": [true]}],
+                        "name": "Boulevard de la Liberté",
+                        "distance": 1100.5,
+                        "duration": 130.2
+                      },
+                      {
+                        "geometry": {"coordinates": [[3.0, 3.0], [4.0, 4.0]], "type": "LineString"},
+                        "maneuver": {"location": [9.720001, 4.060002], "type": "arrive"},
+                        "name": "Rue Joss",
+                        "distance": 0,
+                        "duration": 0
+                      }
+                    ],
+                    "summary": "Boulevard de la Liberté",
+                    "weight": 251.3,
+                    "distance": 2410.7,
+                    "duration": 250.9
+                  }
+                ],
+                "weight_name": "routability",
+                "weight": 251.3,
+                "distance": 2410.7,
+                "duration": 250.9
+              },
+              {
+                "geometry": {"coordinates": [[8.0, 8.0], [9.0, 9.0]], "type": "LineString"},
+                "legs": [],
+                "distance": 9999.9,
+                "duration": 999.9
+              }
+            ]""";
+
+    private static final String WAYPOINTS = """
+            "waypoints": [
+              {"hint": "abc==", "distance": 12.3, "name": "Rue Joss", "location": [9.700123, 4.050456]},
+              {"hint": "def==", "distance": 4.5, "name": "", "location": [9.720001, 4.060002]}
+            ]""";
+
+    private static final String WAYPOINTS_FIRST = "{\"code\": \"Ok\",\n" + WAYPOINTS + ",\n" + ROUTES + "\n}";
+    private static final String WAYPOINTS_LAST = "{\"code\": \"Ok\",\n" + ROUTES + ",\n" + WAYPOINTS + "\n}";
+
+    private static OsrmRoute parse(byte[] body, int... splits) {
+        OsrmRouteParser parser = new OsrmRouteParser();
+        int from = 0;
+        for (int split : splits) {
+            parser.feed(ByteBuffer.wrap(body, from, split - from));
+            from = split;
+        }
+        parser.feed(ByteBuffer.wrap(body, from, body.length - from));
+        return parser.finish();
+    }
+
+    private static void assertPrimaryRoute(OsrmRoute route) {
+        assertEquals(2410.7, route.getDistanceMeters(), 0);
+        assertEquals(250.9, route.getDurationSeconds(), 0);
+        CoordinateBuffer geometry = route.getGeometry();
+        assertEquals(4, geometry.size());
+        assertEquals(9.700123, geometry.x(0), 0);
+        assertEquals(4.050456, geometry.y(0), 0);
+        assertEquals(9.705, geometry.x(1), 0);
+        assertEquals(4.0511, geometry.y(1), 0);
+        assertEquals(9.71, geometry.x(2), 0);
+        assertEquals(4.052, geometry.y(2), 0);
+        assertEquals(9.720001, geometry.x(3), 0);
+        assertEquals(4.060002, geometry.y(3), 0);
+    }
+
+    @Test
+    void parsesWholeResponse() {
+        assertPrimaryRoute(parse(WAYPOINTS_FIRST.getBytes(StandardCharsets.UTF_8)));
+        assertPrimaryRoute(parse(WAYPOINTS_LAST.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void parsesResponseSplitAtEveryByte() {
+        for (String json : new String[] { WAYPOINTS_FIRST, WAYPOINTS_LAST }) {
+            // Includes splits inside numbers, field names and the two-byte UTF-8 character
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            for (int split = 0; split <= body.length; split++) {
+                assertPrimaryRoute(parse(body, split));
+            }
+        }
+    }
+
+    @Test
+    void parsesResponseFedOneByteAtATime() {
+        byte[] body = WAYPOINTS_LAST.getBytes(StandardCharsets.UTF_8);
+        int[] splits = new int[body.length - 1];
+        for (int i = 0; i < splits.length; i++) {
+            splits[i] = i + 1;
+        }
+        assertPrimaryRoute(parse(body, splits));
+    }
+
+    @Test
+    void dropsThirdOrdinate() {
+        String json = "{\"routes\":[{\"geometry\":{\"coordinates\":[[1.5,2.5,30],[3.5,4.5,31]]},"
+                + "\"distance\":10,\"duration\":2}],\"code\":\"Ok\"}";
+        OsrmRoute route = parse(json.getBytes(StandardCharsets.UTF_8));
+        assertEquals(2, route.getGeometry().size());
+        assertEquals(3.5, route.getGeometry().x(1), 0);
+        assertEquals(4.5, route.getGeometry().y(1), 0);
+        assertEquals(10.0, route.getDistanceMeters(), 0);
+    }
+
+    @Test
+    void reportsOsrmErrorCode() {
+        byte[] body = "{\"code\":\"NoRoute\",\"message\":\"Impossible route between points\",\"routes\":[]}"
+                .getBytes(StandardCharsets.UTF_8);
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> parse(body));
+        assertTrue(error.getMessage().contains("NoRoute"));
+    }
+
+    @Test
+    void reportsMissingRoute() {
+        byte[] body = "{\"code\":\"Ok\",\"routes\":[],\"waypoints\":[]}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalStateException.class, () -> parse(body));
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        byte[] body = "{\"code\":\"Ok\",\"routes\":[{\"distance\":1,}".getBytes(StandardCharsets.UTF_8);
+        assertThrows(UncheckedIOException.class, () -> parse(body));
+        byte[] truncated = "{\"code\":\"Ok\",\"routes\":[{\"distance\":1".getBytes(StandardCharsets.UTF_8);
+        assertThrows(UncheckedIOException.class, () -> parse(truncated));
+    }
+}
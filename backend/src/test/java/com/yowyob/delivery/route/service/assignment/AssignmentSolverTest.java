@@ -0,0 +1,220 @@
+package com.yowyob.delivery.route.service.assignment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssignmentSolverTest {
+
+    /** Sparse cost matrix in the solver's compressed-row form. */
+    private record Matrix(int rows, int columns, int[] rowStart, int[] arcColumn, double[] arcCost) {
+
+        /**
+         * @return the cost of the arc from {@code row} to {@code column}, or
+         *         {@code NaN} if there is none
+         */
+        double cost(int row, int column) {
+            for (int a = rowStart[row]; a < rowStart[row + 1]; a++) {
+                if (arcColumn[a] == column) {
+                    return arcCost[a];
+                }
+            }
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Builds a matrix from a dense one where {@code NaN} means no arc.
+     */
+    private static Matrix matrix(double[][] dense) {
+        int rows = dense.length;
+        int columns = rows == 0 ? 0 : dense[0].length;
+        int[] rowStart = new int[rows + 1];
+        int[] arcColumn = new int[rows * columns];
+        double[] arcCost = new double[rows * columns];
+        int arcs = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (!Double.isNaN(dense[r][c])) {
+                    arcColumn[arcs] = c;
+                    arcCost[arcs++] = dense[r][c];
+                }
+            }
+            rowStart[r + 1] = arcs;
+        }
+        return new Matrix(rows, columns, rowStart, Arrays.copyOf(arcColumn, arcs), Arrays.copyOf(arcCost, arcs));
+    }
+
+    private static int[] solve(Matrix m, double unassignedCost) {
+        return AssignmentSolver.solve(m.rows(), m.columns(), m.rowStart(), m.arcColumn(), m.arcCost(),
+                unassignedCost);
+    }
+
+    /**
+     * Checks that every row uses one of its arcs or none, that no column is
+     * used twice, and returns the total cost.
+     */
+    private static double checkedCost(Matrix m, int[] assignment, double unassignedCost) {
+        assertEquals(m.rows(), assignment.length);
+        boolean[] used = new boolean[m.columns()];
+        double total = 0;
+        for (int r = 0; r < m.rows(); r++) {
+            int c = assignment[r];
+            if (c < 0) {
+                assertEquals(-1, c);
+                total += unassignedCost;
+                continue;
+            }
+            assertTrue(c < m.columns(), "Column out of range");
+            assertFalse(used[c], "Column " + c + " assigned twice");
+            used[c] = true;
+            double cost = m.cost(r, c);
+            assertFalse(Double.isNaN(cost), "Row " + r + " assigned to column " + c + " without an arc");
+            total += cost;
+        }
+        return total;
+    }
+
+    /** Cheapest total cost over every feasible assignment. */
+    private static double bruteForce(Matrix m, double unassignedCost) {
+        return bruteForce(m, unassignedCost, 0, new boolean[m.columns()]);
+    }
+
+    private static double bruteForce(Matrix m, double unassignedCost, int row, boolean[] used) {
+        if (row == m.rows()) {
+            return 0;
+        }
+        double best = unassignedCost + bruteForce(m, unassignedCost, row + 1, used);
+        for (int a = m.rowStart()[row]; a < m.rowStart()[row + 1]; a++) {
+            int c = m.arcColumn()[a];
+            if (!used[c]) {
+                used[c] = true;
+                best = Math.min(best, m.arcCost()[a] + bruteForce(m, unassignedCost, row + 1, used));
+                used[c] = false;
+            }
+        }
+        return best;
+    }
+
+    private static double[][] randomDense(Random random, int rows, int columns, double density, int maxCost) {
+        double[][] dense = new double[rows][columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                // Small integer costs make ties frequent
+                dense[r][c] = random.nextDouble() < density ? random.nextInt(maxCost + 1) : Double.NaN;
+            }
+        }
+        return dense;
+    }
+
+    @Test
+    void matchesBruteForceOnRandomMatrices() {
+        Random random = new Random(42);
+        for (int run = 0; run < 2000; run++) {
+            int rows = 1 + random.nextInt(6);
+            int columns = 1 + random.nextInt(6);
+            double density = 0.2 + random.nextDouble() * 0.8;
+            Matrix m = matrix(randomDense(random, rows, columns, density, 9));
+            double unassignedCost = random.nextInt(15);
+            int[] assignment = solve(m, unassignedCost);
+            assertEquals(bruteForce(m, unassignedCost), checkedCost(m, assignment, unassignedCost), 1e-9,
+                    "Run " + run + ": " + rows + "x" + columns);
+        }
+    }
+
+    @Test
+    void assignsAsManyRowsAsPossibleWhenLeavingOneIsDearest() {
+        Random random = new Random(7);
+        for (int run = 0; run < 500; run++) {
+            int rows = 1 + random.nextInt(6);
+            int columns = 1 + random.nextInt(6);
+            Matrix m = matrix(randomDense(random, rows, columns, 0.4, 5));
+            // Dearer than any set of arcs: the matching must be maximum
+            double unassignedCost = 1000;
+            int[] assignment = solve(m, unassignedCost);
+            double expected = bruteForce(m, unassignedCost);
+            double actual = checkedCost(m, assignment, unassignedCost);
+            assertEquals(expected, actual, 1e-9);
+            long unmatched = Arrays.stream(assignment).filter(c -> c < 0).count();
+            assertEquals(Math.round(expected / unassignedCost), unmatched, "Rows left unmatched");
+        }
+    }
+
+    @Test
+    void moreRowsThanColumnsLeavesTheDearestRowsUnmatched() {
+        Matrix m = matrix(new double[][] {
+                { 5, 1 },
+                { 2, 8 },
+                { 1, 1 },
+        });
+        int[] assignment = solve(m, 100);
+        assertEquals(102.0, checkedCost(m, assignment, 100), 1e-9);
+        assertEquals(1, Arrays.stream(assignment).filter(c -> c < 0).count());
+    }
+
+    @Test
+    void moreColumnsThanRowsPicksTheCheapestColumns() {
+        Matrix m = matrix(new double[][] {
+                { 4, 3, 9, 1 },
+                { 2, 6, 1, 7 },
+        });
+        int[] assignment = solve(m, 100);
+        assertArrayEquals(new int[] { 3, 2 }, assignment);
+    }
+
+    @Test
+    void columnsWithoutArcsAreNeverAssigned() {
+        double n = Double.NaN;
+        Matrix m = matrix(new double[][] {
+                { n, 2, n, 3 },
+                { n, 1, n, n },
+                { n, n, n, n },
+        });
+        int[] assignment = solve(m, 50);
+        assertArrayEquals(new int[] { 3, 1, -1 }, assignment);
+    }
+
+    @Test
+    void rowStaysUnmatchedWhenEveryArcIsDearerThanLeavingIt() {
+        Matrix m = matrix(new double[][] {
+                { 12, 15 },
+                { 3, 20 },
+        });
+        int[] assignment = solve(m, 10);
+        assertArrayEquals(new int[] { -1, 0 }, assignment);
+    }
+
+    @Test
+    void augmentingPathReassignsEarlierRows() {
+        // Row 0 alone would take column 0; row 1 can only use column 0
+        double n = Double.NaN;
+        Matrix m = matrix(new double[][] {
+                { 1, 2 },
+                { 1, n },
+        });
+        int[] assignment = solve(m, 100);
+        assertArrayEquals(new int[] { 1, 0 }, assignment);
+    }
+
+    @Test
+    void equalCostsStillGiveAPerfectMatching() {
+        double[][] dense = new double[5][5];
+        for (double[] row : dense) {
+            Arrays.fill(row, 3);
+        }
+        Matrix m = matrix(dense);
+        int[] assignment = solve(m, 100);
+        assertEquals(15.0, checkedCost(m, assignment, 100), 1e-9);
+        assertTrue(Arrays.stream(assignment).allMatch(c -> c >= 0));
+    }
+
+    @Test
+    void emptyProblems() {
+        assertArrayEquals(new int[0], AssignmentSolver.solve(0, 3, new int[] { 0 }, new int[0], new double[0], 1));
+        assertArrayEquals(new int[] { -1, -1 },
+                AssignmentSolver.solve(2, 0, new int[] { 0, 0, 0 }, new int[0], new double[0], 1));
+    }
+}
@@ -0,0 +1,75 @@
+package com.yowyob.delivery.route.service.cache;
+
+import com.yowyob.delivery.route.domain.entity.Route;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteResultCacheTest {
+
+    private static final UUID START = UUID.randomUUID();
+    private static final UUID END = UUID.randomUUID();
+
+    private static RouteCacheKey key(long graphVersion, long incidentGeneration) {
+        return RouteCacheKey.of(START, END, null, graphVersion, incidentGeneration);
+    }
+
+    private static Route route(double distanceKm) {
+        return Route.builder().totalDistanceKm(distanceKm).routingService("DIJKSTRA").isActive(true).build();
+    }
+
+    @Test
+    void servesCopiesOfCachedRoutes() {
+        RouteResultCache cache = new RouteResultCache(10, Duration.ofMinutes(10));
+        cache.put(key(1, 0), route(12.5));
+        Route cached = cache.get(key(1, 0)).orElseThrow();
+        assertEquals(12.5, cached.getTotalDistanceKm(), 0);
+        cached.setTotalDistanceKm(1.0);
+        assertEquals(12.5, cache.get(key(1, 0)).orElseThrow().getTotalDistanceKm(), 0);
+    }
+
+    @Test
+    void newerIncidentGenerationHidesAndDropsOlderRoutes() {
+        RouteResultCache cache = new RouteResultCache(10, Duration.ofMinutes(10));
+        cache.put(key(1, 3), route(12.5));
+        assertTrue(cache.get(key(1, 4)).isEmpty(), "Routes computed before an incident change are not served");
+        assertEquals(0, cache.getStats().getSize());
+        assertTrue(cache.get(key(1, 3)).isEmpty());
+    }
+
+    @Test
+    void dropsRoutesComputedBeforeAnIncidentChange() {
+        RouteResultCache cache = new RouteResultCache(10, Duration.ofMinutes(10));
+        cache.get(key(1, 4));
+        // Computed with the incident set of generation 3, finished after generation 4 was seen
+        cache.put(key(1, 3), route(12.5));
+        assertEquals(0, cache.getStats().getSize());
+        cache.put(key(0, 4), route(12.5));
+        assertEquals(0, cache.getStats().getSize(), "Routes computed on an older graph are not stored either");
+        cache.put(key(1, 4), route(8.0));
+        assertEquals(8.0, cache.get(key(1, 4)).orElseThrow().getTotalDistanceKm(), 0);
+    }
+
+    @Test
+    void graphAndIncidentChangesAreTrackedIndependently() {
+        RouteResultCache cache = new RouteResultCache(10, Duration.ofMinutes(10));
+        cache.put(key(2, 1), route(1));
+        cache.get(key(1, 5));
+        // Generation 5 was seen with an older graph: both maxima apply
+        cache.put(key(2, 1), route(1));
+        assertEquals(0, cache.getStats().getSize());
+        cache.put(key(2, 5), route(2));
+        assertEquals(2.0, cache.get(key(2, 5)).orElseThrow().getTotalDistanceKm(), 0);
+    }
+
+    @Test
+    void expiresEntries() throws InterruptedException {
+        RouteResultCache cache = new RouteResultCache(10, Duration.ofMillis(1));
+        cache.put(key(1, 0), route(1));
+        Thread.sleep(5);
+        assertTrue(cache.get(key(1, 0)).isEmpty());
+    }
+}
@@ -0,0 +1,169 @@
+package com.yowyob.delivery.route.service.geometry;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.io.ByteOrderValues;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeometryCodecTest {
+
+    private static CoordinateBuffer line(double... xy) {
+        CoordinateBuffer coordinates = new CoordinateBuffer();
+        for (int i = 0; i < xy.length; i += 2) {
+            coordinates.add(xy[i], xy[i + 1]);
+        }
+        return coordinates;
+    }
+
+    private static void assertSameVertices(CoordinateBuffer expected, CoordinateBuffer actual, double delta) {
+        assertEquals(expected.size(), actual.size(), "Vertex count");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.x(i), actual.x(i), delta, "x of vertex " + i);
+            assertEquals(expected.y(i), actual.y(i), delta, "y of vertex " + i);
+        }
+    }
+
+    private static byte[] hex(String hex) {
+        return HexFormat.of().parseHex(hex.replace(" ", ""));
+    }
+
+    // ------------------------------------------------------------------------
+    // WKB
+    // ------------------------------------------------------------------------
+
+    @Test
+    void writesLittleEndianLineString() {
+        byte[] wkb = GeometryCodec.toWkb(line(1, 2, 3, 4));
+        assertEquals("01" + "02000000" + "02000000" + "000000000000f03f" + "0000000000000040" + "0000000000000840"
+                + "0000000000001040", HexFormat.of().formatHex(wkb));
+    }
+
+    @Test
+    void readsLittleAndBigEndianLineStrings() {
+        CoordinateBuffer expected = line(1, 2, 3, 4);
+        assertSameVertices(expected, GeometryCodec.fromWkb(hex(
+                "01 02000000 02000000 000000000000F03F 0000000000000040 0000000000000840 0000000000001040")), 0);
+        assertSameVertices(expected, GeometryCodec.fromWkb(hex(
+                "00 00000002 00000002 3FF0000000000000 4000000000000000 4008000000000000 4010000000000000")), 0);
+    }
+
+    @Test
+    void readsPostgisEwkbWithSridAndZ() {
+        // SRID=4326;POINT(1 2)
+        assertSameVertices(line(1, 2), GeometryCodec.fromWkb(hex(
+                "01 01000020 E6100000 000000000000F03F 0000000000000040")), 0);
+        // SRID=4326;LINESTRING Z (1 2 9, 3 4 9)
+        assertSameVertices(line(1, 2, 3, 4), GeometryCodec.fromWkb(hex(
+                "01 020000A0 E6100000 02000000 000000000000F03F 0000000000000040 0000000000002240"
+                        + " 0000000000000840 0000000000001040 0000000000002240")), 0);
+    }
+
+    @Test
+    void readsIsoWkbWithZ() {
+        // LINESTRING Z (1 2 9, 3 4 9), ISO type code 1002
+        assertSameVertices(line(1, 2, 3, 4), GeometryCodec.fromWkb(hex(
+                "01 EA030000 02000000 000000000000F03F 0000000000000040 0000000000002240"
+                        + " 0000000000000840 0000000000001040 0000000000002240")), 0);
+    }
+
+    @Test
+    void roundTripsAndAgreesWithJts() throws Exception {
+        Random random = new Random(3);
+        GeometryFactory factory = new GeometryFactory();
+        for (int run = 0; run < 50; run++) {
+            int size = 2 + random.nextInt(200);
+            CoordinateBuffer path = new CoordinateBuffer(size);
+            for (int i = 0; i < size; i++) {
+                path.add(-180 + random.nextDouble() * 360, -90 + random.nextDouble() * 180);
+            }
+            byte[] wkb = GeometryCodec.toWkb(path);
+            assertSameVertices(path, GeometryCodec.fromWkb(wkb), 0);
+
+            LineString jts = (LineString) new WKBReader().read(wkb);
+            assertSameVertices(path, CoordinateBuffer.of(jts.getCoordinates()), 0);
+            byte[] jtsWkb = new WKBWriter(2, ByteOrderValues.BIG_ENDIAN)
+                    .write(factory.createLineString(path.toCoordinates()));
+            assertSameVertices(path, GeometryCodec.fromWkb(jtsWkb), 0);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedOrUnsupportedWkb() {
+        byte[] wkb = GeometryCodec.toWkb(line(1, 2, 3, 4));
+        byte[] truncated = Arrays.copyOf(wkb, wkb.length - 3);
+        assertThrows(IllegalArgumentException.class, () -> GeometryCodec.fromWkb(truncated));
+        // POLYGON
+        assertThrows(IllegalArgumentException.class,
+                () -> GeometryCodec.fromWkb(hex("01 03000000 00000000")));
+    }
+
+    // ------------------------------------------------------------------------
+    // Encoded polyline
+    // ------------------------------------------------------------------------
+
+    /** The example of Google's polyline algorithm documentation. */
+    private static final CoordinateBuffer GOOGLE_EXAMPLE = line(-120.2, 38.5, -120.95, 40.7, -126.453, 43.252);
+    private static final String GOOGLE_ENCODED = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+    @Test
+    void encodesGoogleExample() {
+        assertEquals(GOOGLE_ENCODED, GeometryCodec.encodePolyline(GOOGLE_EXAMPLE, 5));
+    }
+
+    @Test
+    void decodesGoogleExample() {
+        assertSameVertices(GOOGLE_EXAMPLE, GeometryCodec.decodePolyline(GOOGLE_ENCODED, 5), 1e-9);
+    }
+
+    @Test
+    void roundTripsAtPrecisionFiveAndSix() {
+        Random random = new Random(5);
+        for (int precision = 5; precision <= 6; precision++) {
+            double step = Math.pow(10, -precision);
+            for (int run = 0; run < 50; run++) {
+                int size = 1 + random.nextInt(100);
+                CoordinateBuffer path = new CoordinateBuffer(size);
+                for (int i = 0; i < size; i++) {
+                    path.add(-180 + random.nextDouble() * 360, -90 + random.nextDouble() * 180);
+                }
+                String encoded = GeometryCodec.encodePolyline(path, precision);
+                CoordinateBuffer decoded = GeometryCodec.decodePolyline(encoded, precision);
+                assertSameVertices(path, decoded, step / 2 + 1e-12);
+                // Decoded values are already rounded: encoding them again is lossless
+                assertEquals(encoded, GeometryCodec.encodePolyline(decoded, precision));
+            }
+        }
+    }
+
+    @Test
+    void encodesEmptyLineAsEmptyString() {
+        assertEquals("", GeometryCodec.encodePolyline(new CoordinateBuffer(), 5));
+        assertEquals(0, GeometryCodec.decodePolyline("", 5).size());
+    }
+
+    @Test
+    void rejectsTruncatedOrInvalidPolylines() {
+        // Latitude without its longitude
+        assertThrows(IllegalArgumentException.class, () -> GeometryCodec.decodePolyline("_p~iF", 5));
+        // Continuation bit set on the last character
+        assertThrows(IllegalArgumentException.class, () -> GeometryCodec.decodePolyline("_p~iF~ps|", 5));
+        // Below the alphabet
+        assertThrows(IllegalArgumentException.class, () -> GeometryCodec.decodePolyline("_p~iF ps|U", 5));
+    }
+
+    @Test
+    void parsesWkt() {
+        assertSameVertices(line(9.7, 4.05, 9.72, 4.06),
+                GeometryCodec.fromWkt("LINESTRING(9.7 4.05, 9.72 4.06)"), 0);
+        assertSameVertices(line(9.7, 4.05), GeometryCodec.fromWkt("POINT(9.7 4.05)"), 0);
+        assertThrows(IllegalArgumentException.class, () -> GeometryCodec.fromWkt("LINESTRING(9.7"));
+    }
+}
@@ -0,0 +1,170 @@
+package com.yowyob.delivery.route.service.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineSimplifierTest {
+
+    private static final double METERS_PER_DEGREE = 111_195;
+
+    /**
+     * A random walk of {@code size} vertices around Douala with steps of up
+     * to about 50 m.
+     */
+    private static CoordinateBuffer randomWalk(long seed, int size) {
+        Random random = new Random(seed);
+        CoordinateBuffer line = new CoordinateBuffer(size);
+        double lng = 9.70;
+        double lat = 4.05;
+        double heading = 0;
+        for (int i = 0; i < size; i++) {
+            line.add(lng, lat);
+            heading += random.nextGaussian() * 0.5;
+            double step = random.nextDouble() * 50 / METERS_PER_DEGREE;
+            lng += Math.cos(heading) * step;
+            lat += Math.sin(heading) * step;
+        }
+        return line;
+    }
+
+    /**
+     * Distance in meters from vertex {@code i} of {@code line} to the segment
+     * (a, b), in a flat projection at the latitude of the vertex.
+     */
+    private static double distanceToSegment(CoordinateBuffer line, int i, double ax, double ay, double bx,
+            double by) {
+        double kx = METERS_PER_DEGREE * Math.cos(Math.toRadians(line.y(i)));
+        double px = (line.x(i) - ax) * kx;
+        double py = (line.y(i) - ay) * METERS_PER_DEGREE;
+        double dx = (bx - ax) * kx;
+        double dy = (by - ay) * METERS_PER_DEGREE;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSq));
+        return Math.hypot(px - t * dx, py - t * dy);
+    }
+
+    /**
+     * Checks that the simplified line is a subsequence of the original with
+     * the same end points, and returns the largest distance between a removed
+     * vertex and the simplified segment replacing it.
+     */
+    private static double maxDeviation(CoordinateBuffer line, CoordinateBuffer simplified) {
+        assertEquals(line.x(0), simplified.x(0), 0);
+        assertEquals(line.y(0), simplified.y(0), 0);
+        assertEquals(line.x(line.size() - 1), simplified.x(simplified.size() - 1), 0);
+        assertEquals(line.y(line.size() - 1), simplified.y(simplified.size() - 1), 0);
+        double max = 0;
+        int k = 0;
+        for (int i = 0; i < line.size(); i++) {
+            if (line.x(i) == simplified.x(k) && line.y(i) == simplified.y(k)) {
+                if (k < simplified.size() - 1) {
+                    k++;
+                }
+                continue;
+            }
+            assertTrue(k > 0, "Vertex " + i + " precedes the first kept vertex");
+            max = Math.max(max, distanceToSegment(line, i, simplified.x(k - 1), simplified.y(k - 1),
+                    simplified.x(k), simplified.y(k)));
+        }
+        return max;
+    }
+
+    @Test
+    void staysWithinToleranceAtEveryLevel() {
+        for (long seed = 1; seed <= 10; seed++) {
+            CoordinateBuffer line = randomWalk(seed, 2000);
+            int previousSize = line.size();
+            for (double tolerance : new double[] { 1, 5, 25, 100, 500 }) {
+                CoordinateBuffer simplified = LineSimplifier.simplify(line, tolerance);
+                assertTrue(simplified.size() >= 2);
+                assertTrue(simplified.size() <= previousSize,
+                        "A larger tolerance must not keep more vertices");
+                // 1% slack for the projection centred on the line instead of on each vertex
+                assertTrue(maxDeviation(line, simplified) <= tolerance * 1.01,
+                        "Deviation above " + tolerance + " m");
+                previousSize = simplified.size();
+            }
+            assertTrue(previousSize < line.size() / 10, "A coarse tolerance must remove most vertices");
+        }
+    }
+
+    @Test
+    void removesCollinearVertices() {
+        CoordinateBuffer line = new CoordinateBuffer();
+        for (int i = 0; i <= 10; i++) {
+            line.add(9.70 + i * 0.001, 4.05);
+        }
+        CoordinateBuffer simplified = LineSimplifier.simplify(line, 0.5);
+        assertEquals(2, simplified.size());
+    }
+
+    @Test
+    void keepsVerticesFartherThanTolerance() {
+        CoordinateBuffer line = new CoordinateBuffer();
+        line.add(9.70, 4.05);
+        // About 11 m off the straight line
+        line.add(9.705, 4.0501);
+        line.add(9.71, 4.05);
+        assertEquals(3, LineSimplifier.simplify(line, 5).size());
+        assertEquals(2, LineSimplifier.simplify(line, 20).size());
+    }
+
+    @Test
+    void returnsInputWhenNothingCanBeRemoved() {
+        CoordinateBuffer line = randomWalk(3, 50);
+        assertSame(line, LineSimplifier.simplify(line, 0));
+        CoordinateBuffer twoPoints = randomWalk(4, 2);
+        assertSame(twoPoints, LineSimplifier.simplify(twoPoints, 100));
+    }
+
+    @Test
+    void handlesClosedLoops() {
+        // Start and end coincide: distances fall back to the distance to that point
+        CoordinateBuffer loop = new CoordinateBuffer();
+        loop.add(9.70, 4.05);
+        loop.add(9.71, 4.05);
+        loop.add(9.71, 4.06);
+        loop.add(9.70, 4.05);
+        CoordinateBuffer simplified = LineSimplifier.simplify(loop, 10);
+        assertTrue(simplified.size() >= 3, "The far corners of a loop must be kept");
+    }
+
+    @Test
+    void levelsPickTheCoarsestWithinTolerance() {
+        RouteGeometryLevels levels = new RouteGeometryLevels(new double[] { 100, 5, 25, 0 });
+        CoordinateBuffer line = randomWalk(8, 2000);
+        String json = levels.precompute(line);
+        assertNotNull(json);
+
+        assertTrue(levels.select(json, 4).isEmpty(), "No level is fine enough");
+        Optional<SimplifiedGeometry> medium = levels.select(json, 30);
+        assertTrue(medium.isPresent());
+        assertEquals(25.0, medium.get().getToleranceMeters(), 0);
+        assertEquals(100.0, levels.select(json, 1000).get().getToleranceMeters(), 0);
+
+        // Each stored level decodes to the simplification at its tolerance, within the polyline precision
+        CoordinateBuffer expected = LineSimplifier.simplify(line, 25);
+        CoordinateBuffer decoded = medium.get().decode();
+        assertEquals(expected.size(), decoded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.x(i), decoded.x(i), 0.5e-5 + 1e-12);
+            assertEquals(expected.y(i), decoded.y(i), 0.5e-5 + 1e-12);
+        }
+    }
+
+    @Test
+    void levelsAreSkippedWhenTheyRemoveNothing() {
+        RouteGeometryLevels levels = new RouteGeometryLevels(new double[] { 5, 25 });
+        CoordinateBuffer triangle = new CoordinateBuffer();
+        triangle.add(9.70, 4.05);
+        triangle.add(9.71, 4.06);
+        triangle.add(9.72, 4.05);
+        assertNull(levels.precompute(triangle));
+        assertNull(levels.precompute(null));
+        assertTrue(levels.select("not json", 100).isEmpty());
+    }
+}
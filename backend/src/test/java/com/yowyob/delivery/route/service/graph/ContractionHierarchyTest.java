@@ -0,0 +1,146 @@
+package com.yowyob.delivery.route.service.graph;
+
+import com.yowyob.delivery.route.domain.entity.Hub;
+import com.yowyob.delivery.route.domain.entity.HubConnection;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    /**
+     * Random network of {@code n} hubs around Douala: each hub is joined to a
+     * few random others, with weights of at least the straight-line distance.
+     * The last hubs are left unconnected so that some queries have no path.
+     */
+    private static HubGraph randomGraph(long seed, int n, int edgesPerHub) {
+        Random random = new Random(seed);
+        List<Hub> hubs = new ArrayList<>();
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = 4.0 + random.nextDouble() * 0.2;
+            lng[i] = 9.6 + random.nextDouble() * 0.2;
+            Hub hub = new Hub();
+            hub.setId(new UUID(seed, i));
+            hub.setLocation("POINT(" + lng[i] + " " + lat[i] + ")");
+            hubs.add(hub);
+        }
+        List<HubConnection> connections = new ArrayList<>();
+        int connected = n - 3;
+        for (int i = 0; i < connected; i++) {
+            for (int k = 0; k < edgesPerHub; k++) {
+                int j = random.nextInt(connected);
+                HubConnection connection = new HubConnection();
+                connection.setFromHubId(hubs.get(i).getId());
+                connection.setToHubId(hubs.get(j).getId());
+                double dLat = lat[i] - lat[j];
+                double dLng = lng[i] - lng[j];
+                connection.setWeight(Math.sqrt(dLat * dLat + dLng * dLng) * 111 * (1 + random.nextDouble()));
+                connections.add(connection);
+            }
+        }
+        return HubGraph.build(1, hubs, connections);
+    }
+
+    private static void assertSamePaths(HubGraph graph, ContractionHierarchy hierarchy, Random random, int queries) {
+        int n = graph.getNodeCount();
+        for (int q = 0; q < queries; q++) {
+            int source = random.nextInt(n);
+            int target = random.nextInt(n);
+            GraphPath expected = GraphSearch.shortestPath(graph, source, target, null);
+            GraphPath actual = hierarchy.query(source, target);
+            if (expected == null) {
+                assertNull(actual, "No path expected from " + source + " to " + target);
+                continue;
+            }
+            assertNotNull(actual, "Path expected from " + source + " to " + target);
+            assertEquals(expected.getDistance(), actual.getDistance(), 1e-9,
+                    "Distance from " + source + " to " + target);
+            assertArrayEquals(expected.getNodes(), actual.getNodes(), "Path from " + source + " to " + target);
+        }
+    }
+
+    @Test
+    void queryMatchesDijkstraOnRandomGraphs() {
+        for (long seed = 1; seed <= 5; seed++) {
+            HubGraph graph = randomGraph(seed, 300, 3);
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+            assertEquals(graph.getFingerprint(), hierarchy.getFingerprint());
+            assertSamePaths(graph, hierarchy, new Random(seed), 500);
+        }
+    }
+
+    @Test
+    void queryFromANodeToItselfIsEmpty() {
+        HubGraph graph = randomGraph(7, 20, 2);
+        GraphPath path = ContractionHierarchy.build(graph).query(4, 4);
+        assertEquals(0.0, path.getDistance(), 0.0);
+        assertArrayEquals(new int[] { 4 }, path.getNodes());
+    }
+
+    @Test
+    void savedHierarchyIsMappedBackUnchanged() throws Exception {
+        HubGraph graph = randomGraph(11, 200, 3);
+        ContractionHierarchy built = ContractionHierarchy.build(graph);
+        Path dir = Files.createTempDirectory("ch-test");
+        Path file = dir.resolve("hierarchy.bin");
+        try {
+            built.save(file);
+            Optional<ContractionHierarchy> loaded = ContractionHierarchy.load(file, graph.getFingerprint(),
+                    graph.getNodeCount());
+            assertTrue(loaded.isPresent());
+            ContractionHierarchy mapped = loaded.get();
+            assertEquals(built.getFingerprint(), mapped.getFingerprint());
+            assertEquals(built.getNodeCount(), mapped.getNodeCount());
+            assertEquals(built.getEdgeCount(), mapped.getEdgeCount());
+            for (int s = 0; s < graph.getNodeCount(); s += 7) {
+                for (int t = 0; t < graph.getNodeCount(); t += 5) {
+                    GraphPath expected = built.query(s, t);
+                    GraphPath actual = mapped.query(s, t);
+                    if (expected == null) {
+                        assertNull(actual);
+                    } else {
+                        assertEquals(expected.getDistance(), actual.getDistance(), 0.0);
+                        assertArrayEquals(expected.getNodes(), actual.getNodes());
+                    }
+                }
+            }
+            assertSamePaths(graph, mapped, new Random(11), 200);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void loadRejectsStaleOrInvalidFiles() throws Exception {
+        HubGraph graph = randomGraph(13, 50, 2);
+        Path dir = Files.createTempDirectory("ch-test");
+        Path file = dir.resolve("hierarchy.bin");
+        try {
+            assertTrue(ContractionHierarchy.load(file, graph.getFingerprint(), graph.getNodeCount()).isEmpty(),
+                    "Missing file");
+            ContractionHierarchy.build(graph).save(file);
+            assertTrue(ContractionHierarchy.load(file, graph.getFingerprint() + 1, graph.getNodeCount()).isEmpty(),
+                    "Other fingerprint");
+            assertTrue(ContractionHierarchy.load(file, graph.getFingerprint(), graph.getNodeCount() + 1).isEmpty(),
+                    "Other node count");
+
+            Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+            assertTrue(ContractionHierarchy.load(file, graph.getFingerprint(), graph.getNodeCount()).isEmpty(),
+                    "Truncated file");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.yowyob.delivery.route.service.graph;
+
+import com.yowyob.delivery.route.controller.dto.RoutingConstraintsDTO;
+import com.yowyob.delivery.route.domain.entity.HubConnection;
+import com.yowyob.delivery.route.domain.entity.Vehicle;
+import com.yowyob.delivery.route.domain.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeRestrictionsTest {
+
+    private static int limitMask(double maxWeightKg) {
+        return EdgeRestrictions.maskOf(HubConnection.builder().maxWeightKg(maxWeightKg).build());
+    }
+
+    private static int weightMask(double weightKg) {
+        RoutingConstraintsDTO constraints = new RoutingConstraintsDTO();
+        constraints.setWeightKg(weightKg);
+        return EdgeRestrictions.forbiddenMask(constraints);
+    }
+
+    private static boolean allowed(double maxWeightKg, double weightKg) {
+        return (limitMask(maxWeightKg) & weightMask(weightKg)) == 0;
+    }
+
+    @Test
+    void neverRefusesVehiclesUnderTheLimit() {
+        Random random = new Random(53);
+        for (int i = 0; i < 100_000; i++) {
+            double limit = random.nextDouble() * 60_000;
+            double weight = random.nextDouble() * limit;
+            assertTrue(allowed(limit, weight), weight + " kg refused on a " + limit + " kg road");
+        }
+    }
+
+    @Test
+    void appliesLimitsOnClassBoundsExactly() {
+        for (double limit : EdgeRestrictions.WEIGHT_CLASSES_KG) {
+            assertTrue(allowed(limit, limit));
+            assertTrue(allowed(limit, limit - 1));
+            assertFalse(allowed(limit, limit + 1), "Just over " + limit + " kg");
+            assertFalse(allowed(limit, 100_000));
+        }
+    }
+
+    @Test
+    void acceptsVehiclesUnderCommonPostedLimits() {
+        assertTrue(allowed(10_000, 8_000));
+        assertTrue(allowed(5_000, 4_000));
+        assertTrue(allowed(3_500, 3_500));
+        assertFalse(allowed(10_000, 10_500));
+        assertFalse(allowed(3_500, 4_000));
+    }
+
+    @Test
+    void limitsBetweenBoundsRoundUp() {
+        // 9 t rounds up to the 10 t class bound
+        assertTrue(allowed(9_000, 9_500));
+        assertFalse(allowed(9_000, 10_001));
+        // Above the heaviest class nothing is refused
+        assertTrue(allowed(50_000, 60_000));
+        assertFalse(allowed(44_000, 60_000));
+    }
+
+    @Test
+    void unrestrictedEdgesAcceptEveryVehicle() {
+        int unrestricted = EdgeRestrictions.maskOf(HubConnection.builder().build());
+        assertEquals(EdgeRestrictions.NONE, unrestricted);
+        Vehicle truck = Vehicle.builder().vehicleType(VehicleType.TRUCK).grossWeightKg(60_000.0).build();
+        assertEquals(0, unrestricted & EdgeRestrictions.forbiddenMask(truck));
+    }
+
+    @Test
+    void vehicleMaskMatchesConstraintMask() {
+        Vehicle van = Vehicle.builder().vehicleType(VehicleType.VAN).grossWeightKg(3_200.0).maxCapacityKg(900.0)
+                .build();
+        RoutingConstraintsDTO constraints = new RoutingConstraintsDTO();
+        constraints.setVehicleType("van");
+        constraints.setWeightKg(3_200.0);
+        assertEquals(EdgeRestrictions.forbiddenMask(constraints), EdgeRestrictions.forbiddenMask(van));
+
+        // Without a gross weight the maximum load stands in for it
+        Vehicle bike = Vehicle.builder().vehicleType(VehicleType.BICYCLE).maxCapacityKg(20.0).build();
+        constraints.setVehicleType("BICYCLE");
+        constraints.setWeightKg(20.0);
+        assertEquals(EdgeRestrictions.forbiddenMask(constraints), EdgeRestrictions.forbiddenMask(bike));
+    }
+
+    @Test
+    void vehicleTypesAndWeightBitsDoNotOverlap() {
+        int weightBits = 0;
+        for (double limit : new double[] { 0, 1_000, 2_000, 44_000 }) {
+            weightBits |= limitMask(limit);
+        }
+        for (VehicleType type : VehicleType.values()) {
+            assertEquals(0, weightBits & EdgeRestrictions.vehicleBit(type));
+        }
+        assertEquals(0, weightBits & (EdgeRestrictions.HIGHWAY | EdgeRestrictions.TOLL));
+        assertTrue(EdgeRestrictions.WEIGHT_OVERFLOW > 0, "Weight classes must fit in the mask");
+    }
+}
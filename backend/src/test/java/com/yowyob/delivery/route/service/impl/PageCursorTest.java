@@ -0,0 +1,81 @@
+package com.yowyob.delivery.route.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsPositions() {
+        Random random = new Random(43);
+        for (int i = 0; i < 1000; i++) {
+            LocalDateTime createdAt = LocalDateTime.of(2000 + random.nextInt(100), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    // Microseconds as stored by Postgres, or none at all
+                    random.nextBoolean() ? random.nextInt(1_000_000) * 1000 : 0);
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            PageCursor cursor = new PageCursor(createdAt, id);
+            assertEquals(cursor, PageCursor.decode(cursor.encode()), cursor.toString());
+        }
+    }
+
+    @Test
+    void keepsWholeMinutesAndMidnight() {
+        // LocalDateTime.toString drops zero seconds and nanos
+        PageCursor minute = new PageCursor(LocalDateTime.of(2025, 1, 15, 8, 30), UUID.randomUUID());
+        assertEquals(minute, PageCursor.decode(minute.encode()));
+        PageCursor midnight = new PageCursor(LocalDateTime.of(2025, 1, 1, 0, 0), UUID.randomUUID());
+        assertEquals(midnight, PageCursor.decode(midnight.encode()));
+    }
+
+    @Test
+    void encodesAsUnpaddedUrlSafeBase64() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2025, 1, 15, 8, 30, 5),
+                UUID.fromString("550e8400-e29b-41d4-a716-446655440000"));
+        String encoded = cursor.encode();
+        assertEquals("MjAyNS0wMS0xNVQwODozMDowNXw1NTBlODQwMC1lMjliLTQxZDQtYTcxNi00NDY2NTU0NDAwMDA", encoded);
+        Random random = new Random(47);
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 0, 0).plusNanos(random.nextLong() & 0xffffffffffL);
+            String other = new PageCursor(createdAt, new UUID(random.nextLong(), random.nextLong())).encode();
+            assertTrue(other.matches("[A-Za-z0-9_-]+"), other);
+        }
+    }
+
+    @Test
+    void acceptsPaddedCursors() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2025, 3, 2, 17, 4, 9, 123_456_000), UUID.randomUUID());
+        String padded = Base64.getUrlEncoder()
+                .encodeToString((cursor.createdAt() + "|" + cursor.id()).getBytes(StandardCharsets.UTF_8));
+        assertEquals(cursor, PageCursor.decode(padded));
+    }
+
+    @Test
+    void rejectsInvalidCursors() {
+        String[] invalid = {
+                "",
+                "not base64!",
+                encode("2025-01-15T08:30:05"),
+                encode("2025-01-15T08:30:05|"),
+                encode("yesterday|550e8400-e29b-41d4-a716-446655440000"),
+                encode("2025-01-15T08:30:05|not-a-uuid"),
+                encode("550e8400-e29b-41d4-a716-446655440000|2025-01-15T08:30:05"),
+        };
+        for (String cursor : invalid) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> PageCursor.decode(cursor), cursor);
+            assertEquals("Invalid page cursor", error.getMessage());
+        }
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
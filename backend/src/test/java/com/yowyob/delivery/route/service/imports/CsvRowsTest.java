@@ -0,0 +1,101 @@
+package com.yowyob.delivery.route.service.imports;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRowsTest {
+
+    private static List<ImportRow> parse(String... lines) {
+        return CsvRows.parse(Flux.just(lines)).collectList().block();
+    }
+
+    @Test
+    void readsRecordsByNormalizedHeader() {
+        List<ImportRow> rows = parse(
+                "Sender Name,sender_phone,weightKg",
+                "Alice,+237600000001,2.5",
+                "Bob,+237600000002,");
+        assertEquals(2, rows.size());
+        ImportRow first = rows.get(0);
+        assertNull(first.error());
+        assertEquals(2, first.number());
+        assertEquals("Alice", first.get("senderName"));
+        assertEquals("+237600000001", first.get("SENDER PHONE"));
+        assertEquals("2.5", first.get("weight_kg"));
+        assertTrue(first.positions().isEmpty());
+        assertNull(rows.get(1).get("weightKg"), "Empty values read as missing");
+    }
+
+    @Test
+    void handlesQuotedFields() {
+        List<ImportRow> rows = parse(
+                "name,address,note",
+                "\"Doe, John\",\"12 \"\"Rue\"\" Joss\",plain",
+                "\"\",\",\",\"\"\"\"");
+        assertEquals("Doe, John", rows.get(0).fields().get("name"));
+        assertEquals("12 \"Rue\" Joss", rows.get(0).fields().get("address"));
+        assertEquals("plain", rows.get(0).fields().get("note"));
+        assertEquals("", rows.get(1).fields().get("name"));
+        assertEquals(",", rows.get(1).fields().get("address"));
+        assertEquals("\"", rows.get(1).fields().get("note"));
+    }
+
+    @Test
+    void detectsSemicolonSeparator() {
+        List<ImportRow> rows = parse("name;weight", "Alice;2,5");
+        assertEquals("2,5", rows.get(0).get("weight"));
+        // A header with a comma keeps the comma separator
+        rows = parse("name,weight;kg", "Alice,2");
+        assertEquals("2", rows.get(0).get("weightkg"));
+    }
+
+    @Test
+    void skipsBomAndBlankLines() {
+        List<ImportRow> rows = parse("", "﻿name,city", "   ", "Alice,Douala", "", "Bob,Yaoundé");
+        assertEquals(2, rows.size());
+        assertEquals("Alice", rows.get(0).get("name"));
+        assertEquals(4, rows.get(0).number(), "Line numbers count skipped lines");
+        assertEquals("Yaoundé", rows.get(1).get("city"));
+        assertEquals(6, rows.get(1).number());
+    }
+
+    @Test
+    void reportsMalformedLinesWithoutStopping() {
+        List<ImportRow> rows = parse(
+                "name,city",
+                "Alice,Douala,extra",
+                "\"Bob,Douala",
+                "Carol,Kribi");
+        assertEquals(3, rows.size());
+        assertTrue(rows.get(0).error().contains("Expected 2 fields but found 3"));
+        assertEquals(2, rows.get(0).number());
+        assertNotNull(rows.get(1).error());
+        assertTrue(rows.get(1).fields().isEmpty());
+        assertNull(rows.get(2).error());
+        assertEquals("Kribi", rows.get(2).get("city"));
+    }
+
+    @Test
+    void rejectsUnterminatedHeader() {
+        assertThrows(IllegalArgumentException.class, () -> parse("\"name,city", "Alice,Douala"));
+    }
+
+    @Test
+    void restartsForEachSubscription() {
+        Flux<ImportRow> rows = CsvRows.parse(Flux.just("name", "Alice"));
+        assertEquals(1, rows.collectList().block().size());
+        assertEquals(2, rows.blockFirst().number());
+    }
+
+    @Test
+    void splitsOnSeparatorOutsideQuotes() {
+        assertEquals(List.of("a", "", "c"), CsvRows.split("a,,c", ','));
+        assertEquals(List.of("a;b", "c"), CsvRows.split("\"a;b\";c", ';'));
+        assertEquals(List.of(""), CsvRows.split("", ','));
+        assertNull(CsvRows.split("a,\"b", ','));
+    }
+}
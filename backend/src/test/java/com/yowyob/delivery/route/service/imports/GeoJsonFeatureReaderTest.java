@@ -0,0 +1,131 @@
+package com.yowyob.delivery.route.service.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoJsonFeatureReaderTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * A FeatureCollection with members before and after {@code features},
+     * nested objects in properties, and geometries of every handled type.
+     */
+    private static final String COLLECTION = """
+            {
+              "type": "FeatureCollection",
+              "name": "hubs",
+              "metadata": {"features": [{"properties": {"name": "not a feature"}}]},
+              "features": [
+                {"type": "Feature", "properties": {"Hub Name": "Akwa", "capacity": 120, "tags": ["a", "b"],
+                  "contact": {"phone": "+237600000001"}, "note": null},
+                  "geometry": {"type": "Point", "coordinates": [9.7043, 4.0511]}},
+                {"type": "Feature", "properties": {"hub_name": "Bonabéri"},
+                  "geometry": {"type": "LineString", "coordinates": [[9.67, 4.07], [9.68, 4.071, 12.5]]}},
+                {"type": "Feature", "geometry": {"type": "MultiPoint", "coordinates": [[9.1, 4.1], ["x", 4.2]]},
+                  "properties": {"hubName": "Deido"}},
+                {"type": "Feature", "properties": {"hubName": "Zone"},
+                  "geometry": {"type": "Polygon", "coordinates": [[[9, 4], [9.1, 4], [9.1, 4.1], [9, 4]]]}},
+                {"type": "Feature", "properties": {}, "geometry": null}
+              ],
+              "bbox": [9, 4, 10, 5]
+            }
+            """;
+
+    private static List<ImportRow> read(byte[] bytes, int chunkSize) {
+        GeoJsonFeatureReader reader = new GeoJsonFeatureReader(OBJECT_MAPPER);
+        List<ImportRow> rows = new ArrayList<>();
+        for (int from = 0; from < bytes.length; from += chunkSize) {
+            rows.addAll(reader.feed(Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize))));
+        }
+        rows.addAll(reader.finish());
+        return rows;
+    }
+
+    private static void assertCollection(List<ImportRow> rows) {
+        assertEquals(5, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(i + 1, rows.get(i).number());
+            assertNull(rows.get(i).error());
+        }
+
+        ImportRow akwa = rows.get(0);
+        assertEquals("Akwa", akwa.get("hubName"));
+        assertEquals("120", akwa.get("capacity"));
+        assertEquals("[\"a\",\"b\"]", akwa.get("tags"));
+        assertEquals("{\"phone\":\"+237600000001\"}", akwa.get("contact"));
+        assertFalse(akwa.fields().containsKey("note"), "Null properties are left out");
+        assertEquals(1, akwa.positions().size());
+        assertArrayEquals(new double[] { 9.7043, 4.0511 }, akwa.positions().get(0), 0);
+
+        ImportRow bonaberi = rows.get(1);
+        assertEquals("Bonabéri", bonaberi.get("hub_name"));
+        assertEquals(2, bonaberi.positions().size());
+        assertArrayEquals(new double[] { 9.68, 4.071 }, bonaberi.positions().get(1), 0);
+
+        ImportRow deido = rows.get(2);
+        assertEquals(1, deido.positions().size(), "Non-numeric positions are skipped");
+        assertArrayEquals(new double[] { 9.1, 4.1 }, deido.positions().get(0), 0);
+
+        assertTrue(rows.get(3).positions().isEmpty(), "Polygons carry no position");
+        assertTrue(rows.get(4).positions().isEmpty());
+        assertTrue(rows.get(4).fields().isEmpty());
+    }
+
+    @Test
+    void readsWholeCollection() {
+        byte[] bytes = COLLECTION.getBytes(StandardCharsets.UTF_8);
+        assertCollection(read(bytes, bytes.length));
+    }
+
+    @Test
+    void readsCollectionInChunksOfEverySize() {
+        // Chunk boundaries fall inside tokens, numbers and the two-byte UTF-8 character
+        byte[] bytes = COLLECTION.getBytes(StandardCharsets.UTF_8);
+        for (int chunkSize = 1; chunkSize <= 64; chunkSize++) {
+            assertCollection(read(bytes, chunkSize));
+        }
+    }
+
+    @Test
+    void emitsFeaturesAsSoonAsTheyAreComplete() {
+        GeoJsonFeatureReader reader = new GeoJsonFeatureReader(OBJECT_MAPPER);
+        String first = "{\"type\":\"FeatureCollection\",\"features\":[{\"properties\":{\"n\":1}}";
+        List<ImportRow> rows = reader.feed(first.getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, rows.size());
+        assertEquals("1", rows.get(0).get("n"));
+        assertTrue(reader.feed(",{\"properties\":{\"n\":2}".getBytes(StandardCharsets.UTF_8)).isEmpty());
+        assertEquals(1, reader.feed("}]}".getBytes(StandardCharsets.UTF_8)).size());
+        assertTrue(reader.finish().isEmpty());
+    }
+
+    @Test
+    void acceptsEmptyCollection() {
+        assertTrue(read("{\"type\":\"FeatureCollection\",\"features\":[]}".getBytes(StandardCharsets.UTF_8), 7)
+                .isEmpty());
+    }
+
+    @Test
+    void rejectsDocumentsThatAreNotCompleteCollections() {
+        assertThrows(IllegalArgumentException.class,
+                () -> read("{\"type\":\"Feature\",\"properties\":{}}".getBytes(StandardCharsets.UTF_8), 8));
+        assertThrows(IllegalArgumentException.class,
+                () -> read("[{\"features\":[]}]".getBytes(StandardCharsets.UTF_8), 8));
+    }
+
+    @Test
+    void rejectsTruncatedAndMalformedJson() {
+        assertThrows(UncheckedIOException.class,
+                () -> read("{\"features\":[{\"properties\":{}}".getBytes(StandardCharsets.UTF_8), 8));
+        assertThrows(UncheckedIOException.class,
+                () -> read("{\"features\":[{,}]}".getBytes(StandardCharsets.UTF_8), 8));
+    }
+}
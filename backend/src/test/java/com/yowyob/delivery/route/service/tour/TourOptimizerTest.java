@@ -0,0 +1,192 @@
+package com.yowyob.delivery.route.service.tour;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourOptimizerTest {
+
+    /** A random instance: stops paired as (pickup, delivery) or left single. */
+    private record Instance(double[] matrix, int n, int[] required) {
+    }
+
+    private static Instance randomInstance(Random random, int stops, boolean euclidean) {
+        int n = stops + 1;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 100;
+            y[i] = random.nextDouble() * 100;
+        }
+        double[] matrix = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    double distance = Math.hypot(x[i] - x[j], y[i] - y[j]);
+                    // Asymmetric costs, as with one-way streets
+                    matrix[i * n + j] = euclidean ? distance : distance * (0.5 + random.nextDouble());
+                }
+            }
+        }
+        int[] required = new int[n];
+        Arrays.fill(required, -1);
+        int[] shuffled = new int[stops];
+        for (int i = 0; i < stops; i++) {
+            shuffled[i] = i + 1;
+        }
+        for (int i = stops - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = tmp;
+        }
+        // Pair most stops; the rest are deliveries of parcels already on board
+        for (int i = 0; i + 1 < stops && random.nextInt(4) != 0; i += 2) {
+            required[shuffled[i + 1]] = shuffled[i];
+        }
+        return new Instance(matrix, n, required);
+    }
+
+    /**
+     * Checks that the order visits every stop once, after the stop it
+     * requires, and returns its cost computed from the matrix.
+     */
+    private static double checkedCost(Instance instance, int[] order, boolean returnToStart) {
+        int n = instance.n();
+        assertEquals(n - 1, order.length, "Every stop must be visited");
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < order.length; i++) {
+            assertTrue(order[i] > 0 && order[i] < n, "Unknown stop " + order[i]);
+            assertEquals(-1, position[order[i]], "Stop " + order[i] + " visited twice");
+            position[order[i]] = i;
+        }
+        for (int s = 1; s < n; s++) {
+            int pickup = instance.required()[s];
+            if (pickup >= 0) {
+                assertTrue(position[pickup] < position[s], "Delivery " + s + " before its pickup " + pickup);
+            }
+        }
+        double cost = 0;
+        int previous = 0;
+        for (int stop : order) {
+            cost += instance.matrix()[previous * n + stop];
+            previous = stop;
+        }
+        if (returnToStart) {
+            cost += instance.matrix()[previous * n];
+        }
+        return cost;
+    }
+
+    /** Cheapest feasible tour by enumerating every order. */
+    private static double bruteForce(Instance instance, boolean returnToStart) {
+        int[] order = new int[instance.n() - 1];
+        return bruteForce(instance, returnToStart, order, 0, new boolean[instance.n()]);
+    }
+
+    private static double bruteForce(Instance instance, boolean returnToStart, int[] order, int depth,
+            boolean[] visited) {
+        int n = instance.n();
+        if (depth == order.length) {
+            double cost = 0;
+            int previous = 0;
+            for (int stop : order) {
+                cost += instance.matrix()[previous * n + stop];
+                previous = stop;
+            }
+            return returnToStart ? cost + instance.matrix()[previous * n] : cost;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int s = 1; s < n; s++) {
+            int pickup = instance.required()[s];
+            if (!visited[s] && (pickup < 0 || visited[pickup])) {
+                visited[s] = true;
+                order[depth] = s;
+                best = Math.min(best, bruteForce(instance, returnToStart, order, depth + 1, visited));
+                visited[s] = false;
+            }
+        }
+        return best;
+    }
+
+    private static long deadline(long millis) {
+        return System.nanoTime() + millis * 1_000_000;
+    }
+
+    @Test
+    void pickupsAlwaysPrecedeDeliveries() {
+        Random random = new Random(17);
+        for (int run = 0; run < 60; run++) {
+            int stops = 1 + random.nextInt(60);
+            boolean returnToStart = random.nextBoolean();
+            Instance instance = randomInstance(random, stops, run % 2 == 0);
+            TourOptimizer optimizer = new TourOptimizer(instance.matrix(), instance.n(), instance.required(),
+                    returnToStart);
+            for (long seed = 0; seed < 3; seed++) {
+                TourOptimizer.Tour tour = optimizer.solve(deadline(10), seed);
+                double cost = checkedCost(instance, tour.order(), returnToStart);
+                assertTrue(optimizer.isFeasible(tour.order()));
+                assertEquals(cost, tour.cost(), 1e-6, "Reported cost");
+                assertEquals(cost, optimizer.cost(tour.order()), 1e-6);
+                assertTrue(tour.cost() <= tour.initialCost() + 1e-6, "The search must not worsen the tour");
+            }
+        }
+    }
+
+    @Test
+    void constructedTourIsFeasibleWithoutSearchTime() {
+        Random random = new Random(23);
+        for (int run = 0; run < 20; run++) {
+            Instance instance = randomInstance(random, 40, false);
+            TourOptimizer optimizer = new TourOptimizer(instance.matrix(), instance.n(), instance.required(), false);
+            TourOptimizer.Tour tour = optimizer.solve(System.nanoTime(), run);
+            checkedCost(instance, tour.order(), false);
+        }
+    }
+
+    @Test
+    void findsOptimumOfSmallTours() {
+        Random random = new Random(29);
+        for (int run = 0; run < 40; run++) {
+            int stops = 2 + random.nextInt(6);
+            boolean returnToStart = run % 2 == 0;
+            Instance instance = randomInstance(random, stops, run % 3 == 0);
+            TourOptimizer optimizer = new TourOptimizer(instance.matrix(), instance.n(), instance.required(),
+                    returnToStart);
+            TourOptimizer.Tour tour = optimizer.solve(deadline(100), run);
+            assertEquals(bruteForce(instance, returnToStart), checkedCost(instance, tour.order(), returnToStart),
+                    1e-6, "Run " + run + " with " + stops + " stops");
+        }
+    }
+
+    @Test
+    void detectsInfeasibleOrders() {
+        double[] matrix = new double[16];
+        int[] required = { -1, -1, 1, -1 };
+        TourOptimizer optimizer = new TourOptimizer(matrix, 4, required, false);
+        assertTrue(optimizer.isFeasible(new int[] { 1, 2, 3 }));
+        assertTrue(optimizer.isFeasible(new int[] { 3, 1, 2 }));
+        assertFalse(optimizer.isFeasible(new int[] { 2, 1, 3 }));
+        assertFalse(optimizer.isFeasible(new int[] { 2, 3 }));
+    }
+
+    @Test
+    void rejectsInvalidPrecedence() {
+        double[] matrix = new double[16];
+        // Chain 1 -> 2 -> 3
+        assertThrows(IllegalArgumentException.class,
+                () -> new TourOptimizer(matrix, 4, new int[] { -1, -1, 1, 2 }, false));
+        // Two deliveries for one pickup
+        assertThrows(IllegalArgumentException.class,
+                () -> new TourOptimizer(matrix, 4, new int[] { -1, -1, 1, 1 }, false));
+        // The start cannot be a pickup
+        assertThrows(IllegalArgumentException.class,
+                () -> new TourOptimizer(matrix, 4, new int[] { -1, 0, -1, -1 }, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TourOptimizer(matrix, 3, new int[] { -1, -1, -1, -1 }, false));
+    }
+}
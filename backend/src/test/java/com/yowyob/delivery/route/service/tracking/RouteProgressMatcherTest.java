@@ -0,0 +1,188 @@
+package com.yowyob.delivery.route.service.tracking;
+
+import com.yowyob.delivery.route.service.geometry.CoordinateBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteProgressMatcherTest {
+
+    private static final double METERS_PER_DEGREE = 6_371_000 * Math.PI / 180;
+
+    /** A random walk around Douala with steps of up to about 80 m. */
+    private static CoordinateBuffer randomWalk(Random random, int size) {
+        CoordinateBuffer line = new CoordinateBuffer(size);
+        double lng = 9.70;
+        double lat = 4.05;
+        double heading = 0;
+        for (int i = 0; i < size; i++) {
+            line.add(lng, lat);
+            heading += random.nextGaussian() * 0.8;
+            double step = random.nextDouble() * 80 / METERS_PER_DEGREE;
+            lng += Math.cos(heading) * step;
+            lat += Math.sin(heading) * step;
+        }
+        return line;
+    }
+
+    /** Straight east-west line of {@code segments} segments of about 111 m each. */
+    private static CoordinateBuffer straightLine(int segments) {
+        CoordinateBuffer line = new CoordinateBuffer();
+        for (int i = 0; i <= segments; i++) {
+            line.add(9.70 + i * 0.001, 4.05);
+        }
+        return line;
+    }
+
+    /** Distance to the nearest segment by scanning the whole path, in the projection of the matcher. */
+    private static double scanDistance(CoordinateBuffer path, double lng, double lat) {
+        double kx = METERS_PER_DEGREE * Math.cos(Math.toRadians((path.y(0) + path.y(path.size() - 1)) / 2));
+        double px = lng * kx;
+        double py = lat * METERS_PER_DEGREE;
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            double ax = path.x(i) * kx;
+            double ay = path.y(i) * METERS_PER_DEGREE;
+            double dx = path.x(i + 1) * kx - ax;
+            double dy = path.y(i + 1) * METERS_PER_DEGREE - ay;
+            double lengthSq = dx * dx + dy * dy;
+            double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSq));
+            best = Math.min(best, Math.hypot(px - ax - t * dx, py - ay - t * dy));
+        }
+        return best;
+    }
+
+    @Test
+    void matchesNearestSegmentLikeAFullScan() {
+        Random random = new Random(41);
+        for (int run = 0; run < 10; run++) {
+            CoordinateBuffer path = randomWalk(random, 2 + random.nextInt(500));
+            RouteProgressMatcher matcher = new RouteProgressMatcher(path);
+            for (int probe = 0; probe < 200; probe++) {
+                int vertex = random.nextInt(path.size());
+                double lng = path.x(vertex) + (random.nextDouble() - 0.5) * 0.004;
+                double lat = path.y(vertex) + (random.nextDouble() - 0.5) * 0.004;
+                RouteProgressMatcher.Match match = matcher.match(lng, lat, -1);
+                assertEquals(scanDistance(path, lng, lat), match.distanceMeters(), 1e-6,
+                        "Run " + run + " probe " + probe);
+                assertTrue(match.alongMeters() >= 0 && match.alongMeters() <= matcher.lengthMeters() + 1e-6);
+                // The linear location designates the snapped point
+                int segment = match.location().getSegmentIndex();
+                double fraction = match.location().getSegmentFraction();
+                int next = Math.min(segment + 1, path.size() - 1);
+                assertEquals(path.x(segment) + fraction * (path.x(next) - path.x(segment)), match.snappedLongitude(),
+                        1e-9);
+                assertEquals(path.y(segment) + fraction * (path.y(next) - path.y(segment)), match.snappedLatitude(),
+                        1e-9);
+            }
+        }
+    }
+
+    @Test
+    void snapsOntoThePath() {
+        RouteProgressMatcher matcher = new RouteProgressMatcher(straightLine(10));
+        // About 22 m north of the middle of the third segment
+        RouteProgressMatcher.Match match = matcher.match(9.7025, 4.0502, -1);
+        assertEquals(2, match.location().getSegmentIndex());
+        assertEquals(0.5, match.location().getSegmentFraction(), 1e-9);
+        assertEquals(0.0002 * METERS_PER_DEGREE, match.distanceMeters(), 1e-6);
+        assertEquals(9.7025, match.snappedLongitude(), 1e-12);
+        assertEquals(4.05, match.snappedLatitude(), 1e-12);
+        assertEquals(matcher.lengthMeters() / 4, match.alongMeters(), 1e-6);
+
+        // Before the start: clamped to the first vertex
+        RouteProgressMatcher.Match before = matcher.match(9.69, 4.05, -1);
+        assertEquals(0, before.alongMeters(), 0);
+        assertEquals(9.70, before.snappedLongitude(), 1e-12);
+    }
+
+    @Test
+    void lengthIsTheSumOfSegments() {
+        RouteProgressMatcher matcher = new RouteProgressMatcher(straightLine(10));
+        double expected = 0.01 * METERS_PER_DEGREE * Math.cos(Math.toRadians(4.05));
+        assertEquals(expected, matcher.lengthMeters(), 1e-6);
+    }
+
+    @Test
+    void hintKeepsTheMatchOnTheCurrentLeg() {
+        // Out along the line, then back 10 m further north: both legs are within the ambiguity distance
+        CoordinateBuffer path = new CoordinateBuffer();
+        path.add(9.700, 4.05);
+        path.add(9.710, 4.05);
+        path.add(9.710, 4.05009);
+        path.add(9.700, 4.05009);
+        RouteProgressMatcher matcher = new RouteProgressMatcher(path);
+        double outLength = 0.01 * METERS_PER_DEGREE * Math.cos(Math.toRadians(4.050045));
+
+        // Slightly closer to the outbound leg, but the previous match was on the way back
+        RouteProgressMatcher.Match back = matcher.match(9.705, 4.05004, outLength + 200);
+        assertEquals(2, back.location().getSegmentIndex());
+        assertTrue(back.alongMeters() > outLength, "Must stay on the return leg");
+
+        RouteProgressMatcher.Match out = matcher.match(9.705, 4.05004, 100);
+        assertEquals(0, out.location().getSegmentIndex());
+        assertEquals(0, matcher.match(9.705, 4.05004, -1).location().getSegmentIndex(),
+                "Without a hint the nearest leg wins");
+    }
+
+    @Test
+    void hintDoesNotOverrideDistantSegments() {
+        // Return leg about 220 m away, well beyond the ambiguity distance
+        CoordinateBuffer path = new CoordinateBuffer();
+        path.add(9.700, 4.05);
+        path.add(9.710, 4.05);
+        path.add(9.710, 4.052);
+        path.add(9.700, 4.052);
+        RouteProgressMatcher matcher = new RouteProgressMatcher(path);
+        RouteProgressMatcher.Match match = matcher.match(9.705, 4.0501, matcher.lengthMeters() - 500);
+        assertEquals(0, match.location().getSegmentIndex());
+    }
+
+    @Test
+    void remainingStartsAtTheMatchedPoint() {
+        CoordinateBuffer path = straightLine(4);
+        RouteProgressMatcher matcher = new RouteProgressMatcher(path);
+        CoordinateBuffer remaining = matcher.remaining(matcher.match(9.7015, 4.0501, -1));
+        assertEquals(4, remaining.size());
+        assertEquals(9.7015, remaining.x(0), 1e-12);
+        assertEquals(4.05, remaining.y(0), 1e-12);
+        assertEquals(path.x(4), remaining.x(3), 0);
+
+        CoordinateBuffer atEnd = matcher.remaining(matcher.match(9.71, 4.05, -1));
+        assertEquals(path.x(4), atEnd.x(atEnd.size() - 1), 0);
+    }
+
+    @Test
+    void findsLastPathPointNearAnIncident() {
+        RouteProgressMatcher matcher = new RouteProgressMatcher(straightLine(10));
+        double segment = matcher.lengthMeters() / 10;
+        // Crosses the path in the fourth segment
+        assertEquals(4 * segment, matcher.lastAlongNear(9.7035, 4.049, 9.7035, 4.051, 10), 1e-6);
+        // Runs along segments 6 to 8, 20 m away
+        double offset = 20 / METERS_PER_DEGREE;
+        assertEquals(9 * segment,
+                matcher.lastAlongNear(9.7062, 4.05 + offset, 9.7085, 4.05 + offset, 25), 1e-6);
+        assertEquals(-1, matcher.lastAlongNear(9.7062, 4.05 + offset, 9.7085, 4.05 + offset, 15), 0);
+    }
+
+    @Test
+    void rejectsPathsWithoutSegments() {
+        CoordinateBuffer single = new CoordinateBuffer();
+        single.add(9.70, 4.05);
+        assertThrows(IllegalArgumentException.class, () -> new RouteProgressMatcher(single));
+    }
+
+    @Test
+    void handlesRepeatedVertices() {
+        CoordinateBuffer path = new CoordinateBuffer();
+        path.add(9.70, 4.05);
+        path.add(9.70, 4.05);
+        path.add(9.71, 4.05);
+        RouteProgressMatcher matcher = new RouteProgressMatcher(path);
+        RouteProgressMatcher.Match match = matcher.match(9.699, 4.05, -1);
+        assertEquals(0, match.alongMeters(), 0);
+        assertFalse(Double.isNaN(match.distanceMeters()));
+    }
+}
@@ -236,7 +236,7 @@ export const LogisticsService = {
 
   getAllHubs: async (): Promise<GeoPointResponse[]> => {
     try {
-      const response = await apiClient.get<GeoPointResponse[]>('/hubs');
+      const response = await apiClient.get<GeoPointResponse[]>('/hubs', { params: { view: 'FULL' } });
       return response.data;
     } catch (error) {
       console.error('Error fetching hubs:', error);
@@ -271,7 +271,7 @@ export const LogisticsService = {
 
   getAllParcels: async (): Promise<ParcelResponse[]> => {
     try {
-      const response = await apiClient.get<ParcelResponse[]>('/parcels');
+      const response = await apiClient.get<ParcelResponse[]>('/parcels', { params: { view: 'FULL' } });
       return response.data;
     } catch (error) {
       console.error('Error fetching parcels:', error);
@@ -353,8 +353,10 @@ export const LogisticsService = {
     }
   },
 
-  getRoute: async (id: string): Promise<RouteResponse> => {
-    const response = await apiClient.get<RouteResponse>(`/routes/${id}`);
+  getRoute: async (id: string, toleranceMeters?: number): Promise<RouteResponse> => {
+    const response = await apiClient.get<RouteResponse>(`/routes/${id}`, {
+      params: toleranceMeters ? { tolerance: toleranceMeters } : undefined,
+    });
     return response.data;
   },
 
@@ -399,8 +401,11 @@ export const LogisticsService = {
     return response.data;
   },
 
-  getDeliveryTracking: async (id: string): Promise<RouteResponse> => {
-    const response = await apiClient.get<RouteResponse>(`/deliveries/${id}/tracking`);
+  // toleranceMeters: returns a simplified path (e.g. 25 for overview maps) instead of the full geometry
+  getDeliveryTracking: async (id: string, toleranceMeters?: number): Promise<RouteResponse> => {
+    const response = await apiClient.get<RouteResponse>(`/deliveries/${id}/tracking`, {
+      params: toleranceMeters ? { tolerance: toleranceMeters } : undefined,
+    });
     return response.data;
   },
 };